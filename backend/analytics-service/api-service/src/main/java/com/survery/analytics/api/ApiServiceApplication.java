@@ -3,9 +3,14 @@ package com.survery.analytics.api;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.context.annotation.Bean;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import java.time.Clock;
 
 @SpringBootApplication
+@EnableScheduling
 @EntityScan("com.survery.analytics.domain")
 @EnableJpaRepositories(basePackages = {"com.survery.analytics.api.repository"})
 public class ApiServiceApplication {
@@ -14,4 +19,9 @@ public class ApiServiceApplication {
         SpringApplication.run(ApiServiceApplication.class, args);
     }
 
+    @Bean
+    public Clock clock() {
+        return Clock.systemUTC();
+    }
+
 }
@@ -0,0 +1,281 @@
+package com.survery.analytics.api.answers;
+
+import com.survery.analytics.api.dto.AnswerDistributionDto;
+import com.survery.analytics.domain.LocationLevel;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.IntStream;
+
+/**
+ * The answers to one question across every survey, dictionary-encoded: every row is one survey's
+ * answer, an {@code int} option code plus one {@code int} code per {@link LocationLevel} of where
+ * the survey was taken, kept in primitive arrays. Histograms, location filters and cross-tabs are
+ * single passes over those arrays.
+ * <p>
+ * A column is first filled from the database in a {@link PgSnapshot}, while changes that arrive
+ * meanwhile are held back. Once loaded, only changes of transactions the snapshot did not see
+ * are applied, so each response is counted once whether it came from the load or a change.
+ */
+final class AnswerColumn {
+
+    /**
+     * Upper bound on the cells of one cross-tab, so a free-text question broken down by village
+     * cannot exhaust the heap.
+     */
+    static final int MAX_CROSS_TAB_CELLS = 1 << 22;
+
+    private static final int LEVELS = LocationLevel.values().length;
+
+    final String questionId;
+    final long createdNanos;
+    final CompletableFuture<AnswerColumn> ready = new CompletableFuture<>();
+    volatile long lastReadNanos;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Dictionary<String> options = new Dictionary<>();
+    private final List<Dictionary<UUID>> locations = new ArrayList<>(LEVELS);
+    private int[] optionCodes = new int[64];
+    private final int[][] locationCodes = new int[LEVELS][64];
+    private int size;
+    private PgSnapshot snapshot;
+    private List<Pending> pending = new ArrayList<>();
+
+    AnswerColumn(String questionId, long nowNanos) {
+        this.questionId = questionId;
+        this.createdNanos = nowNanos;
+        this.lastReadNanos = nowNanos;
+        for (int i = 0; i < LEVELS; i++) {
+            locations.add(new Dictionary<>());
+        }
+    }
+
+    /**
+     * Adds a row read from the database while loading.
+     */
+    void load(String value, UUID villageId, UUID panchayatId, UUID constituencyId) {
+        lock.writeLock().lock();
+        try {
+            append(value, villageId, panchayatId, constituencyId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ends loading: applies the held-back changes the snapshot did not contain and releases the
+     * readers waiting for {@link #ready}.
+     */
+    void loaded(PgSnapshot loadSnapshot) {
+        lock.writeLock().lock();
+        try {
+            snapshot = loadSnapshot;
+            for (Pending change : pending) {
+                if (!snapshot.contains(change.transactionId)) {
+                    append(change.value, change.villageId, change.panchayatId, change.constituencyId);
+                }
+            }
+            pending = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        ready.complete(this);
+    }
+
+    /**
+     * Adds a response announced by the loader, unless the load already read it.
+     */
+    void apply(long transactionId, String value, UUID villageId, UUID panchayatId, UUID constituencyId) {
+        lock.writeLock().lock();
+        try {
+            if (snapshot == null) {
+                pending.add(new Pending(transactionId, value, villageId, panchayatId, constituencyId));
+            } else if (!snapshot.contains(transactionId)) {
+                append(value, villageId, panchayatId, constituencyId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Counts the answers of the surveys taken within every given location, and per location of
+     * {@code breakdown} if it is not null. Null locations do not filter.
+     */
+    AnswerDistributionDto distribution(LocationLevel breakdown, UUID villageId, UUID panchayatId, UUID constituencyId) {
+        lock.readLock().lock();
+        try {
+            boolean[] rows = matching(villageId, panchayatId, constituencyId);
+            int optionCount = options.size();
+            long[] totals = new long[optionCount];
+            long total = 0;
+            for (int i = 0; i < size; i++) {
+                if (rows == null || rows[i]) {
+                    totals[optionCodes[i]]++;
+                    total++;
+                }
+            }
+            // Most frequent first; rank[code] is the option's position in the response.
+            int[] order = IntStream.range(0, optionCount).boxed()
+                    .sorted(Comparator.comparingLong((Integer code) -> -totals[code]).thenComparing(code -> code))
+                    .mapToInt(Integer::intValue).toArray();
+            int[] rank = new int[optionCount];
+            List<AnswerDistributionDto.Option> result = new ArrayList<>(optionCount);
+            for (int position = 0; position < optionCount; position++) {
+                rank[order[position]] = position;
+                int code = order[position];
+                if (totals[code] > 0) {
+                    result.add(new AnswerDistributionDto.Option(options.value(code), totals[code]));
+                }
+            }
+            return new AnswerDistributionDto(questionId, total, result, breakdown,
+                    breakdown == null ? null : crossTab(breakdown, rank, result.size(), rows));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Which rows lie within every given location, or null if none is given.
+     */
+    private boolean[] matching(UUID villageId, UUID panchayatId, UUID constituencyId) {
+        if (villageId == null && panchayatId == null && constituencyId == null) {
+            return null;
+        }
+        boolean[] rows = new boolean[size];
+        Arrays.fill(rows, true);
+        restrict(rows, LocationLevel.VILLAGE, villageId);
+        restrict(rows, LocationLevel.PANCHAYAT, panchayatId);
+        restrict(rows, LocationLevel.CONSTITUENCY, constituencyId);
+        return rows;
+    }
+
+    private void restrict(boolean[] rows, LocationLevel level, UUID locationId) {
+        if (locationId == null) {
+            return;
+        }
+        int code = locations.get(level.ordinal()).find(locationId);
+        int[] codes = locationCodes[level.ordinal()];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] &= codes[i] == code;
+        }
+    }
+
+    /**
+     * @param optionCount options with at least one matching answer, which are ranked first
+     */
+    private List<AnswerDistributionDto.LocationCounts> crossTab(LocationLevel level, int[] rank, int optionCount,
+                                                                boolean[] matching) {
+        Dictionary<UUID> dictionary = locations.get(level.ordinal());
+        int[] codes = locationCodes[level.ordinal()];
+        // Only locations with a matching row get a line, so a filter keeps the cross-tab small.
+        int[] line = new int[dictionary.size()];
+        Arrays.fill(line, -1);
+        List<UUID> lineLocations = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            if ((matching == null || matching[i]) && line[codes[i]] < 0) {
+                line[codes[i]] = lineLocations.size();
+                lineLocations.add(dictionary.value(codes[i]));
+            }
+        }
+        if ((long) lineLocations.size() * optionCount > MAX_CROSS_TAB_CELLS) {
+            throw new IllegalArgumentException("Breakdown by " + level + " would have " + lineLocations.size() + " x "
+                    + optionCount + " cells, more than " + MAX_CROSS_TAB_CELLS);
+        }
+        long[][] counts = new long[lineLocations.size()][optionCount];
+        for (int i = 0; i < size; i++) {
+            if (matching == null || matching[i]) {
+                counts[line[codes[i]]][rank[optionCodes[i]]]++;
+            }
+        }
+        List<AnswerDistributionDto.LocationCounts> rows = new ArrayList<>(counts.length);
+        for (int location = 0; location < counts.length; location++) {
+            rows.add(new AnswerDistributionDto.LocationCounts(lineLocations.get(location),
+                    Arrays.stream(counts[location]).sum(), counts[location]));
+        }
+        rows.sort(Comparator.comparingLong(AnswerDistributionDto.LocationCounts::getTotal).reversed());
+        return rows;
+    }
+
+    private void append(String value, UUID villageId, UUID panchayatId, UUID constituencyId) {
+        if (size == optionCodes.length) {
+            int capacity = size * 2;
+            optionCodes = Arrays.copyOf(optionCodes, capacity);
+            for (int i = 0; i < LEVELS; i++) {
+                locationCodes[i] = Arrays.copyOf(locationCodes[i], capacity);
+            }
+        }
+        optionCodes[size] = options.code(value);
+        locationCodes[LocationLevel.VILLAGE.ordinal()][size] = locations.get(LocationLevel.VILLAGE.ordinal()).code(villageId);
+        locationCodes[LocationLevel.PANCHAYAT.ordinal()][size] = locations.get(LocationLevel.PANCHAYAT.ordinal()).code(panchayatId);
+        locationCodes[LocationLevel.CONSTITUENCY.ordinal()][size] =
+                locations.get(LocationLevel.CONSTITUENCY.ordinal()).code(constituencyId);
+        size++;
+    }
+
+    /**
+     * Maps values to dense codes in order of first appearance.
+     */
+    private static final class Dictionary<T> {
+        private final Map<T, Integer> codes = new HashMap<>();
+        private final List<T> values = new ArrayList<>();
+
+        int code(T value) {
+            Integer code = codes.get(value);
+            if (code == null) {
+                code = values.size();
+                codes.put(value, code);
+                values.add(value);
+            }
+            return code;
+        }
+
+        /**
+         * The code of {@code value}, or -1 if it has none.
+         */
+        int find(T value) {
+            Integer code = codes.get(value);
+            return code == null ? -1 : code;
+        }
+
+        T value(int code) {
+            return values.get(code);
+        }
+
+        int size() {
+            return values.size();
+        }
+    }
+
+    private static final class Pending {
+        final long transactionId;
+        final String value;
+        final UUID villageId;
+        final UUID panchayatId;
+        final UUID constituencyId;
+
+        Pending(long transactionId, String value, UUID villageId, UUID panchayatId, UUID constituencyId) {
+            this.transactionId = transactionId;
+            this.value = value;
+            this.villageId = villageId;
+            this.panchayatId = panchayatId;
+            this.constituencyId = constituencyId;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.survery.analytics.api.answers;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.util.UUID;
+
+/**
+ * Fills an {@link AnswerColumn} from the {@code responses} of every survey to its question. The
+ * snapshot and the rows are read in one repeatable-read transaction, so the snapshot describes
+ * exactly the rows that were loaded. The rows are streamed through a cursor rather than
+ * materialised.
+ */
+@Component
+class AnswerColumnLoader {
+
+    static final String SNAPSHOT = "SELECT CAST(pg_current_snapshot() AS text)";
+    static final String ANSWERS = "SELECT CAST(r.response_value AS text), s.village_id, s.panchayat_id, s.constituency_id "
+            + "FROM responses r JOIN surveys s ON s.survey_id = r.survey_id "
+            + "WHERE r.question_id = ?";
+
+    private static final ObjectMapper CANONICAL = new ObjectMapper()
+            .configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int fetchSize;
+
+    AnswerColumnLoader(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                       @Value("${api.answers.fetch-size:10000}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.transactionTemplate.setReadOnly(true);
+        this.fetchSize = fetchSize;
+    }
+
+    void load(AnswerColumn column) {
+        PgSnapshot snapshot = transactionTemplate.execute(status -> {
+            // The first statement fixes the transaction's snapshot for the query that follows.
+            PgSnapshot taken = PgSnapshot.parse(jdbcTemplate.queryForObject(SNAPSHOT, String.class));
+            jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(ANSWERS);
+                statement.setFetchSize(fetchSize);
+                statement.setString(1, column.questionId);
+                return statement;
+            }, rs -> {
+                column.load(canonical(rs.getString(1)), rs.getObject(2, UUID.class), rs.getObject(3, UUID.class),
+                        rs.getObject(4, UUID.class));
+            });
+            return taken;
+        });
+        column.loaded(snapshot);
+    }
+
+    /**
+     * One text per JSON value, whether it came from a jsonb column, which reorders keys and adds
+     * whitespace, or from the loader's change stream.
+     */
+    static String canonical(String json) {
+        try {
+            return CANONICAL.writeValueAsString(CANONICAL.readValue(json, Object.class));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid response value: " + json, e);
+        }
+    }
+}
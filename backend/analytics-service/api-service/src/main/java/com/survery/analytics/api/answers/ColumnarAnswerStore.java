@@ -0,0 +1,131 @@
+package com.survery.analytics.api.answers;
+
+import com.survery.analytics.api.changes.AnalyticsChangeHandler;
+import com.survery.analytics.api.dto.AnswerDistributionDto;
+import com.survery.analytics.domain.LocationLevel;
+import com.survery.analytics.domain.wire.AnalyticsChange;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * In-memory {@link AnswerColumn}s per question, for answer distributions without reading or
+ * parsing {@code response_value} in PostgreSQL on every request. A survey is one submission with
+ * one answer per question, so a column holds the answers of every survey, filtered and broken
+ * down by where the surveys were taken. A column is loaded on first use and then kept current
+ * from the loader's change stream.
+ * <p>
+ * Columns unused for {@code api.answers.idle-ttl} are dropped, and columns older than
+ * {@code api.answers.max-age} are rebuilt on their next use, which also repairs any change
+ * notification that was lost. A bulk load resets every column.
+ */
+@Component
+public class ColumnarAnswerStore implements AnalyticsChangeHandler {
+
+    private static final Logger log = LoggerFactory.getLogger(ColumnarAnswerStore.class);
+
+    private final ConcurrentMap<String, AnswerColumn> columns = new ConcurrentHashMap<>();
+    private final AnswerColumnLoader loader;
+    private final long idleTtlNanos;
+    private final long maxAgeNanos;
+    private final long loadTimeoutNanos;
+
+    public ColumnarAnswerStore(AnswerColumnLoader loader,
+                               @Value("${api.answers.idle-ttl:30m}") Duration idleTtl,
+                               @Value("${api.answers.max-age:1h}") Duration maxAge,
+                               @Value("${api.answers.load-timeout:30s}") Duration loadTimeout) {
+        this.loader = loader;
+        this.idleTtlNanos = idleTtl.toNanos();
+        this.maxAgeNanos = maxAge.toNanos();
+        this.loadTimeoutNanos = loadTimeout.toNanos();
+    }
+
+    /**
+     * @throws IllegalArgumentException if the breakdown would be too large
+     * @throws IllegalStateException if the column could not be loaded in time
+     */
+    public AnswerDistributionDto distribution(String questionId, LocationLevel breakdown, UUID villageId,
+                                              UUID panchayatId, UUID constituencyId) {
+        return column(questionId).distribution(breakdown, villageId, panchayatId, constituencyId);
+    }
+
+    int columnCount() {
+        return columns.size();
+    }
+
+    AnswerColumn column(String questionId) {
+        long now = System.nanoTime();
+        AnswerColumn column = columns.get(questionId);
+        if (column != null && column.ready.isDone() && now - column.createdNanos > maxAgeNanos) {
+            columns.remove(questionId, column);
+            column = null;
+        }
+        if (column == null) {
+            AnswerColumn created = new AnswerColumn(questionId, now);
+            column = columns.putIfAbsent(questionId, created);
+            if (column == null) {
+                column = created;
+                load(created);
+            }
+        }
+        column.lastReadNanos = now;
+        try {
+            return column.ready.get(loadTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while loading answers to " + questionId, e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new IllegalStateException("Answers to " + questionId + " are not available", e);
+        }
+    }
+
+    private void load(AnswerColumn column) {
+        try {
+            long start = System.nanoTime();
+            loader.load(column);
+            log.debug("Loaded {} answers to {} in {} ms", column.size(), column.questionId,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (RuntimeException e) {
+            columns.remove(column.questionId, column);
+            column.ready.completeExceptionally(e);
+            log.warn("Could not load answers to {}", column.questionId, e);
+        }
+    }
+
+    @Override
+    public void onChange(AnalyticsChange change) {
+        if (change.isReset()) {
+            columns.clear();
+            return;
+        }
+        if (columns.isEmpty()) {
+            return;
+        }
+        for (AnalyticsChange.SurveyChange survey : change.getSurveys()) {
+            for (AnalyticsChange.ResponseChange response : survey.getResponses()) {
+                AnswerColumn column = columns.get(response.getQuestionId());
+                if (column != null) {
+                    column.apply(change.getTransactionId(), AnswerColumnLoader.canonical(response.getResponseValue()),
+                            survey.getVillageId(), survey.getPanchayatId(), survey.getConstituencyId());
+                }
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${api.answers.eviction-interval-ms:60000}")
+    public void evict() {
+        long now = System.nanoTime();
+        columns.values().removeIf(column -> column.ready.isDone()
+                && (now - column.lastReadNanos > idleTtlNanos || now - column.createdNanos > maxAgeNanos));
+    }
+}
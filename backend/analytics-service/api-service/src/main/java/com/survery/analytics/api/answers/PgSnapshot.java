@@ -0,0 +1,42 @@
+package com.survery.analytics.api.answers;
+
+import java.util.Arrays;
+
+/**
+ * A PostgreSQL MVCC snapshot in the text form of {@code pg_current_snapshot()}:
+ * {@code xmin:xmax:xip,...}. Tells whether the rows of a committed transaction were visible to
+ * the query that ran in the snapshot.
+ */
+final class PgSnapshot {
+
+    private final long xmin;
+    private final long xmax;
+    private final long[] inProgress;
+
+    private PgSnapshot(long xmin, long xmax, long[] inProgress) {
+        this.xmin = xmin;
+        this.xmax = xmax;
+        this.inProgress = inProgress;
+    }
+
+    static PgSnapshot parse(String text) {
+        String[] parts = text.split(":", -1);
+        if (parts.length != 3) {
+            throw new IllegalArgumentException("Malformed snapshot: " + text);
+        }
+        long[] inProgress = parts[2].isEmpty()
+                ? new long[0]
+                : Arrays.stream(parts[2].split(",")).mapToLong(Long::parseLong).sorted().toArray();
+        return new PgSnapshot(Long.parseLong(parts[0]), Long.parseLong(parts[1]), inProgress);
+    }
+
+    /**
+     * Whether a transaction that has since committed had committed before the snapshot was taken.
+     */
+    boolean contains(long transactionId) {
+        if (transactionId < xmin) {
+            return true;
+        }
+        return transactionId < xmax && Arrays.binarySearch(inProgress, transactionId) < 0;
+    }
+}
@@ -0,0 +1,17 @@
+package com.survery.analytics.api.cache;
+
+import lombok.Value;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * One cached query: the endpoint, the survey its result depends on, or null if it depends on
+ * every survey, and the remaining parameters in a fixed order.
+ */
+@Value
+class QueryKey {
+    String endpoint;
+    UUID surveyId;
+    List<Object> parameters;
+}
@@ -0,0 +1,333 @@
+package com.survery.analytics.api.cache;
+
+import com.survery.analytics.api.changes.AnalyticsChangeHandler;
+import com.survery.analytics.domain.wire.AnalyticsChange;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Results of the analytics queries, keyed by endpoint and parameters, so that dashboards
+ * repeating the same query share one database read. An entry is dropped as soon as the loader
+ * reports new rows for its survey; entries that depend on every survey are dropped on any change,
+ * and a bulk load drops everything. Entries are grouped by survey, so a change only touches the
+ * groups it names. {@code api.cache.max-age} bounds what a lost change notification, or a range
+ * relative to the current time, can leave stale. A miss on a full cache drops an expired or the
+ * least recently read entry among a few it samples.
+ * <p>
+ * Reads may be served by a replica up to {@code api.datasource.max-replica-lag} behind the
+ * primary, so a query run right after a change may not see it yet. For that long after a change,
+ * its results are returned without being cached, so a stale read cannot stay pinned for
+ * {@code api.cache.max-age}.
+ * <p>
+ * Concurrent misses for the same key are coalesced: the first caller runs the query and the
+ * others wait for its result, for at most {@code api.cache.wait-timeout}. Failures are passed to
+ * every waiter and not cached.
+ */
+@Component
+public class QueryResultCache implements AnalyticsChangeHandler {
+
+    /**
+     * Group of the entries that depend on every survey: the nil UUID, which no survey has.
+     */
+    private static final UUID ALL_SURVEYS = new UUID(0, 0);
+
+    static final int EVICTION_SAMPLE = 8;
+
+    private final ConcurrentMap<UUID, ConcurrentMap<QueryKey, Entry>> entries = new ConcurrentHashMap<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final ConcurrentMap<UUID, Long> changedNanos = new ConcurrentHashMap<>();
+    private volatile long resetNanos;
+    private final long maxAgeNanos;
+    private final int maxEntries;
+    private final long waitTimeoutNanos;
+    private final long settleNanos;
+    private final Counter hits;
+    private final Counter coalesced;
+    private final Counter misses;
+    private final Counter invalidations;
+    private final Timer staleness;
+
+    public QueryResultCache(@Value("${api.cache.max-age:5m}") Duration maxAge,
+                            @Value("${api.cache.max-entries:10000}") int maxEntries,
+                            @Value("${api.cache.wait-timeout:30s}") Duration waitTimeout,
+                            @Value("${api.datasource.max-replica-lag:5s}") Duration settleTime,
+                            MeterRegistry meterRegistry) {
+        this.maxAgeNanos = maxAge.toNanos();
+        this.maxEntries = maxEntries;
+        this.waitTimeoutNanos = waitTimeout.toNanos();
+        this.settleNanos = settleTime.toNanos();
+        this.resetNanos = System.nanoTime() - settleNanos - 1;
+        this.hits = requestCounter(meterRegistry, "hit");
+        this.coalesced = requestCounter(meterRegistry, "coalesced");
+        this.misses = requestCounter(meterRegistry, "miss");
+        this.invalidations = Counter.builder("api.cache.invalidations")
+                .description("Cached results dropped because the loader committed rows they depend on")
+                .register(meterRegistry);
+        this.staleness = Timer.builder("api.cache.staleness")
+                .description("Age of the cached result served on a hit")
+                .register(meterRegistry);
+        Gauge.builder("api.cache.hit.ratio", this, QueryResultCache::hitRatio)
+                .description("Share of requests answered without running their query, coalesced ones included")
+                .register(meterRegistry);
+        Gauge.builder("api.cache.size", size, AtomicInteger::get)
+                .description("Cached results")
+                .register(meterRegistry);
+    }
+
+    private static Counter requestCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("api.cache.requests")
+                .description("Cacheable requests; coalesced ones waited for an identical query in flight")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * The cached result of {@code endpoint} with {@code parameters}, or the result of
+     * {@code query}, which is cached until a change of {@code surveyId} or, if that is null, of
+     * any survey.
+     *
+     * @throws IllegalStateException if an identical query in flight did not finish in time
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String endpoint, UUID surveyId, Supplier<T> query, Object... parameters) {
+        UUID group = surveyId == null ? ALL_SURVEYS : surveyId;
+        QueryKey key = new QueryKey(endpoint, surveyId, Arrays.asList(parameters));
+        long now = System.nanoTime();
+        ConcurrentMap<QueryKey, Entry> groupEntries = entries.get(group);
+        Entry entry = groupEntries == null ? null : groupEntries.get(key);
+        if (entry != null && entry.isExpired(now, maxAgeNanos)) {
+            remove(group, key, entry);
+            entry = null;
+        }
+        if (entry == null) {
+            if (isSettling(group, now)) {
+                misses.increment();
+                return query.get();
+            }
+            if (size.get() >= maxEntries) {
+                makeRoom(now);
+            }
+            Entry created = new Entry(now);
+            entry = putIfAbsent(group, key, created);
+            if (entry == null) {
+                misses.increment();
+                return compute(group, key, created, query);
+            }
+        }
+        entry.lastReadNanos = now;
+        if (entry.result.isDone()) {
+            hits.increment();
+            staleness.record(now - entry.completedNanos, TimeUnit.NANOSECONDS);
+        } else {
+            coalesced.increment();
+        }
+        try {
+            return (T) entry.result.get(waitTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Query " + key + " failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for query " + key, e);
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Query " + key + " did not finish in time", e);
+        }
+    }
+
+    /**
+     * Groups are only changed inside {@code compute}, so an entry is never added to a group that
+     * a change has just dropped.
+     */
+    private Entry putIfAbsent(UUID group, QueryKey key, Entry created) {
+        Entry[] existing = new Entry[1];
+        entries.compute(group, (id, groupEntries) -> {
+            if (groupEntries == null) {
+                groupEntries = new ConcurrentHashMap<>();
+            }
+            existing[0] = groupEntries.putIfAbsent(key, created);
+            if (existing[0] == null) {
+                size.incrementAndGet();
+            }
+            return groupEntries;
+        });
+        return existing[0];
+    }
+
+    private void remove(UUID group, QueryKey key, Entry entry) {
+        entries.computeIfPresent(group, (id, groupEntries) -> {
+            if (groupEntries.remove(key, entry)) {
+                size.decrementAndGet();
+            }
+            return groupEntries.isEmpty() ? null : groupEntries;
+        });
+    }
+
+    private <T> T compute(UUID group, QueryKey key, Entry entry, Supplier<T> query) {
+        T value;
+        try {
+            value = query.get();
+        } catch (RuntimeException e) {
+            remove(group, key, entry);
+            entry.result.completeExceptionally(e);
+            throw e;
+        }
+        entry.completedNanos = System.nanoTime();
+        entry.result.complete(value);
+        return value;
+    }
+
+    int size() {
+        return size.get();
+    }
+
+    /**
+     * Whether a change of {@code group} may not have reached every replica yet.
+     */
+    private boolean isSettling(UUID group, long now) {
+        if (now - resetNanos <= settleNanos) {
+            return true;
+        }
+        Long changed = changedNanos.get(group);
+        return changed != null && now - changed <= settleNanos;
+    }
+
+    double hitRatio() {
+        double answered = hits.count() + coalesced.count();
+        double total = answered + misses.count();
+        return total == 0 ? Double.NaN : answered / total;
+    }
+
+    /**
+     * Drops the entries a change makes stale. Queries still running keep their entry until they
+     * finish, but it is no longer in the map, so later requests read the committed rows.
+     */
+    @Override
+    public void onChange(AnalyticsChange change) {
+        // Marked before the entries are dropped, so a request that misses them does not cache.
+        markChanged(change);
+        if (size.get() == 0) {
+            return;
+        }
+        if (change.isReset()) {
+            for (UUID group : entries.keySet()) {
+                drop(group);
+            }
+            return;
+        }
+        drop(ALL_SURVEYS);
+        for (AnalyticsChange.SurveyChange survey : change.getSurveys()) {
+            drop(survey.getSurveyId());
+        }
+    }
+
+    private void markChanged(AnalyticsChange change) {
+        if (settleNanos <= 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        if (change.isReset()) {
+            resetNanos = now;
+            return;
+        }
+        changedNanos.put(ALL_SURVEYS, now);
+        for (AnalyticsChange.SurveyChange survey : change.getSurveys()) {
+            changedNanos.put(survey.getSurveyId(), now);
+        }
+    }
+
+    private void drop(UUID group) {
+        ConcurrentMap<QueryKey, Entry> dropped = entries.remove(group);
+        if (dropped != null) {
+            size.addAndGet(-dropped.size());
+            invalidations.increment(dropped.size());
+        }
+    }
+
+    /**
+     * Drops the expired entries among the first {@link #EVICTION_SAMPLE}, or the least recently read
+     * of them if none has expired, so a miss on a full cache costs the same however large it is.
+     * Queries still running are left alone.
+     */
+    private void makeRoom(long now) {
+        UUID oldestGroup = null;
+        QueryKey oldestKey = null;
+        Entry oldest = null;
+        int sampled = 0;
+        boolean expired = false;
+        for (Map.Entry<UUID, ConcurrentMap<QueryKey, Entry>> group : entries.entrySet()) {
+            for (Map.Entry<QueryKey, Entry> candidate : group.getValue().entrySet()) {
+                if (sampled++ == EVICTION_SAMPLE) {
+                    break;
+                }
+                Entry entry = candidate.getValue();
+                if (entry.isExpired(now, maxAgeNanos)) {
+                    remove(group.getKey(), candidate.getKey(), entry);
+                    expired = true;
+                } else if (entry.result.isDone()
+                        && (oldest == null || entry.lastReadNanos - oldest.lastReadNanos < 0)) {
+                    oldestGroup = group.getKey();
+                    oldestKey = candidate.getKey();
+                    oldest = entry;
+                }
+            }
+            if (sampled > EVICTION_SAMPLE) {
+                break;
+            }
+        }
+        if (!expired && oldest != null) {
+            remove(oldestGroup, oldestKey, oldest);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${api.cache.eviction-interval-ms:60000}")
+    public void evict() {
+        long now = System.nanoTime();
+        changedNanos.values().removeIf(changed -> now - changed > settleNanos);
+        for (UUID group : entries.keySet()) {
+            entries.computeIfPresent(group, (id, groupEntries) -> {
+                groupEntries.values().removeIf(entry -> {
+                    boolean expired = entry.isExpired(now, maxAgeNanos);
+                    if (expired) {
+                        size.decrementAndGet();
+                    }
+                    return expired;
+                });
+                return groupEntries.isEmpty() ? null : groupEntries;
+            });
+        }
+    }
+
+    private static final class Entry {
+        final CompletableFuture<Object> result = new CompletableFuture<>();
+        volatile long completedNanos;
+        volatile long lastReadNanos;
+
+        Entry(long now) {
+            this.lastReadNanos = now;
+        }
+
+        boolean isExpired(long now, long maxAgeNanos) {
+            return result.isDone() && now - completedNanos > maxAgeNanos;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.survery.analytics.api.changes;
+
+import com.survery.analytics.domain.wire.AnalyticsChange;
+
+/**
+ * Receives the {@link AnalyticsChange}s the data-loader publishes after each commit. Called on the
+ * listener thread, one change at a time, so implementations should only update in-memory state.
+ */
+public interface AnalyticsChangeHandler {
+
+    void onChange(AnalyticsChange change);
+}
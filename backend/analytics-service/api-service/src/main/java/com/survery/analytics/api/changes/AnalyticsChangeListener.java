@@ -0,0 +1,63 @@
+package com.survery.analytics.api.changes;
+
+import com.survery.analytics.domain.wire.AnalyticsChange;
+import com.survery.analytics.domain.wire.AnalyticsChangeCodec;
+import com.survery.analytics.domain.wire.WireFormat;
+import com.survery.analytics.domain.wire.WireHeaders;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Single consumer of {@value AnalyticsChangeCodec#TOPIC} that hands every change to all
+ * {@link AnalyticsChangeHandler}s. A handler that fails is logged and skipped; the others still
+ * see the change.
+ */
+@Component
+public class AnalyticsChangeListener {
+
+    private static final Logger log = LoggerFactory.getLogger(AnalyticsChangeListener.class);
+
+    private final List<AnalyticsChangeHandler> handlers;
+
+    public AnalyticsChangeListener(List<AnalyticsChangeHandler> handlers) {
+        this.handlers = handlers;
+    }
+
+    @KafkaListener(topics = AnalyticsChangeCodec.TOPIC)
+    public void consume(ConsumerRecord<String, byte[]> record) {
+        AnalyticsChange change;
+        try {
+            if (WireFormat.fromHeader(headerValue(record, WireHeaders.FORMAT)) != WireFormat.BINARY) {
+                throw new IllegalArgumentException("Changes are only published in the binary format");
+            }
+            AnalyticsChangeCodec.checkVersion(headerValue(record, WireHeaders.SCHEMA_VERSION));
+            change = AnalyticsChangeCodec.decode(record.value());
+        } catch (RuntimeException e) {
+            log.error("Skipping undecodable change at {}-{}@{}", record.topic(), record.partition(), record.offset(), e);
+            return;
+        }
+        dispatch(change);
+    }
+
+    void dispatch(AnalyticsChange change) {
+        for (AnalyticsChangeHandler handler : handlers) {
+            try {
+                handler.onChange(change);
+            } catch (RuntimeException e) {
+                log.error("{} failed to apply change of transaction {}", handler.getClass().getSimpleName(),
+                        change.getTransactionId(), e);
+            }
+        }
+    }
+
+    private static byte[] headerValue(ConsumerRecord<String, byte[]> record, String key) {
+        Header header = record.headers().lastHeader(key);
+        return header == null ? null : header.value();
+    }
+}
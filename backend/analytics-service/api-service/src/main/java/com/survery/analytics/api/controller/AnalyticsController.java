@@ -1,24 +1,215 @@
 package com.survery.analytics.api.controller;
 
+import com.survery.analytics.api.cache.QueryResultCache;
+import com.survery.analytics.api.dto.LocationDistributionDto;
+import com.survery.analytics.api.dto.SurveySummaryDto;
+import com.survery.analytics.api.export.ExportFormat;
+import com.survery.analytics.api.export.ResponseExporter;
+import com.survery.analytics.api.live.LiveCounterBroadcaster;
 import com.survery.analytics.api.service.AnalyticsService;
+import com.survery.analytics.domain.LocationLevel;
+import com.survery.analytics.domain.SketchScope;
+import com.survery.analytics.domain.TimeResolution;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
 import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
 
 @RestController
 @RequestMapping("/v1/analytics")
 @RequiredArgsConstructor
 public class AnalyticsController {
 
+    private static final Duration DEFAULT_RANGE = Duration.ofDays(1);
+    private static final int DEFAULT_RESPONDENT_DAYS = 7;
+
     private final AnalyticsService analyticsService;
+    private final ResponseExporter responseExporter;
+    private final QueryResultCache queryResultCache;
+    private final LiveCounterBroadcaster liveCounterBroadcaster;
+    private final Clock clock;
 
     @GetMapping("/surveys/count")
     public ResponseEntity<Map<String, Long>> getSurveyCount() {
-        long count = analyticsService.getSurveyCount();
+        long count = queryResultCache.get("surveys/count", null, analyticsService::getSurveyCount);
         return ResponseEntity.ok(Map.of("totalSurveys", count));
     }
+
+    @GetMapping("/surveys/{surveyId}/summary")
+    public ResponseEntity<SurveySummaryDto> getSurveySummary(@PathVariable UUID surveyId) {
+        return ResponseEntity.of(queryResultCache.get("surveys/summary", surveyId,
+                () -> analyticsService.getSurveySummary(surveyId)));
+    }
+
+    /**
+     * Responses per time bucket to the surveys of a constituency, or to every survey without one;
+     * the range defaults to the last day and the resolution to one suited to the range's length.
+     */
+    @GetMapping("/responses-over-time")
+    public ResponseEntity<?> getResponsesOverTime(
+            @RequestParam(required = false) UUID constituencyId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime to,
+            @RequestParam(required = false) TimeResolution resolution) {
+        try {
+            // Keyed by the parameters as given: a default range is cached as of its first request.
+            return ResponseEntity.ok(queryResultCache.get("responses-over-time", null, () -> {
+                OffsetDateTime end = to != null ? to : OffsetDateTime.now(clock);
+                OffsetDateTime start = from != null ? from : end.minus(DEFAULT_RANGE);
+                return analyticsService.getResponsesOverTime(constituencyId, start, end, resolution);
+            }, constituencyId, from, to, resolution));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Response counts per location: per location directly within {@code parentId}, to drill down
+     * one level at a time, or otherwise per location at {@code level}, constituencies by default.
+     * The two are exclusive: the children of a parent are all at the level below it.
+     */
+    @GetMapping("/locations/distribution")
+    public ResponseEntity<?> getLocationDistribution(
+            @RequestParam(required = false) UUID parentId,
+            @RequestParam(required = false) LocationLevel level) {
+        try {
+            return ResponseEntity.ok(queryResultCache.get("locations/distribution", null,
+                    () -> analyticsService.getLocationDistribution(parentId, level), parentId, level));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Answer histogram of one question across the surveys taken within the given locations, and
+     * with {@code by} a cross-tab of the answers per location of that level.
+     */
+    @GetMapping("/questions/{questionId}/distribution")
+    public ResponseEntity<?> getAnswerDistribution(@PathVariable String questionId,
+                                                   @RequestParam(required = false) LocationLevel by,
+                                                   @RequestParam(required = false) UUID villageId,
+                                                   @RequestParam(required = false) UUID panchayatId,
+                                                   @RequestParam(required = false) UUID constituencyId) {
+        try {
+            return ResponseEntity.ok(analyticsService.getAnswerDistribution(questionId, by, villageId, panchayatId,
+                    constituencyId));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Unique respondents of a constituency or of every survey over whole UTC days, the
+     * last week by default. With {@code approximate=true} the count is estimated from daily
+     * HyperLogLog sketches with a relative standard error of about 1.6%, reported in the response.
+     */
+    @GetMapping("/respondents/unique")
+    public ResponseEntity<?> getUniqueRespondents(
+            @RequestParam(defaultValue = "ALL") SketchScope scope,
+            @RequestParam(required = false) UUID id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "false") boolean approximate) {
+        try {
+            return ResponseEntity.ok(queryResultCache.get("respondents/unique", null, () -> {
+                LocalDate end = to != null ? to : LocalDate.now(clock.withZone(ZoneOffset.UTC));
+                LocalDate start = from != null ? from : end.minusDays(DEFAULT_RESPONDENT_DAYS - 1);
+                return analyticsService.getUniqueRespondents(scope, id, start, end, approximate);
+            }, scope, id, from, to, approximate));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Raw responses of a survey, a page at a time; pass the returned {@code nextCursor} as
+     * {@code cursor} for the next page.
+     */
+    @GetMapping("/surveys/{surveyId}/responses")
+    public ResponseEntity<?> getResponses(@PathVariable UUID surveyId,
+                                          @RequestParam(required = false) String questionId,
+                                          @RequestParam(required = false) UUID villageId,
+                                          @RequestParam(required = false) UUID panchayatId,
+                                          @RequestParam(required = false) UUID constituencyId,
+                                          @RequestParam(required = false) String cursor,
+                                          @RequestParam(defaultValue = "100") int limit) {
+        try {
+            return ResponseEntity.ok(analyticsService.getResponsePage(surveyId, questionId, villageId, panchayatId,
+                    constituencyId, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Every response of a survey as CSV or XLSX, streamed as it is read. To resume an interrupted
+     * export, pass the {@code response_id} of the last complete row received as {@code after}.
+     */
+    @GetMapping("/surveys/{surveyId}/responses/export")
+    public ResponseEntity<StreamingResponseBody> exportResponses(
+            @PathVariable UUID surveyId,
+            @RequestParam(defaultValue = "CSV") ExportFormat format,
+            @RequestParam(required = false) UUID after,
+            HttpServletRequest request) {
+        setAsyncTimeout(request, responseExporter.getTimeout());
+        ContentDisposition attachment = ContentDisposition.attachment()
+                .filename("survey-" + surveyId + "-responses." + format.getExtension())
+                .build();
+        return ResponseEntity.ok()
+                .contentType(format.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, attachment.toString())
+                .body(out -> responseExporter.export(surveyId, after, format, out));
+    }
+
+    /**
+     * Overrides {@code spring.mvc.async.request-timeout} for this request only. The timeout is
+     * applied when the returned body starts streaming, which is when the interceptor runs.
+     */
+    private static void setAsyncTimeout(HttpServletRequest request, Duration timeout) {
+        WebAsyncUtils.getAsyncManager(request).registerCallableInterceptor(AsyncWebRequest.class,
+                new CallableProcessingInterceptor() {
+                    @Override
+                    public <T> void beforeConcurrentHandling(NativeWebRequest asyncRequest, Callable<T> task) {
+                        ((AsyncWebRequest) asyncRequest).setTimeout(timeout.toMillis());
+                    }
+                });
+    }
+
+    /**
+     * Server-sent counter deltas of the given surveys, or of all of them, at most one event per
+     * interval: a push alternative to polling {@code /surveys/count}.
+     */
+    @GetMapping("/live/counters")
+    public ResponseEntity<?> streamCounters(@RequestParam(name = "surveyId", required = false) Set<UUID> surveyIds) {
+        try {
+            return ResponseEntity.ok(liveCounterBroadcaster.subscribe(surveyIds != null ? surveyIds : Set.of()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of("error", e.getMessage()));
+        }
+    }
 }
@@ -0,0 +1,152 @@
+package com.survery.analytics.api.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends read-only transactions to a replica and everything else to the primary. Replicas are
+ * used round-robin while their replication lag, checked every {@code api.datasource.lag-check-interval-ms},
+ * is at most {@code api.datasource.max-replica-lag}; a replica that lags further or cannot be
+ * checked is skipped until it catches up, and with none left reads fall back to the primary.
+ * <p>
+ * The decision is made when a connection is first used, so this must sit behind a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}: only then is the
+ * transaction's read-only flag already known.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    static final String PRIMARY = "primary";
+
+    /**
+     * Seconds since the last replayed transaction, or 0 when everything received is replayed, so an
+     * idle primary does not make a caught-up standby look behind. 0 on a server that is not a standby.
+     * Null, which makes the replica unusable, while its WAL receiver is not streaming: a disconnected
+     * standby has replayed everything it received, yet falls further behind.
+     */
+    static final String POSTGRES_LAG_QUERY = "SELECT CASE WHEN NOT pg_is_in_recovery() THEN 0 "
+            + "WHEN NOT EXISTS (SELECT 1 FROM pg_stat_wal_receiver WHERE status = 'streaming') THEN NULL "
+            + "WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 "
+            + "ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0) END";
+
+    private final List<Replica> replicas;
+    private final String lagQuery;
+    private final double maxLagSeconds;
+    private final AtomicInteger next = new AtomicInteger();
+    private final Counter primaryReads;
+
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, String lagQuery,
+                                    Duration maxLag, MeterRegistry meterRegistry) {
+        this.lagQuery = lagQuery;
+        this.maxLagSeconds = maxLag.toMillis() / 1000.0;
+        this.replicas = new ArrayList<>(replicas.size());
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        replicas.forEach((name, dataSource) -> {
+            Replica replica = new Replica(name, dataSource);
+            this.replicas.add(replica);
+            targets.put(name, dataSource);
+            Gauge.builder("api.datasource.replica.lag", replica, r -> r.lagSeconds)
+                    .description("Replication lag of a read replica in seconds; NaN if it could not be checked "
+                            + "or is not receiving WAL")
+                    .tag("replica", name)
+                    .baseUnit("seconds")
+                    .register(meterRegistry);
+        });
+        this.primaryReads = Counter.builder("api.datasource.primary.reads")
+                .description("Read-only transactions sent to the primary because no replica was usable")
+                .register(meterRegistry);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        checkLag();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return PRIMARY;
+        }
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), Math.max(size, 1));
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.usable) {
+                return replica.name;
+            }
+        }
+        if (size > 0) {
+            primaryReads.increment();
+        }
+        return PRIMARY;
+    }
+
+    @Scheduled(fixedDelayString = "${api.datasource.lag-check-interval-ms:5000}")
+    public void checkLag() {
+        for (Replica replica : replicas) {
+            boolean wasUsable = replica.usable;
+            try {
+                Double lag = new JdbcTemplate(replica.dataSource).queryForObject(lagQuery, Double.class);
+                replica.lagSeconds = lag != null ? lag : Double.NaN;
+            } catch (RuntimeException e) {
+                replica.lagSeconds = Double.NaN;
+                log.debug("Could not check the lag of replica {}", replica.name, e);
+            }
+            replica.usable = replica.lagSeconds <= maxLagSeconds;
+            if (wasUsable != replica.usable) {
+                if (replica.usable) {
+                    log.info("Replica {} is used for reads, lag {} s", replica.name, replica.lagSeconds);
+                } else {
+                    log.warn("Replica {} is not used for reads, lag {} s", replica.name, replica.lagSeconds);
+                }
+            }
+        }
+    }
+
+    List<String> usableReplicas() {
+        return replicas.stream().filter(replica -> replica.usable).map(replica -> replica.name).toList();
+    }
+
+    /**
+     * Closes the replica pools; the primary is a bean of its own.
+     */
+    @Override
+    public void destroy() throws IOException {
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof Closeable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    private static final class Replica {
+        final String name;
+        final DataSource dataSource;
+        volatile double lagSeconds = Double.NaN;
+        // Starts usable only once checked, so reads never go to a replica of unknown state.
+        volatile boolean usable;
+
+        Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.survery.analytics.api.dto;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import com.survery.analytics.domain.LocationLevel;
+import lombok.Value;
+
+import java.util.List;
+import java.util.UUID;
+
+@Value
+public class AnswerDistributionDto {
+    String questionId;
+    /**
+     * Answers of the surveys within the requested locations.
+     */
+    long totalResponses;
+    /**
+     * Distinct answers given at least once, most frequent first.
+     */
+    List<Option> options;
+    /**
+     * Level of {@link #breakdown}, or null if none was requested.
+     */
+    LocationLevel breakdownLevel;
+    List<LocationCounts> breakdown;
+
+    @Value
+    public static class Option {
+        @JsonRawValue
+        String value;
+        long count;
+    }
+
+    @Value
+    public static class LocationCounts {
+        UUID locationId;
+        long total;
+        /**
+         * Count per entry of {@link AnswerDistributionDto#options}, in the same order.
+         */
+        long[] counts;
+    }
+}
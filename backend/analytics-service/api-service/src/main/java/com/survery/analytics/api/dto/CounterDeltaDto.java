@@ -0,0 +1,23 @@
+package com.survery.analytics.api.dto;
+
+import lombok.Value;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Surveys and responses the loader committed since the previous frame of a live counter stream,
+ * in total and per survey.
+ */
+@Value
+public class CounterDeltaDto {
+    long surveys;
+    long responses;
+    Map<UUID, SurveyDelta> bySurvey;
+
+    @Value
+    public static class SurveyDelta {
+        long surveys;
+        long responses;
+    }
+}
@@ -0,0 +1,27 @@
+package com.survery.analytics.api.dto;
+
+import com.survery.analytics.domain.LocationLevel;
+import lombok.Value;
+
+import java.util.List;
+import java.util.UUID;
+
+@Value
+public class LocationDistributionDto {
+    /**
+     * The location drilled into, or null for the top of the hierarchy.
+     */
+    UUID parentId;
+    long totalSurveys;
+    long totalResponses;
+    List<Location> locations;
+
+    @Value
+    public static class Location {
+        LocationLevel level;
+        UUID locationId;
+        String name;
+        long surveys;
+        long responses;
+    }
+}
@@ -0,0 +1,32 @@
+package com.survery.analytics.api.dto;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import lombok.Value;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * One page of responses in {@code response_id} order. {@code nextCursor} fetches the page after
+ * it with the same survey and filters, and is null on the last page.
+ */
+@Value
+public class ResponsePageDto {
+    List<Item> responses;
+    String nextCursor;
+
+    @Value
+    public static class Item {
+        UUID responseId;
+        UUID surveyId;
+        String questionId;
+        @JsonRawValue
+        String responseValue;
+        UUID userId;
+        OffsetDateTime timestamp;
+        UUID villageId;
+        UUID panchayatId;
+        UUID constituencyId;
+    }
+}
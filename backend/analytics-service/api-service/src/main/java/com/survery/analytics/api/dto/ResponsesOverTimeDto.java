@@ -0,0 +1,26 @@
+package com.survery.analytics.api.dto;
+
+import com.survery.analytics.domain.TimeResolution;
+import lombok.Value;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Value
+public class ResponsesOverTimeDto {
+    /**
+     * Constituency of the series, or null for the series of every survey.
+     */
+    UUID constituencyId;
+    TimeResolution resolution;
+    OffsetDateTime from;
+    OffsetDateTime to;
+    List<Bucket> buckets;
+
+    @Value
+    public static class Bucket {
+        OffsetDateTime start;
+        long responses;
+    }
+}
@@ -0,0 +1,21 @@
+package com.survery.analytics.api.dto;
+
+import com.survery.analytics.domain.SurveySummary;
+import lombok.Value;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+@Value
+public class SurveySummaryDto {
+    UUID surveyId;
+    long totalResponses;
+    long answeredResponses;
+    double completionRate;
+    OffsetDateTime lastResponseAt;
+
+    public static SurveySummaryDto from(SurveySummary summary) {
+        return new SurveySummaryDto(summary.getSurveyId(), summary.getTotalResponses(), summary.getAnsweredResponses(),
+                summary.getCompletionRate(), summary.getLastResponseAt());
+    }
+}
@@ -0,0 +1,31 @@
+package com.survery.analytics.api.dto;
+
+import com.survery.analytics.domain.SketchScope;
+import lombok.Value;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Unique respondents of a scope over the UTC days {@code from} to {@code to}, both inclusive.
+ * Approximate counts carry their {@code relativeStandardError} (about 1.6%: two thirds of estimates
+ * are within one, 95% within two of it) and the estimate per day; exact counts carry neither.
+ */
+@Value
+public class UniqueRespondentsDto {
+    SketchScope scope;
+    UUID scopeId;
+    LocalDate from;
+    LocalDate to;
+    long uniqueRespondents;
+    boolean approximate;
+    Double relativeStandardError;
+    List<Day> days;
+
+    @Value
+    public static class Day {
+        LocalDate day;
+        long uniqueRespondents;
+    }
+}
@@ -0,0 +1,50 @@
+package com.survery.analytics.api.export;
+
+import org.springframework.http.MediaType;
+
+import java.io.OutputStream;
+
+public enum ExportFormat {
+    CSV("text/csv", "csv") {
+        @Override
+        ExportRowWriter open(OutputStream out) {
+            return new CsvRowWriter(out);
+        }
+
+        @Override
+        boolean isAppendable() {
+            return true;
+        }
+    },
+    XLSX("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", "xlsx") {
+        @Override
+        ExportRowWriter open(OutputStream out) {
+            return new XlsxRowWriter(out);
+        }
+    };
+
+    private final MediaType mediaType;
+    private final String extension;
+
+    ExportFormat(String mediaType, String extension) {
+        this.mediaType = MediaType.parseMediaType(mediaType);
+        this.extension = extension;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    abstract ExportRowWriter open(OutputStream out);
+
+    /**
+     * Whether an export can be continued by appending the rest of the rows to a partial one.
+     */
+    boolean isAppendable() {
+        return false;
+    }
+}
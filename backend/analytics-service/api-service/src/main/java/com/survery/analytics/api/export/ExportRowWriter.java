@@ -0,0 +1,38 @@
+package com.survery.analytics.api.export;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Writes the rows of one export to its output as they arrive, holding at most a bounded window
+ * of them in memory.
+ */
+interface ExportRowWriter extends Closeable {
+
+    /**
+     * Called first, at most once, with the column names.
+     */
+    void header(List<String> columns) throws IOException;
+
+    /**
+     * One row, its values in column order; null values are written as empty cells.
+     */
+    void row(Object[] values) throws IOException;
+
+    /**
+     * Hands what has been written so far to the client.
+     */
+    void flush() throws IOException;
+
+    /**
+     * Completes the export after the last row. The output stream itself is left open.
+     */
+    void finish() throws IOException;
+
+    /**
+     * Releases what the writer holds, whether the export was finished or not.
+     */
+    @Override
+    void close() throws IOException;
+}
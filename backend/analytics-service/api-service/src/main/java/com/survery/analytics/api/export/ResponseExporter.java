@@ -0,0 +1,110 @@
+package com.survery.analytics.api.export;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Streams a survey's responses into an export. The rows are read through a server-side cursor,
+ * {@code api.export.fetch-size} rows per round-trip, and each batch is written out before the next
+ * is fetched, so memory use does not grow with the size of the survey.
+ * <p>
+ * Rows come in {@code response_id} order and the id is the first column: an interrupted export is
+ * resumed by passing the id of the last complete row received as {@code after}. A resumed CSV has
+ * no header, so it can be appended to what was received; a resumed XLSX is a workbook of its own.
+ * <p>
+ * An export may take longer than other requests, so it gets its own async timeout,
+ * {@code api.export.timeout}.
+ */
+@Component
+public class ResponseExporter {
+
+    static final List<String> COLUMNS = List.of("response_id", "question_id", "response_value", "user_id", "timestamp",
+            "village_id", "panchayat_id", "constituency_id");
+
+    static final String ROWS = "SELECT r.response_id, r.question_id, CAST(r.response_value AS text), s.user_id, s.timestamp, "
+            + "s.village_id, s.panchayat_id, s.constituency_id "
+            + "FROM responses r JOIN surveys s ON s.survey_id = r.survey_id "
+            + "WHERE r.survey_id = ? AND r.response_id > ? ORDER BY r.response_id";
+
+    /**
+     * Precedes every UUID in PostgreSQL's ordering, for an export from the start.
+     */
+    static final UUID FIRST = new UUID(0, 0);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int fetchSize;
+    private final Duration timeout;
+
+    public ResponseExporter(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                            @Value("${api.export.fetch-size:1000}") int fetchSize,
+                            @Value("${api.export.timeout:2h}") Duration timeout) {
+        if (fetchSize < 1) {
+            throw new IllegalArgumentException("api.export.fetch-size must be positive");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        // The PostgreSQL driver only uses a cursor for a fetch size inside a transaction.
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.fetchSize = fetchSize;
+        this.timeout = timeout;
+    }
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    /**
+     * Writes the responses of {@code surveyId} after {@code after}, or all of them if it is null,
+     * to {@code out} in {@code format}.
+     */
+    public void export(UUID surveyId, UUID after, ExportFormat format, OutputStream out) throws IOException {
+        try (ExportRowWriter writer = format.open(out)) {
+            if (after == null || !format.isAppendable()) {
+                writer.header(COLUMNS);
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> write(surveyId, after != null ? after : FIRST, writer));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            writer.finish();
+        }
+    }
+
+    private void write(UUID surveyId, UUID after, ExportRowWriter writer) {
+        int[] rows = new int[1];
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(ROWS);
+            statement.setFetchSize(fetchSize);
+            statement.setObject(1, surveyId);
+            statement.setObject(2, after);
+            return statement;
+        }, rs -> {
+            Object[] values = {rs.getObject(1, UUID.class), rs.getString(2), rs.getString(3), rs.getObject(4, UUID.class),
+                    rs.getObject(5, OffsetDateTime.class), rs.getObject(6, UUID.class), rs.getObject(7, UUID.class),
+                    rs.getObject(8, UUID.class)};
+            try {
+                writer.row(values);
+                // Once per fetched batch, so a slow client holds back the cursor rather than a buffer.
+                if (++rows[0] % fetchSize == 0) {
+                    writer.flush();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+}
@@ -0,0 +1,79 @@
+package com.survery.analytics.api.export;
+
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * XLSX through POI's streaming workbook: only the last {@link #ROW_WINDOW} rows are kept in
+ * memory, older ones go to a compressed temporary file. The file is assembled and sent in
+ * {@link #finish()}, so unlike CSV nothing reaches the client until every row was read. Rows
+ * beyond the sheet limit continue on a new sheet, each with its own header.
+ */
+class XlsxRowWriter implements ExportRowWriter {
+
+    static final int ROW_WINDOW = 100;
+    static final int ROWS_PER_SHEET = SpreadsheetVersion.EXCEL2007.getMaxRows();
+
+    private final OutputStream out;
+    private final SXSSFWorkbook workbook;
+    private List<String> columns;
+    private SXSSFSheet sheet;
+    private int nextRow;
+
+    XlsxRowWriter(OutputStream out) {
+        this.out = out;
+        this.workbook = new SXSSFWorkbook(ROW_WINDOW);
+        this.workbook.setCompressTempFiles(true);
+    }
+
+    @Override
+    public void header(List<String> columns) {
+        this.columns = columns;
+        newSheet();
+    }
+
+    @Override
+    public void row(Object[] values) {
+        if (nextRow == ROWS_PER_SHEET) {
+            newSheet();
+        }
+        write(values);
+    }
+
+    private void newSheet() {
+        sheet = workbook.createSheet("Responses " + (workbook.getNumberOfSheets() + 1));
+        nextRow = 0;
+        write(columns.toArray());
+    }
+
+    private void write(Object[] values) {
+        Row row = sheet.createRow(nextRow++);
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != null) {
+                row.createCell(i).setCellValue(values[i].toString());
+            }
+        }
+    }
+
+    @Override
+    public void flush() {
+        // Rows leave the window for the temporary file by themselves; nothing can be sent early.
+    }
+
+    @Override
+    public void finish() throws IOException {
+        workbook.write(out);
+    }
+
+    @Override
+    public void close() throws IOException {
+        workbook.close();
+        workbook.dispose();
+    }
+}
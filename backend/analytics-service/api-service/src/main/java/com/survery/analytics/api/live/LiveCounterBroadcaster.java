@@ -0,0 +1,267 @@
+package com.survery.analytics.api.live;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.survery.analytics.api.changes.AnalyticsChangeHandler;
+import com.survery.analytics.api.dto.CounterDeltaDto;
+import com.survery.analytics.domain.wire.AnalyticsChange;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes survey and response counter deltas to dashboards over server-sent events. Changes from
+ * the loader's stream are summed in one pending delta, and every {@code api.live.interval-ms} that
+ * delta is sent as a single {@value #DELTA_EVENT} event to each subscriber, so a subscriber gets at
+ * most one frame per interval however often the loader commits. The frame is serialised once per
+ * interval for all subscribers that follow every survey.
+ * <p>
+ * A bulk load is not itemised; subscribers get a {@value #RESET_EVENT} event and should re-read the
+ * counts. Clients should subscribe before reading the counts they apply deltas to.
+ * <p>
+ * Writing to a client blocks, so the scheduled broadcast only queues the frames: each subscriber
+ * has a queue of {@code api.live.queue-size} frames, drained by a pool of
+ * {@code api.live.sender-threads} threads. A subscriber whose queue is full has fallen behind; its
+ * stream is closed, and its {@code EventSource} reconnects and re-reads the counts.
+ */
+@Component
+public class LiveCounterBroadcaster implements AnalyticsChangeHandler {
+
+    private static final Logger log = LoggerFactory.getLogger(LiveCounterBroadcaster.class);
+
+    static final String DELTA_EVENT = "delta";
+    static final String RESET_EVENT = "reset";
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ObjectMapper objectMapper;
+    private final long emitterTimeoutMillis;
+    private final int maxSubscribers;
+    private final int queueSize;
+    private final Executor sender;
+    private final Counter lagging;
+
+    private final Object lock = new Object();
+    private Map<UUID, long[]> pending = new HashMap<>();
+    private boolean pendingReset;
+
+    @Autowired
+    public LiveCounterBroadcaster(ObjectMapper objectMapper,
+                                  @Value("${api.live.emitter-timeout:30m}") Duration emitterTimeout,
+                                  @Value("${api.live.max-subscribers:10000}") int maxSubscribers,
+                                  @Value("${api.live.queue-size:8}") int queueSize,
+                                  @Value("${api.live.sender-threads:4}") int senderThreads,
+                                  MeterRegistry meterRegistry) {
+        this(objectMapper, emitterTimeout, maxSubscribers, queueSize, newSender(senderThreads), meterRegistry);
+    }
+
+    LiveCounterBroadcaster(ObjectMapper objectMapper, Duration emitterTimeout, int maxSubscribers, int queueSize,
+                           Executor sender, MeterRegistry meterRegistry) {
+        this.objectMapper = objectMapper;
+        this.emitterTimeoutMillis = emitterTimeout.toMillis();
+        this.maxSubscribers = maxSubscribers;
+        this.queueSize = queueSize;
+        this.sender = sender;
+        this.lagging = Counter.builder("api.live.subscribers.lagging")
+                .description("Live counter streams closed because the client fell behind")
+                .register(meterRegistry);
+        Gauge.builder("api.live.subscribers", subscribers, Set::size)
+                .description("Open live counter streams")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Opens a stream of the changes of {@code surveyIds}, or of every survey if it is empty. The
+     * stream ends after {@code api.live.emitter-timeout}; an {@code EventSource} reconnects by itself.
+     *
+     * @throws IllegalStateException if {@code api.live.max-subscribers} streams are already open
+     */
+    public SseEmitter subscribe(Set<UUID> surveyIds) {
+        if (subscribers.size() >= maxSubscribers) {
+            throw new IllegalStateException("Too many live counter subscribers");
+        }
+        return register(new SseEmitter(emitterTimeoutMillis), surveyIds);
+    }
+
+    private static ExecutorService newSender(int threads) {
+        AtomicInteger count = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "live-counter-sender-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    SseEmitter register(SseEmitter emitter, Set<UUID> surveyIds) {
+        Subscriber subscriber = new Subscriber(emitter, Set.copyOf(surveyIds), queueSize);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        return emitter;
+    }
+
+    int subscriberCount() {
+        return subscribers.size();
+    }
+
+    @Override
+    public void onChange(AnalyticsChange change) {
+        synchronized (lock) {
+            if (change.isReset()) {
+                pendingReset = true;
+                return;
+            }
+            for (AnalyticsChange.SurveyChange survey : change.getSurveys()) {
+                long[] delta = pending.computeIfAbsent(survey.getSurveyId(), id -> new long[2]);
+                if (survey.isSurveyInserted()) {
+                    delta[0]++;
+                }
+                delta[1] += survey.getResponses().size();
+            }
+        }
+    }
+
+    /**
+     * Queues this interval's frames; never blocks on a client.
+     */
+    @Scheduled(fixedDelayString = "${api.live.interval-ms:1000}")
+    public void broadcast() {
+        Map<UUID, long[]> deltas;
+        boolean reset;
+        synchronized (lock) {
+            if (pending.isEmpty() && !pendingReset) {
+                return;
+            }
+            deltas = pending;
+            reset = pendingReset;
+            pending = new HashMap<>();
+            pendingReset = false;
+        }
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        String all = deltas.isEmpty() ? null : toJson(delta(deltas, Collections.emptySet()));
+        for (Subscriber subscriber : subscribers) {
+            if (reset) {
+                enqueue(subscriber, RESET_EVENT, "{}");
+            }
+            if (subscriber.surveyIds.isEmpty()) {
+                if (all != null) {
+                    enqueue(subscriber, DELTA_EVENT, all);
+                }
+            } else {
+                CounterDeltaDto delta = delta(deltas, subscriber.surveyIds);
+                if (!delta.getBySurvey().isEmpty()) {
+                    enqueue(subscriber, DELTA_EVENT, toJson(delta));
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (sender instanceof ExecutorService executor) {
+            executor.shutdownNow();
+        }
+    }
+
+    private static CounterDeltaDto delta(Map<UUID, long[]> deltas, Set<UUID> surveyIds) {
+        Map<UUID, CounterDeltaDto.SurveyDelta> bySurvey = new HashMap<>();
+        long surveys = 0;
+        long responses = 0;
+        for (Map.Entry<UUID, long[]> entry : deltas.entrySet()) {
+            if (surveyIds.isEmpty() || surveyIds.contains(entry.getKey())) {
+                long[] delta = entry.getValue();
+                bySurvey.put(entry.getKey(), new CounterDeltaDto.SurveyDelta(delta[0], delta[1]));
+                surveys += delta[0];
+                responses += delta[1];
+            }
+        }
+        return new CounterDeltaDto(surveys, responses, bySurvey);
+    }
+
+    private String toJson(CounterDeltaDto delta) {
+        try {
+            return objectMapper.writeValueAsString(delta);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialise counter delta", e);
+        }
+    }
+
+    private void enqueue(Subscriber subscriber, String event, String json) {
+        if (!subscriber.queue.offer(SseEmitter.event().name(event).data(json, MediaType.APPLICATION_JSON))) {
+            // Completed by the sender, which may be blocked in a write to this client right now.
+            subscribers.remove(subscriber);
+            subscriber.lagging = true;
+            lagging.increment();
+            log.debug("Dropped live counter subscriber that fell behind");
+        }
+        if (subscriber.draining.compareAndSet(false, true)) {
+            sender.execute(() -> drain(subscriber));
+        }
+    }
+
+    /**
+     * Sends the subscriber's queued frames. At most one sender drains a subscriber at a time, so
+     * its frames stay in order.
+     */
+    private void drain(Subscriber subscriber) {
+        do {
+            SseEmitter.SseEventBuilder event;
+            while (!subscriber.lagging && (event = subscriber.queue.poll()) != null) {
+                try {
+                    subscriber.emitter.send(event);
+                } catch (IOException | IllegalStateException e) {
+                    // The client went away; the emitter is completed by the container.
+                    subscribers.remove(subscriber);
+                    subscriber.queue.clear();
+                    log.debug("Dropped live counter subscriber", e);
+                }
+            }
+            if (subscriber.lagging) {
+                subscriber.queue.clear();
+                subscriber.emitter.complete();
+            }
+            subscriber.draining.set(false);
+        } while (!subscriber.lagging && !subscriber.queue.isEmpty() && subscriber.draining.compareAndSet(false, true));
+    }
+
+    private static final class Subscriber {
+        final SseEmitter emitter;
+        final Set<UUID> surveyIds;
+        final Queue<SseEmitter.SseEventBuilder> queue;
+        final AtomicBoolean draining = new AtomicBoolean();
+        volatile boolean lagging;
+
+        Subscriber(SseEmitter emitter, Set<UUID> surveyIds, int queueSize) {
+            this.emitter = emitter;
+            this.surveyIds = surveyIds;
+            this.queue = new ArrayBlockingQueue<>(queueSize);
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.survery.analytics.api.repository;
+
+import com.survery.analytics.domain.AnalyticsTotals;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface AnalyticsTotalsRepository extends JpaRepository<AnalyticsTotals, Short> {
+}
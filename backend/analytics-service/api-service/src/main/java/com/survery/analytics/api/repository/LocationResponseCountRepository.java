@@ -0,0 +1,48 @@
+package com.survery.analytics.api.repository;
+
+import com.survery.analytics.domain.LocationResponseCount;
+import com.survery.analytics.domain.LocationResponseCountId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface LocationResponseCountRepository extends JpaRepository<LocationResponseCount, LocationResponseCountId> {
+
+    String SELECT_WITH_NAMES = "SELECT c.level AS level, c.location_id AS locationId, c.parent_id AS parentId, "
+            + "COALESCE(k.constituency_name, p.panchayat_name, v.village_name) AS name, "
+            + "c.surveys AS surveys, c.responses AS responses "
+            + "FROM location_response_counts c "
+            + "LEFT JOIN constituencies k ON c.level = 'CONSTITUENCY' AND k.constituency_id = c.location_id "
+            + "LEFT JOIN panchayats p ON c.level = 'PANCHAYAT' AND p.panchayat_id = c.location_id "
+            + "LEFT JOIN villages v ON c.level = 'VILLAGE' AND v.village_id = c.location_id ";
+
+    @Query(value = SELECT_WITH_NAMES + "WHERE c.level = :level ORDER BY c.responses DESC, c.location_id",
+            nativeQuery = true)
+    List<LocationCount> findByLevel(@Param("level") String level);
+
+    /**
+     * The counters of the locations directly within {@code parentId}, read through the parent index.
+     */
+    @Query(value = SELECT_WITH_NAMES + "WHERE c.parent_id = :parentId ORDER BY c.responses DESC, c.location_id",
+            nativeQuery = true)
+    List<LocationCount> findByParentId(@Param("parentId") UUID parentId);
+
+    interface LocationCount {
+        String getLevel();
+
+        UUID getLocationId();
+
+        UUID getParentId();
+
+        String getName();
+
+        long getSurveys();
+
+        long getResponses();
+    }
+}
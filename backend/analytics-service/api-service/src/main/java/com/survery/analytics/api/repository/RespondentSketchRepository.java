@@ -0,0 +1,27 @@
+package com.survery.analytics.api.repository;
+
+import com.survery.analytics.domain.RespondentSketch;
+import com.survery.analytics.domain.RespondentSketchId;
+import com.survery.analytics.domain.SketchScope;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface RespondentSketchRepository extends JpaRepository<RespondentSketch, RespondentSketchId> {
+
+    /**
+     * The sketches of one scope for the days {@code from} to {@code to}, both inclusive, by day.
+     */
+    List<RespondentSketch> findByIdScopeAndIdScopeIdAndIdDayBetweenOrderByIdDay(SketchScope scope, UUID scopeId,
+                                                                               LocalDate from, LocalDate to);
+
+    /**
+     * The sketches of every location of {@code scope} for the days {@code from} to {@code to},
+     * both inclusive, by day.
+     */
+    List<RespondentSketch> findByIdScopeAndIdDayBetweenOrderByIdDay(SketchScope scope, LocalDate from, LocalDate to);
+}
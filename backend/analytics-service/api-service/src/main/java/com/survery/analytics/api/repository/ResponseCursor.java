@@ -0,0 +1,78 @@
+package com.survery.analytics.api.repository;
+
+import lombok.Value;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Position after a response in a survey's page order, passed to clients as an opaque URL-safe
+ * token. The token also carries a hash of the survey and filters it was issued for, so that it
+ * is rejected when replayed against a different query instead of silently skipping rows.
+ */
+@Value
+public class ResponseCursor {
+
+    private static final int BYTES = 2 * Long.BYTES + Long.BYTES;
+
+    UUID responseId;
+
+    /**
+     * @param filters hash of the query the token continues, from {@link #filters}
+     */
+    public String encode(long filters) {
+        ByteBuffer buffer = ByteBuffer.allocate(BYTES)
+                .putLong(responseId.getMostSignificantBits())
+                .putLong(responseId.getLeastSignificantBits())
+                .putLong(filters);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+    }
+
+    /**
+     * @throws IllegalArgumentException if {@code token} is not a cursor, or not one of the query
+     *                                  with {@code filters}
+     */
+    public static ResponseCursor decode(String token, long filters) {
+        byte[] bytes = Base64.getUrlDecoder().decode(token);
+        if (bytes.length != BYTES) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        ResponseCursor cursor = new ResponseCursor(new UUID(buffer.getLong(), buffer.getLong()));
+        if (buffer.getLong() != filters) {
+            throw new IllegalArgumentException("Cursor was issued for a different survey or filters");
+        }
+        return cursor;
+    }
+
+    /**
+     * Hash of a page query's survey and filters; null filters are distinct from every value.
+     */
+    public static long filters(UUID surveyId, String questionId, UUID villageId, UUID panchayatId,
+                               UUID constituencyId) {
+        MessageDigest digest = sha256();
+        for (Object filter : new Object[]{surveyId, questionId, villageId, panchayatId, constituencyId}) {
+            if (filter == null) {
+                digest.update((byte) 0);
+            } else {
+                byte[] value = filter.toString().getBytes(StandardCharsets.UTF_8);
+                digest.update((byte) 1);
+                digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(value.length).array());
+                digest.update(value);
+            }
+        }
+        return ByteBuffer.wrap(digest.digest()).getLong();
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.survery.analytics.api.repository;
+
+import com.survery.analytics.api.dto.ResponsePageDto;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Pages through the responses of a survey by seeking past the last row of the previous page,
+ * so every page costs the same however deep it is. Rows are read straight into
+ * {@link ResponsePageDto.Item}s in one statement, without loading entities.
+ * <p>
+ * All responses of a survey share its timestamp, so {@code (survey timestamp, response_id)} order
+ * is {@code response_id} order: the seek and the order use only the response columns, and the
+ * {@code (survey_id, response_id)} and {@code (survey_id, question_id, response_id)} indexes
+ * return a page without sorting.
+ */
+@Repository
+public class ResponsePageRepository {
+
+    static final String SELECT = "SELECT r.response_id, s.survey_id, r.question_id, CAST(r.response_value AS text), "
+            + "s.user_id, s.timestamp, s.village_id, s.panchayat_id, s.constituency_id "
+            + "FROM responses r JOIN surveys s ON s.survey_id = r.survey_id "
+            + "WHERE r.survey_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ResponsePageRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Up to {@code limit} responses of {@code surveyId} after {@code after}, or from the first if
+     * it is null. Null filters match any value.
+     */
+    public List<ResponsePageDto.Item> findPage(UUID surveyId, String questionId, UUID villageId, UUID panchayatId,
+                                               UUID constituencyId, ResponseCursor after, int limit) {
+        StringBuilder sql = new StringBuilder(SELECT);
+        List<Object> args = new ArrayList<>();
+        args.add(surveyId);
+        if (questionId != null) {
+            sql.append(" AND r.question_id = ?");
+            args.add(questionId);
+        }
+        if (villageId != null) {
+            sql.append(" AND s.village_id = ?");
+            args.add(villageId);
+        }
+        if (panchayatId != null) {
+            sql.append(" AND s.panchayat_id = ?");
+            args.add(panchayatId);
+        }
+        if (constituencyId != null) {
+            sql.append(" AND s.constituency_id = ?");
+            args.add(constituencyId);
+        }
+        if (after != null) {
+            sql.append(" AND r.response_id > ?");
+            args.add(after.getResponseId());
+        }
+        sql.append(" ORDER BY r.response_id LIMIT ?");
+        args.add(limit);
+        return jdbcTemplate.query(sql.toString(), (rs, rowNum) -> new ResponsePageDto.Item(
+                rs.getObject(1, UUID.class), rs.getObject(2, UUID.class), rs.getString(3), rs.getString(4),
+                rs.getObject(5, UUID.class), rs.getObject(6, OffsetDateTime.class), rs.getObject(7, UUID.class),
+                rs.getObject(8, UUID.class), rs.getObject(9, UUID.class)), args.toArray());
+    }
+}
@@ -0,0 +1,49 @@
+package com.survery.analytics.api.repository;
+
+import com.survery.analytics.domain.ResponseTimeBucket;
+import com.survery.analytics.domain.ResponseTimeBucketId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface ResponseTimeBucketRepository extends JpaRepository<ResponseTimeBucket, ResponseTimeBucketId> {
+
+    /**
+     * Sums the buckets of every constituency and resolution that start in {@code [from, to)} into
+     * buckets of {@code unit} ({@code date_trunc} field name), in UTC and ordered by start.
+     */
+    @Query(value = "SELECT CAST(extract(epoch FROM date_trunc(:unit, bucket_start AT TIME ZONE 'UTC')) AS bigint) AS bucketStart, "
+            + "CAST(sum(responses) AS bigint) AS responses "
+            + "FROM constituency_response_buckets "
+            + "WHERE bucket_start >= :from AND bucket_start < :to "
+            + "GROUP BY 1 ORDER BY 1", nativeQuery = true)
+    List<BucketCount> sumBuckets(@Param("from") OffsetDateTime from, @Param("to") OffsetDateTime to,
+                                 @Param("unit") String unit);
+
+    /**
+     * {@link #sumBuckets} of one constituency.
+     */
+    @Query(value = "SELECT CAST(extract(epoch FROM date_trunc(:unit, bucket_start AT TIME ZONE 'UTC')) AS bigint) AS bucketStart, "
+            + "CAST(sum(responses) AS bigint) AS responses "
+            + "FROM constituency_response_buckets "
+            + "WHERE constituency_id = :constituencyId AND bucket_start >= :from AND bucket_start < :to "
+            + "GROUP BY 1 ORDER BY 1", nativeQuery = true)
+    List<BucketCount> sumConstituencyBuckets(@Param("constituencyId") UUID constituencyId,
+                                             @Param("from") OffsetDateTime from, @Param("to") OffsetDateTime to,
+                                             @Param("unit") String unit);
+
+    interface BucketCount {
+        /**
+         * Epoch second of the bucket start.
+         */
+        long getBucketStart();
+
+        long getResponses();
+    }
+}
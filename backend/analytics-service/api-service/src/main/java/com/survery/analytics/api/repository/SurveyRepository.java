@@ -2,11 +2,27 @@ package com.survery.analytics.api.repository;
 
 import com.survery.analytics.domain.Survey;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.OffsetDateTime;
 import java.util.UUID;
 
 @Repository
 public interface SurveyRepository extends JpaRepository<Survey, UUID> {
     // Basic CRUD methods, including count(), are provided by JpaRepository.
+
+    /**
+     * Exact unique respondents in {@code [from, to)}. These scan every matching survey; the
+     * respondent sketches answer the same questions approximately from one row per day.
+     */
+    @Query(value = "SELECT count(DISTINCT user_id) FROM surveys WHERE timestamp >= :from AND timestamp < :to",
+            nativeQuery = true)
+    long countRespondents(@Param("from") OffsetDateTime from, @Param("to") OffsetDateTime to);
+
+    @Query(value = "SELECT count(DISTINCT user_id) FROM surveys "
+            + "WHERE constituency_id = :constituencyId AND timestamp >= :from AND timestamp < :to", nativeQuery = true)
+    long countRespondentsInConstituency(@Param("constituencyId") UUID constituencyId, @Param("from") OffsetDateTime from,
+                                        @Param("to") OffsetDateTime to);
 }
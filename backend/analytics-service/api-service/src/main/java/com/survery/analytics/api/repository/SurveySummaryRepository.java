@@ -0,0 +1,11 @@
+package com.survery.analytics.api.repository;
+
+import com.survery.analytics.domain.SurveySummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.UUID;
+
+@Repository
+public interface SurveySummaryRepository extends JpaRepository<SurveySummary, UUID> {
+}
@@ -1,18 +1,212 @@
 package com.survery.analytics.api.service;
 
+import com.survery.analytics.api.answers.ColumnarAnswerStore;
+import com.survery.analytics.api.dto.AnswerDistributionDto;
+import com.survery.analytics.api.dto.LocationDistributionDto;
+import com.survery.analytics.api.dto.ResponsePageDto;
+import com.survery.analytics.api.dto.ResponsesOverTimeDto;
+import com.survery.analytics.api.dto.SurveySummaryDto;
+import com.survery.analytics.api.dto.UniqueRespondentsDto;
+import com.survery.analytics.api.repository.AnalyticsTotalsRepository;
+import com.survery.analytics.api.repository.LocationResponseCountRepository;
+import com.survery.analytics.api.repository.RespondentSketchRepository;
+import com.survery.analytics.api.repository.ResponseCursor;
+import com.survery.analytics.api.repository.ResponsePageRepository;
+import com.survery.analytics.api.repository.ResponseTimeBucketRepository;
 import com.survery.analytics.api.repository.SurveyRepository;
+import com.survery.analytics.api.repository.SurveySummaryRepository;
+import com.survery.analytics.domain.AnalyticsTotals;
+import com.survery.analytics.domain.LocationLevel;
+import com.survery.analytics.domain.RespondentSketch;
+import com.survery.analytics.domain.SketchScope;
+import com.survery.analytics.domain.TimeResolution;
+import com.survery.analytics.domain.sketch.HyperLogLog;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Reads the rollups the data-loader maintains, so each call is a single-row lookup however many
+ * responses are stored.
+ */
 @Service
 @RequiredArgsConstructor
 public class AnalyticsService {
 
+    static final int MAX_PAGE_SIZE = 1000;
+
     private final SurveyRepository surveyRepository;
+    private final SurveySummaryRepository surveySummaryRepository;
+    private final AnalyticsTotalsRepository analyticsTotalsRepository;
+    private final ResponseTimeBucketRepository responseTimeBucketRepository;
+    private final LocationResponseCountRepository locationResponseCountRepository;
+    private final RespondentSketchRepository respondentSketchRepository;
+    private final ResponsePageRepository responsePageRepository;
+    private final ColumnarAnswerStore columnarAnswerStore;
 
+    /**
+     * Falls back to counting the table only until the loader has initialised the totals.
+     */
     @Transactional(readOnly = true)
     public long getSurveyCount() {
-        return surveyRepository.count();
+        return analyticsTotalsRepository.findById(AnalyticsTotals.ID)
+                .map(AnalyticsTotals::getSurveys)
+                .orElseGet(surveyRepository::count);
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<SurveySummaryDto> getSurveySummary(UUID surveyId) {
+        return surveySummaryRepository.findById(surveyId).map(SurveySummaryDto::from);
+    }
+
+    /**
+     * Responses to the surveys of {@code constituencyId}, or to every survey if it is null, per
+     * bucket of {@code resolution}, or of one chosen from the length of the range if that is null.
+     * Reads the pre-aggregated constituency buckets, which the loader compacts as they age, so a
+     * 90-day range reads a few hundred rows per constituency at most. Buckets are UTC-aligned; a
+     * compacted bucket counts in the range if it starts in it.
+     */
+    @Transactional(readOnly = true)
+    public ResponsesOverTimeDto getResponsesOverTime(UUID constituencyId, OffsetDateTime from, OffsetDateTime to,
+                                                     TimeResolution resolution) {
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("from must be before to");
+        }
+        TimeResolution effective = resolution != null ? resolution : defaultResolution(Duration.between(from, to));
+        List<ResponseTimeBucketRepository.BucketCount> counts = constituencyId == null
+                ? responseTimeBucketRepository.sumBuckets(from, to, effective.getSqlUnit())
+                : responseTimeBucketRepository.sumConstituencyBuckets(constituencyId, from, to, effective.getSqlUnit());
+        List<ResponsesOverTimeDto.Bucket> buckets = counts.stream()
+                .map(count -> new ResponsesOverTimeDto.Bucket(
+                        OffsetDateTime.ofInstant(Instant.ofEpochSecond(count.getBucketStart()), ZoneOffset.UTC),
+                        count.getResponses()))
+                .toList();
+        return new ResponsesOverTimeDto(constituencyId, effective, from, to, buckets);
+    }
+
+    /**
+     * Response counts of the locations directly within {@code parentId} or, without a parent, of
+     * every location at {@code level}, constituencies by default. Reads one counter row per
+     * location, kept current by the loader, instead of grouping the surveys.
+     *
+     * @throws IllegalArgumentException if both {@code parentId} and {@code level} are given
+     */
+    @Transactional(readOnly = true)
+    public LocationDistributionDto getLocationDistribution(UUID parentId, LocationLevel level) {
+        if (parentId != null && level != null) {
+            throw new IllegalArgumentException("parentId and level cannot be combined");
+        }
+        List<LocationResponseCountRepository.LocationCount> counts = parentId != null
+                ? locationResponseCountRepository.findByParentId(parentId)
+                : locationResponseCountRepository.findByLevel((level != null ? level : LocationLevel.CONSTITUENCY).name());
+        List<LocationDistributionDto.Location> locations = counts.stream()
+                .map(count -> new LocationDistributionDto.Location(LocationLevel.valueOf(count.getLevel()),
+                        count.getLocationId(), count.getName(), count.getSurveys(), count.getResponses()))
+                .toList();
+        long surveys = 0;
+        long responses = 0;
+        for (LocationDistributionDto.Location location : locations) {
+            surveys += location.getSurveys();
+            responses += location.getResponses();
+        }
+        return new LocationDistributionDto(parentId, surveys, responses, locations);
+    }
+
+    /**
+     * How often each answer to a question was given in the surveys within every given location,
+     * optionally per location of {@code breakdown}. Computed from the in-memory answer columns.
+     */
+    public AnswerDistributionDto getAnswerDistribution(String questionId, LocationLevel breakdown, UUID villageId,
+                                                       UUID panchayatId, UUID constituencyId) {
+        return columnarAnswerStore.distribution(questionId, breakdown, villageId, panchayatId, constituencyId);
+    }
+
+    /**
+     * Unique respondents of a constituency or of {@link SketchScope#ALL all} surveys over the UTC
+     * days {@code from} to {@code to}. Exact counts are a {@code COUNT(DISTINCT)} over the surveys;
+     * approximate ones merge the loader's daily {@link HyperLogLog} sketches, one row per day and
+     * constituency whatever the number of surveys, within {@link HyperLogLog#RELATIVE_STANDARD_ERROR}.
+     */
+    @Transactional(readOnly = true)
+    public UniqueRespondentsDto getUniqueRespondents(SketchScope scope, UUID scopeId, LocalDate from, LocalDate to,
+                                                     boolean approximate) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        UUID id = scope == SketchScope.ALL ? null : scopeId;
+        if (scope != SketchScope.ALL && id == null) {
+            throw new IllegalArgumentException("id is required for scope " + scope);
+        }
+        if (!approximate) {
+            OffsetDateTime start = from.atStartOfDay().atOffset(ZoneOffset.UTC);
+            OffsetDateTime end = to.plusDays(1).atStartOfDay().atOffset(ZoneOffset.UTC);
+            long count = switch (scope) {
+                case CONSTITUENCY -> surveyRepository.countRespondentsInConstituency(id, start, end);
+                case ALL -> surveyRepository.countRespondents(start, end);
+            };
+            return new UniqueRespondentsDto(scope, id, from, to, count, false, null, null);
+        }
+        List<RespondentSketch> sketches = scope == SketchScope.ALL
+                ? respondentSketchRepository.findByIdScopeAndIdDayBetweenOrderByIdDay(SketchScope.CONSTITUENCY, from, to)
+                : respondentSketchRepository.findByIdScopeAndIdScopeIdAndIdDayBetweenOrderByIdDay(scope, id, from, to);
+        // Sorted by day, so each day's constituency sketches are adjacent.
+        Map<LocalDate, HyperLogLog> perDay = new LinkedHashMap<>();
+        for (RespondentSketch sketch : sketches) {
+            HyperLogLog registers = HyperLogLog.fromBytes(sketch.getRegisters());
+            perDay.merge(sketch.getId().getDay(), registers, HyperLogLog::merge);
+        }
+        HyperLogLog union = new HyperLogLog();
+        List<UniqueRespondentsDto.Day> days = new ArrayList<>(perDay.size());
+        perDay.forEach((day, sketch) -> {
+            days.add(new UniqueRespondentsDto.Day(day, sketch.estimate()));
+            union.merge(sketch);
+        });
+        return new UniqueRespondentsDto(scope, id, from, to, union.estimate(), true,
+                HyperLogLog.RELATIVE_STANDARD_ERROR, days);
+    }
+
+    /**
+     * A page of at most {@code limit} raw responses of a survey, optionally of one question and
+     * location, continuing after {@code cursor} if given.
+     *
+     * @throws IllegalArgumentException if the limit is out of range, or the cursor is invalid or
+     *                                  was issued for another survey or other filters
+     */
+    @Transactional(readOnly = true)
+    public ResponsePageDto getResponsePage(UUID surveyId, String questionId, UUID villageId, UUID panchayatId,
+                                           UUID constituencyId, String cursor, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        long filters = ResponseCursor.filters(surveyId, questionId, villageId, panchayatId, constituencyId);
+        ResponseCursor after = cursor != null ? ResponseCursor.decode(cursor, filters) : null;
+        // One row more than the page tells whether there is a next page.
+        List<ResponsePageDto.Item> rows = responsePageRepository.findPage(surveyId, questionId, villageId, panchayatId,
+                constituencyId, after, limit + 1);
+        if (rows.size() <= limit) {
+            return new ResponsePageDto(rows, null);
+        }
+        List<ResponsePageDto.Item> page = rows.subList(0, limit);
+        return new ResponsePageDto(List.copyOf(page), new ResponseCursor(page.get(limit - 1).getResponseId())
+                .encode(filters));
+    }
+
+    static TimeResolution defaultResolution(Duration range) {
+        if (range.compareTo(Duration.ofHours(6)) <= 0) {
+            return TimeResolution.MINUTE;
+        }
+        return range.compareTo(Duration.ofDays(7)) <= 0 ? TimeResolution.HOUR : TimeResolution.DAY;
     }
 }
@@ -0,0 +1,135 @@
+package com.survery.analytics.api.answers;
+
+import com.survery.analytics.api.dto.AnswerDistributionDto;
+import com.survery.analytics.domain.LocationLevel;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AnswerColumnTest {
+
+    private static final UUID VILLAGE_A = new UUID(0, 1);
+    private static final UUID VILLAGE_B = new UUID(0, 2);
+    private static final UUID VILLAGE_C = new UUID(0, 3);
+    private static final UUID PANCHAYAT_AB = new UUID(0, 4);
+    private static final UUID PANCHAYAT_C = new UUID(0, 5);
+    private static final UUID CONSTITUENCY = new UUID(0, 6);
+
+    // Every row is the one answer of a different survey, as the loader reads them.
+    private final AnswerColumn column = new AnswerColumn("q-1", 0);
+
+    @Test
+    void distribution_shouldCountAnswersMostFrequentFirst() {
+        column.load("\"no\"", VILLAGE_A, PANCHAYAT_AB, CONSTITUENCY);
+        column.load("\"yes\"", VILLAGE_A, PANCHAYAT_AB, CONSTITUENCY);
+        column.load("\"yes\"", VILLAGE_B, PANCHAYAT_AB, CONSTITUENCY);
+        column.loaded(PgSnapshot.parse("10:10:"));
+
+        AnswerDistributionDto dto = column.distribution(null, null, null, null);
+
+        assertEquals(3, dto.getTotalResponses());
+        assertEquals(List.of(new AnswerDistributionDto.Option("\"yes\"", 2), new AnswerDistributionDto.Option("\"no\"", 1)),
+                dto.getOptions());
+        assertNull(dto.getBreakdown());
+    }
+
+    @Test
+    void distribution_byVillage_shouldCrossTabInOptionOrder() {
+        column.load("\"no\"", VILLAGE_A, PANCHAYAT_AB, CONSTITUENCY);
+        column.load("\"yes\"", VILLAGE_A, PANCHAYAT_AB, CONSTITUENCY);
+        column.load("\"yes\"", VILLAGE_B, PANCHAYAT_AB, CONSTITUENCY);
+        column.load("\"yes\"", VILLAGE_B, PANCHAYAT_AB, CONSTITUENCY);
+        column.load("\"yes\"", VILLAGE_B, PANCHAYAT_AB, CONSTITUENCY);
+        column.load("\"yes\"", VILLAGE_C, PANCHAYAT_C, CONSTITUENCY);
+        column.loaded(PgSnapshot.parse("10:10:"));
+
+        List<AnswerDistributionDto.LocationCounts> rows =
+                column.distribution(LocationLevel.VILLAGE, null, null, null).getBreakdown();
+
+        assertEquals(List.of(VILLAGE_B, VILLAGE_A, VILLAGE_C),
+                rows.stream().map(AnswerDistributionDto.LocationCounts::getLocationId).toList());
+        assertArrayEquals(new long[]{3, 0}, rows.get(0).getCounts());
+        assertArrayEquals(new long[]{1, 1}, rows.get(1).getCounts());
+        assertArrayEquals(new long[]{1, 0}, rows.get(2).getCounts());
+        assertEquals(6, column.distribution(LocationLevel.CONSTITUENCY, null, null, null)
+                .getBreakdown().get(0).getTotal());
+    }
+
+    @Test
+    void distribution_withinALocation_shouldCountOnlyItsSurveys() {
+        column.load("\"no\"", VILLAGE_A, PANCHAYAT_AB, CONSTITUENCY);
+        column.load("\"yes\"", VILLAGE_B, PANCHAYAT_AB, CONSTITUENCY);
+        column.load("\"yes\"", VILLAGE_C, PANCHAYAT_C, CONSTITUENCY);
+        column.load("\"yes\"", VILLAGE_C, PANCHAYAT_C, CONSTITUENCY);
+        column.load("\"maybe\"", VILLAGE_C, PANCHAYAT_C, CONSTITUENCY);
+        column.loaded(PgSnapshot.parse("10:10:"));
+
+        AnswerDistributionDto dto = column.distribution(LocationLevel.VILLAGE, null, PANCHAYAT_AB, CONSTITUENCY);
+
+        assertEquals(2, dto.getTotalResponses());
+        // Answers given only outside the panchayat are left out, as are its villages' empty lines.
+        assertEquals(List.of(new AnswerDistributionDto.Option("\"no\"", 1), new AnswerDistributionDto.Option("\"yes\"", 1)),
+                dto.getOptions());
+        assertEquals(List.of(VILLAGE_A, VILLAGE_B),
+                dto.getBreakdown().stream().map(AnswerDistributionDto.LocationCounts::getLocationId).toList());
+        assertArrayEquals(new long[]{1, 0}, dto.getBreakdown().get(0).getCounts());
+        assertArrayEquals(new long[]{0, 1}, dto.getBreakdown().get(1).getCounts());
+        assertEquals(0, column.distribution(null, VILLAGE_A, PANCHAYAT_C, null).getTotalResponses());
+        assertEquals(0, column.distribution(null, new UUID(9, 9), null, null).getTotalResponses());
+    }
+
+    @Test
+    void apply_shouldSkipChangesTheLoadAlreadyRead() {
+        column.load("\"yes\"", VILLAGE_A, PANCHAYAT_AB, CONSTITUENCY);
+        // Transaction 12 was still running when the snapshot was taken, 9 had committed.
+        column.apply(9, "\"yes\"", VILLAGE_A, PANCHAYAT_AB, CONSTITUENCY);
+        column.apply(12, "\"no\"", VILLAGE_B, PANCHAYAT_AB, CONSTITUENCY);
+        assertFalse(column.ready.isDone());
+
+        column.loaded(PgSnapshot.parse("10:14:12"));
+        column.apply(11, "\"yes\"", VILLAGE_A, PANCHAYAT_AB, CONSTITUENCY);
+        column.apply(15, "\"no\"", VILLAGE_C, PANCHAYAT_C, CONSTITUENCY);
+
+        assertTrue(column.ready.isDone());
+        assertEquals(List.of(new AnswerDistributionDto.Option("\"no\"", 2), new AnswerDistributionDto.Option("\"yes\"", 1)),
+                column.distribution(null, null, null, null).getOptions());
+    }
+
+    @Test
+    void distribution_shouldRejectOversizedCrossTabs() {
+        for (int i = 0; i < 2049; i++) {
+            column.load("\"answer " + i + "\"", new UUID(1, i), PANCHAYAT_AB, CONSTITUENCY);
+        }
+        column.loaded(PgSnapshot.parse("10:10:"));
+
+        assertThrows(IllegalArgumentException.class, () -> column.distribution(LocationLevel.VILLAGE, null, null, null));
+        assertEquals(1, column.distribution(LocationLevel.PANCHAYAT, null, null, null).getBreakdown().size());
+        // Filtered to one village, the same breakdown has a single line.
+        assertEquals(1, column.distribution(LocationLevel.VILLAGE, new UUID(1, 7), null, null).getBreakdown().size());
+    }
+
+    @Test
+    void snapshot_shouldContainTransactionsCommittedBeforeIt() {
+        PgSnapshot snapshot = PgSnapshot.parse("100:105:101,103");
+
+        assertTrue(snapshot.contains(99));
+        assertFalse(snapshot.contains(101));
+        assertTrue(snapshot.contains(102));
+        assertFalse(snapshot.contains(103));
+        assertFalse(snapshot.contains(105));
+    }
+
+    @Test
+    void canonical_shouldIgnoreKeyOrderAndWhitespace() {
+        assertEquals(AnswerColumnLoader.canonical("{\"b\":1,\"a\":[true]}"),
+                AnswerColumnLoader.canonical("{\"a\": [true], \"b\": 1}"));
+    }
+}
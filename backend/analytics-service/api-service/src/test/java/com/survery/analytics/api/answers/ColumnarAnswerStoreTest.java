@@ -0,0 +1,83 @@
+package com.survery.analytics.api.answers;
+
+import com.survery.analytics.api.dto.AnswerDistributionDto;
+import com.survery.analytics.domain.wire.AnalyticsChange;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class ColumnarAnswerStoreTest {
+
+    private final AnswerColumnLoader loader = mock(AnswerColumnLoader.class);
+    private final ColumnarAnswerStore store = new ColumnarAnswerStore(
+            loader, Duration.ofMinutes(30), Duration.ofHours(1), Duration.ofSeconds(1));
+    private static final UUID VILLAGE_A = new UUID(0, 1);
+    private static final UUID VILLAGE_B = new UUID(0, 2);
+    private static final UUID PANCHAYAT = new UUID(0, 3);
+    private static final UUID CONSTITUENCY = new UUID(0, 4);
+
+    @Test
+    void column_shouldLoadOnceAndThenFollowChanges() {
+        // Two stored surveys, each with its one answer to the question.
+        doAnswer(invocation -> {
+            AnswerColumn column = invocation.getArgument(0);
+            column.load("\"yes\"", VILLAGE_A, PANCHAYAT, CONSTITUENCY);
+            column.load("\"no\"", VILLAGE_B, PANCHAYAT, CONSTITUENCY);
+            column.loaded(PgSnapshot.parse("10:10:"));
+            return null;
+        }).when(loader).load(any());
+
+        AnswerColumn column = store.column("q-1");
+        store.onChange(new AnalyticsChange(11, false, List.of(
+                survey(VILLAGE_A, new AnalyticsChange.ResponseChange(UUID.randomUUID(), "q-1", "{\"b\": 1, \"a\": 2}"),
+                        new AnalyticsChange.ResponseChange(UUID.randomUUID(), "q-2", "\"ignored\"")),
+                survey(VILLAGE_B, new AnalyticsChange.ResponseChange(UUID.randomUUID(), "q-1", "\"yes\"")))));
+
+        assertSame(column, store.column("q-1"));
+        verify(loader, times(1)).load(any());
+        assertEquals(List.of("\"yes\"", "\"no\"", "{\"a\":2,\"b\":1}"), column.distribution(null, null, null, null)
+                .getOptions().stream().map(option -> option.getValue()).toList());
+        AnswerDistributionDto villageA = store.distribution("q-1", null, VILLAGE_A, null, null);
+        assertEquals(2, villageA.getTotalResponses());
+        assertEquals(List.of("\"yes\"", "{\"a\":2,\"b\":1}"),
+                villageA.getOptions().stream().map(option -> option.getValue()).toList());
+    }
+
+    @Test
+    void column_whenLoadFails_shouldNotKeepTheColumn() {
+        doThrow(new IllegalStateException("database down")).when(loader).load(any());
+
+        assertThrows(IllegalStateException.class, () -> store.column("q-1"));
+        assertEquals(0, store.columnCount());
+    }
+
+    @Test
+    void onChange_reset_shouldDropAllColumns() {
+        doAnswer(invocation -> {
+            ((AnswerColumn) invocation.getArgument(0)).loaded(PgSnapshot.parse("10:10:"));
+            return null;
+        }).when(loader).load(any());
+        store.column("q-1");
+
+        store.onChange(AnalyticsChange.reset(20));
+
+        assertEquals(0, store.columnCount());
+    }
+
+    private static AnalyticsChange.SurveyChange survey(UUID villageId, AnalyticsChange.ResponseChange... responses) {
+        return new AnalyticsChange.SurveyChange(UUID.randomUUID(), true, villageId, PANCHAYAT, CONSTITUENCY,
+                List.of(responses));
+    }
+}
@@ -0,0 +1,152 @@
+package com.survery.analytics.api.cache;
+
+import com.survery.analytics.domain.wire.AnalyticsChange;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QueryResultCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final QueryResultCache cache =
+            new QueryResultCache(Duration.ofMinutes(5), 100, Duration.ofSeconds(5), Duration.ZERO, meterRegistry);
+    private final AtomicInteger queries = new AtomicInteger();
+
+    private static final UUID SURVEY = new UUID(0, 1);
+    private static final UUID OTHER = new UUID(0, 2);
+
+    @Test
+    void get_shouldRunEachQueryOncePerParameters() {
+        assertEquals(1, cache.get("summary", SURVEY, queries::incrementAndGet, "a"));
+        assertEquals(1, cache.get("summary", SURVEY, queries::incrementAndGet, "a"));
+        assertEquals(2, cache.get("summary", SURVEY, queries::incrementAndGet, "b"));
+        assertEquals(3, cache.get("summary", SURVEY, queries::incrementAndGet, (Object) null));
+
+        assertEquals(1.0 / 4, cache.hitRatio());
+        assertEquals(1, meterRegistry.get("api.cache.staleness").timer().count());
+    }
+
+    @Test
+    void onChange_shouldDropTheChangedSurveysAndGlobalResults() {
+        cache.get("summary", SURVEY, queries::incrementAndGet);
+        cache.get("summary", OTHER, queries::incrementAndGet);
+        cache.get("count", null, queries::incrementAndGet);
+
+        cache.onChange(new AnalyticsChange(1, false, List.of(new AnalyticsChange.SurveyChange(
+                SURVEY, true, UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(), List.of()))));
+
+        assertEquals(1, cache.size());
+        assertEquals(2, cache.get("summary", OTHER, queries::incrementAndGet));
+        assertEquals(4, cache.get("summary", SURVEY, queries::incrementAndGet));
+        assertEquals(2.0, meterRegistry.get("api.cache.invalidations").counter().count());
+
+        cache.onChange(AnalyticsChange.reset(2));
+
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void get_shortlyAfterAChange_shouldNotCacheWhatAReplicaMayNotHaveSeen() {
+        QueryResultCache settling = new QueryResultCache(Duration.ofMinutes(5), 100, Duration.ofSeconds(5),
+                Duration.ofMinutes(1), meterRegistry);
+        settling.get("summary", SURVEY, queries::incrementAndGet);
+        settling.get("summary", OTHER, queries::incrementAndGet);
+
+        settling.onChange(new AnalyticsChange(1, false, List.of(new AnalyticsChange.SurveyChange(
+                SURVEY, true, UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(), List.of()))));
+
+        assertEquals(3, settling.get("summary", SURVEY, queries::incrementAndGet));
+        assertEquals(4, settling.get("summary", SURVEY, queries::incrementAndGet));
+        assertEquals(5, settling.get("count", null, queries::incrementAndGet));
+        assertEquals(6, settling.get("count", null, queries::incrementAndGet));
+        assertEquals(2, settling.get("summary", OTHER, queries::incrementAndGet));
+        assertEquals(1, settling.size());
+    }
+
+    @Test
+    void get_shouldCoalesceConcurrentMisses() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Integer> first = CompletableFuture.supplyAsync(() -> cache.get("count", null, () -> {
+            started.countDown();
+            await(release);
+            return queries.incrementAndGet();
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Integer> second = CompletableFuture.supplyAsync(
+                () -> cache.get("count", null, queries::incrementAndGet));
+        while (meterRegistry.get("api.cache.requests").tag("result", "coalesced").counter().count() == 0) {
+            Thread.onSpinWait();
+        }
+
+        release.countDown();
+
+        assertEquals(1, first.get(5, TimeUnit.SECONDS));
+        assertEquals(1, second.get(5, TimeUnit.SECONDS));
+        assertEquals(1, queries.get());
+    }
+
+    @Test
+    void get_whenQueryInFlightIsTooSlow_shouldStopWaiting() throws Exception {
+        QueryResultCache impatient = new QueryResultCache(Duration.ofMinutes(5), 100, Duration.ofMillis(50),
+                Duration.ZERO, meterRegistry);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Integer> first = CompletableFuture.supplyAsync(() -> impatient.get("count", null, () -> {
+            started.countDown();
+            await(release);
+            return queries.incrementAndGet();
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        assertThrows(IllegalStateException.class, () -> impatient.get("count", null, queries::incrementAndGet));
+
+        release.countDown();
+        assertEquals(1, first.get(5, TimeUnit.SECONDS));
+        assertEquals(1, impatient.get("count", null, queries::incrementAndGet));
+    }
+
+    @Test
+    void get_shouldNotCacheFailures() {
+        assertThrows(IllegalArgumentException.class, () -> cache.get("count", null, () -> {
+            throw new IllegalArgumentException("bad range");
+        }));
+
+        assertEquals(0, cache.size());
+        assertEquals(1, cache.get("count", null, queries::incrementAndGet));
+    }
+
+    @Test
+    void get_whenFull_shouldEvictTheLeastRecentlyReadEntry() {
+        QueryResultCache small = new QueryResultCache(Duration.ofMinutes(5), 2, Duration.ofSeconds(5),
+                Duration.ZERO, meterRegistry);
+        small.get("summary", SURVEY, queries::incrementAndGet);
+        small.get("summary", OTHER, queries::incrementAndGet);
+        small.get("summary", SURVEY, queries::incrementAndGet);
+
+        assertEquals(3, small.get("count", null, queries::incrementAndGet));
+
+        assertEquals(2, small.size());
+        assertEquals(1, small.get("summary", SURVEY, queries::incrementAndGet));
+        assertEquals(3, small.get("count", null, queries::incrementAndGet));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.survery.analytics.api.datasource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Routes between two in-memory H2 databases standing in for a primary and its replica; each holds
+ * a row naming the server, and the replica's lag is a value the test sets.
+ */
+class ReplicaRoutingDataSourceTest {
+
+    private static final String LAG_QUERY = "SELECT seconds FROM lag";
+
+    private final DataSource primary = database("primary");
+    private final DataSource replica = database("replica");
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ReplicaRoutingDataSource router;
+    private JdbcTemplate jdbcTemplate;
+    private DataSourceTransactionManager transactionManager;
+
+    @AfterEach
+    void close() throws Exception {
+        if (router != null) {
+            router.destroy();
+        }
+    }
+
+    @Test
+    void readOnlyTransactions_shouldGoToACurrentReplica() {
+        setLag(1);
+        route(Duration.ofSeconds(5));
+
+        assertEquals("replica", server(true));
+        assertEquals("primary", server(false));
+        assertEquals(List.of("replica-1"), router.usableReplicas());
+    }
+
+    @Test
+    void readOnlyTransactions_shouldFallBackToThePrimaryWhileTheReplicaLags() {
+        setLag(1);
+        route(Duration.ofSeconds(5));
+        setLag(30);
+
+        router.checkLag();
+
+        assertEquals("primary", server(true));
+        assertEquals(1.0, meterRegistry.get("api.datasource.primary.reads").counter().count());
+        assertEquals(30.0, meterRegistry.get("api.datasource.replica.lag").tag("replica", "replica-1").gauge().value());
+
+        setLag(0);
+        router.checkLag();
+
+        assertEquals("replica", server(true));
+    }
+
+    @Test
+    void replicaThatCannotBeChecked_shouldNotBeUsed() {
+        route(Duration.ofSeconds(5));
+        new JdbcTemplate(replica).execute("DROP TABLE lag");
+
+        router.checkLag();
+
+        assertEquals("primary", server(true));
+        assertEquals(List.of(), router.usableReplicas());
+    }
+
+    @Test
+    void replicaWithoutALag_shouldNotBeUsed() {
+        setLag(1);
+        route(Duration.ofSeconds(5));
+        // What the lag query returns for a standby whose WAL receiver is not streaming.
+        new JdbcTemplate(replica).update("UPDATE lag SET seconds = NULL");
+
+        router.checkLag();
+
+        assertEquals("primary", server(true));
+        assertEquals(List.of(), router.usableReplicas());
+    }
+
+    private void route(Duration maxLag) {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        replicas.put("replica-1", replica);
+        router = new ReplicaRoutingDataSource(primary, replicas, LAG_QUERY, maxLag, meterRegistry);
+        router.afterPropertiesSet();
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(router);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionManager = new DataSourceTransactionManager(dataSource);
+    }
+
+    private String server(boolean readOnly) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(readOnly);
+        return transactionTemplate.execute(status -> jdbcTemplate.queryForObject("SELECT name FROM server", String.class));
+    }
+
+    private void setLag(double seconds) {
+        new JdbcTemplate(replica).update("UPDATE lag SET seconds = ?", seconds);
+    }
+
+    private static DataSource database(String name) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + name + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE server (name VARCHAR(16))");
+        jdbcTemplate.update("INSERT INTO server VALUES (?)", name);
+        jdbcTemplate.execute("CREATE TABLE lag (seconds DOUBLE PRECISION)");
+        jdbcTemplate.update("INSERT INTO lag VALUES (0)");
+        return dataSource;
+    }
+}
@@ -0,0 +1,124 @@
+package com.survery.analytics.api.export;
+
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ResponseExporterTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final ResponseExporter exporter =
+            new ResponseExporter(jdbcTemplate, mock(PlatformTransactionManager.class), 2, Duration.ofHours(1));
+
+    private static final UUID SURVEY = new UUID(0, 1);
+    private static final UUID PLACE = new UUID(1, 1);
+    private static final OffsetDateTime AT = OffsetDateTime.parse("2024-03-01T04:45:30Z");
+
+    @Test
+    void export_asCsv_shouldStreamRowsThroughACursorAndQuoteValues() throws Exception {
+        PreparedStatement statement = stubRows(List.of(
+                row(new UUID(0, 10), "q-1", "{\"choice\":\"yes, \\\"really\\\"\"}"),
+                row(new UUID(0, 11), "q-2", "null"),
+                row(new UUID(0, 12), "q-3", "{}")));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        exporter.export(SURVEY, null, ExportFormat.CSV, out);
+
+        verify(statement).setFetchSize(2);
+        verify(statement).setObject(1, SURVEY);
+        String user = new UUID(2, 2).toString();
+        assertEquals(String.join(",", ResponseExporter.COLUMNS) + "\r\n"
+                + new UUID(0, 10) + ",q-1,\"{\"\"choice\"\":\"\"yes, \\\"\"really\\\"\"\"\"}\"," + user + "," + AT + ","
+                + PLACE + "," + PLACE + "," + PLACE + "\r\n"
+                + new UUID(0, 11) + ",q-2,null," + user + "," + AT + "," + PLACE + "," + PLACE + "," + PLACE + "\r\n"
+                + new UUID(0, 12) + ",q-3,{}," + user + "," + AT + "," + PLACE + "," + PLACE + "," + PLACE + "\r\n",
+                out.toString());
+    }
+
+    @Test
+    void export_asCsv_whenResumed_shouldContinueAfterThePositionWithoutAHeader() throws Exception {
+        PreparedStatement statement = stubRows(List.of(row(new UUID(0, 12), "q-3", "{}")));
+        UUID after = new UUID(0, 11);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        exporter.export(SURVEY, after, ExportFormat.CSV, out);
+
+        verify(statement).setObject(2, after);
+        String user = new UUID(2, 2).toString();
+        assertEquals(new UUID(0, 12) + ",q-3,{}," + user + "," + AT + "," + PLACE + "," + PLACE + "," + PLACE + "\r\n",
+                out.toString());
+    }
+
+    @Test
+    void export_withoutPosition_shouldStartBeforeTheFirstResponse() throws Exception {
+        PreparedStatement statement = stubRows(List.of());
+
+        exporter.export(SURVEY, null, ExportFormat.CSV, new ByteArrayOutputStream());
+
+        verify(statement).setObject(2, ResponseExporter.FIRST);
+    }
+
+    @Test
+    void export_asXlsx_shouldWriteAHeaderAndOneRowPerResponse() throws Exception {
+        stubRows(List.of(row(new UUID(0, 10), "q-1", "{\"choice\":\"yes\"}"), row(new UUID(0, 11), "q-2", "null")));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        exporter.export(SURVEY, null, ExportFormat.XLSX, out);
+
+        try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()))) {
+            Sheet sheet = workbook.getSheetAt(0);
+            assertEquals(2, sheet.getLastRowNum());
+            assertEquals("response_id", sheet.getRow(0).getCell(0).getStringCellValue());
+            assertEquals(new UUID(0, 11).toString(), sheet.getRow(2).getCell(0).getStringCellValue());
+            assertEquals("{\"choice\":\"yes\"}", sheet.getRow(1).getCell(2).getStringCellValue());
+        }
+    }
+
+    private PreparedStatement stubRows(List<ResultSet> rows) throws Exception {
+        Connection connection = mock(Connection.class);
+        PreparedStatement statement = mock(PreparedStatement.class);
+        when(connection.prepareStatement(ResponseExporter.ROWS)).thenReturn(statement);
+        doAnswer(invocation -> {
+            ((PreparedStatementCreator) invocation.getArgument(0)).createPreparedStatement(connection);
+            for (ResultSet row : rows) {
+                ((RowCallbackHandler) invocation.getArgument(1)).processRow(row);
+            }
+            return null;
+        }).when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+        return statement;
+    }
+
+    private static ResultSet row(UUID responseId, String questionId, String value) throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getObject(1, UUID.class)).thenReturn(responseId);
+        when(rs.getString(2)).thenReturn(questionId);
+        when(rs.getString(3)).thenReturn(value);
+        when(rs.getObject(4, UUID.class)).thenReturn(new UUID(2, 2));
+        when(rs.getObject(5, OffsetDateTime.class)).thenReturn(AT);
+        when(rs.getObject(6, UUID.class)).thenReturn(PLACE);
+        when(rs.getObject(7, UUID.class)).thenReturn(PLACE);
+        when(rs.getObject(8, UUID.class)).thenReturn(PLACE);
+        return rs;
+    }
+}
@@ -0,0 +1,156 @@
+package com.survery.analytics.api.live;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.survery.analytics.domain.wire.AnalyticsChange;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LiveCounterBroadcasterTest {
+
+    private static final UUID FIRST = new UUID(0, 1);
+    private static final UUID SECOND = new UUID(0, 2);
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final List<Runnable> sends = new ArrayList<>();
+    private final LiveCounterBroadcaster broadcaster =
+            new LiveCounterBroadcaster(objectMapper, Duration.ofMinutes(1), 2, 2, sends::add, new SimpleMeterRegistry());
+
+    @Test
+    void broadcast_shouldCoalesceChangesIntoOneFramePerInterval() throws Exception {
+        RecordingEmitter all = new RecordingEmitter();
+        RecordingEmitter second = new RecordingEmitter();
+        broadcaster.register(all, Set.of());
+        broadcaster.register(second, Set.of(SECOND));
+
+        broadcaster.onChange(change(FIRST, true, 2));
+        broadcaster.onChange(change(FIRST, false, 1));
+        broadcaster.onChange(change(SECOND, true, 0));
+        broadcaster.broadcast();
+        broadcaster.broadcast();
+        send();
+
+        assertEquals(1, all.frames.size());
+        assertEquals(objectMapper.readTree("{\"surveys\":2,\"responses\":3,\"bySurvey\":{"
+                        + "\"" + FIRST + "\":{\"surveys\":1,\"responses\":3},"
+                        + "\"" + SECOND + "\":{\"surveys\":1,\"responses\":0}}}"),
+                objectMapper.readTree(all.frames.get(0)));
+        assertEquals(1, second.frames.size());
+        assertEquals(objectMapper.readTree("{\"surveys\":1,\"responses\":0,\"bySurvey\":{"
+                        + "\"" + SECOND + "\":{\"surveys\":1,\"responses\":0}}}"),
+                objectMapper.readTree(second.frames.get(0)));
+    }
+
+    @Test
+    void broadcast_shouldSkipSubscribersWhoseSurveysDidNotChange() {
+        RecordingEmitter second = new RecordingEmitter();
+        broadcaster.register(second, Set.of(SECOND));
+
+        broadcaster.onChange(change(FIRST, true, 1));
+        broadcaster.broadcast();
+        send();
+
+        assertTrue(second.frames.isEmpty());
+    }
+
+    @Test
+    void broadcast_ofReset_shouldTellSubscribersToReread() {
+        RecordingEmitter all = new RecordingEmitter();
+        broadcaster.register(all, Set.of());
+
+        broadcaster.onChange(AnalyticsChange.reset(1));
+        broadcaster.broadcast();
+        send();
+
+        assertEquals(List.of("{}"), all.frames);
+    }
+
+    @Test
+    void broadcast_shouldDropSubscribersThatFail() {
+        broadcaster.register(new RecordingEmitter() {
+            @Override
+            public void send(SseEventBuilder builder) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        }, Set.of());
+
+        broadcaster.onChange(change(FIRST, true, 1));
+        broadcaster.broadcast();
+        send();
+
+        assertEquals(0, broadcaster.subscriberCount());
+    }
+
+    @Test
+    void broadcast_shouldOnlyQueueAndCloseSubscribersThatFallBehind() {
+        RecordingEmitter slow = new RecordingEmitter();
+        broadcaster.register(slow, Set.of());
+
+        for (int i = 0; i < 3; i++) {
+            broadcaster.onChange(change(FIRST, true, 1));
+            broadcaster.broadcast();
+        }
+
+        // Nothing was written on the broadcasting thread; one drain was handed to the sender.
+        assertTrue(slow.frames.isEmpty());
+        assertEquals(1, sends.size());
+        assertEquals(0, broadcaster.subscriberCount());
+        send();
+        assertTrue(slow.completed);
+        assertTrue(slow.frames.isEmpty());
+    }
+
+    @Test
+    void subscribe_shouldLimitSubscribers() {
+        broadcaster.subscribe(Set.of());
+        broadcaster.subscribe(Set.of(FIRST));
+
+        assertThrows(IllegalStateException.class, () -> broadcaster.subscribe(Collections.emptySet()));
+    }
+
+    private void send() {
+        while (!sends.isEmpty()) {
+            sends.remove(0).run();
+        }
+    }
+
+    private static AnalyticsChange change(UUID surveyId, boolean inserted, int responses) {
+        List<AnalyticsChange.ResponseChange> changes = new ArrayList<>();
+        for (int i = 0; i < responses; i++) {
+            changes.add(new AnalyticsChange.ResponseChange(UUID.randomUUID(), "q-" + i, "{}"));
+        }
+        return new AnalyticsChange(1, false, List.of(new AnalyticsChange.SurveyChange(
+                surveyId, inserted, UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(), changes)));
+    }
+
+    private static class RecordingEmitter extends SseEmitter {
+        final List<String> frames = new ArrayList<>();
+        boolean completed;
+
+        @Override
+        public void complete() {
+            completed = true;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            builder.build().stream()
+                    .filter(data -> MediaType.APPLICATION_JSON.equals(data.getMediaType()))
+                    .forEach(data -> frames.add((String) data.getData()));
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.survery.analytics.api.repository;
+
+import com.survery.analytics.api.dto.ResponsePageDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Runs the page query against an in-memory H2 database holding the columns it reads.
+ */
+class ResponsePageRepositoryTest {
+
+    private static final UUID SURVEY = new UUID(0, 1);
+    private static final UUID OTHER_SURVEY = new UUID(0, 2);
+    private static final UUID VILLAGE = new UUID(1, 1);
+    private static final OffsetDateTime AT = OffsetDateTime.parse("2024-03-01T04:45:30Z");
+
+    private final JdbcTemplate jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(
+            "jdbc:h2:mem:responses-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", ""));
+    private final ResponsePageRepository repository = new ResponsePageRepository(jdbcTemplate);
+
+    ResponsePageRepositoryTest() {
+        jdbcTemplate.execute("CREATE TABLE surveys (survey_id UUID PRIMARY KEY, user_id UUID, "
+                + "timestamp TIMESTAMP WITH TIME ZONE, village_id UUID, panchayat_id UUID, constituency_id UUID)");
+        jdbcTemplate.execute("CREATE TABLE responses (response_id UUID PRIMARY KEY, survey_id UUID, "
+                + "question_id VARCHAR(64), response_value VARCHAR(1024))");
+        for (UUID survey : List.of(SURVEY, OTHER_SURVEY)) {
+            jdbcTemplate.update("INSERT INTO surveys VALUES (?, ?, ?, ?, ?, ?)",
+                    survey, new UUID(2, 2), AT, VILLAGE, new UUID(1, 2), new UUID(1, 3));
+        }
+        // Inserted out of order; pages come in response_id order.
+        for (int i : new int[]{5, 1, 4, 2, 3}) {
+            jdbcTemplate.update("INSERT INTO responses VALUES (?, ?, ?, ?)",
+                    new UUID(9, i), SURVEY, i % 2 == 0 ? "q-even" : "q-odd", "{\"choice\":" + i + "}");
+        }
+        jdbcTemplate.update("INSERT INTO responses VALUES (?, ?, ?, ?)", new UUID(9, 6), OTHER_SURVEY, "q-odd", "{}");
+    }
+
+    @Test
+    void findPage_shouldSeekPastTheCursor() {
+        List<ResponsePageDto.Item> first = repository.findPage(SURVEY, null, null, null, null, null, 2);
+        List<ResponsePageDto.Item> second = repository.findPage(SURVEY, null, null, null, null,
+                ResponseCursor.decode(new ResponseCursor(first.get(1).getResponseId()).encode(7), 7), 2);
+
+        assertEquals(List.of(new UUID(9, 1), new UUID(9, 2)), ids(first));
+        assertEquals(List.of(new UUID(9, 3), new UUID(9, 4)), ids(second));
+        assertEquals(new ResponsePageDto.Item(new UUID(9, 1), SURVEY, "q-odd", "{\"choice\":1}", new UUID(2, 2), AT,
+                VILLAGE, new UUID(1, 2), new UUID(1, 3)), first.get(0));
+    }
+
+    @Test
+    void findPage_shouldApplyQuestionAndLocationFilters() {
+        assertEquals(List.of(new UUID(9, 1), new UUID(9, 3), new UUID(9, 5)),
+                ids(repository.findPage(SURVEY, "q-odd", VILLAGE, null, null, null, 10)));
+        assertEquals(List.of(), ids(repository.findPage(SURVEY, null, new UUID(7, 7), null, null, null, 10)));
+    }
+
+    @Test
+    void decode_shouldRejectForeignTokens() {
+        assertThrows(IllegalArgumentException.class, () -> ResponseCursor.decode("not a cursor!", 7));
+        assertThrows(IllegalArgumentException.class, () -> ResponseCursor.decode("AAAA", 7));
+    }
+
+    @Test
+    void decode_shouldRejectTokensOfAnotherQuery() {
+        long filters = ResponseCursor.filters(SURVEY, "q-odd", null, null, null);
+        String token = new ResponseCursor(new UUID(9, 1)).encode(filters);
+
+        assertEquals(new ResponseCursor(new UUID(9, 1)), ResponseCursor.decode(token, filters));
+        assertThrows(IllegalArgumentException.class, () -> ResponseCursor.decode(token,
+                ResponseCursor.filters(OTHER_SURVEY, "q-odd", null, null, null)));
+        assertThrows(IllegalArgumentException.class, () -> ResponseCursor.decode(token,
+                ResponseCursor.filters(SURVEY, null, null, null, null)));
+    }
+
+    private static List<UUID> ids(List<ResponsePageDto.Item> items) {
+        return items.stream().map(ResponsePageDto.Item::getResponseId).toList();
+    }
+}
@@ -0,0 +1,359 @@
+package com.survery.analytics.api.service;
+
+import com.survery.analytics.api.answers.ColumnarAnswerStore;
+import com.survery.analytics.api.dto.LocationDistributionDto;
+import com.survery.analytics.api.dto.ResponsePageDto;
+import com.survery.analytics.api.dto.ResponsesOverTimeDto;
+import com.survery.analytics.api.dto.SurveySummaryDto;
+import com.survery.analytics.api.dto.UniqueRespondentsDto;
+import com.survery.analytics.api.repository.AnalyticsTotalsRepository;
+import com.survery.analytics.api.repository.LocationResponseCountRepository;
+import com.survery.analytics.api.repository.RespondentSketchRepository;
+import com.survery.analytics.api.repository.ResponseCursor;
+import com.survery.analytics.api.repository.ResponsePageRepository;
+import com.survery.analytics.api.repository.ResponseTimeBucketRepository;
+import com.survery.analytics.api.repository.SurveyRepository;
+import com.survery.analytics.api.repository.SurveySummaryRepository;
+import com.survery.analytics.domain.AnalyticsTotals;
+import com.survery.analytics.domain.LocationLevel;
+import com.survery.analytics.domain.RespondentSketch;
+import com.survery.analytics.domain.RespondentSketchId;
+import com.survery.analytics.domain.SketchScope;
+import com.survery.analytics.domain.SurveySummary;
+import com.survery.analytics.domain.TimeResolution;
+import com.survery.analytics.domain.sketch.HyperLogLog;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AnalyticsServiceTest {
+
+    @Mock
+    private SurveyRepository surveyRepository;
+
+    @Mock
+    private SurveySummaryRepository surveySummaryRepository;
+
+    @Mock
+    private AnalyticsTotalsRepository analyticsTotalsRepository;
+
+    @Mock
+    private ResponseTimeBucketRepository responseTimeBucketRepository;
+
+    @Mock
+    private LocationResponseCountRepository locationResponseCountRepository;
+
+    @Mock
+    private RespondentSketchRepository respondentSketchRepository;
+
+    @Mock
+    private ResponsePageRepository responsePageRepository;
+
+    @Mock
+    private ColumnarAnswerStore columnarAnswerStore;
+
+    @InjectMocks
+    private AnalyticsService analyticsService;
+
+    @Test
+    void getSurveyCount_shouldReadTotalsRowInsteadOfCountingSurveys() {
+        AnalyticsTotals totals = new AnalyticsTotals();
+        totals.setSurveys(42);
+        when(analyticsTotalsRepository.findById(AnalyticsTotals.ID)).thenReturn(Optional.of(totals));
+
+        assertEquals(42, analyticsService.getSurveyCount());
+        verify(surveyRepository, never()).count();
+    }
+
+    @Test
+    void getSurveyCount_beforeTotalsExist_shouldFallBackToCount() {
+        when(analyticsTotalsRepository.findById(AnalyticsTotals.ID)).thenReturn(Optional.empty());
+        when(surveyRepository.count()).thenReturn(7L);
+
+        assertEquals(7, analyticsService.getSurveyCount());
+    }
+
+    @Test
+    void getSurveySummary_shouldIncludeCompletionRate() {
+        UUID surveyId = UUID.randomUUID();
+        SurveySummary summary = new SurveySummary();
+        summary.setSurveyId(surveyId);
+        summary.setTotalResponses(8);
+        summary.setAnsweredResponses(6);
+        summary.setLastResponseAt(OffsetDateTime.parse("2024-03-01T04:45:30Z"));
+        when(surveySummaryRepository.findById(surveyId)).thenReturn(Optional.of(summary));
+
+        SurveySummaryDto dto = analyticsService.getSurveySummary(surveyId).orElseThrow();
+
+        assertEquals(0.75, dto.getCompletionRate());
+        assertEquals(8, dto.getTotalResponses());
+        assertEquals(summary.getLastResponseAt(), dto.getLastResponseAt());
+    }
+
+    @Test
+    void getResponsesOverTime_withoutResolution_shouldPickOneFromTheRange() {
+        OffsetDateTime to = OffsetDateTime.parse("2024-03-31T00:00Z");
+        OffsetDateTime from = to.minusDays(90);
+        when(responseTimeBucketRepository.sumBuckets(from, to, "day")).thenReturn(List.of(
+                bucketCount(OffsetDateTime.parse("2024-03-01T00:00Z"), 5),
+                bucketCount(OffsetDateTime.parse("2024-03-02T00:00Z"), 3)));
+
+        ResponsesOverTimeDto dto = analyticsService.getResponsesOverTime(null, from, to, null);
+
+        assertEquals(TimeResolution.DAY, dto.getResolution());
+        assertEquals(List.of(
+                new ResponsesOverTimeDto.Bucket(OffsetDateTime.parse("2024-03-01T00:00Z"), 5),
+                new ResponsesOverTimeDto.Bucket(OffsetDateTime.parse("2024-03-02T00:00Z"), 3)), dto.getBuckets());
+    }
+
+    @Test
+    void getResponsesOverTime_withConstituency_shouldReadOnlyItsBuckets() {
+        UUID constituencyId = UUID.randomUUID();
+        OffsetDateTime to = OffsetDateTime.parse("2024-03-01T12:00Z");
+        OffsetDateTime from = to.minusHours(2);
+        when(responseTimeBucketRepository.sumConstituencyBuckets(constituencyId, from, to, "hour")).thenReturn(List.of(
+                bucketCount(OffsetDateTime.parse("2024-03-01T11:00Z"), 7)));
+
+        ResponsesOverTimeDto dto = analyticsService.getResponsesOverTime(constituencyId, from, to, TimeResolution.HOUR);
+
+        assertEquals(constituencyId, dto.getConstituencyId());
+        assertEquals(List.of(new ResponsesOverTimeDto.Bucket(OffsetDateTime.parse("2024-03-01T11:00Z"), 7)),
+                dto.getBuckets());
+        verify(responseTimeBucketRepository, never()).sumBuckets(any(), any(), any());
+    }
+
+    @Test
+    void getResponsesOverTime_shouldRejectEmptyRange() {
+        OffsetDateTime at = OffsetDateTime.parse("2024-03-01T00:00Z");
+
+        assertThrows(IllegalArgumentException.class,
+                () -> analyticsService.getResponsesOverTime(UUID.randomUUID(), at, at, TimeResolution.HOUR));
+    }
+
+    @Test
+    void defaultResolution_shouldCoarsenWithRangeLength() {
+        assertEquals(TimeResolution.MINUTE, AnalyticsService.defaultResolution(Duration.ofHours(6)));
+        assertEquals(TimeResolution.HOUR, AnalyticsService.defaultResolution(Duration.ofDays(7)));
+        assertEquals(TimeResolution.DAY, AnalyticsService.defaultResolution(Duration.ofDays(8)));
+    }
+
+    @Test
+    void getLocationDistribution_withParent_shouldListItsChildrenWithTotals() {
+        UUID constituencyId = UUID.randomUUID();
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        when(locationResponseCountRepository.findByParentId(constituencyId)).thenReturn(List.of(
+                locationCount(first, "Ward 1", 3, 12), locationCount(second, "Ward 2", 1, 4)));
+
+        LocationDistributionDto dto = analyticsService.getLocationDistribution(constituencyId, null);
+
+        assertEquals(4, dto.getTotalSurveys());
+        assertEquals(16, dto.getTotalResponses());
+        assertEquals(new LocationDistributionDto.Location(LocationLevel.PANCHAYAT, first, "Ward 1", 3, 12),
+                dto.getLocations().get(0));
+        verify(locationResponseCountRepository, never()).findByLevel(any());
+    }
+
+    @Test
+    void getLocationDistribution_withoutParent_shouldListConstituencies() {
+        when(locationResponseCountRepository.findByLevel("CONSTITUENCY")).thenReturn(List.of());
+
+        LocationDistributionDto dto = analyticsService.getLocationDistribution(null, null);
+
+        assertEquals(0, dto.getTotalResponses());
+        assertEquals(List.of(), dto.getLocations());
+    }
+
+    @Test
+    void getLocationDistribution_withParentAndLevel_shouldBeRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> analyticsService.getLocationDistribution(UUID.randomUUID(), LocationLevel.VILLAGE));
+        verify(locationResponseCountRepository, never()).findByParentId(any());
+    }
+
+    @Test
+    void getUniqueRespondents_approximate_shouldMergeTheDailySketches() {
+        UUID constituencyId = UUID.randomUUID();
+        LocalDate monday = LocalDate.parse("2024-03-04");
+        List<UUID> respondents = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            respondents.add(UUID.randomUUID());
+        }
+        // Half of Tuesday's respondents already answered on Monday.
+        when(respondentSketchRepository.findByIdScopeAndIdScopeIdAndIdDayBetweenOrderByIdDay(
+                SketchScope.CONSTITUENCY, constituencyId, monday, monday.plusDays(6)))
+                .thenReturn(List.of(sketch(constituencyId, monday, respondents.subList(0, 600)),
+                        sketch(constituencyId, monday.plusDays(1), respondents.subList(300, 1000))));
+
+        UniqueRespondentsDto result = analyticsService.getUniqueRespondents(
+                SketchScope.CONSTITUENCY, constituencyId, monday, monday.plusDays(6), true);
+
+        assertTrue(result.isApproximate());
+        assertEquals(HyperLogLog.RELATIVE_STANDARD_ERROR, result.getRelativeStandardError());
+        assertEquals(1000, result.getUniqueRespondents(), 1000 * 4 * HyperLogLog.RELATIVE_STANDARD_ERROR);
+        assertEquals(List.of(monday, monday.plusDays(1)),
+                result.getDays().stream().map(UniqueRespondentsDto.Day::getDay).toList());
+        assertEquals(600, result.getDays().get(0).getUniqueRespondents(), 600 * 4 * HyperLogLog.RELATIVE_STANDARD_ERROR);
+        verify(surveyRepository, never()).countRespondentsInConstituency(any(), any(), any());
+    }
+
+    @Test
+    void getUniqueRespondents_exact_shouldCountWholeUtcDays() {
+        UUID constituencyId = UUID.randomUUID();
+        LocalDate day = LocalDate.parse("2024-03-04");
+        when(surveyRepository.countRespondentsInConstituency(constituencyId, OffsetDateTime.parse("2024-03-04T00:00Z"),
+                OffsetDateTime.parse("2024-03-05T00:00Z"))).thenReturn(7L);
+
+        UniqueRespondentsDto result = analyticsService.getUniqueRespondents(SketchScope.CONSTITUENCY, constituencyId,
+                day, day, false);
+
+        assertEquals(new UniqueRespondentsDto(SketchScope.CONSTITUENCY, constituencyId, day, day, 7, false, null, null),
+                result);
+    }
+
+    @Test
+    void getUniqueRespondents_approximateOfAll_shouldMergeEveryConstituencyPerDay() {
+        LocalDate monday = LocalDate.parse("2024-03-04");
+        List<UUID> respondents = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            respondents.add(UUID.randomUUID());
+        }
+        // A respondent can answer in two constituencies on the same day.
+        when(respondentSketchRepository.findByIdScopeAndIdDayBetweenOrderByIdDay(
+                SketchScope.CONSTITUENCY, monday, monday.plusDays(6)))
+                .thenReturn(List.of(sketch(UUID.randomUUID(), monday, respondents.subList(0, 600)),
+                        sketch(UUID.randomUUID(), monday, respondents.subList(400, 1000))));
+
+        UniqueRespondentsDto result = analyticsService.getUniqueRespondents(
+                SketchScope.ALL, null, monday, monday.plusDays(6), true);
+
+        assertNull(result.getScopeId());
+        assertEquals(1, result.getDays().size());
+        assertEquals(1000, result.getDays().get(0).getUniqueRespondents(), 1000 * 4 * HyperLogLog.RELATIVE_STANDARD_ERROR);
+        assertEquals(1000, result.getUniqueRespondents(), 1000 * 4 * HyperLogLog.RELATIVE_STANDARD_ERROR);
+    }
+
+    @Test
+    void getUniqueRespondents_shouldRejectMissingIdAndReversedRange() {
+        LocalDate day = LocalDate.parse("2024-03-04");
+
+        assertThrows(IllegalArgumentException.class,
+                () -> analyticsService.getUniqueRespondents(SketchScope.CONSTITUENCY, null, day, day, true));
+        assertThrows(IllegalArgumentException.class,
+                () -> analyticsService.getUniqueRespondents(SketchScope.ALL, null, day, day.minusDays(1), true));
+    }
+
+    @Test
+    void getResponsePage_shouldFetchOneRowMoreToFindTheNextPage() {
+        UUID surveyId = UUID.randomUUID();
+        List<ResponsePageDto.Item> rows = List.of(item(new UUID(0, 1)), item(new UUID(0, 2)), item(new UUID(0, 3)));
+        when(responsePageRepository.findPage(surveyId, "q-1", null, null, null, null, 3)).thenReturn(rows);
+
+        ResponsePageDto page = analyticsService.getResponsePage(surveyId, "q-1", null, null, null, null, 2);
+
+        assertEquals(rows.subList(0, 2), page.getResponses());
+        assertEquals(new ResponseCursor(new UUID(0, 2)), ResponseCursor.decode(page.getNextCursor(),
+                ResponseCursor.filters(surveyId, "q-1", null, null, null)));
+
+        when(responsePageRepository.findPage(surveyId, "q-1", null, null, null, new ResponseCursor(new UUID(0, 2)), 3))
+                .thenReturn(rows.subList(2, 3));
+
+        ResponsePageDto last = analyticsService.getResponsePage(surveyId, "q-1", null, null, null, page.getNextCursor(), 2);
+
+        assertEquals(rows.subList(2, 3), last.getResponses());
+        assertNull(last.getNextCursor());
+        assertThrows(IllegalArgumentException.class, () -> analyticsService.getResponsePage(
+                surveyId, "q-2", null, null, null, page.getNextCursor(), 2));
+    }
+
+    @Test
+    void getResponsePage_shouldRejectLimitsOutOfRange() {
+        assertThrows(IllegalArgumentException.class,
+                () -> analyticsService.getResponsePage(UUID.randomUUID(), null, null, null, null, null, 0));
+        assertThrows(IllegalArgumentException.class, () -> analyticsService.getResponsePage(
+                UUID.randomUUID(), null, null, null, null, null, AnalyticsService.MAX_PAGE_SIZE + 1));
+    }
+
+    private static ResponsePageDto.Item item(UUID responseId) {
+        return new ResponsePageDto.Item(responseId, UUID.randomUUID(), "q-1", "{}", UUID.randomUUID(),
+                OffsetDateTime.parse("2024-03-01T04:45:30Z"), UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+    }
+
+    private static RespondentSketch sketch(UUID constituencyId, LocalDate day, List<UUID> respondents) {
+        HyperLogLog registers = new HyperLogLog();
+        respondents.forEach(registers::add);
+        RespondentSketch sketch = new RespondentSketch();
+        sketch.setId(new RespondentSketchId(SketchScope.CONSTITUENCY, constituencyId, day));
+        sketch.setRegisters(registers.toBytes());
+        return sketch;
+    }
+
+    private static LocationResponseCountRepository.LocationCount locationCount(UUID id, String name, long surveys,
+                                                                                long responses) {
+        return new LocationResponseCountRepository.LocationCount() {
+            @Override
+            public String getLevel() {
+                return "PANCHAYAT";
+            }
+
+            @Override
+            public UUID getLocationId() {
+                return id;
+            }
+
+            @Override
+            public UUID getParentId() {
+                return null;
+            }
+
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public long getSurveys() {
+                return surveys;
+            }
+
+            @Override
+            public long getResponses() {
+                return responses;
+            }
+        };
+    }
+
+    private static ResponseTimeBucketRepository.BucketCount bucketCount(OffsetDateTime start, long responses) {
+        return new ResponseTimeBucketRepository.BucketCount() {
+            @Override
+            public long getBucketStart() {
+                return start.toEpochSecond();
+            }
+
+            @Override
+            public long getResponses() {
+                return responses;
+            }
+        };
+    }
+}
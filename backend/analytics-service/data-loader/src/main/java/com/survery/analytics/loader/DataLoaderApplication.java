@@ -3,8 +3,13 @@ package com.survery.analytics.loader;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import java.time.Clock;
 
 @SpringBootApplication
+@EnableScheduling
 @EntityScan("com.survery.analytics.domain") // Scan for entities in the domain module
 public class DataLoaderApplication {
 
@@ -12,4 +17,9 @@ public class DataLoaderApplication {
         SpringApplication.run(DataLoaderApplication.class, args);
     }
 
+    @Bean
+    public Clock clock() {
+        return Clock.systemUTC();
+    }
+
 }
@@ -1,36 +1,394 @@
 package com.survery.analytics.loader;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.survery.analytics.domain.retry.FailureRouter;
+import com.survery.analytics.domain.wire.SurveyWireSchema;
+import com.survery.analytics.domain.wire.WireFormat;
+import com.survery.analytics.domain.wire.WireHeaders;
+import com.survery.analytics.loader.codec.EnrichedSurveyDecoder;
 import com.survery.analytics.loader.dto.EnrichedSurveyDto;
-import lombok.RequiredArgsConstructor;
+import com.survery.analytics.loader.writer.SurveyBatchWriter;
+import com.survery.analytics.loader.writer.WriteResult;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.kafka.KafkaException;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.event.ListenerContainerIdleEvent;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
+import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Loads {@value #SOURCE_TOPIC} into the analytics schema. Polled records are decoded straight
+ * away but buffered per consumer thread, and written by {@link SurveyBatchWriter} once the buffer
+ * holds {@code loader.batch.max-rows} events or its oldest event has waited
+ * {@code loader.batch.max-delay-ms}. Offsets are acknowledged only after the write has committed,
+ * so a crash replays the buffer, and the upserts turn that replay into a no-op.
+ */
 @Service
-@RequiredArgsConstructor
-public class DataLoaderService {
+public class DataLoaderService implements ConsumerAwareRebalanceListener {
 
     private static final Logger log = LoggerFactory.getLogger(DataLoaderService.class);
-    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    static final String LISTENER_ID = "data-loader";
+    private static final String SOURCE_TOPIC = "transformed-surveys";
+
+    private final EnrichedSurveyDecoder enrichedSurveyDecoder;
+    private final KafkaTemplate<String, byte[]> kafkaTemplate;
+    private final FailureRouter failureRouter;
+    private final SurveyBatchWriter surveyBatchWriter;
+    private final int maxRows;
+    private final long maxDelayNanos;
+    private final Timer flushTimer;
+    private final DistributionSummary flushEvents;
+    private final Counter surveysInserted;
+    private final Counter surveysExisting;
+    private final Counter responsesInserted;
+    private final Counter responsesExisting;
+    private final AtomicLong lastFlushRowsPerSecond = new AtomicLong();
+
+    private final ThreadLocal<PendingBatch> pending = ThreadLocal.withInitial(PendingBatch::new);
+
+    public DataLoaderService(EnrichedSurveyDecoder enrichedSurveyDecoder,
+                             KafkaTemplate<String, byte[]> kafkaTemplate,
+                             FailureRouter failureRouter,
+                             SurveyBatchWriter surveyBatchWriter,
+                             @Value("${loader.batch.max-rows:5000}") int maxRows,
+                             @Value("${loader.batch.max-delay-ms:1000}") long maxDelayMs,
+                             MeterRegistry meterRegistry) {
+        this.enrichedSurveyDecoder = enrichedSurveyDecoder;
+        this.kafkaTemplate = kafkaTemplate;
+        this.failureRouter = failureRouter;
+        this.surveyBatchWriter = surveyBatchWriter;
+        this.maxRows = maxRows;
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMs);
+        this.flushTimer = Timer.builder("loader.flush.time")
+                .description("Time to write one buffered batch, including its transaction commit")
+                .register(meterRegistry);
+        this.flushEvents = DistributionSummary.builder("loader.flush.events")
+                .description("Events written per flush")
+                .register(meterRegistry);
+        this.surveysInserted = rowCounter(meterRegistry, "surveys", "inserted");
+        this.surveysExisting = rowCounter(meterRegistry, "surveys", "existing");
+        this.responsesInserted = rowCounter(meterRegistry, "responses", "inserted");
+        this.responsesExisting = rowCounter(meterRegistry, "responses", "existing");
+        Gauge.builder("loader.flush.rows.per.second", lastFlushRowsPerSecond, AtomicLong::get)
+                .description("Rows sent per second of database time in the most recent flush")
+                .register(meterRegistry);
+    }
+
+    private static Counter rowCounter(MeterRegistry meterRegistry, String table, String outcome) {
+        return Counter.builder("loader.rows")
+                .description("Rows sent to the database; existing rows were already present, e.g. after a redelivery")
+                .tag("table", table)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
 
-    // In a real implementation, we would inject a repository or a JDBC template
-    // to perform batch upserts into the database.
+    /**
+     * Not started in {@code loader.mode=copy}, where the process runs a file backfill instead.
+     */
+    @KafkaListener(id = LISTENER_ID, topics = SOURCE_TOPIC, containerFactory = "batchKafkaListenerContainerFactory",
+            autoStartup = "#{'${loader.mode:stream}' != 'copy'}")
+    public void consumeEnrichedSurveys(List<ConsumerRecord<String, byte[]>> records, Acknowledgment acknowledgment) {
+        PendingBatch batch = pending.get();
+        int mark = batch.size();
+        int acknowledgmentMark = batch.acknowledgments.size();
+        batch.forgetDeadLetteredBefore(records);
+        try {
+            for (ConsumerRecord<String, byte[]> record : records) {
+                if (batch.isDeadLettered(record)) {
+                    // Sent to the DLQ on an earlier delivery of this poll.
+                    continue;
+                }
+                EnrichedSurveyDto dto = decode(batch, record);
+                if (dto != null) {
+                    batch.add(record, dto);
+                }
+            }
+            batch.acknowledgments.add(acknowledgment);
+            if (batch.size() == 0 || batch.size() >= maxRows || System.nanoTime() - batch.startedNanos >= maxDelayNanos) {
+                flush(batch);
+            }
+        } catch (RuntimeException e) {
+            // The container redelivers this poll, so only the earlier polls stay buffered. Records
+            // already in the DLQ are remembered so the redelivery does not send them again.
+            batch.truncate(mark, acknowledgmentMark);
+            throw e;
+        }
+    }
+
+    /**
+     * Time-based flush for when the topic goes quiet: idle events are published on the consumer
+     * thread, so they see that thread's buffer.
+     */
+    @EventListener(condition = "event.listenerId.startsWith('" + LISTENER_ID + "')")
+    public void onIdle(ListenerContainerIdleEvent event) {
+        flushQuietly(pending.get());
+    }
+
+    /**
+     * Writes the buffer before the container commits on a rebalance, so the partitions are handed
+     * over with their offsets up to date instead of being replayed by the new owner.
+     * <p>
+     * If that write fails, the revoked partitions' events are dropped rather than kept for a later
+     * flush: the new owner replays them from the last committed offset, and writing them here
+     * afterwards would race it. The buffered acknowledgements are dropped too, as any of them may
+     * cover a revoked partition; the events kept for the remaining partitions are committed by the
+     * acknowledgement of a later poll, or replayed after a restart.
+     */
+    @Override
+    public void onPartitionsRevokedBeforeCommit(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        PendingBatch batch = pending.get();
+        if (batch.acknowledgments.isEmpty() && batch.size() == 0) {
+            return;
+        }
+        try {
+            flush(batch);
+        } catch (RuntimeException e) {
+            log.warn("Could not flush {} buffered surveys on rebalance, leaving partitions {} to their new owner",
+                    batch.size(), partitions, e);
+            batch.revoke(partitions);
+        }
+    }
 
-    @KafkaListener(topics = "transformed-surveys")
-    public void consumeEnrichedSurvey(String message) {
+    private void flushQuietly(PendingBatch batch) {
+        if (batch.acknowledgments.isEmpty() && batch.size() == 0) {
+            return;
+        }
         try {
-            EnrichedSurveyDto dto = objectMapper.readValue(message, EnrichedSurveyDto.class);
-            log.info("Received enriched survey for surveyId: {}. Ready to be loaded into the database.", dto.getSurveyId());
+            flush(batch);
+        } catch (RuntimeException e) {
+            // Kept for the next flush; the offsets stay uncommitted until then.
+            log.warn("Could not flush {} buffered surveys, will retry", batch.size(), e);
+        }
+    }
+
+    /**
+     * Writes every buffered event in one transaction and then acknowledges the polls they came
+     * from. If the batch violates a constraint, the events are written one by one so that only
+     * the offending ones end up in the DLQ.
+     */
+    void flush(PendingBatch batch) {
+        if (batch.size() > 0) {
+            long start = System.nanoTime();
+            WriteResult result;
+            try {
+                result = surveyBatchWriter.write(batch.surveys);
+            } catch (DataIntegrityViolationException e) {
+                log.warn("Batch of {} surveys rejected by the database, writing them individually", batch.size(), e);
+                result = writeIndividually(batch);
+            }
+            record(batch.size(), result, System.nanoTime() - start);
+        }
 
-            // Database loading logic would go here.
-            // For now, we just log that we received it.
+        batch.acknowledgments.forEach(Acknowledgment::acknowledge);
+        batch.clear();
+    }
 
+    private WriteResult writeIndividually(PendingBatch batch) {
+        int surveyRows = 0;
+        int surveys = 0;
+        int responseRows = 0;
+        int responses = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            try {
+                WriteResult result = surveyBatchWriter.write(List.of(batch.surveys.get(i)));
+                surveyRows += result.getSurveyRows();
+                surveys += result.getSurveysInserted();
+                responseRows += result.getResponseRows();
+                responses += result.getResponsesInserted();
+            } catch (DataIntegrityViolationException e) {
+                if (!batch.isDeadLettered(batch.records.get(i))) {
+                    log.error("Survey {} rejected by the database. Sending to DLQ.", batch.surveys.get(i).getSurveyId(), e);
+                    sendToDlq(batch, batch.records.get(i), e);
+                }
+            }
+        }
+        return new WriteResult(surveyRows, surveys, responseRows, responses);
+    }
+
+    private void record(int events, WriteResult result, long elapsedNanos) {
+        flushTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+        flushEvents.record(events);
+        surveysInserted.increment(result.getSurveysInserted());
+        surveysExisting.increment(result.getSurveyRows() - result.getSurveysInserted());
+        responsesInserted.increment(result.getResponsesInserted());
+        responsesExisting.increment(result.getResponseRows() - result.getResponsesInserted());
+
+        int rows = result.getSurveyRows() + result.getResponseRows();
+        long rowsPerSecond = rows * TimeUnit.SECONDS.toNanos(1) / Math.max(1, elapsedNanos);
+        lastFlushRowsPerSecond.set(rowsPerSecond);
+        log.debug("Flushed {} events as {} rows ({} new) in {} ms, {} rows/s", events, rows, result.getRowsInserted(),
+                TimeUnit.NANOSECONDS.toMillis(elapsedNanos), rowsPerSecond);
+    }
+
+    /**
+     * @return the decoded event, or {@code null} if it could not be decoded or is incomplete and
+     * has been sent to the DLQ instead.
+     */
+    private EnrichedSurveyDto decode(PendingBatch batch, ConsumerRecord<String, byte[]> record) {
+        WireFormat format = WireFormat.JSON;
+        try {
+            // The producer announces the encoding per message; messages without the header are JSON.
+            format = WireFormat.fromHeader(FailureRouter.headerValue(record.headers(), WireHeaders.FORMAT));
+            if (format == WireFormat.BINARY) {
+                SurveyWireSchema.checkVersion(FailureRouter.headerValue(record.headers(), WireHeaders.SCHEMA_VERSION));
+            }
+            EnrichedSurveyDto dto = EnrichedSurveyDecoder.requireComplete(enrichedSurveyDecoder.decode(record.value(), format));
+            if (dto.getTimestamp() == null) {
+                dto.setTimestamp(OffsetDateTime.ofInstant(Instant.ofEpochMilli(record.timestamp()), ZoneOffset.UTC));
+            }
+            return dto;
         } catch (Exception e) {
-            log.error("Failed to process enriched survey event: {}", message, e);
-            // In a real app, this would also go to a DLQ.
+            log.error("Failed to process enriched survey event: {}. Sending to DLQ.", describe(record.value(), format), e);
+            sendToDlq(batch, record, e);
+            return null;
+        }
+    }
+
+    /**
+     * Parks a message in the DLQ through the shared {@link FailureRouter}, so it carries the same
+     * headers as the transformer's and the transformer's replay endpoint can re-drive it into
+     * {@value #SOURCE_TOPIC}. The offset is only committed once the DLQ has the message.
+     */
+    private void sendToDlq(PendingBatch batch, ConsumerRecord<String, byte[]> record, Exception failure) {
+        try {
+            kafkaTemplate.send(failureRouter.route(record, failure)).get(30, TimeUnit.SECONDS);
+            batch.deadLettered(record);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new KafkaException("Interrupted while sending to DLQ", e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new KafkaException("Could not send failed record to DLQ", e);
+        }
+    }
+
+    private static String describe(byte[] message, WireFormat format) {
+        if (message == null) {
+            return "<null>";
+        }
+        return format == WireFormat.BINARY
+                ? "<" + message.length + " bytes binary>"
+                : new String(message, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Events decoded on one consumer thread but not yet written, with the acknowledgements of the
+     * polls they arrived in. A poll whose records all went to the DLQ still has to be acknowledged.
+     * The positions of records sent to the DLQ are kept until a poll starts past them, so a
+     * redelivered poll skips them.
+     */
+    static final class PendingBatch {
+        final List<ConsumerRecord<String, byte[]>> records = new ArrayList<>();
+        final List<EnrichedSurveyDto> surveys = new ArrayList<>();
+        final List<Acknowledgment> acknowledgments = new ArrayList<>();
+        final Map<TopicPartition, Set<Long>> deadLettered = new HashMap<>();
+        long startedNanos;
+
+        void add(ConsumerRecord<String, byte[]> record, EnrichedSurveyDto dto) {
+            if (records.isEmpty()) {
+                startedNanos = System.nanoTime();
+            }
+            records.add(record);
+            surveys.add(dto);
+        }
+
+        int size() {
+            return surveys.size();
+        }
+
+        void truncate(int size, int acknowledgmentCount) {
+            records.subList(size, records.size()).clear();
+            surveys.subList(size, surveys.size()).clear();
+            acknowledgments.subList(acknowledgmentCount, acknowledgments.size()).clear();
+        }
+
+        void deadLettered(ConsumerRecord<String, byte[]> record) {
+            deadLettered.computeIfAbsent(new TopicPartition(record.topic(), record.partition()), tp -> new HashSet<>())
+                    .add(record.offset());
+        }
+
+        /**
+         * A poll is only ever redelivered from its first record, so positions before the first
+         * record of {@code records} in each partition will not be delivered again. Positions of
+         * buffered events are kept, as a retried flush may come across them again.
+         */
+        void forgetDeadLetteredBefore(List<ConsumerRecord<String, byte[]>> polled) {
+            if (deadLettered.isEmpty()) {
+                return;
+            }
+            Map<TopicPartition, Long> first = new HashMap<>();
+            for (ConsumerRecord<String, byte[]> record : polled) {
+                first.merge(new TopicPartition(record.topic(), record.partition()), record.offset(), Math::min);
+            }
+            for (ConsumerRecord<String, byte[]> record : records) {
+                first.computeIfPresent(new TopicPartition(record.topic(), record.partition()),
+                        (partition, offset) -> Math.min(offset, record.offset()));
+            }
+            first.forEach((partition, offset) -> {
+                Set<Long> offsets = deadLettered.get(partition);
+                if (offsets != null) {
+                    offsets.removeIf(deadOffset -> deadOffset < offset);
+                    if (offsets.isEmpty()) {
+                        deadLettered.remove(partition);
+                    }
+                }
+            });
+        }
+
+        boolean isDeadLettered(ConsumerRecord<String, byte[]> record) {
+            Set<Long> offsets = deadLettered.get(new TopicPartition(record.topic(), record.partition()));
+            return offsets != null && offsets.contains(record.offset());
+        }
+
+        /**
+         * Forgets everything buffered for {@code partitions}, and every acknowledgement.
+         */
+        void revoke(Collection<TopicPartition> partitions) {
+            int kept = 0;
+            for (int i = 0; i < records.size(); i++) {
+                ConsumerRecord<String, byte[]> record = records.get(i);
+                if (!partitions.contains(new TopicPartition(record.topic(), record.partition()))) {
+                    records.set(kept, record);
+                    surveys.set(kept, surveys.get(i));
+                    kept++;
+                }
+            }
+            truncate(kept, 0);
+            deadLettered.keySet().removeAll(partitions);
+        }
+
+        void clear() {
+            records.clear();
+            surveys.clear();
+            acknowledgments.clear();
         }
     }
 }
@@ -0,0 +1,121 @@
+package com.survery.analytics.loader.backfill;
+
+import com.survery.analytics.domain.wire.MalformedMessageException;
+import com.survery.analytics.domain.wire.WireFormat;
+import com.survery.analytics.loader.codec.EnrichedSurveyDecoder;
+import com.survery.analytics.loader.dto.EnrichedSurveyDto;
+import com.survery.analytics.loader.writer.SurveyCopyWriter;
+import com.survery.analytics.loader.writer.WriteResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Loads a newline-delimited JSON file of enriched surveys, in the same JSON as the
+ * {@code transformed-surveys} topic, through {@link SurveyCopyWriter}. The checkpoint is the
+ * number of input lines consumed, so a re-run with the same job name continues after the last
+ * merged chunk. Lines that cannot be decoded are logged and skipped.
+ */
+@Component
+public class BulkLoadJob {
+
+    private static final Logger log = LoggerFactory.getLogger(BulkLoadJob.class);
+
+    private final EnrichedSurveyDecoder enrichedSurveyDecoder;
+    private final SurveyCopyWriter surveyCopyWriter;
+    private final int chunkRows;
+
+    public BulkLoadJob(EnrichedSurveyDecoder enrichedSurveyDecoder, SurveyCopyWriter surveyCopyWriter,
+                       @Value("${loader.copy.chunk-rows:50000}") int chunkRows) {
+        this.enrichedSurveyDecoder = enrichedSurveyDecoder;
+        this.surveyCopyWriter = surveyCopyWriter;
+        this.chunkRows = chunkRows;
+    }
+
+    public BulkLoadReport run(Path input, String jobName) throws IOException {
+        long started = System.nanoTime();
+        long checkpoint = surveyCopyWriter.readCheckpoint(jobName);
+        if (checkpoint > 0) {
+            log.info("Resuming bulk load {} after line {}", jobName, checkpoint);
+        }
+        Totals totals = new Totals();
+        List<EnrichedSurveyDto> chunk = new ArrayList<>(chunkRows);
+        long line = 0;
+        try (BufferedReader reader = Files.newBufferedReader(input, StandardCharsets.UTF_8)) {
+            String text;
+            while ((text = reader.readLine()) != null) {
+                line++;
+                if (line <= checkpoint) {
+                    continue;
+                }
+                totals.linesRead++;
+                if (text.isBlank()) {
+                    continue;
+                }
+                try {
+                    chunk.add(decode(text));
+                } catch (IOException | RuntimeException e) {
+                    totals.linesRejected++;
+                    log.warn("Bulk load {}: rejected line {}: {}", jobName, line, e.getMessage());
+                }
+                if (chunk.size() >= chunkRows) {
+                    write(chunk, jobName, line, totals);
+                }
+            }
+        }
+        // Also moves the checkpoint past trailing rejected or blank lines.
+        if (!chunk.isEmpty() || line > Math.max(checkpoint, totals.position)) {
+            write(chunk, jobName, line, totals);
+        }
+        BulkLoadReport report = new BulkLoadReport(jobName, Math.min(line, checkpoint), totals.linesRead,
+                totals.linesRejected, totals.chunks, totals.surveyRows, totals.surveysInserted, totals.responseRows,
+                totals.responsesInserted, Duration.ofNanos(System.nanoTime() - started));
+        log.info(report.summary());
+        return report;
+    }
+
+    private EnrichedSurveyDto decode(String text) throws IOException {
+        EnrichedSurveyDto dto = EnrichedSurveyDecoder.requireComplete(
+                enrichedSurveyDecoder.decode(text.getBytes(StandardCharsets.UTF_8), WireFormat.JSON));
+        if (dto.getTimestamp() == null) {
+            // The topic path falls back to the record timestamp; a file line has none.
+            throw new MalformedMessageException("Invalid enriched survey: timestamp is null.");
+        }
+        return dto;
+    }
+
+    private void write(List<EnrichedSurveyDto> chunk, String jobName, long position, Totals totals) {
+        long started = System.nanoTime();
+        WriteResult result = surveyCopyWriter.write(chunk, jobName, position);
+        totals.position = position;
+        totals.chunks++;
+        totals.surveyRows += result.getSurveyRows();
+        totals.surveysInserted += result.getSurveysInserted();
+        totals.responseRows += result.getResponseRows();
+        totals.responsesInserted += result.getResponsesInserted();
+        log.debug("Bulk load {}: merged {} events up to line {} in {} ms", jobName, chunk.size(), position,
+                Duration.ofNanos(System.nanoTime() - started).toMillis());
+        chunk.clear();
+    }
+
+    private static final class Totals {
+        long position;
+        long linesRead;
+        long linesRejected;
+        long chunks;
+        long surveyRows;
+        long surveysInserted;
+        long responseRows;
+        long responsesInserted;
+    }
+}
@@ -0,0 +1,34 @@
+package com.survery.analytics.loader.backfill;
+
+import lombok.Value;
+
+import java.time.Duration;
+
+/**
+ * Totals of one {@link BulkLoadJob} run. Lines skipped on resume were committed by an earlier run
+ * and are not part of the row counts.
+ */
+@Value
+public class BulkLoadReport {
+    String jobName;
+    long linesSkipped;
+    long linesRead;
+    long linesRejected;
+    long chunks;
+    long surveyRows;
+    long surveysInserted;
+    long responseRows;
+    long responsesInserted;
+    Duration elapsed;
+
+    public long getRowsPerSecond() {
+        return (surveyRows + responseRows) * 1000 / Math.max(1, elapsed.toMillis());
+    }
+
+    public String summary() {
+        return String.format("Bulk load %s: %d lines read (%d skipped on resume, %d rejected) in %d chunks; "
+                        + "surveys %d staged / %d new, responses %d staged / %d new; %.1f s, %d rows/s",
+                jobName, linesRead, linesSkipped, linesRejected, chunks, surveyRows, surveysInserted,
+                responseRows, responsesInserted, elapsed.toMillis() / 1000.0, getRowsPerSecond());
+    }
+}
@@ -0,0 +1,35 @@
+package com.survery.analytics.loader.backfill;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.nio.file.Path;
+
+/**
+ * Runs the backfill on startup in {@code loader.mode=copy}, instead of consuming the topic.
+ * The job name defaults to the input file name; reuse it to resume an interrupted run.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "loader.mode", havingValue = "copy")
+public class BulkLoadRunner implements ApplicationRunner {
+
+    private final BulkLoadJob bulkLoadJob;
+
+    @Value("${loader.copy.input}")
+    private String input;
+
+    @Value("${loader.copy.job-name:}")
+    private String jobName;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        Path path = Path.of(input);
+        bulkLoadJob.run(path, StringUtils.hasText(jobName) ? jobName : path.getFileName().toString());
+    }
+}
@@ -0,0 +1,95 @@
+package com.survery.analytics.loader.change;
+
+import com.survery.analytics.domain.wire.AnalyticsChange;
+import com.survery.analytics.domain.wire.AnalyticsChangeCodec;
+import com.survery.analytics.domain.wire.WireFormat;
+import com.survery.analytics.domain.wire.WireHeaders;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Publishes the {@link AnalyticsChange}s of committed loader transactions to
+ * {@value AnalyticsChangeCodec#TOPIC}. A change is split into messages of at most
+ * {@code loader.changes.max-responses-per-message} responses, each carrying the transaction id.
+ * <p>
+ * Publishing happens after the commit and is not retried: the rows are stored either way, and
+ * consumers treat the topic as a notification stream that they periodically reconcile against the
+ * database, not as a source of truth.
+ */
+@Component
+public class AnalyticsChangePublisher {
+
+    private static final Logger log = LoggerFactory.getLogger(AnalyticsChangePublisher.class);
+
+    private final KafkaTemplate<String, byte[]> kafkaTemplate;
+    private final int maxResponsesPerMessage;
+    private final Counter messagesFailed;
+
+    public AnalyticsChangePublisher(KafkaTemplate<String, byte[]> kafkaTemplate,
+                                    @Value("${loader.changes.max-responses-per-message:1000}") int maxResponsesPerMessage,
+                                    MeterRegistry meterRegistry) {
+        if (maxResponsesPerMessage < 1) {
+            throw new IllegalArgumentException("loader.changes.max-responses-per-message must be positive");
+        }
+        this.kafkaTemplate = kafkaTemplate;
+        this.maxResponsesPerMessage = maxResponsesPerMessage;
+        this.messagesFailed = Counter.builder("loader.changes.failed")
+                .description("Change notifications that could not be published")
+                .register(meterRegistry);
+    }
+
+    @TransactionalEventListener
+    public void onCommitted(AnalyticsChange change) {
+        for (AnalyticsChange message : split(change, maxResponsesPerMessage)) {
+            ProducerRecord<String, byte[]> record = new ProducerRecord<>(AnalyticsChangeCodec.TOPIC, AnalyticsChangeCodec.encode(message));
+            record.headers().add(WireHeaders.FORMAT, WireFormat.BINARY.headerBytes());
+            record.headers().add(WireHeaders.SCHEMA_VERSION, WireHeaders.intValue(AnalyticsChangeCodec.VERSION));
+            kafkaTemplate.send(record).whenComplete((result, e) -> {
+                if (e != null) {
+                    messagesFailed.increment();
+                    log.warn("Could not publish changes of transaction {}", change.getTransactionId(), e);
+                }
+            });
+        }
+    }
+
+    /**
+     * Splits between surveys, and within a survey with more responses than fit in one message.
+     */
+    static List<AnalyticsChange> split(AnalyticsChange change, int maxResponses) {
+        List<AnalyticsChange> messages = new ArrayList<>();
+        List<AnalyticsChange.SurveyChange> surveys = new ArrayList<>();
+        int responses = 0;
+        for (AnalyticsChange.SurveyChange survey : change.getSurveys()) {
+            List<AnalyticsChange.ResponseChange> remaining = survey.getResponses();
+            boolean surveyInserted = survey.isSurveyInserted();
+            do {
+                if (responses > 0 && responses + remaining.size() > maxResponses) {
+                    messages.add(new AnalyticsChange(change.getTransactionId(), change.isReset(), surveys));
+                    surveys = new ArrayList<>();
+                    responses = 0;
+                }
+                List<AnalyticsChange.ResponseChange> part = remaining.subList(0, Math.min(remaining.size(), maxResponses));
+                surveys.add(new AnalyticsChange.SurveyChange(survey.getSurveyId(), surveyInserted, survey.getVillageId(),
+                        survey.getPanchayatId(), survey.getConstituencyId(), part));
+                responses += part.size();
+                remaining = remaining.subList(part.size(), remaining.size());
+                surveyInserted = false;
+            } while (!remaining.isEmpty());
+        }
+        if (!surveys.isEmpty() || messages.isEmpty()) {
+            messages.add(new AnalyticsChange(change.getTransactionId(), change.isReset(), surveys));
+        }
+        return messages;
+    }
+}
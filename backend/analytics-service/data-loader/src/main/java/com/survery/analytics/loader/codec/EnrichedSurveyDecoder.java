@@ -0,0 +1,96 @@
+package com.survery.analytics.loader.codec;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.survery.analytics.domain.wire.BinaryReader;
+import com.survery.analytics.domain.wire.MalformedMessageException;
+import com.survery.analytics.domain.wire.SurveyWireSchema;
+import com.survery.analytics.domain.wire.WireFormat;
+import com.survery.analytics.loader.dto.EnrichedSurveyDto;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Map;
+
+/**
+ * Decodes {@code transformed-surveys} messages in either {@link WireFormat}.
+ */
+@Component
+public class EnrichedSurveyDecoder {
+
+    private static final TypeReference<Map<String, Object>> RESPONSE_TYPE = new TypeReference<>() {
+    };
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    public EnrichedSurveyDto decode(byte[] value, WireFormat format) throws IOException {
+        if (format == WireFormat.BINARY) {
+            return decodeBinary(value);
+        }
+        return objectMapper.readValue(value, EnrichedSurveyDto.class);
+    }
+
+    /**
+     * Rejects events that cannot become a {@code surveys} row, whose id columns are all mandatory.
+     */
+    public static EnrichedSurveyDto requireComplete(EnrichedSurveyDto dto) {
+        if (dto.getSurveyId() == null || dto.getUserId() == null || dto.getVillageId() == null
+                || dto.getPanchayatId() == null || dto.getConstituencyId() == null) {
+            throw new MalformedMessageException("Invalid enriched survey: survey, user or location id is null.");
+        }
+        return dto;
+    }
+
+    /**
+     * Reads the version 1 layout described in {@link SurveyWireSchema}.
+     */
+    EnrichedSurveyDto decodeBinary(byte[] value) throws IOException {
+        BinaryReader reader = new BinaryReader(value);
+        EnrichedSurveyDto dto = new EnrichedSurveyDto();
+        int flags = reader.readVarInt();
+        if ((flags & SurveyWireSchema.SURVEY_ID) != 0) {
+            dto.setSurveyId(reader.readUuid());
+        }
+        if ((flags & SurveyWireSchema.QUESTION_ID) != 0) {
+            dto.setQuestionId(reader.readString());
+        }
+        if ((flags & SurveyWireSchema.RESPONSE) != 0) {
+            int length = reader.skipBytes();
+            dto.setResponse(objectMapper.readValue(value, reader.position() - length, length, RESPONSE_TYPE));
+        }
+        if ((flags & SurveyWireSchema.USER_ID) != 0) {
+            dto.setUserId(reader.readUuid());
+        }
+        if ((flags & SurveyWireSchema.TIMESTAMP) != 0) {
+            String text = reader.readString();
+            // Normalised to UTC, as Jackson does when reading the JSON format.
+            dto.setTimestamp((flags & SurveyWireSchema.TIMESTAMP_NUMERIC) != 0
+                    ? fromEpochSeconds(text)
+                    : OffsetDateTime.parse(text).withOffsetSameInstant(ZoneOffset.UTC));
+        }
+        dto.setLat(reader.readDouble());
+        dto.setLon(reader.readDouble());
+        dto.setVillageId(reader.readUuid());
+        dto.setPanchayatId(reader.readUuid());
+        dto.setConstituencyId(reader.readUuid());
+        if (reader.remaining() != 0) {
+            throw new MalformedMessageException(reader.remaining() + " unexpected trailing bytes");
+        }
+        return dto;
+    }
+
+    /**
+     * Same interpretation as Jackson's for a numeric {@link OffsetDateTime}: seconds since the epoch, in UTC.
+     */
+    private static OffsetDateTime fromEpochSeconds(String text) {
+        BigDecimal seconds = new BigDecimal(text);
+        long wholeSeconds = seconds.longValue();
+        int nanos = seconds.subtract(BigDecimal.valueOf(wholeSeconds)).movePointRight(9).intValue();
+        return Instant.ofEpochSecond(wholeSeconds, nanos).atOffset(ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,57 @@
+package com.survery.analytics.loader.config;
+
+import com.survery.analytics.domain.retry.FailureClassifier;
+import com.survery.analytics.domain.retry.FailureRouter;
+import com.survery.analytics.domain.retry.RetryPolicy;
+import com.survery.analytics.loader.DataLoaderService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.kafka.ConcurrentKafkaListenerContainerFactoryConfigurer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.util.backoff.ExponentialBackOff;
+
+import java.time.Clock;
+import java.util.List;
+
+@Configuration
+public class KafkaConfig {
+
+    /**
+     * Container factory for the loader's batch listener. Offsets are acknowledged manually,
+     * only once the buffered rows are in the database, and the container publishes an idle event
+     * after {@code loader.batch.max-delay-ms} without records so a partial buffer still gets
+     * written. A failed write is retried with a back-off, indefinitely, so no record is skipped
+     * while the database is unavailable.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<Object, Object> batchKafkaListenerContainerFactory(
+            ConcurrentKafkaListenerContainerFactoryConfigurer configurer,
+            ConsumerFactory<Object, Object> kafkaConsumerFactory,
+            DataLoaderService dataLoaderService,
+            @Value("${loader.batch.max-delay-ms:1000}") long maxDelayMs) {
+        ConcurrentKafkaListenerContainerFactory<Object, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        configurer.configure(factory, kafkaConsumerFactory);
+        factory.setBatchListener(true);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        factory.getContainerProperties().setIdleEventInterval(maxDelayMs);
+        factory.getContainerProperties().setConsumerRebalanceListener(dataLoaderService);
+
+        ExponentialBackOff backOff = new ExponentialBackOff(500L, 2.0);
+        backOff.setMaxInterval(30_000L);
+        factory.setCommonErrorHandler(new DefaultErrorHandler(backOff));
+        return factory;
+    }
+
+    /**
+     * The loader has no retry topics: whatever it cannot decode or write goes to the DLQ, where
+     * the transformer's replay endpoint can re-drive it once the cause is fixed.
+     */
+    @Bean
+    public FailureRouter failureRouter(Clock clock) {
+        return new FailureRouter(new FailureClassifier(), new RetryPolicy(List.of()), clock);
+    }
+}
@@ -0,0 +1,56 @@
+package com.survery.analytics.loader.writer;
+
+import com.survery.analytics.domain.wire.AnalyticsChange;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Collects the rows a {@link SurveyBatchWriter} write inserted into an {@link AnalyticsChange}.
+ */
+final class AnalyticsChangeBuilder {
+
+    private final Map<UUID, Object[]> surveyRows;
+    private final Map<UUID, Entry> surveys = new LinkedHashMap<>();
+
+    /**
+     * @param surveyRows the survey parameter rows of the write, by survey id
+     */
+    AnalyticsChangeBuilder(Map<UUID, Object[]> surveyRows) {
+        this.surveyRows = surveyRows;
+    }
+
+    void surveyInserted(UUID surveyId) {
+        surveys.computeIfAbsent(surveyId, id -> new Entry()).inserted = true;
+    }
+
+    /**
+     * @param responseRow the response parameter row: id, survey id, question id, JSON value
+     */
+    void responseInserted(UUID surveyId, Object[] responseRow) {
+        surveys.computeIfAbsent(surveyId, id -> new Entry()).responses.add(
+                new AnalyticsChange.ResponseChange((UUID) responseRow[0], (String) responseRow[2], (String) responseRow[3]));
+    }
+
+    boolean isEmpty() {
+        return surveys.isEmpty();
+    }
+
+    AnalyticsChange build(long transactionId) {
+        List<AnalyticsChange.SurveyChange> changes = new ArrayList<>(surveys.size());
+        surveys.forEach((surveyId, entry) -> {
+            Object[] row = surveyRows.get(surveyId);
+            changes.add(new AnalyticsChange.SurveyChange(surveyId, entry.inserted,
+                    (UUID) row[3], (UUID) row[4], (UUID) row[5], entry.responses));
+        });
+        return new AnalyticsChange(transactionId, false, changes);
+    }
+
+    private static final class Entry {
+        boolean inserted;
+        final List<AnalyticsChange.ResponseChange> responses = new ArrayList<>();
+    }
+}
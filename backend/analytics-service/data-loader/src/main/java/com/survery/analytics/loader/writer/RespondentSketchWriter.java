@@ -0,0 +1,182 @@
+package com.survery.analytics.loader.writer;
+
+import com.survery.analytics.domain.RespondentSketch;
+import com.survery.analytics.domain.RespondentSketchId;
+import com.survery.analytics.domain.SketchScope;
+import com.survery.analytics.domain.sketch.HyperLogLog;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Merges {@link RespondentSketches} into the {@link RespondentSketch} rows, in the caller's
+ * transaction. PostgreSQL cannot take the register-wise maximum of two {@code bytea} values, so
+ * missing rows are inserted as they are, and existing ones are locked in one statement, merged
+ * here and written back in one batch. Adding a respondent twice leaves a sketch unchanged, so
+ * replays need no special care.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class RespondentSketchWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(RespondentSketchWriter.class);
+
+    static final String INSERT = "INSERT INTO respondent_sketches (scope, scope_id, day, registers) VALUES ";
+    static final String ROW = "(?, ?, ?, ?)";
+    static final String CONFLICT = " ON CONFLICT (scope, scope_id, day) DO NOTHING RETURNING scope, scope_id, day";
+    static final String UPDATE = "UPDATE respondent_sketches SET registers = ? WHERE scope = ? AND scope_id = ? AND day = ?";
+
+    /**
+     * Sketches are a few KiB each, so statements carry fewer rows than the survey inserts.
+     */
+    static final int ROWS_PER_STATEMENT = 100;
+
+    private static final int SEED_FETCH_SIZE = 10_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public RespondentSketchWriter(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    void write(RespondentSketches sketches) {
+        List<Map.Entry<RespondentSketchId, HyperLogLog>> entries = new ArrayList<>(sketches.sketches.entrySet());
+        for (int from = 0; from < entries.size(); from += ROWS_PER_STATEMENT) {
+            write(entries.subList(from, Math.min(entries.size(), from + ROWS_PER_STATEMENT)));
+        }
+    }
+
+    private void write(List<Map.Entry<RespondentSketchId, HyperLogLog>> chunk) {
+        Set<RespondentSketchId> inserted = new HashSet<>();
+        jdbcTemplate.query(SurveyBatchWriter.insertSql(INSERT, ROW, CONFLICT, chunk.size()), ps -> {
+            int index = 1;
+            for (Map.Entry<RespondentSketchId, HyperLogLog> entry : chunk) {
+                index = bindKey(ps, index, entry.getKey());
+                ps.setBytes(index++, entry.getValue().toBytes());
+            }
+        }, rs -> {
+            inserted.add(key(rs.getString(1), rs.getObject(2, UUID.class), rs.getObject(3, LocalDate.class)));
+        });
+
+        List<Map.Entry<RespondentSketchId, HyperLogLog>> existing = chunk.stream()
+                .filter(entry -> !inserted.contains(entry.getKey()))
+                .toList();
+        if (existing.isEmpty()) {
+            return;
+        }
+        Map<RespondentSketchId, HyperLogLog> merged = new HashMap<>();
+        jdbcTemplate.query(lockSql(existing.size()), ps -> {
+            int index = 1;
+            for (int i = 0; i < existing.size(); i++) {
+                ps.setInt(index++, i);
+                index = bindKey(ps, index, existing.get(i).getKey());
+            }
+        }, rs -> {
+            merged.put(key(rs.getString(1), rs.getObject(2, UUID.class), rs.getObject(3, LocalDate.class)),
+                    HyperLogLog.fromBytes(rs.getBytes(4)));
+        });
+        List<Object[]> updates = new ArrayList<>(existing.size());
+        for (Map.Entry<RespondentSketchId, HyperLogLog> entry : existing) {
+            RespondentSketchId id = entry.getKey();
+            byte[] registers = merged.get(id).merge(entry.getValue()).toBytes();
+            updates.add(new Object[]{registers, id.getScope().name(), id.getScopeId(), id.getDay()});
+        }
+        jdbcTemplate.batchUpdate(UPDATE, updates);
+    }
+
+    /**
+     * Locks the rows in the order of the keys' positions, the order the inserts used, so that two
+     * writers never wait on each other in opposite orders.
+     */
+    static String lockSql(int rows) {
+        return SurveyBatchWriter.insertSql("SELECT s.scope, s.scope_id, s.day, s.registers FROM respondent_sketches s "
+                        + "JOIN (VALUES ", "(?, CAST(? AS varchar), CAST(? AS uuid), CAST(? AS date))",
+                ") AS k(position, scope, scope_id, day) ON s.scope = k.scope AND s.scope_id = k.scope_id AND s.day = k.day "
+                        + "ORDER BY k.position FOR UPDATE OF s", rows);
+    }
+
+    private static int bindKey(PreparedStatement ps, int index, RespondentSketchId id) throws SQLException {
+        ps.setString(index++, id.getScope().name());
+        ps.setObject(index++, id.getScopeId());
+        ps.setObject(index++, id.getDay());
+        return index;
+    }
+
+    private static RespondentSketchId key(String scope, UUID scopeId, LocalDate day) {
+        return new RespondentSketchId(SketchScope.valueOf(scope), scopeId, day);
+    }
+
+    /**
+     * Builds the sketches from the stored surveys once, when the table is introduced into a
+     * database that already holds surveys. The surveys are streamed in time order and written
+     * one day at a time.
+     */
+    @PostConstruct
+    void initialise() {
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.execute("LOCK TABLE respondent_sketches IN EXCLUSIVE MODE");
+            // Only constituency sketches are kept; the all-survey one is merged from them per query.
+            jdbcTemplate.update("DELETE FROM respondent_sketches WHERE scope <> ?", SketchScope.CONSTITUENCY.name());
+            if (Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                    "SELECT EXISTS (SELECT 1 FROM respondent_sketches)", Boolean.class))) {
+                return;
+            }
+            DaySeeder seeder = new DaySeeder();
+            jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(
+                        "SELECT constituency_id, user_id, timestamp FROM surveys ORDER BY timestamp");
+                statement.setFetchSize(SEED_FETCH_SIZE);
+                return statement;
+            }, seeder);
+            seeder.writeDay();
+            if (seeder.days > 0) {
+                log.info("Initialised respondent sketches for {} days of surveys", seeder.days);
+            }
+        });
+    }
+
+    private final class DaySeeder implements RowCallbackHandler {
+        RespondentSketches sketches = new RespondentSketches();
+        LocalDate day;
+        int days;
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            OffsetDateTime timestamp = rs.getObject(3, OffsetDateTime.class);
+            LocalDate date = timestamp.withOffsetSameInstant(ZoneOffset.UTC).toLocalDate();
+            if (!date.equals(day)) {
+                writeDay();
+                day = date;
+                days++;
+            }
+            sketches.add(rs.getObject(1, UUID.class), rs.getObject(2, UUID.class), timestamp);
+        }
+
+        void writeDay() {
+            write(sketches);
+            sketches = new RespondentSketches();
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.survery.analytics.loader.writer;
+
+import com.survery.analytics.domain.RespondentSketchId;
+import com.survery.analytics.domain.SketchScope;
+import com.survery.analytics.domain.sketch.HyperLogLog;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * The respondent sketches one write adds to, kept in key order so that concurrent writers lock
+ * the rows in the same order.
+ */
+final class RespondentSketches {
+
+    static final Comparator<RespondentSketchId> KEY_ORDER = Comparator.comparing(RespondentSketchId::getScope)
+            .thenComparing(RespondentSketchId::getScopeId)
+            .thenComparing(RespondentSketchId::getDay);
+
+    final Map<RespondentSketchId, HyperLogLog> sketches = new TreeMap<>(KEY_ORDER);
+
+    void add(UUID constituencyId, UUID userId, OffsetDateTime timestamp) {
+        LocalDate day = timestamp.withOffsetSameInstant(ZoneOffset.UTC).toLocalDate();
+        sketch(SketchScope.CONSTITUENCY, constituencyId, day).add(userId);
+    }
+
+    private HyperLogLog sketch(SketchScope scope, UUID scopeId, LocalDate day) {
+        return sketches.computeIfAbsent(new RespondentSketchId(scope, scopeId, day), id -> new HyperLogLog());
+    }
+}
@@ -0,0 +1,66 @@
+package com.survery.analytics.loader.writer;
+
+import com.survery.analytics.domain.ResponseTimeBucket;
+import com.survery.analytics.domain.TimeResolution;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+
+/**
+ * Moves {@link ResponseTimeBucket}s past their retention into the next coarser resolution. Each
+ * move is one statement that deletes the fine buckets and adds their counts to the coarse ones,
+ * so a response is never counted twice or lost, even with several loaders compacting at once.
+ * Retention bounds the rows any time range can touch: with the defaults a 90-day series reads
+ * at most 180 minute, 72 hour and 90 day buckets per constituency.
+ */
+@Component
+public class ResponseBucketCompactor {
+
+    private static final Logger log = LoggerFactory.getLogger(ResponseBucketCompactor.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Clock clock;
+    private final Duration minuteRetention;
+    private final Duration hourRetention;
+
+    public ResponseBucketCompactor(JdbcTemplate jdbcTemplate, Clock clock,
+                                   @Value("${loader.buckets.minute-retention:3h}") Duration minuteRetention,
+                                   @Value("${loader.buckets.hour-retention:3d}") Duration hourRetention) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.clock = clock;
+        this.minuteRetention = minuteRetention;
+        this.hourRetention = hourRetention;
+    }
+
+    static String compactSql(TimeResolution from, TimeResolution to) {
+        return "WITH moved AS (DELETE FROM constituency_response_buckets WHERE resolution = '" + from + "' "
+                + "AND bucket_start < ? RETURNING constituency_id, bucket_start, responses) "
+                + "INSERT INTO constituency_response_buckets (constituency_id, resolution, bucket_start, responses) "
+                + "SELECT constituency_id, '" + to + "', " + SurveySummaryRollup.truncateUtc(to, "bucket_start")
+                + ", sum(responses) "
+                + "FROM moved GROUP BY 1, 3 ORDER BY 1, 3"
+                + SurveySummaryRollup.BUCKET_CONFLICT;
+    }
+
+    @Scheduled(fixedDelayString = "${loader.buckets.compaction-interval-ms:60000}")
+    public void compact() {
+        OffsetDateTime now = OffsetDateTime.now(clock);
+        // Cut-offs fall on coarse bucket boundaries, so a coarse bucket only ever receives whole buckets.
+        int hours = compact(TimeResolution.MINUTE, TimeResolution.HOUR, TimeResolution.HOUR.truncate(now.minus(minuteRetention)));
+        int days = compact(TimeResolution.HOUR, TimeResolution.DAY, TimeResolution.DAY.truncate(now.minus(hourRetention)));
+        if (hours > 0 || days > 0) {
+            log.debug("Compacted response buckets into {} hour and {} day buckets", hours, days);
+        }
+    }
+
+    private int compact(TimeResolution from, TimeResolution to, OffsetDateTime before) {
+        return jdbcTemplate.update(compactSql(from, to), before);
+    }
+}
@@ -0,0 +1,181 @@
+package com.survery.analytics.loader.writer;
+
+import com.survery.analytics.domain.Response;
+import com.survery.analytics.domain.Survey;
+import com.survery.analytics.domain.wire.AnalyticsChange;
+import com.survery.analytics.loader.dto.EnrichedSurveyDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Writes enriched surveys as {@link Survey} and {@link Response} rows with multi-row
+ * {@code INSERT ... ON CONFLICT DO NOTHING} statements, so one round-trip carries up to
+ * {@code loader.jdbc.rows-per-statement} rows. Survey rows are keyed by {@code survey_id} and
+ * response rows by an id derived from survey and question, which makes a redelivered event a
+ * no-op rather than a duplicate.
+ */
+@Repository
+public class SurveyBatchWriter {
+
+    static final String SURVEY_INSERT = "INSERT INTO surveys "
+            + "(survey_id, user_id, timestamp, village_id, panchayat_id, constituency_id, raw_payload) VALUES ";
+    static final String SURVEY_ROW = "(?, ?, ?, ?, ?, ?, CAST(? AS jsonb))";
+    static final String SURVEY_CONFLICT = " ON CONFLICT (survey_id) DO NOTHING RETURNING survey_id";
+
+    static final String RESPONSE_INSERT = "INSERT INTO responses (response_id, survey_id, question_id, response_value) VALUES ";
+    static final String RESPONSE_ROW = "(?, ?, ?, CAST(? AS jsonb))";
+    static final String RESPONSE_CONFLICT = " ON CONFLICT (response_id) DO NOTHING RETURNING survey_id, "
+            + SurveySummaryRollup.answered("response_value") + ", response_id";
+
+    static final String TRANSACTION_ID = "SELECT CAST(CAST(pg_current_xact_id() AS text) AS bigint)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final RespondentSketchWriter respondentSketchWriter;
+    private final int rowsPerStatement;
+
+    public SurveyBatchWriter(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                             ApplicationEventPublisher eventPublisher, RespondentSketchWriter respondentSketchWriter,
+                             @Value("${loader.jdbc.rows-per-statement:500}") int rowsPerStatement) {
+        if (rowsPerStatement < 1) {
+            throw new IllegalArgumentException("loader.jdbc.rows-per-statement must be positive");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.respondentSketchWriter = respondentSketchWriter;
+        this.rowsPerStatement = rowsPerStatement;
+    }
+
+    /**
+     * Inserts the surveys and their responses in one transaction, together with the
+     * {@link SurveySummaryRollup rollup} of the rows that were new. Either every row of the batch
+     * is written (or found to exist already) or none is. The inserted rows are published as an
+     * {@link AnalyticsChange} event, which listeners receive once the transaction has committed.
+     */
+    public WriteResult write(List<EnrichedSurveyDto> surveys) {
+        Map<UUID, Object[]> surveyRows = new LinkedHashMap<>();
+        Map<UUID, Object[]> responseRows = new LinkedHashMap<>();
+        toRows(surveys, surveyRows, responseRows);
+
+        return transactionTemplate.execute(status -> {
+            SurveySummaryRollup.Delta delta = new SurveySummaryRollup.Delta();
+            AnalyticsChangeBuilder change = new AnalyticsChangeBuilder(surveyRows);
+            RespondentSketches sketches = new RespondentSketches();
+            surveyRows.forEach((surveyId, row) -> delta.located(surveyId, (UUID) row[3], (UUID) row[4], (UUID) row[5]));
+            execute(SURVEY_INSERT, SURVEY_ROW, SURVEY_CONFLICT, new ArrayList<>(surveyRows.values()), rs -> {
+                UUID surveyId = rs.getObject(1, UUID.class);
+                delta.surveyInserted(surveyId);
+                change.surveyInserted(surveyId);
+                Object[] row = surveyRows.get(surveyId);
+                sketches.add((UUID) row[5], (UUID) row[1], (OffsetDateTime) row[2]);
+            });
+            execute(RESPONSE_INSERT, RESPONSE_ROW, RESPONSE_CONFLICT, new ArrayList<>(responseRows.values()), rs -> {
+                UUID surveyId = rs.getObject(1, UUID.class);
+                delta.responseInserted(surveyId, rs.getBoolean(2), (OffsetDateTime) surveyRows.get(surveyId)[2]);
+                change.responseInserted(surveyId, responseRows.get(rs.getObject(3, UUID.class)));
+            });
+            execute(SurveySummaryRollup.SUMMARY_INSERT, SurveySummaryRollup.SUMMARY_ROW,
+                    SurveySummaryRollup.SUMMARY_CONFLICT, delta.summaryRows(), null);
+            execute(SurveySummaryRollup.BUCKET_INSERT, SurveySummaryRollup.BUCKET_ROW,
+                    SurveySummaryRollup.BUCKET_CONFLICT, delta.bucketRows(), null);
+            execute(SurveySummaryRollup.LOCATION_INSERT, SurveySummaryRollup.LOCATION_ROW,
+                    SurveySummaryRollup.LOCATION_CONFLICT, delta.locationRows(), null);
+            respondentSketchWriter.write(sketches);
+            if (!change.isEmpty()) {
+                eventPublisher.publishEvent(change.build(jdbcTemplate.queryForObject(TRANSACTION_ID, Long.class)));
+            }
+            if (delta.surveys > 0 || delta.responses > 0) {
+                jdbcTemplate.update(SurveySummaryRollup.ADD_TOTALS, delta.surveys, delta.responses);
+            }
+            return new WriteResult(surveyRows.size(), (int) delta.surveys, responseRows.size(), (int) delta.responses);
+        });
+    }
+
+    /**
+     * Responses carry no id of their own, so the id is a name-based UUID of survey and question:
+     * the same answer always maps to the same row.
+     */
+    public static UUID responseId(UUID surveyId, String questionId) {
+        return UUID.nameUUIDFromBytes((surveyId + ":" + questionId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    static String insertSql(String insert, String row, String conflict, int rows) {
+        StringBuilder sql = new StringBuilder(insert.length() + rows * (row.length() + 2) + conflict.length());
+        sql.append(insert);
+        for (int i = 0; i < rows; i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(row);
+        }
+        return sql.append(conflict).toString();
+    }
+
+    /**
+     * Builds the parameter rows, keeping the first occurrence of every key: a batch may hold the
+     * same survey several times, once per question, and redeliveries of the same event.
+     */
+    private static void toRows(List<EnrichedSurveyDto> surveys, Map<UUID, Object[]> surveysById,
+                               Map<UUID, Object[]> responsesById) {
+        for (EnrichedSurveyDto dto : surveys) {
+            surveysById.computeIfAbsent(dto.getSurveyId(), id -> new Object[]{
+                    id, dto.getUserId(), dto.getTimestamp(), dto.getVillageId(), dto.getPanchayatId(),
+                    dto.getConstituencyId(), SurveyPayloads.toJson(dto)});
+            if (dto.getQuestionId() != null) {
+                responsesById.computeIfAbsent(responseId(dto.getSurveyId(), dto.getQuestionId()), id -> new Object[]{
+                        id, dto.getSurveyId(), dto.getQuestionId(), SurveyPayloads.toJson(dto.getResponse())});
+            }
+        }
+    }
+
+    /**
+     * Sends the rows in statements of at most {@link #rowsPerStatement} rows, passing the rows
+     * each statement returns, if any, to {@code returning}.
+     */
+    private void execute(String insert, String row, String conflict, List<Object[]> rows, RowCallbackHandler returning) {
+        String fullSql = null;
+        for (int from = 0; from < rows.size(); from += rowsPerStatement) {
+            List<Object[]> chunk = rows.subList(from, Math.min(rows.size(), from + rowsPerStatement));
+            String sql;
+            if (chunk.size() == rowsPerStatement) {
+                if (fullSql == null) {
+                    fullSql = insertSql(insert, row, conflict, rowsPerStatement);
+                }
+                sql = fullSql;
+            } else {
+                sql = insertSql(insert, row, conflict, chunk.size());
+            }
+            if (returning == null) {
+                jdbcTemplate.update(sql, ps -> bind(ps, chunk));
+            } else {
+                jdbcTemplate.query(sql, ps -> bind(ps, chunk), returning);
+            }
+        }
+    }
+
+    private static void bind(PreparedStatement ps, List<Object[]> chunk) throws SQLException {
+        int index = 1;
+        for (Object[] values : chunk) {
+            for (Object value : values) {
+                ps.setObject(index++, value);
+            }
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package com.survery.analytics.loader.writer;
+
+import com.survery.analytics.domain.LoadCheckpoint;
+import com.survery.analytics.domain.TimeResolution;
+import com.survery.analytics.domain.wire.AnalyticsChange;
+import com.survery.analytics.loader.dto.EnrichedSurveyDto;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Bulk path for backfills: a chunk of surveys is streamed into a session-local staging table with
+ * the PostgreSQL {@code COPY ... FROM STDIN} protocol, then merged into {@code surveys} and
+ * {@code responses} by one set-based statement. The same conflict rules as
+ * {@link SurveyBatchWriter} apply, so both paths can load the same events without duplicates.
+ * The job's {@link LoadCheckpoint} is advanced in the same transaction as the merge. Merged rows
+ * are not listed individually; a chunk that inserted any publishes an {@link AnalyticsChange#reset}.
+ */
+@Repository
+public class SurveyCopyWriter {
+
+    static final String CREATE_STAGING = "CREATE TEMP TABLE IF NOT EXISTS survey_staging ("
+            + "survey_id uuid, user_id uuid, timestamp timestamptz, village_id uuid, panchayat_id uuid, "
+            + "constituency_id uuid, raw_payload jsonb, response_id uuid, question_id text, response_value jsonb"
+            + ") ON COMMIT DELETE ROWS";
+
+    static final String COPY_STAGING = "COPY survey_staging (survey_id, user_id, timestamp, village_id, panchayat_id, "
+            + "constituency_id, raw_payload, response_id, question_id, response_value) FROM STDIN (FORMAT csv)";
+
+    /**
+     * Both inserts and the {@link SurveySummaryRollup rollups} run in one statement; foreign keys
+     * are checked at its end, so responses may reference surveys inserted by the first CTE.
+     * {@code DISTINCT ON} keeps the first staged row per key, as {@code ON CONFLICT} may not meet
+     * the same key twice in one statement. Only rows that were actually inserted are rolled up.
+     */
+    static final String MERGE = "WITH staged_surveys AS ("
+            + "SELECT DISTINCT ON (survey_id) survey_id, user_id, timestamp, village_id, panchayat_id, constituency_id, raw_payload "
+            + "FROM survey_staging), "
+            + "staged_responses AS ("
+            + "SELECT DISTINCT ON (response_id) response_id, survey_id, question_id, response_value "
+            + "FROM survey_staging WHERE response_id IS NOT NULL), "
+            + "inserted_surveys AS ("
+            + "INSERT INTO surveys (survey_id, user_id, timestamp, village_id, panchayat_id, constituency_id, raw_payload) "
+            + "SELECT * FROM staged_surveys ON CONFLICT (survey_id) DO NOTHING RETURNING survey_id), "
+            + "inserted_responses AS ("
+            + "INSERT INTO responses (response_id, survey_id, question_id, response_value) "
+            + "SELECT * FROM staged_responses ON CONFLICT (response_id) DO NOTHING "
+            + "RETURNING survey_id, " + SurveySummaryRollup.answered("response_value") + " AS answered), "
+            + "summary_delta AS ("
+            + "SELECT s.survey_id, count(r.survey_id) AS total, count(r.survey_id) FILTER (WHERE r.answered) AS answered, "
+            + "CASE WHEN count(r.survey_id) > 0 THEN s.timestamp END AS last_response_at "
+            + "FROM (SELECT survey_id FROM inserted_surveys UNION SELECT survey_id FROM inserted_responses) touched "
+            + "JOIN staged_surveys s ON s.survey_id = touched.survey_id "
+            + "LEFT JOIN inserted_responses r ON r.survey_id = touched.survey_id "
+            + "GROUP BY s.survey_id, s.timestamp ORDER BY s.survey_id), "
+            + "rolled_up AS ("
+            + "INSERT INTO survey_summary (survey_id, total_responses, answered_responses, last_response_at, updated_at) "
+            + "SELECT survey_id, total, answered, last_response_at, now() FROM summary_delta"
+            + SurveySummaryRollup.SUMMARY_CONFLICT + "), "
+            + "bucketed AS ("
+            + "INSERT INTO constituency_response_buckets (constituency_id, resolution, bucket_start, responses) "
+            + "SELECT s.constituency_id, '" + TimeResolution.MINUTE + "', "
+            + SurveySummaryRollup.truncateUtc(TimeResolution.MINUTE, "d.last_response_at") + ", sum(d.total) "
+            + "FROM summary_delta d JOIN staged_surveys s ON s.survey_id = d.survey_id WHERE d.total > 0 "
+            + "GROUP BY 1, 3 ORDER BY 1, 3"
+            + SurveySummaryRollup.BUCKET_CONFLICT + "), "
+            + "located AS ("
+            + "INSERT INTO location_response_counts (level, location_id, parent_id, surveys, responses) "
+            + SurveySummaryRollup.locationRows("(SELECT s.village_id, s.panchayat_id, s.constituency_id, "
+            + "CASE WHEN i.survey_id IS NULL THEN 0 ELSE 1 END AS surveys, d.total AS responses FROM summary_delta d "
+            + "JOIN staged_surveys s ON s.survey_id = d.survey_id "
+            + "LEFT JOIN inserted_surveys i ON i.survey_id = d.survey_id)")
+            + SurveySummaryRollup.LOCATION_CONFLICT + ") "
+            + "SELECT (SELECT count(*) FROM staged_surveys), (SELECT count(*) FROM inserted_surveys), "
+            + "(SELECT count(*) FROM staged_responses), (SELECT count(*) FROM inserted_responses)";
+
+    /**
+     * Every staged survey, inserted or not: adding a respondent to a sketch again changes nothing.
+     */
+    static final String STAGED_RESPONDENTS = "SELECT DISTINCT ON (survey_id) survey_id, constituency_id, user_id, timestamp "
+            + "FROM survey_staging";
+
+    static final String SAVE_CHECKPOINT = "INSERT INTO load_checkpoints (job_name, position, updated_at) VALUES (?, ?, now()) "
+            + "ON CONFLICT (job_name) DO UPDATE SET position = EXCLUDED.position, updated_at = EXCLUDED.updated_at";
+
+    private static final int COPY_BUFFER_CHARS = 64 * 1024;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final RespondentSketchWriter respondentSketchWriter;
+
+    public SurveyCopyWriter(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                            ApplicationEventPublisher eventPublisher, RespondentSketchWriter respondentSketchWriter) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.respondentSketchWriter = respondentSketchWriter;
+    }
+
+    /**
+     * @return the input position the job has committed up to, or 0 if it has not started.
+     */
+    public long readCheckpoint(String jobName) {
+        List<Long> positions = jdbcTemplate.queryForList(
+                "SELECT position FROM load_checkpoints WHERE job_name = ?", Long.class, jobName);
+        return positions.isEmpty() ? 0 : positions.get(0);
+    }
+
+    /**
+     * Copies and merges one chunk and moves the job's checkpoint to {@code position}, all in one
+     * transaction: after a crash the job resumes exactly after the last merged chunk.
+     */
+    public WriteResult write(List<EnrichedSurveyDto> surveys, String jobName, long position) {
+        return transactionTemplate.execute(status -> jdbcTemplate.execute((ConnectionCallback<WriteResult>) connection -> {
+            WriteResult result = surveys.isEmpty() ? new WriteResult(0, 0, 0, 0) : copyAndMerge(connection, surveys);
+            try (PreparedStatement checkpoint = connection.prepareStatement(SAVE_CHECKPOINT)) {
+                checkpoint.setString(1, jobName);
+                checkpoint.setLong(2, position);
+                checkpoint.executeUpdate();
+            }
+            if (result.getRowsInserted() > 0) {
+                eventPublisher.publishEvent(AnalyticsChange.reset(transactionId(connection)));
+            }
+            return result;
+        }));
+    }
+
+    private WriteResult copyAndMerge(Connection connection, List<EnrichedSurveyDto> surveys) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(CREATE_STAGING);
+        }
+
+        CopyIn copyIn = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_STAGING);
+        try {
+            StringBuilder buffer = new StringBuilder(COPY_BUFFER_CHARS + 1024);
+            for (EnrichedSurveyDto dto : surveys) {
+                appendCsvRow(buffer, dto);
+                if (buffer.length() >= COPY_BUFFER_CHARS) {
+                    writeToCopy(copyIn, buffer);
+                }
+            }
+            writeToCopy(copyIn, buffer);
+            copyIn.endCopy();
+        } finally {
+            if (copyIn.isActive()) {
+                copyIn.cancelCopy();
+            }
+        }
+
+        WriteResult result;
+        try (Statement statement = connection.createStatement();
+             ResultSet counts = statement.executeQuery(MERGE)) {
+            counts.next();
+            result = new WriteResult(counts.getInt(1), counts.getInt(2), counts.getInt(3), counts.getInt(4));
+        }
+        RespondentSketches sketches = new RespondentSketches();
+        try (Statement statement = connection.createStatement();
+             ResultSet staged = statement.executeQuery(STAGED_RESPONDENTS)) {
+            while (staged.next()) {
+                sketches.add(staged.getObject(2, UUID.class), staged.getObject(3, UUID.class),
+                        staged.getObject(4, OffsetDateTime.class));
+            }
+        }
+        respondentSketchWriter.write(sketches);
+        if (result.getRowsInserted() > 0) {
+            try (PreparedStatement totals = connection.prepareStatement(SurveySummaryRollup.ADD_TOTALS)) {
+                totals.setLong(1, result.getSurveysInserted());
+                totals.setLong(2, result.getResponsesInserted());
+                totals.executeUpdate();
+            }
+        }
+        return result;
+    }
+
+    private static long transactionId(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet id = statement.executeQuery(SurveyBatchWriter.TRANSACTION_ID)) {
+            id.next();
+            return id.getLong(1);
+        }
+    }
+
+    private static void writeToCopy(CopyIn copyIn, StringBuilder buffer) throws SQLException {
+        byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+        copyIn.writeToCopy(bytes, 0, bytes.length);
+        buffer.setLength(0);
+    }
+
+    /**
+     * One staging row in PostgreSQL's CSV format, where an unquoted empty field is NULL.
+     */
+    static void appendCsvRow(StringBuilder csv, EnrichedSurveyDto dto) {
+        csv.append(dto.getSurveyId()).append(',')
+                .append(dto.getUserId()).append(',')
+                .append(dto.getTimestamp()).append(',')
+                .append(dto.getVillageId()).append(',')
+                .append(dto.getPanchayatId()).append(',')
+                .append(dto.getConstituencyId()).append(',');
+        appendQuoted(csv, SurveyPayloads.toJson(dto));
+        csv.append(',');
+        if (dto.getQuestionId() != null) {
+            UUID responseId = SurveyBatchWriter.responseId(dto.getSurveyId(), dto.getQuestionId());
+            csv.append(responseId).append(',');
+            appendQuoted(csv, dto.getQuestionId());
+            csv.append(',');
+            appendQuoted(csv, SurveyPayloads.toJson(dto.getResponse()));
+        } else {
+            csv.append(",,");
+        }
+        csv.append('\n');
+    }
+
+    private static void appendQuoted(StringBuilder csv, String value) {
+        csv.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                csv.append('"');
+            }
+            csv.append(c);
+        }
+        csv.append('"');
+    }
+}
@@ -0,0 +1,28 @@
+package com.survery.analytics.loader.writer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+/**
+ * JSON for the {@code jsonb} columns, written the same way by every load path so that a survey
+ * loaded by a backfill is indistinguishable from one loaded from the topic.
+ */
+final class SurveyPayloads {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private SurveyPayloads() {
+    }
+
+    static String toJson(Object value) {
+        try {
+            return OBJECT_MAPPER.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot serialise survey payload", e);
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package com.survery.analytics.loader.writer;
+
+import com.survery.analytics.domain.AnalyticsTotals;
+import com.survery.analytics.domain.LocationLevel;
+import com.survery.analytics.domain.LocationResponseCount;
+import com.survery.analytics.domain.LocationResponseCountId;
+import com.survery.analytics.domain.ResponseTimeBucketId;
+import com.survery.analytics.domain.SurveySummary;
+import com.survery.analytics.domain.TimeResolution;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Keeps {@link SurveySummary}, the minute {@link com.survery.analytics.domain.ResponseTimeBucket}s,
+ * the {@link LocationResponseCount}s and {@link AnalyticsTotals} up to date. The writers only ever add
+ * the rows they actually inserted, in the transaction that inserted them, so a redelivered event
+ * that conflicts is not counted twice.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class SurveySummaryRollup {
+
+    private static final Logger log = LoggerFactory.getLogger(SurveySummaryRollup.class);
+
+    static final String SUMMARY_INSERT = "INSERT INTO survey_summary "
+            + "(survey_id, total_responses, answered_responses, last_response_at, updated_at) VALUES ";
+    static final String SUMMARY_ROW = "(?, ?, ?, ?, now())";
+    static final String SUMMARY_CONFLICT = " ON CONFLICT (survey_id) DO UPDATE SET "
+            + "total_responses = survey_summary.total_responses + EXCLUDED.total_responses, "
+            + "answered_responses = survey_summary.answered_responses + EXCLUDED.answered_responses, "
+            + "last_response_at = GREATEST(survey_summary.last_response_at, EXCLUDED.last_response_at), "
+            + "updated_at = EXCLUDED.updated_at";
+
+    static final String BUCKET_INSERT = "INSERT INTO constituency_response_buckets "
+            + "(constituency_id, resolution, bucket_start, responses) VALUES ";
+    static final String BUCKET_ROW = "(?, ?, ?, ?)";
+    static final String BUCKET_CONFLICT = " ON CONFLICT (constituency_id, resolution, bucket_start) DO UPDATE SET "
+            + "responses = constituency_response_buckets.responses + EXCLUDED.responses";
+
+    static final String LOCATION_INSERT = "INSERT INTO location_response_counts "
+            + "(level, location_id, parent_id, surveys, responses) VALUES ";
+    static final String LOCATION_ROW = "(?, ?, ?, ?, ?)";
+    static final String LOCATION_CONFLICT = " ON CONFLICT (level, location_id) DO UPDATE SET "
+            + "surveys = location_response_counts.surveys + EXCLUDED.surveys, "
+            + "responses = location_response_counts.responses + EXCLUDED.responses";
+
+    /**
+     * One row per level for each survey of {@code surveys}, a relation with the columns
+     * {@code village_id}, {@code panchayat_id}, {@code constituency_id}, {@code surveys} and
+     * {@code responses}, summed per location and in key order.
+     */
+    static String locationRows(String surveys) {
+        return "SELECT l.level, l.location_id, l.parent_id, sum(t.surveys), sum(t.responses) FROM " + surveys + " t "
+                + "CROSS JOIN LATERAL (VALUES "
+                + "('" + LocationLevel.CONSTITUENCY + "', t.constituency_id, CAST(NULL AS uuid)), "
+                + "('" + LocationLevel.PANCHAYAT + "', t.panchayat_id, t.constituency_id), "
+                + "('" + LocationLevel.VILLAGE + "', t.village_id, t.panchayat_id)) AS l(level, location_id, parent_id) "
+                + "GROUP BY 1, 2, 3 ORDER BY 1, 2";
+    }
+
+    /**
+     * Run last in a write transaction: the single totals row is the one lock every loader
+     * transaction shares, so it should be held only until the commit.
+     */
+    static final String ADD_TOTALS = "INSERT INTO analytics_totals (id, surveys, responses) "
+            + "VALUES (" + AnalyticsTotals.ID + ", ?, ?) "
+            + "ON CONFLICT (id) DO UPDATE SET surveys = analytics_totals.surveys + EXCLUDED.surveys, "
+            + "responses = analytics_totals.responses + EXCLUDED.responses";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public SurveySummaryRollup(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Whether a {@code response_value} counts towards {@link SurveySummary#getAnsweredResponses()}.
+     */
+    static String answered(String responseValue) {
+        return "(" + responseValue + " <> 'null'::jsonb AND " + responseValue + " <> '{}'::jsonb)";
+    }
+
+    /**
+     * {@code date_trunc} in UTC, independent of the session time zone.
+     */
+    static String truncateUtc(TimeResolution resolution, String timestamp) {
+        return "(date_trunc('" + resolution.getSqlUnit() + "', " + timestamp + " AT TIME ZONE 'UTC') AT TIME ZONE 'UTC')";
+    }
+
+    /**
+     * Builds each rollup from the stored rows once, when it is introduced into a database that
+     * already holds surveys. After that the writers maintain them and this is a no-op.
+     */
+    @PostConstruct
+    void initialise() {
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.execute("LOCK TABLE analytics_totals IN EXCLUSIVE MODE");
+            if (isEmpty("constituency_response_buckets")) {
+                // Seeded at minute resolution; compaction moves old buckets to coarser ones.
+                int buckets = jdbcTemplate.update("INSERT INTO constituency_response_buckets "
+                        + "(constituency_id, resolution, bucket_start, responses) "
+                        + "SELECT s.constituency_id, '" + TimeResolution.MINUTE + "', "
+                        + truncateUtc(TimeResolution.MINUTE, "s.timestamp")
+                        + ", count(*) FROM responses r JOIN surveys s ON s.survey_id = r.survey_id GROUP BY 1, 3");
+                log.info("Initialised {} response time buckets", buckets);
+            }
+            if (isEmpty("location_response_counts")) {
+                int locations = jdbcTemplate.update("INSERT INTO location_response_counts "
+                        + "(level, location_id, parent_id, surveys, responses) "
+                        + locationRows("(SELECT s.village_id, s.panchayat_id, s.constituency_id, 1 AS surveys, "
+                        + "(SELECT count(*) FROM responses r WHERE r.survey_id = s.survey_id) AS responses FROM surveys s)"));
+                log.info("Initialised {} location response counts", locations);
+            }
+            if (!isEmpty("analytics_totals")) {
+                return;
+            }
+            int summaries = jdbcTemplate.update("INSERT INTO survey_summary "
+                    + "(survey_id, total_responses, answered_responses, last_response_at, updated_at) "
+                    + "SELECT s.survey_id, count(r.response_id), "
+                    + "count(r.response_id) FILTER (WHERE " + answered("r.response_value") + "), "
+                    + "CASE WHEN count(r.response_id) > 0 THEN s.timestamp END, now() "
+                    + "FROM surveys s LEFT JOIN responses r ON r.survey_id = s.survey_id "
+                    + "GROUP BY s.survey_id, s.timestamp ON CONFLICT (survey_id) DO NOTHING");
+            jdbcTemplate.update("INSERT INTO analytics_totals (id, surveys, responses) SELECT " + AnalyticsTotals.ID
+                    + ", (SELECT count(*) FROM surveys), (SELECT count(*) FROM responses)");
+            log.info("Initialised survey rollups for {} existing surveys", summaries);
+        });
+    }
+
+    private boolean isEmpty(String table) {
+        return !Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM " + table + ")", Boolean.class));
+    }
+
+    /**
+     * Per-survey changes of one write, collected from the rows the inserts returned. Surveys are
+     * kept in id order so concurrent writers lock summary rows in the same order.
+     */
+    static final class Delta {
+        final Map<UUID, long[]> counts = new TreeMap<>();
+        final Map<UUID, OffsetDateTime> lastResponseAt = new HashMap<>();
+        final Map<ResponseTimeBucketId, long[]> buckets = new TreeMap<>(
+                Comparator.comparing(ResponseTimeBucketId::getConstituencyId)
+                        .thenComparing(ResponseTimeBucketId::getBucketStart));
+        final Map<UUID, UUID[]> locations = new HashMap<>();
+        final Map<LocationResponseCountId, long[]> locationCounts = new TreeMap<>(
+                Comparator.comparing(LocationResponseCountId::getLevel).thenComparing(LocationResponseCountId::getLocationId));
+        final Map<LocationResponseCountId, UUID> parents = new HashMap<>();
+        long surveys;
+        long responses;
+
+        /**
+         * Records where a survey of the batch was taken, before any of its rows are counted.
+         */
+        void located(UUID surveyId, UUID villageId, UUID panchayatId, UUID constituencyId) {
+            locations.put(surveyId, new UUID[]{villageId, panchayatId, constituencyId});
+        }
+
+        void surveyInserted(UUID surveyId) {
+            surveys++;
+            counts.computeIfAbsent(surveyId, id -> new long[2]);
+            countAtLocation(surveyId, 0);
+        }
+
+        void responseInserted(UUID surveyId, boolean answered, OffsetDateTime at) {
+            responses++;
+            long[] count = counts.computeIfAbsent(surveyId, id -> new long[2]);
+            count[0]++;
+            if (answered) {
+                count[1]++;
+            }
+            countAtLocation(surveyId, 1);
+            UUID[] location = locations.get(surveyId);
+            if (at != null) {
+                lastResponseAt.merge(surveyId, at, (a, b) -> a.isAfter(b) ? a : b);
+            }
+            if (at != null && location != null) {
+                // Bucketed by constituency: a survey's responses all share its one timestamp.
+                OffsetDateTime bucketStart = TimeResolution.MINUTE.truncate(at);
+                buckets.computeIfAbsent(new ResponseTimeBucketId(location[2], TimeResolution.MINUTE, bucketStart),
+                        id -> new long[1])[0]++;
+            }
+        }
+
+        private void countAtLocation(UUID surveyId, int column) {
+            UUID[] location = locations.get(surveyId);
+            if (location == null) {
+                return;
+            }
+            count(LocationLevel.VILLAGE, location[0], location[1], column);
+            count(LocationLevel.PANCHAYAT, location[1], location[2], column);
+            count(LocationLevel.CONSTITUENCY, location[2], null, column);
+        }
+
+        private void count(LocationLevel level, UUID locationId, UUID parentId, int column) {
+            LocationResponseCountId id = new LocationResponseCountId(level, locationId);
+            locationCounts.computeIfAbsent(id, key -> new long[2])[column]++;
+            parents.put(id, parentId);
+        }
+
+        List<Object[]> summaryRows() {
+            List<Object[]> rows = new ArrayList<>(counts.size());
+            counts.forEach((surveyId, count) -> rows.add(new Object[]{surveyId, count[0], count[1], lastResponseAt.get(surveyId)}));
+            return rows;
+        }
+
+        List<Object[]> bucketRows() {
+            List<Object[]> rows = new ArrayList<>(buckets.size());
+            buckets.forEach((id, count) -> rows.add(new Object[]{
+                    id.getConstituencyId(), id.getResolution().name(), id.getBucketStart(), count[0]}));
+            return rows;
+        }
+
+        List<Object[]> locationRows() {
+            List<Object[]> rows = new ArrayList<>(locationCounts.size());
+            locationCounts.forEach((id, count) -> rows.add(new Object[]{
+                    id.getLevel().name(), id.getLocationId(), parents.get(id), count[0], count[1]}));
+            return rows;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.survery.analytics.loader.writer;
+
+import lombok.Value;
+
+/**
+ * Row counts of one {@link SurveyBatchWriter#write} call. The difference between rows sent and
+ * rows inserted is what was already in the database, typically because of a redelivery.
+ */
+@Value
+public class WriteResult {
+    int surveyRows;
+    int surveysInserted;
+    int responseRows;
+    int responsesInserted;
+
+    public int getRowsInserted() {
+        return surveysInserted + responsesInserted;
+    }
+}
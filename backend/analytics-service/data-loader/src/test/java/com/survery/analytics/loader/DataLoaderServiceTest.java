@@ -0,0 +1,210 @@
+package com.survery.analytics.loader;
+
+import com.survery.analytics.domain.retry.FailureClassifier;
+import com.survery.analytics.domain.retry.FailureRouter;
+import com.survery.analytics.domain.retry.RetryPolicy;
+import com.survery.analytics.domain.wire.WireHeaders;
+import com.survery.analytics.loader.codec.EnrichedSurveyDecoder;
+import com.survery.analytics.loader.dto.EnrichedSurveyDto;
+import com.survery.analytics.loader.writer.SurveyBatchWriter;
+import com.survery.analytics.loader.writer.WriteResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.stubbing.Answer;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.event.ListenerContainerIdleEvent;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.kafka.support.SendResult;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DataLoaderServiceTest {
+
+    @SuppressWarnings("unchecked")
+    private final KafkaTemplate<String, byte[]> kafkaTemplate = mock(KafkaTemplate.class);
+    private final SurveyBatchWriter writer = mock(SurveyBatchWriter.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final FailureRouter failureRouter = new FailureRouter(new FailureClassifier(), new RetryPolicy(List.of()),
+            Clock.systemUTC());
+    private final DataLoaderService service = new DataLoaderService(new EnrichedSurveyDecoder(), kafkaTemplate,
+            failureRouter, writer, 3, 60_000, meterRegistry);
+    private final List<Integer> writtenSizes = new ArrayList<>();
+
+    @Test
+    void consume_shouldBufferUntilSizeThresholdThenWriteAndAcknowledgeEveryPoll() {
+        when(writer.write(anyList())).thenAnswer(written(new WriteResult(3, 3, 3, 2)));
+        Acknowledgment firstPoll = mock(Acknowledgment.class);
+        Acknowledgment secondPoll = mock(Acknowledgment.class);
+
+        service.consumeEnrichedSurveys(List.of(record(0), record(1)), firstPoll);
+        verify(writer, never()).write(anyList());
+        verify(firstPoll, never()).acknowledge();
+
+        service.consumeEnrichedSurveys(List.of(record(2)), secondPoll);
+
+        assertEquals(List.of(3), writtenSizes);
+        verify(firstPoll).acknowledge();
+        verify(secondPoll).acknowledge();
+        assertEquals(5.0, meterRegistry.get("loader.rows").tag("outcome", "inserted").counters().stream()
+                .mapToDouble(c -> c.count()).sum());
+        assertEquals(1.0, meterRegistry.get("loader.rows").tag("table", "responses").tag("outcome", "existing")
+                .counter().count());
+    }
+
+    @Test
+    void onIdle_shouldFlushPartialBuffer() {
+        when(writer.write(anyList())).thenReturn(new WriteResult(1, 1, 1, 1));
+        Acknowledgment acknowledgment = mock(Acknowledgment.class);
+        service.consumeEnrichedSurveys(List.of(record(0)), acknowledgment);
+
+        service.onIdle(mock(ListenerContainerIdleEvent.class));
+
+        verify(writer).write(anyList());
+        verify(acknowledgment).acknowledge();
+    }
+
+    @Test
+    void consume_whenWriteFails_shouldKeepEarlierPollsAndLeaveThisPollForRedelivery() {
+        Acknowledgment firstPoll = mock(Acknowledgment.class);
+        Acknowledgment secondPoll = mock(Acknowledgment.class);
+        service.consumeEnrichedSurveys(List.of(record(0), record(1)), firstPoll);
+        when(writer.write(anyList())).thenThrow(new IllegalStateException("database down"))
+                .thenAnswer(written(new WriteResult(2, 2, 2, 2)));
+
+        assertThrows(IllegalStateException.class, () -> service.consumeEnrichedSurveys(List.of(record(2)), secondPoll));
+
+        service.onIdle(mock(ListenerContainerIdleEvent.class));
+        assertEquals(List.of(2), writtenSizes);
+        verify(firstPoll).acknowledge();
+        verify(secondPoll, never()).acknowledge();
+    }
+
+    @Test
+    void flush_whenBatchViolatesConstraint_shouldDeadLetterOnlyTheOffendingEvent() {
+        ConsumerRecord<String, byte[]> bad = record(1);
+        when(writer.write(anyList())).thenAnswer(invocation -> {
+            List<EnrichedSurveyDto> surveys = invocation.getArgument(0);
+            if (surveys.stream().anyMatch(s -> s.getSurveyId().equals(surveyId(1)))) {
+                throw new DataIntegrityViolationException("unknown village");
+            }
+            return new WriteResult(surveys.size(), surveys.size(), surveys.size(), surveys.size());
+        });
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(CompletableFuture.completedFuture(mock(SendResult.class)));
+        Acknowledgment acknowledgment = mock(Acknowledgment.class);
+
+        service.consumeEnrichedSurveys(List.of(record(0), bad, record(2)), acknowledgment);
+
+        verify(writer, times(4)).write(anyList());
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<ProducerRecord<String, byte[]>> dead = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(kafkaTemplate).send(dead.capture());
+        assertEquals("dlq-transformed-surveys", dead.getValue().topic());
+        assertEquals(bad.value(), dead.getValue().value());
+        assertNotNull(dead.getValue().headers().lastHeader(WireHeaders.FAILURE_CAUSE));
+        verify(acknowledgment).acknowledge();
+    }
+
+    @Test
+    void consume_whenPollIsRedelivered_shouldNotSendItsDeadLettersAgain() {
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(CompletableFuture.completedFuture(mock(SendResult.class)));
+        when(writer.write(anyList())).thenThrow(new IllegalStateException("database down"))
+                .thenAnswer(written(new WriteResult(3, 3, 3, 3)));
+        byte[] incomplete = ("{\"surveyId\":\"" + surveyId(1) + "\"}").getBytes(StandardCharsets.UTF_8);
+        List<ConsumerRecord<String, byte[]>> poll = List.of(record(0),
+                new ConsumerRecord<>("transformed-surveys", 0, 1, "k", incomplete), record(2), record(3));
+        Acknowledgment firstDelivery = mock(Acknowledgment.class);
+        Acknowledgment redelivery = mock(Acknowledgment.class);
+
+        assertThrows(IllegalStateException.class, () -> service.consumeEnrichedSurveys(poll, firstDelivery));
+        service.consumeEnrichedSurveys(poll, redelivery);
+
+        verify(kafkaTemplate, times(1)).send(any(ProducerRecord.class));
+        assertEquals(List.of(3), writtenSizes);
+        verify(redelivery).acknowledge();
+    }
+
+    @Test
+    void onPartitionsRevoked_whenFlushFails_shouldDropRevokedPartitionsAndAcknowledgments() {
+        Acknowledgment poll = mock(Acknowledgment.class);
+        service.consumeEnrichedSurveys(List.of(record(0, 0), record(1, 1)), poll);
+        List<UUID> written = new ArrayList<>();
+        when(writer.write(anyList())).thenThrow(new IllegalStateException("database down")).thenAnswer(invocation -> {
+            invocation.<List<EnrichedSurveyDto>>getArgument(0).forEach(survey -> written.add(survey.getSurveyId()));
+            return new WriteResult(1, 1, 1, 1);
+        });
+
+        service.onPartitionsRevokedBeforeCommit(mock(Consumer.class), List.of(new TopicPartition("transformed-surveys", 0)));
+        service.onIdle(mock(ListenerContainerIdleEvent.class));
+
+        assertEquals(List.of(surveyId(1)), written);
+        verify(poll, never()).acknowledge();
+    }
+
+    @Test
+    void consume_whenEventIncomplete_shouldDeadLetterAndStillAcknowledge() {
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(CompletableFuture.completedFuture(mock(SendResult.class)));
+        Acknowledgment acknowledgment = mock(Acknowledgment.class);
+        byte[] incomplete = ("{\"surveyId\":\"" + surveyId(0) + "\"}").getBytes(StandardCharsets.UTF_8);
+
+        service.consumeEnrichedSurveys(List.of(new ConsumerRecord<>("transformed-surveys", 0, 0, "k", incomplete)),
+                acknowledgment);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<ProducerRecord<String, byte[]>> dead = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(kafkaTemplate).send(dead.capture());
+        assertEquals("dlq-transformed-surveys", dead.getValue().topic());
+        assertEquals("POISON", new String(dead.getValue().headers().lastHeader(WireHeaders.FAILURE_TYPE).value(),
+                StandardCharsets.UTF_8));
+        verify(writer, never()).write(anyList());
+        verify(acknowledgment).acknowledge();
+    }
+
+    /**
+     * Records the batch size at call time, as the service reuses its buffer after a flush.
+     */
+    private Answer<WriteResult> written(WriteResult result) {
+        return invocation -> {
+            writtenSizes.add(invocation.<List<?>>getArgument(0).size());
+            return result;
+        };
+    }
+
+    private static ConsumerRecord<String, byte[]> record(int index) {
+        return record(index, 0);
+    }
+
+    private static ConsumerRecord<String, byte[]> record(int index, int partition) {
+        String json = "{\"surveyId\":\"" + surveyId(index) + "\",\"questionId\":\"q-1\",\"response\":{\"choice\":\"yes\"},"
+                + "\"userId\":\"" + UUID.randomUUID() + "\",\"timestamp\":\"2024-03-01T10:15:30+05:30\",\"lat\":12.9,\"lon\":77.5,"
+                + "\"villageId\":\"" + UUID.randomUUID() + "\",\"panchayatId\":\"" + UUID.randomUUID() + "\","
+                + "\"constituencyId\":\"" + UUID.randomUUID() + "\"}";
+        return new ConsumerRecord<>("transformed-surveys", partition, index, surveyId(index).toString(),
+                json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static UUID surveyId(int index) {
+        return new UUID(0, index);
+    }
+}
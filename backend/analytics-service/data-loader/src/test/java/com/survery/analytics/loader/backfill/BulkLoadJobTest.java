@@ -0,0 +1,77 @@
+package com.survery.analytics.loader.backfill;
+
+import com.survery.analytics.loader.codec.EnrichedSurveyDecoder;
+import com.survery.analytics.loader.writer.SurveyCopyWriter;
+import com.survery.analytics.loader.writer.WriteResult;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BulkLoadJobTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final SurveyCopyWriter writer = mock(SurveyCopyWriter.class);
+    private final BulkLoadJob job = new BulkLoadJob(new EnrichedSurveyDecoder(), writer, 2);
+    private final List<String> chunks = new ArrayList<>();
+
+    @Test
+    void run_shouldWriteChunksAndCheckpointAfterEachOne() throws Exception {
+        Path input = write(line(), line(), "not json", line(), "", line(), "{}");
+        recordChunks();
+
+        BulkLoadReport report = job.run(input, "backfill");
+
+        // Checkpoints are input line numbers; an empty final chunk moves past the trailing rejected line.
+        assertEquals(List.of("2@2", "2@6", "0@7"), chunks);
+        assertEquals(7, report.getLinesRead());
+        assertEquals(2, report.getLinesRejected());
+        assertEquals(3, report.getChunks());
+        assertEquals(4, report.getSurveyRows());
+    }
+
+    @Test
+    void run_whenCheckpointExists_shouldResumeAfterIt() throws Exception {
+        Path input = write(line(), line(), line());
+        when(writer.readCheckpoint("backfill")).thenReturn(2L);
+        recordChunks();
+
+        BulkLoadReport report = job.run(input, "backfill");
+
+        assertEquals(List.of("1@3"), chunks);
+        assertEquals(2, report.getLinesSkipped());
+        assertEquals(1, report.getLinesRead());
+    }
+
+    private void recordChunks() {
+        when(writer.write(anyList(), eq("backfill"), anyLong())).thenAnswer(invocation -> {
+            int size = invocation.<List<?>>getArgument(0).size();
+            chunks.add(size + "@" + invocation.getArgument(2));
+            return new WriteResult(size, size, size, size);
+        });
+    }
+
+    private Path write(String... lines) throws Exception {
+        return Files.write(tempDir.resolve("surveys.ndjson"), List.of(lines));
+    }
+
+    private static String line() {
+        return "{\"surveyId\":\"" + UUID.randomUUID() + "\",\"questionId\":\"q-1\",\"response\":{\"choice\":\"yes\"},"
+                + "\"userId\":\"" + UUID.randomUUID() + "\",\"timestamp\":\"2024-03-01T10:15:30+05:30\",\"lat\":12.9,\"lon\":77.5,"
+                + "\"villageId\":\"" + UUID.randomUUID() + "\",\"panchayatId\":\"" + UUID.randomUUID() + "\","
+                + "\"constituencyId\":\"" + UUID.randomUUID() + "\"}";
+    }
+}
@@ -0,0 +1,57 @@
+package com.survery.analytics.loader.change;
+
+import com.survery.analytics.domain.wire.AnalyticsChange;
+import com.survery.analytics.domain.wire.AnalyticsChangeCodec;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AnalyticsChangePublisherTest {
+
+    @Test
+    void split_shouldKeepMessagesWithinTheResponseLimit() {
+        AnalyticsChange change = new AnalyticsChange(7, false, List.of(
+                survey(new UUID(0, 1), 2), survey(new UUID(0, 2), 5), survey(new UUID(0, 3), 0)));
+
+        List<AnalyticsChange> messages = AnalyticsChangePublisher.split(change, 3);
+
+        assertEquals(List.of(2, 3, 2, 0), messages.stream()
+                .flatMap(message -> message.getSurveys().stream())
+                .map(survey -> survey.getResponses().size())
+                .toList());
+        assertEquals(List.of(1, 1, 2), messages.stream().map(message -> message.getSurveys().size()).toList());
+        assertTrue(messages.stream().allMatch(message -> message.getTransactionId() == 7));
+        // Only the first part of a split survey reports the survey row as inserted.
+        assertTrue(messages.get(1).getSurveys().get(0).isSurveyInserted());
+        assertFalse(messages.get(2).getSurveys().get(0).isSurveyInserted());
+    }
+
+    @Test
+    void split_ofReset_shouldStillPublishOneMessage() {
+        List<AnalyticsChange> messages = AnalyticsChangePublisher.split(AnalyticsChange.reset(9), 3);
+
+        assertEquals(List.of(AnalyticsChange.reset(9)), messages);
+    }
+
+    @Test
+    void codec_shouldRoundTripChanges() {
+        AnalyticsChange change = new AnalyticsChange(Long.MAX_VALUE, false, List.of(survey(UUID.randomUUID(), 2)));
+
+        assertEquals(change, AnalyticsChangeCodec.decode(AnalyticsChangeCodec.encode(change)));
+        assertEquals(AnalyticsChange.reset(1), AnalyticsChangeCodec.decode(AnalyticsChangeCodec.encode(AnalyticsChange.reset(1))));
+    }
+
+    private static AnalyticsChange.SurveyChange survey(UUID surveyId, int responses) {
+        List<AnalyticsChange.ResponseChange> changes = new ArrayList<>();
+        for (int i = 0; i < responses; i++) {
+            changes.add(new AnalyticsChange.ResponseChange(UUID.randomUUID(), "q-" + i, "{\"choice\":" + i + "}"));
+        }
+        return new AnalyticsChange.SurveyChange(surveyId, true, UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(), changes);
+    }
+}
@@ -0,0 +1,93 @@
+package com.survery.analytics.loader.codec;
+
+import com.survery.analytics.domain.wire.BinaryWriter;
+import com.survery.analytics.domain.wire.MalformedMessageException;
+import com.survery.analytics.domain.wire.SurveyWireSchema;
+import com.survery.analytics.domain.wire.WireFormat;
+import com.survery.analytics.loader.dto.EnrichedSurveyDto;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class EnrichedSurveyDecoderTest {
+
+    private final EnrichedSurveyDecoder decoder = new EnrichedSurveyDecoder();
+
+    private final UUID surveyId = UUID.randomUUID();
+    private final UUID userId = UUID.randomUUID();
+    private final UUID villageId = UUID.randomUUID();
+    private final UUID panchayatId = UUID.randomUUID();
+    private final UUID constituencyId = UUID.randomUUID();
+
+    @Test
+    void decode_binaryAndJson_shouldProduceTheSameDto() throws IOException {
+        String json = "{\"surveyId\":\"" + surveyId + "\",\"questionId\":\"q-7\",\"response\":{\"choice\":\"yes\"},"
+                + "\"userId\":\"" + userId + "\",\"timestamp\":\"2024-03-01T10:15:30+05:30\",\"lat\":12.9,\"lon\":77.5,"
+                + "\"villageId\":\"" + villageId + "\",\"panchayatId\":\"" + panchayatId + "\","
+                + "\"constituencyId\":\"" + constituencyId + "\"}";
+        byte[] binary = binary(SurveyWireSchema.SURVEY_ID | SurveyWireSchema.QUESTION_ID | SurveyWireSchema.RESPONSE
+                | SurveyWireSchema.USER_ID | SurveyWireSchema.TIMESTAMP, "2024-03-01T10:15:30+05:30");
+
+        EnrichedSurveyDto fromJson = decoder.decode(json.getBytes(StandardCharsets.UTF_8), WireFormat.JSON);
+        EnrichedSurveyDto fromBinary = decoder.decode(binary, WireFormat.BINARY);
+
+        assertEquals(fromJson, fromBinary);
+        assertEquals(Map.of("choice", "yes"), fromBinary.getResponse());
+        assertEquals(OffsetDateTime.of(2024, 3, 1, 4, 45, 30, 0, ZoneOffset.UTC), fromBinary.getTimestamp());
+    }
+
+    @Test
+    void decodeBinary_shouldHandleAbsentFieldsAndNumericTimestamps() throws IOException {
+        EnrichedSurveyDto dto = decoder.decode(
+                binary(SurveyWireSchema.SURVEY_ID | SurveyWireSchema.TIMESTAMP | SurveyWireSchema.TIMESTAMP_NUMERIC, "1709268330.5"),
+                WireFormat.BINARY);
+
+        assertEquals(surveyId, dto.getSurveyId());
+        assertNull(dto.getQuestionId());
+        assertNull(dto.getResponse());
+        assertEquals(OffsetDateTime.of(2024, 3, 1, 4, 45, 30, 500_000_000, ZoneOffset.UTC), dto.getTimestamp());
+        assertEquals(constituencyId, dto.getConstituencyId());
+    }
+
+    @Test
+    void decodeBinary_whenTruncated_shouldFail() {
+        byte[] binary = binary(SurveyWireSchema.SURVEY_ID, null);
+        byte[] truncated = java.util.Arrays.copyOf(binary, binary.length - 1);
+
+        assertThrows(MalformedMessageException.class, () -> decoder.decode(truncated, WireFormat.BINARY));
+    }
+
+    private byte[] binary(int flags, String timestamp) {
+        BinaryWriter writer = new BinaryWriter(128).writeVarInt(flags);
+        if ((flags & SurveyWireSchema.SURVEY_ID) != 0) {
+            writer.writeUuid(surveyId);
+        }
+        if ((flags & SurveyWireSchema.QUESTION_ID) != 0) {
+            writer.writeString("q-7");
+        }
+        if ((flags & SurveyWireSchema.RESPONSE) != 0) {
+            writer.writeString("{\"choice\":\"yes\"}");
+        }
+        if ((flags & SurveyWireSchema.USER_ID) != 0) {
+            writer.writeUuid(userId);
+        }
+        if ((flags & SurveyWireSchema.TIMESTAMP) != 0) {
+            writer.writeString(timestamp);
+        }
+        return writer.writeDouble(12.9)
+                .writeDouble(77.5)
+                .writeUuid(villageId)
+                .writeUuid(panchayatId)
+                .writeUuid(constituencyId)
+                .toByteArray();
+    }
+}
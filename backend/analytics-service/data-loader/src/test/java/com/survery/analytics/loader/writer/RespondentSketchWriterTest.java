@@ -0,0 +1,123 @@
+package com.survery.analytics.loader.writer;
+
+import com.survery.analytics.domain.RespondentSketchId;
+import com.survery.analytics.domain.sketch.HyperLogLog;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RespondentSketchWriterTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final RespondentSketchWriter writer =
+            new RespondentSketchWriter(jdbcTemplate, mock(PlatformTransactionManager.class));
+
+    private static final OffsetDateTime AT = OffsetDateTime.parse("2024-03-01T23:30:00-02:00");
+    private static final UUID CONSTITUENCY = new UUID(1, 3);
+    private static final UUID OTHER_CONSTITUENCY = new UUID(1, 4);
+
+    @Test
+    void write_ofNewSketches_shouldOnlyInsert() throws Exception {
+        RespondentSketches sketches = new RespondentSketches();
+        sketches.add(CONSTITUENCY, UUID.randomUUID(), AT);
+        sketches.add(OTHER_CONSTITUENCY, UUID.randomUUID(), AT);
+        List<String> statements = new ArrayList<>();
+        doAnswer(invocation -> {
+            String sql = invocation.getArgument(0);
+            statements.add(sql);
+            if (sql.startsWith(RespondentSketchWriter.INSERT)) {
+                for (RespondentSketchId id : sketches.sketches.keySet()) {
+                    ((RowCallbackHandler) invocation.getArgument(2)).processRow(row(id, null));
+                }
+            }
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(PreparedStatementSetter.class), any(RowCallbackHandler.class));
+
+        writer.write(sketches);
+
+        // Timestamps are bucketed by their UTC day.
+        assertEquals(LocalDate.parse("2024-03-02"), sketches.sketches.keySet().iterator().next().getDay());
+        assertEquals(List.of(SurveyBatchWriter.insertSql(RespondentSketchWriter.INSERT, RespondentSketchWriter.ROW,
+                RespondentSketchWriter.CONFLICT, 2)), statements);
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), any(List.class));
+    }
+
+    @Test
+    void write_ofExistingSketches_shouldMergeTheLockedRegisters() throws Exception {
+        UUID stored = UUID.randomUUID();
+        UUID added = UUID.randomUUID();
+        RespondentSketches sketches = new RespondentSketches();
+        sketches.add(OTHER_CONSTITUENCY, added, AT);
+        sketches.add(CONSTITUENCY, added, AT);
+        HyperLogLog storedSketch = new HyperLogLog();
+        storedSketch.add(stored);
+        List<String> statements = new ArrayList<>();
+        List<Object> lockedKeys = new ArrayList<>();
+        doAnswer(invocation -> {
+            String sql = invocation.getArgument(0);
+            statements.add(sql);
+            if (sql.equals(RespondentSketchWriter.lockSql(2))) {
+                PreparedStatement ps = mock(PreparedStatement.class);
+                doAnswer(set -> lockedKeys.add(set.getArgument(1))).when(ps).setInt(anyInt(), anyInt());
+                ((PreparedStatementSetter) invocation.getArgument(1)).setValues(ps);
+                for (RespondentSketchId id : sketches.sketches.keySet()) {
+                    ((RowCallbackHandler) invocation.getArgument(2)).processRow(row(id, storedSketch.toBytes()));
+                }
+            }
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(PreparedStatementSetter.class), any(RowCallbackHandler.class));
+
+        writer.write(sketches);
+
+        assertEquals(2, statements.size());
+        assertEquals(List.of(0, 1), lockedKeys);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Object[]>> updates = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(eq(RespondentSketchWriter.UPDATE), updates.capture());
+        HyperLogLog expected = new HyperLogLog();
+        expected.add(stored);
+        expected.add(added);
+        assertEquals(2, updates.getValue().size());
+        for (Object[] update : updates.getValue()) {
+            assertArrayEquals(expected.toBytes(), (byte[]) update[0]);
+        }
+        // Rows are locked and written in key order, whatever the order they were added in.
+        assertEquals(List.of("CONSTITUENCY", CONSTITUENCY, LocalDate.parse("2024-03-02")),
+                Arrays.asList(updates.getValue().get(0)).subList(1, 4));
+        assertTrue(RespondentSketchWriter.lockSql(2).endsWith("ORDER BY k.position FOR UPDATE OF s"));
+    }
+
+    private static ResultSet row(RespondentSketchId id, byte[] registers) throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getString(1)).thenReturn(id.getScope().name());
+        when(rs.getObject(2, UUID.class)).thenReturn(id.getScopeId());
+        when(rs.getObject(3, LocalDate.class)).thenReturn(id.getDay());
+        when(rs.getBytes(4)).thenReturn(registers);
+        return rs;
+    }
+}
@@ -0,0 +1,44 @@
+package com.survery.analytics.loader.writer;
+
+import com.survery.analytics.domain.TimeResolution;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class ResponseBucketCompactorTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+
+    @Test
+    void compact_shouldCutOffOnCoarseBucketBoundaries() {
+        Clock clock = Clock.fixed(Instant.parse("2024-03-10T12:34:56Z"), ZoneOffset.UTC);
+        ResponseBucketCompactor compactor = new ResponseBucketCompactor(
+                jdbcTemplate, clock, Duration.ofHours(3), Duration.ofDays(3));
+
+        compactor.compact();
+
+        verify(jdbcTemplate).update(ResponseBucketCompactor.compactSql(TimeResolution.MINUTE, TimeResolution.HOUR),
+                OffsetDateTime.parse("2024-03-10T09:00Z"));
+        verify(jdbcTemplate).update(ResponseBucketCompactor.compactSql(TimeResolution.HOUR, TimeResolution.DAY),
+                OffsetDateTime.parse("2024-03-07T00:00Z"));
+    }
+
+    @Test
+    void compactSql_shouldMoveBucketsInOneStatement() {
+        String sql = ResponseBucketCompactor.compactSql(TimeResolution.MINUTE, TimeResolution.HOUR);
+
+        assertTrue(sql.startsWith(
+                "WITH moved AS (DELETE FROM constituency_response_buckets WHERE resolution = 'MINUTE'"));
+        assertTrue(sql.contains("SELECT constituency_id, 'HOUR', (date_trunc('hour', bucket_start"));
+        assertTrue(sql.endsWith(SurveySummaryRollup.BUCKET_CONFLICT));
+    }
+}
@@ -0,0 +1,210 @@
+package com.survery.analytics.loader.writer;
+
+import com.survery.analytics.domain.RespondentSketchId;
+import com.survery.analytics.domain.SketchScope;
+import com.survery.analytics.domain.wire.AnalyticsChange;
+import com.survery.analytics.loader.dto.EnrichedSurveyDto;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SurveyBatchWriterTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    private final RespondentSketchWriter sketchWriter = mock(RespondentSketchWriter.class);
+    private final List<String> statements = new ArrayList<>();
+    private final List<Integer> parameterCounts = new ArrayList<>();
+    private final List<Object> summaryValues = new ArrayList<>();
+    private final List<Object> bucketValues = new ArrayList<>();
+    private final List<Object> locationValues = new ArrayList<>();
+
+    private static final UUID VILLAGE = new UUID(1, 1);
+    private static final UUID PANCHAYAT = new UUID(1, 2);
+    private static final UUID CONSTITUENCY = new UUID(1, 3);
+
+    @Test
+    void write_shouldChunkRowsIntoMultiRowStatementsInOneTransaction() throws Exception {
+        SurveyBatchWriter writer = new SurveyBatchWriter(jdbcTemplate, transactionManager, eventPublisher, sketchWriter, 2);
+        UUID first = new UUID(0, 1);
+        UUID existing = new UUID(0, 2);
+        UUID third = new UUID(0, 3);
+        recordStatements(existing);
+
+        WriteResult result = writer.write(List.of(
+                survey(first, "q-1"), survey(first, "q-2"), survey(existing, "q-1"), survey(third, "q-1"),
+                survey(first, "q-1")));
+
+        // Three distinct surveys and four distinct responses in chunks of two, then one summary
+        // row per survey touched, one minute bucket per constituency and one counter per level of
+        // their location.
+        assertEquals(List.of(surveySql(2), surveySql(1), responseSql(2), responseSql(2), summarySql(2), summarySql(1),
+                bucketSql(1), locationSql(2), locationSql(1)), statements);
+        assertEquals(List.of(14, 7, 8, 8, 8, 4, 4, 10, 5), parameterCounts);
+        assertEquals(List.of(first, 2L, 2L, existing, 1L, 1L, third, 1L, 1L), summaryValues);
+        OffsetDateTime minute = OffsetDateTime.parse("2024-03-01T04:45Z");
+        // The three surveys were submitted in the same minute and constituency, so they share a bucket.
+        assertEquals(List.of(CONSTITUENCY, "MINUTE", minute, 4L), bucketValues);
+        assertEquals(Arrays.asList("CONSTITUENCY", CONSTITUENCY, null, 2L, 4L, "PANCHAYAT", PANCHAYAT, CONSTITUENCY, 2L, 4L,
+                "VILLAGE", VILLAGE, PANCHAYAT, 2L, 4L), locationValues);
+        verify(jdbcTemplate).update(SurveySummaryRollup.ADD_TOTALS, 2L, 4L);
+        // Only inserted surveys are sketched, into the sketch of their constituency for the day.
+        ArgumentCaptor<RespondentSketches> sketches = ArgumentCaptor.forClass(RespondentSketches.class);
+        verify(sketchWriter).write(sketches.capture());
+        LocalDate day = LocalDate.parse("2024-03-01");
+        assertEquals(List.of(new RespondentSketchId(SketchScope.CONSTITUENCY, CONSTITUENCY, day)),
+                new ArrayList<>(sketches.getValue().sketches.keySet()));
+        ArgumentCaptor<AnalyticsChange> change = ArgumentCaptor.forClass(AnalyticsChange.class);
+        verify(eventPublisher).publishEvent(change.capture());
+        assertEquals(42L, change.getValue().getTransactionId());
+        // The existing survey is listed, after the inserted ones, for its new response only.
+        assertEquals(List.of(first, third, existing),
+                change.getValue().getSurveys().stream().map(AnalyticsChange.SurveyChange::getSurveyId).toList());
+        assertEquals(List.of(true, true, false),
+                change.getValue().getSurveys().stream().map(AnalyticsChange.SurveyChange::isSurveyInserted).toList());
+        AnalyticsChange.SurveyChange firstChange = change.getValue().getSurveys().get(0);
+        assertEquals(VILLAGE, firstChange.getVillageId());
+        assertEquals(List.of(new AnalyticsChange.ResponseChange(SurveyBatchWriter.responseId(first, "q-1"), "q-1",
+                        "{\"choice\":\"yes\"}"),
+                new AnalyticsChange.ResponseChange(SurveyBatchWriter.responseId(first, "q-2"), "q-2",
+                        "{\"choice\":\"yes\"}")), firstChange.getResponses());
+        assertEquals(new WriteResult(3, 2, 4, 4), result);
+        verify(transactionManager).getTransaction(any());
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void insertSql_shouldIgnoreConflictsOnTheKey() {
+        String sql = surveySql(2);
+
+        assertTrue(sql.startsWith("INSERT INTO surveys (survey_id,"));
+        assertTrue(sql.contains("CAST(? AS jsonb)), (?, "));
+        assertTrue(sql.endsWith("ON CONFLICT (survey_id) DO NOTHING RETURNING survey_id"));
+    }
+
+    @Test
+    void responseId_shouldBeStablePerSurveyAndQuestion() {
+        UUID surveyId = UUID.randomUUID();
+
+        assertEquals(SurveyBatchWriter.responseId(surveyId, "q-1"), SurveyBatchWriter.responseId(surveyId, "q-1"));
+        assertNotEquals(SurveyBatchWriter.responseId(surveyId, "q-1"), SurveyBatchWriter.responseId(surveyId, "q-2"));
+    }
+
+    /**
+     * Binds every statement against a mock and, for the inserts, returns all rows as inserted
+     * except the survey row of {@code existing}.
+     */
+    private void recordStatements(UUID existing) throws Exception {
+        doAnswer(invocation -> {
+            String sql = invocation.getArgument(0);
+            List<Object> values = bind(sql, invocation.getArgument(1));
+            boolean surveys = sql.startsWith(SurveyBatchWriter.SURVEY_INSERT);
+            int width = surveys ? 7 : 4;
+            for (int row = 0; row < values.size() / width; row++) {
+                UUID surveyId = (UUID) values.get(row * width + (surveys ? 0 : 1));
+                if (surveys && surveyId.equals(existing)) {
+                    continue;
+                }
+                ResultSet rs = mock(ResultSet.class);
+                when(rs.getObject(1, UUID.class)).thenReturn(surveyId);
+                when(rs.getBoolean(2)).thenReturn(true);
+                if (!surveys) {
+                    when(rs.getObject(3, UUID.class)).thenReturn((UUID) values.get(row * width));
+                }
+                ((RowCallbackHandler) invocation.getArgument(2)).processRow(rs);
+            }
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(PreparedStatementSetter.class), any(RowCallbackHandler.class));
+        when(jdbcTemplate.queryForObject(SurveyBatchWriter.TRANSACTION_ID, Long.class)).thenReturn(42L);
+        when(jdbcTemplate.update(anyString(), any(PreparedStatementSetter.class))).thenAnswer(invocation -> {
+            String sql = invocation.getArgument(0);
+            List<Object> values = bind(sql, invocation.getArgument(1));
+            if (sql.startsWith(SurveySummaryRollup.BUCKET_INSERT)) {
+                bucketValues.addAll(values);
+            } else if (sql.startsWith(SurveySummaryRollup.LOCATION_INSERT)) {
+                locationValues.addAll(values);
+            } else {
+                for (int i = 0; i < values.size(); i++) {
+                    if (i % 4 != 3) {
+                        summaryValues.add(values.get(i));
+                    }
+                }
+            }
+            return values.size() / 4;
+        });
+    }
+
+    private List<Object> bind(String sql, PreparedStatementSetter setter) throws Exception {
+        statements.add(sql);
+        PreparedStatement ps = mock(PreparedStatement.class);
+        List<Object> values = new ArrayList<>();
+        doAnswer(set -> values.add(set.getArgument(1))).when(ps).setObject(anyInt(), any());
+        setter.setValues(ps);
+        parameterCounts.add(values.size());
+        return values;
+    }
+
+    private static String surveySql(int rows) {
+        return SurveyBatchWriter.insertSql(SurveyBatchWriter.SURVEY_INSERT, SurveyBatchWriter.SURVEY_ROW,
+                SurveyBatchWriter.SURVEY_CONFLICT, rows);
+    }
+
+    private static String responseSql(int rows) {
+        return SurveyBatchWriter.insertSql(SurveyBatchWriter.RESPONSE_INSERT, SurveyBatchWriter.RESPONSE_ROW,
+                SurveyBatchWriter.RESPONSE_CONFLICT, rows);
+    }
+
+    private static String summarySql(int rows) {
+        return SurveyBatchWriter.insertSql(SurveySummaryRollup.SUMMARY_INSERT, SurveySummaryRollup.SUMMARY_ROW,
+                SurveySummaryRollup.SUMMARY_CONFLICT, rows);
+    }
+
+    private static String bucketSql(int rows) {
+        return SurveyBatchWriter.insertSql(SurveySummaryRollup.BUCKET_INSERT, SurveySummaryRollup.BUCKET_ROW,
+                SurveySummaryRollup.BUCKET_CONFLICT, rows);
+    }
+
+    private static String locationSql(int rows) {
+        return SurveyBatchWriter.insertSql(SurveySummaryRollup.LOCATION_INSERT, SurveySummaryRollup.LOCATION_ROW,
+                SurveySummaryRollup.LOCATION_CONFLICT, rows);
+    }
+
+    private static EnrichedSurveyDto survey(UUID surveyId, String questionId) {
+        EnrichedSurveyDto dto = new EnrichedSurveyDto();
+        dto.setSurveyId(surveyId);
+        dto.setQuestionId(questionId);
+        dto.setResponse(Map.of("choice", "yes"));
+        dto.setUserId(UUID.randomUUID());
+        dto.setTimestamp(OffsetDateTime.parse("2024-03-01T04:45:30Z"));
+        dto.setVillageId(VILLAGE);
+        dto.setPanchayatId(PANCHAYAT);
+        dto.setConstituencyId(CONSTITUENCY);
+        return dto;
+    }
+}
@@ -0,0 +1,53 @@
+package com.survery.analytics.loader.writer;
+
+import com.survery.analytics.loader.dto.EnrichedSurveyDto;
+import org.junit.jupiter.api.Test;
+
+import java.time.OffsetDateTime;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SurveyCopyWriterTest {
+
+    @Test
+    void appendCsvRow_shouldQuoteJsonAndLeaveMissingResponseNull() {
+        EnrichedSurveyDto dto = survey(null);
+        dto.setResponse(Map.of("note", "say \"hi\", twice"));
+        StringBuilder csv = new StringBuilder();
+
+        SurveyCopyWriter.appendCsvRow(csv, dto);
+
+        assertTrue(csv.toString().startsWith(dto.getSurveyId() + "," + dto.getUserId() + ",2024-03-01T04:45:30Z,"));
+        assertTrue(csv.toString().contains(",\"{\"\"surveyId\"\":\"\"" + dto.getSurveyId() + "\"\","));
+        assertTrue(csv.toString().contains("say \\\"\"hi\\\"\", twice"));
+        assertTrue(csv.toString().endsWith("\",,,\n"));
+    }
+
+    @Test
+    void appendCsvRow_shouldStageDeterministicResponseId() {
+        EnrichedSurveyDto dto = survey("q-1");
+        StringBuilder csv = new StringBuilder();
+
+        SurveyCopyWriter.appendCsvRow(csv, dto);
+
+        String[] tail = csv.substring(csv.lastIndexOf("}\",") + 3).split(",", 2);
+        assertEquals(SurveyBatchWriter.responseId(dto.getSurveyId(), "q-1").toString(), tail[0]);
+        assertEquals("\"q-1\",\"{\"\"choice\"\":\"\"yes\"\"}\"\n", tail[1]);
+    }
+
+    private static EnrichedSurveyDto survey(String questionId) {
+        EnrichedSurveyDto dto = new EnrichedSurveyDto();
+        dto.setSurveyId(UUID.randomUUID());
+        dto.setQuestionId(questionId);
+        dto.setResponse(Map.of("choice", "yes"));
+        dto.setUserId(UUID.randomUUID());
+        dto.setTimestamp(OffsetDateTime.parse("2024-03-01T04:45:30Z"));
+        dto.setVillageId(UUID.randomUUID());
+        dto.setPanchayatId(UUID.randomUUID());
+        dto.setConstituencyId(UUID.randomUUID());
+        return dto;
+    }
+}
@@ -2,12 +2,22 @@ package com.survery.analytics.transformer;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.context.annotation.Bean;
+
+import java.time.Clock;
 
 @SpringBootApplication
+@EntityScan("com.survery.analytics.domain")
 public class DataTransformerApplication {
 
     public static void main(String[] args) {
         SpringApplication.run(DataTransformerApplication.class, args);
     }
 
+    @Bean
+    public Clock clock() {
+        return Clock.systemUTC();
+    }
+
 }
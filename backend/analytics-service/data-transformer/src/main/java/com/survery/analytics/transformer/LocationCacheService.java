@@ -1,14 +1,49 @@
 package com.survery.analytics.transformer;
 
+import com.survery.analytics.transformer.location.BoundaryData;
+import com.survery.analytics.transformer.location.BoundaryFileReader;
+import com.survery.analytics.transformer.location.BoundaryLoader;
+import com.survery.analytics.transformer.location.CachingLocationResolver;
+import com.survery.analytics.transformer.location.HierarchicalLocationResolver;
+import com.survery.analytics.transformer.location.LocationResolution;
+import com.survery.analytics.transformer.location.LocationResolver;
+import com.survery.analytics.transformer.location.LocationSnapshot;
+import com.survery.analytics.transformer.location.SpatialLocationIndex;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Instant;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
 
 @Service
 public class LocationCacheService {
 
+    private static final Logger log = LoggerFactory.getLogger(LocationCacheService.class);
+
+    public static final String SOURCE_DATABASE = "database";
+    public static final String SOURCE_FILE = "file";
+
     @Data
     @AllArgsConstructor
     public static class LocationData {
@@ -17,16 +52,168 @@ public class LocationCacheService {
         private UUID constituencyId;
     }
 
+    private final BoundaryLoader boundaryLoader;
+    private final BoundaryFileReader boundaryFileReader;
+    private final String resolverType;
+    private final String boundaryFile;
+    private final boolean cacheEnabled;
+    private final int cachePrecision;
+    private final int cacheMaxSize;
+    private final DistributionSummary polygonsTested;
+    private final Counter cacheHits;
+    private final Counter cacheMisses;
+    private final Counter cacheBoundaryFallbacks;
+
+    private final AtomicReference<LocationSnapshot> snapshot = new AtomicReference<>();
+    private final AtomicLong versions = new AtomicLong();
+    // A single builder thread serializes reloads; lookups only ever read the published snapshot.
+    private final ExecutorService reloadExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "location-index-reload");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public LocationCacheService(BoundaryLoader boundaryLoader,
+                                BoundaryFileReader boundaryFileReader,
+                                @Value("${location.resolver:hierarchical}") String resolverType,
+                                @Value("${location.boundary-file:}") String boundaryFile,
+                                @Value("${location.cache.enabled:true}") boolean cacheEnabled,
+                                @Value("${location.cache.precision:7}") int cachePrecision,
+                                @Value("${location.cache.max-size:65536}") int cacheMaxSize,
+                                MeterRegistry meterRegistry) {
+        this.boundaryLoader = boundaryLoader;
+        this.boundaryFileReader = boundaryFileReader;
+        this.resolverType = resolverType;
+        this.boundaryFile = boundaryFile;
+        this.cacheEnabled = cacheEnabled;
+        this.cachePrecision = cachePrecision;
+        this.cacheMaxSize = cacheMaxSize;
+        this.polygonsTested = DistributionSummary.builder("location.resolver.polygons.tested")
+                .description("Exact point-in-polygon tests per location lookup")
+                .tag("resolver", resolverType)
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.cacheHits = cacheCounter(meterRegistry, "hit", "Lookups answered from a cached geohash cell");
+        this.cacheMisses = cacheCounter(meterRegistry, "miss", "Lookups for a cell that was not cached");
+        this.cacheBoundaryFallbacks = cacheCounter(meterRegistry, "boundary",
+                "Lookups in a cached cell that crosses a boundary and needs the exact test");
+
+        Gauge.builder("location.index.snapshot.version", snapshot, s -> s.get() == null ? 0 : s.get().getVersion())
+                .description("Version of the location index snapshot currently serving lookups")
+                .register(meterRegistry);
+        TimeGauge.builder("location.index.build.time", snapshot, TimeUnit.MILLISECONDS,
+                        s -> s.get() == null ? 0 : s.get().getBuildMillis())
+                .description("Time taken to load and build the current location index snapshot")
+                .register(meterRegistry);
+        Gauge.builder("location.index.polygons", snapshot,
+                        s -> s.get() == null ? 0 : s.get().getResolver().getPolygonCount())
+                .register(meterRegistry);
+    }
+
     /**
-     * Mock implementation. In a real scenario, this would query a Redis cache
-     * or a pre-populated in-memory map.
+     * Loads all boundaries once at startup so that lookups never leave the process.
+     */
+    @PostConstruct
+    void loadIndex() {
+        publish(build(SOURCE_DATABASE, boundaryLoader::load));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        reloadExecutor.shutdownNow();
+    }
+
+    /**
+     * Resolves the village, panchayat and constituency containing the given coordinates
+     * from the in-memory spatial index.
+     *
+     * @return the enriched location, or {@code null} if the point is outside every known boundary.
      */
     public LocationData findLocationByCoordinates(double lat, double lon) {
-        // Return dummy data for now
-        return new LocationData(
-                UUID.fromString("123e4567-e89b-12d3-a456-426614174000"),
-                UUID.fromString("123e4567-e89b-12d3-a456-426614174001"),
-                UUID.fromString("123e4567-e89b-12d3-a456-426614174002")
-        );
+        LocationResolution resolution = snapshot.get().getResolver().resolve(lat, lon);
+        polygonsTested.record(resolution.getPolygonsTested());
+        return resolution.getLocation();
+    }
+
+    public LocationSnapshot getSnapshot() {
+        return snapshot.get();
+    }
+
+    /**
+     * Builds a new index in the background and swaps it in once complete. Lookups keep using the
+     * current snapshot until then, and keep it for good if the build fails.
+     *
+     * @param source {@link #SOURCE_DATABASE} or {@link #SOURCE_FILE} for the configured boundary file.
+     */
+    public CompletableFuture<LocationSnapshot> reload(String source) {
+        Supplier<BoundaryData> loader;
+        if (SOURCE_DATABASE.equals(source)) {
+            loader = boundaryLoader::load;
+        } else if (SOURCE_FILE.equals(source)) {
+            if (boundaryFile.isBlank()) {
+                throw new IllegalArgumentException("No location.boundary-file is configured.");
+            }
+            loader = () -> {
+                try {
+                    return boundaryFileReader.read(Path.of(boundaryFile));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            };
+        } else {
+            throw new IllegalArgumentException("Unknown boundary source: " + source);
+        }
+
+        return CompletableFuture.supplyAsync(() -> publish(build(source, loader)), reloadExecutor)
+                .whenComplete((published, e) -> {
+                    if (e != null) {
+                        log.error("Failed to reload location index from {}; keeping version {}",
+                                source, snapshot.get().getVersion(), e);
+                    }
+                });
+    }
+
+    private LocationSnapshot build(String source, Supplier<BoundaryData> loader) {
+        long start = System.nanoTime();
+        LocationResolver resolver = createResolver(loader.get());
+        long buildMillis = (System.nanoTime() - start) / 1_000_000;
+        return new LocationSnapshot(versions.incrementAndGet(), source, Instant.now(), buildMillis, resolver);
+    }
+
+    private LocationSnapshot publish(LocationSnapshot built) {
+        snapshot.set(built);
+        log.info("Published {} location index version {} from {} with {} polygons and {} villages, built in {} ms "
+                        + "(geohash cache: {})",
+                resolverType, built.getVersion(), built.getSource(), built.getResolver().getPolygonCount(),
+                built.getResolver().getVillageCount(), built.getBuildMillis(),
+                cacheEnabled ? "precision " + cachePrecision : "off");
+        return built;
+    }
+
+    private LocationResolver createResolver(BoundaryData data) {
+        LocationResolver exact;
+        switch (resolverType) {
+            case "hierarchical":
+                exact = new HierarchicalLocationResolver(data);
+                break;
+            case "flat":
+                exact = new SpatialLocationIndex(data);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown location.resolver: " + resolverType);
+        }
+        if (!cacheEnabled) {
+            return exact;
+        }
+        // Every snapshot gets a fresh cache, so no cell resolved against old boundaries survives a swap.
+        return new CachingLocationResolver(exact, cachePrecision, cacheMaxSize,
+                cacheHits, cacheMisses, cacheBoundaryFallbacks);
+    }
+
+    private static Counter cacheCounter(MeterRegistry meterRegistry, String result, String description) {
+        return Counter.builder("location.cache.lookups")
+                .description(description)
+                .tag("result", result)
+                .register(meterRegistry);
     }
 }
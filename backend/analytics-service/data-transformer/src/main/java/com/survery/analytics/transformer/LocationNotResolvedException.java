@@ -0,0 +1,12 @@
+package com.survery.analytics.transformer;
+
+/**
+ * Thrown when no loaded boundary covers an event's coordinates. The event may still resolve
+ * after the location index has been reloaded, so this is not treated as a broken message.
+ */
+public class LocationNotResolvedException extends RuntimeException {
+
+    public LocationNotResolvedException(double lat, double lon) {
+        super("Coordinates are outside every known boundary: " + lat + "," + lon);
+    }
+}
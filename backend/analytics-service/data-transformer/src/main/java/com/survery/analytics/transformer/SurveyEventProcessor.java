@@ -2,42 +2,198 @@ package com.survery.analytics.transformer;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.survery.analytics.domain.wire.MalformedMessageException;
+import com.survery.analytics.domain.wire.SurveyWireSchema;
+import com.survery.analytics.domain.wire.WireFormat;
+import com.survery.analytics.domain.wire.WireHeaders;
+import com.survery.analytics.transformer.codec.ParsedSurveyEvent;
+import com.survery.analytics.transformer.codec.SurveyEventCodec;
 import com.survery.analytics.transformer.dto.SurveyEvent;
 import com.survery.analytics.transformer.dto.TransformedSurveyDto;
+import com.survery.analytics.domain.retry.FailureRouter;
 import lombok.RequiredArgsConstructor;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.KafkaException;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
 @Service
 @RequiredArgsConstructor
 public class SurveyEventProcessor {
 
     private static final Logger log = LoggerFactory.getLogger(SurveyEventProcessor.class);
+    private static final String SOURCE_TOPIC = "survey-responses";
     private static final String TRANSFORMED_TOPIC = "transformed-surveys";
     private static final String DLQ_TOPIC = "dlq-survey-responses";
+    private static final long MAX_RETRY_PAUSE_MS = 30_000;
 
     private final KafkaTemplate<String, String> kafkaTemplate;
+    private final KafkaTemplate<String, byte[]> byteArrayKafkaTemplate;
     private final LocationCacheService locationCacheService;
+    private final SurveyEventCodec surveyEventCodec;
+    private final FailureRouter failureRouter;
+    private final Clock clock;
     private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
 
-    @KafkaListener(topics = "survey-responses")
+    @Value("${transformer.send-timeout-ms:30000}")
+    private long sendTimeoutMs = 30_000;
+
+    /**
+     * Format written to {@value #TRANSFORMED_TOPIC}; only switch to binary once every consumer reads it.
+     */
+    @Value("${transformer.wire-format.transformed-surveys:json}")
+    private WireFormat transformedFormat = WireFormat.JSON;
+
+    /**
+     * Record-at-a-time listener, only started when batch mode is switched off. It reads JSON only
+     * and sends every failure straight to the DLQ.
+     */
+    @KafkaListener(id = "survey-event-processor", topics = SOURCE_TOPIC,
+            autoStartup = "#{'${transformer.listener.batch:true}' != 'true'}")
     public void processEvent(String message) {
+        transformAndSend(message);
+    }
+
+    /**
+     * Batch listener: enriches every record of a poll, publishes them all asynchronously and only
+     * returns once the broker has acknowledged every send. Offsets for the batch are committed
+     * after this method returns, so a crash or failed send leads to redelivery, never to loss.
+     * Records are decoded and re-encoded with the streaming {@link SurveyEventCodec}, reading
+     * whichever {@link WireFormat} the producer announced and writing the configured one.
+     */
+    @KafkaListener(id = "survey-event-batch-processor", topics = SOURCE_TOPIC,
+            containerFactory = "batchKafkaListenerContainerFactory",
+            autoStartup = "${transformer.listener.batch:true}")
+    public void processBatch(List<ConsumerRecord<String, byte[]>> records) {
+        List<CompletableFuture<SendResult<String, byte[]>>> sends = new ArrayList<>(records.size());
+        for (ConsumerRecord<String, byte[]> record : records) {
+            sends.add(transformAndSend(record));
+        }
+        byteArrayKafkaTemplate.flush();
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+        for (int i = 0; i < sends.size(); i++) {
+            try {
+                sends.get(i).get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new BatchListenerFailedException("Interrupted while awaiting send acknowledgements", e, i);
+            } catch (ExecutionException | TimeoutException e) {
+                // Records before index i are acknowledged and get committed; the rest is redelivered.
+                throw new BatchListenerFailedException("Send not acknowledged for record " + i + " of batch", e, i);
+            }
+        }
+        log.debug("Transformed and published batch of {} events", records.size());
+    }
+
+    /**
+     * Listener for the retry tiers, registered once per tier topic. Records of a tier are delayed
+     * by the same amount, so they become due in offset order: a record that is not due yet pauses
+     * its own tier until it is, while the main topic and the other tiers keep flowing.
+     */
+    public void processRetry(ConsumerRecord<String, byte[]> record, Acknowledgment acknowledgment) {
+        long notBefore = WireHeaders.readLong(FailureRouter.headerValue(record.headers(), WireHeaders.RETRY_NOT_BEFORE), 0);
+        long wait = notBefore - clock.millis();
+        if (wait > 0) {
+            acknowledgment.nack(Duration.ofMillis(Math.min(wait, MAX_RETRY_PAUSE_MS)));
+            return;
+        }
+        try {
+            transformAndSend(record).get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new KafkaException("Interrupted while awaiting send acknowledgement", e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new KafkaException("Send not acknowledged for retried record", e);
+        }
+        acknowledgment.acknowledge();
+    }
+
+    /**
+     * Enriches one record and publishes the result; a record that cannot be processed is routed
+     * to its next retry tier or to the DLQ instead. Either way the returned future completes once
+     * the broker has acknowledged the send.
+     */
+    private CompletableFuture<SendResult<String, byte[]>> transformAndSend(ConsumerRecord<String, byte[]> record) {
+        byte[] message = record.value();
+        WireFormat format = WireFormat.JSON;
+        ParsedSurveyEvent event;
+        byte[] transformed;
+        try {
+            format = WireFormat.fromHeader(FailureRouter.headerValue(record.headers(), WireHeaders.FORMAT));
+            if (format == WireFormat.BINARY) {
+                SurveyWireSchema.checkVersion(FailureRouter.headerValue(record.headers(), WireHeaders.SCHEMA_VERSION));
+            }
+            event = surveyEventCodec.parse(message, format);
+            if (event.getSurveyId() == null || !event.isHasLocation()) {
+                throw new MalformedMessageException("Invalid event structure: survey_id or location_data is null.");
+            }
+            LocationCacheService.LocationData enrichedLocation =
+                locationCacheService.findLocationByCoordinates(event.getLat(), event.getLon());
+            if (enrichedLocation == null) {
+                throw new LocationNotResolvedException(event.getLat(), event.getLon());
+            }
+            transformed = surveyEventCodec.writeTransformed(event, enrichedLocation, transformedFormat);
+        } catch (Exception e) {
+            // The original headers travel along so the message can be decoded again when retried or replayed.
+            ProducerRecord<String, byte[]> rerouted = failureRouter.route(record, e);
+            log.error("Failed to process event: {}. Sending to {}.", describe(message, format), rerouted.topic(), e);
+            return byteArrayKafkaTemplate.send(rerouted);
+        }
+        ProducerRecord<String, byte[]> output = new ProducerRecord<>(TRANSFORMED_TOPIC, event.getSurveyId(), transformed);
+        output.headers().add(WireHeaders.FORMAT, transformedFormat.headerBytes());
+        if (transformedFormat == WireFormat.BINARY) {
+            output.headers().add(WireHeaders.SCHEMA_VERSION, WireHeaders.intValue(SurveyWireSchema.VERSION));
+        }
+        return byteArrayKafkaTemplate.send(output);
+    }
+
+    private static String describe(byte[] message, WireFormat format) {
+        if (message == null) {
+            return "<null>";
+        }
+        return format == WireFormat.BINARY
+                ? "<" + message.length + " bytes binary>"
+                : new String(message, StandardCharsets.UTF_8);
+    }
+
+    private CompletableFuture<SendResult<String, String>> transformAndSend(String message) {
+        SurveyEvent rawEvent;
+        String transformedJson;
         try {
             // 1. Deserialize JSON
-            SurveyEvent rawEvent = objectMapper.readValue(message, SurveyEvent.class);
-            log.info("Processing event for surveyId: {}", rawEvent.getSurvey_id());
+            rawEvent = objectMapper.readValue(message, SurveyEvent.class);
+            log.debug("Processing event for surveyId: {}", rawEvent.getSurvey_id());
 
             // 2. Add validation for the raw event
             if (rawEvent.getSurvey_id() == null || rawEvent.getLocation_data() == null) {
-                throw new IllegalArgumentException("Invalid event structure: survey_id or location_data is null.");
+                throw new MalformedMessageException("Invalid event structure: survey_id or location_data is null.");
             }
 
             // 3. Enrich with location data from cache
             LocationCacheService.LocationData enrichedLocation = locationCacheService.findLocationByCoordinates(
                 rawEvent.getLocation_data().getLat(), rawEvent.getLocation_data().getLon());
+            if (enrichedLocation == null) {
+                throw new LocationNotResolvedException(rawEvent.getLocation_data().getLat(), rawEvent.getLocation_data().getLon());
+            }
 
             // 4. Create enriched DTO
             TransformedSurveyDto transformedData = new TransformedSurveyDto(
@@ -53,17 +209,17 @@ public class SurveyEventProcessor {
                 enrichedLocation.getConstituencyId()
             );
 
-            // 4. In a real app, we would add validation logic here.
-
-            // 5. Serialize and publish to a new topic
-            String transformedJson = objectMapper.writeValueAsString(transformedData);
-            kafkaTemplate.send(TRANSFORMED_TOPIC, rawEvent.getSurvey_id().toString(), transformedJson);
-            log.info("Successfully transformed and published event for surveyId: {}", rawEvent.getSurvey_id());
+            // 5. Serialize
+            transformedJson = objectMapper.writeValueAsString(transformedData);
 
         } catch (Exception e) {
             // 6. Log error and send to Dead-Letter Queue (DLQ)
             log.error("Failed to process event: {}. Sending to DLQ.", message, e);
-            kafkaTemplate.send(DLQ_TOPIC, message);
+            return kafkaTemplate.send(DLQ_TOPIC, message);
         }
+
+        // 7. Publish to a new topic. Send failures are not the message's fault, so they are left
+        // to the caller instead of being routed to the DLQ.
+        return kafkaTemplate.send(TRANSFORMED_TOPIC, rawEvent.getSurvey_id().toString(), transformedJson);
     }
 }
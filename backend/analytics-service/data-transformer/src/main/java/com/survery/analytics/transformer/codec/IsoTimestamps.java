@@ -0,0 +1,103 @@
+package com.survery.analytics.transformer.codec;
+
+import java.time.Year;
+
+/**
+ * Allocation-free check that a character sequence is an ISO-8601 date-time with offset, as accepted
+ * by {@link java.time.format.DateTimeFormatter#ISO_OFFSET_DATE_TIME} for four-digit years.
+ */
+final class IsoTimestamps {
+
+    private static final int MAX_OFFSET_SECONDS = 18 * 3600;
+
+    private IsoTimestamps() {
+    }
+
+    static boolean isOffsetDateTime(CharSequence text) {
+        int end = text.length();
+        // yyyy-MM-ddTHH:mm
+        if (end < 17 || text.charAt(4) != '-' || text.charAt(7) != '-' || (text.charAt(10) != 'T' && text.charAt(10) != 't')
+                || text.charAt(13) != ':') {
+            return false;
+        }
+        int year = digits(text, 0, 4);
+        int month = digits(text, 5, 2);
+        int day = digits(text, 8, 2);
+        int hour = digits(text, 11, 2);
+        int minute = digits(text, 14, 2);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > monthLength(year, month)
+                || hour < 0 || hour > 23 || minute < 0 || minute > 59) {
+            return false;
+        }
+        int i = 16;
+
+        // [:ss[.fraction]]
+        if (i < end && text.charAt(i) == ':') {
+            int second = i + 3 <= end ? digits(text, i + 1, 2) : -1;
+            if (second < 0 || second > 59) {
+                return false;
+            }
+            i += 3;
+            if (i < end && text.charAt(i) == '.') {
+                // Like java.time, accept zero to nine fraction digits after the point.
+                int start = ++i;
+                while (i < end && i - start < 9 && isDigit(text.charAt(i))) {
+                    i++;
+                }
+            }
+        }
+        return isOffset(text, i, end);
+    }
+
+    /**
+     * Z, or a signed offset of the form {@code +HH}, {@code +HH:MM} or {@code +HH:MM:ss} within ±18:00.
+     */
+    private static boolean isOffset(CharSequence text, int i, int end) {
+        int length = end - i;
+        if (length == 1) {
+            return text.charAt(i) == 'Z' || text.charAt(i) == 'z';
+        }
+        if ((length != 3 && length != 6 && length != 9) || (text.charAt(i) != '+' && text.charAt(i) != '-')) {
+            return false;
+        }
+        int hours = digits(text, i + 1, 2);
+        int minutes = length >= 6 && text.charAt(i + 3) == ':' ? digits(text, i + 4, 2) : length >= 6 ? -1 : 0;
+        int seconds = length == 9 && text.charAt(i + 6) == ':' ? digits(text, i + 7, 2) : length == 9 ? -1 : 0;
+        if (hours < 0 || minutes < 0 || minutes > 59 || seconds < 0 || seconds > 59) {
+            return false;
+        }
+        return hours * 3600 + minutes * 60 + seconds <= MAX_OFFSET_SECONDS;
+    }
+
+    private static int monthLength(int year, int month) {
+        switch (month) {
+            case 2:
+                return Year.isLeap(year) ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    /**
+     * Parses {@code count} decimal digits, or returns -1 if any of them is not a digit.
+     */
+    private static int digits(CharSequence text, int offset, int count) {
+        int value = 0;
+        for (int i = offset; i < offset + count; i++) {
+            if (!isDigit(text.charAt(i))) {
+                return -1;
+            }
+            value = value * 10 + (text.charAt(i) - '0');
+        }
+        return value;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
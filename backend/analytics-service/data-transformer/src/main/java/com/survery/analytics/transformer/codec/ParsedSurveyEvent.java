@@ -0,0 +1,21 @@
+package com.survery.analytics.transformer.codec;
+
+import lombok.Getter;
+
+/**
+ * The fields of a raw survey event that enrichment needs. The {@code response} payload and the
+ * timestamp are kept as slices of the original message and are never decoded: the response as
+ * JSON, the timestamp as its unquoted text, which is epoch seconds if {@code timestampNumeric}.
+ */
+@Getter
+public class ParsedSurveyEvent {
+    String surveyId;
+    String questionId;
+    RawJsonValue response;
+    String userId;
+    RawJsonValue timestamp;
+    boolean timestampNumeric;
+    boolean hasLocation;
+    double lat;
+    double lon;
+}
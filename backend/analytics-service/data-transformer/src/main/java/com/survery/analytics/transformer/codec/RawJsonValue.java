@@ -0,0 +1,142 @@
+package com.survery.analytics.transformer.codec;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.survery.analytics.domain.wire.BinaryWriter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A slice of an input buffer holding an already well-formed JSON value, or the text of a string
+ * value. Passing it to {@link JsonGenerator#writeRawValue(SerializableString)} copies the bytes
+ * straight into the generator's output buffer, without decoding them into Java objects.
+ */
+final class RawJsonValue implements SerializableString {
+
+    private final byte[] source;
+    private final int offset;
+    private final int length;
+
+    RawJsonValue(byte[] source, int offset, int length) {
+        this.source = source;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    int length() {
+        return length;
+    }
+
+    RawJsonValue slice(int from, int sliceLength) {
+        return new RawJsonValue(source, offset + from, sliceLength);
+    }
+
+    /**
+     * Writes the slice as a JSON string value, escaping it as needed.
+     */
+    void writeAsString(JsonGenerator generator) throws IOException {
+        generator.writeUTF8String(source, offset, length);
+    }
+
+    /**
+     * Writes the slice as a length-prefixed binary field.
+     */
+    void writeTo(BinaryWriter writer) {
+        writer.writeBytes(source, offset, length);
+    }
+
+    @Override
+    public int appendUnquotedUTF8(byte[] buffer, int bufferOffset) {
+        if (buffer.length - bufferOffset < length) {
+            return -1;
+        }
+        System.arraycopy(source, offset, buffer, bufferOffset, length);
+        return length;
+    }
+
+    @Override
+    public byte[] asUnquotedUTF8() {
+        return Arrays.copyOfRange(source, offset, offset + length);
+    }
+
+    @Override
+    public int writeUnquotedUTF8(OutputStream out) throws IOException {
+        out.write(source, offset, length);
+        return length;
+    }
+
+    @Override
+    public int putUnquotedUTF8(ByteBuffer buffer) {
+        if (buffer.remaining() < length) {
+            return -1;
+        }
+        buffer.put(source, offset, length);
+        return length;
+    }
+
+    @Override
+    public String getValue() {
+        return new String(source, offset, length, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public int charLength() {
+        return getValue().length();
+    }
+
+    @Override
+    public int appendUnquoted(char[] buffer, int bufferOffset) {
+        String value = getValue();
+        if (buffer.length - bufferOffset < value.length()) {
+            return -1;
+        }
+        value.getChars(0, value.length(), buffer, bufferOffset);
+        return value.length();
+    }
+
+    // Written as a string value, the slice is escaped like any other string.
+
+    @Override
+    public char[] asQuotedChars() {
+        return quoted().asQuotedChars();
+    }
+
+    @Override
+    public byte[] asQuotedUTF8() {
+        return quoted().asQuotedUTF8();
+    }
+
+    @Override
+    public int appendQuotedUTF8(byte[] buffer, int bufferOffset) {
+        return quoted().appendQuotedUTF8(buffer, bufferOffset);
+    }
+
+    @Override
+    public int appendQuoted(char[] buffer, int bufferOffset) {
+        return quoted().appendQuoted(buffer, bufferOffset);
+    }
+
+    @Override
+    public int writeQuotedUTF8(OutputStream out) throws IOException {
+        return quoted().writeQuotedUTF8(out);
+    }
+
+    @Override
+    public int putQuotedUTF8(ByteBuffer buffer) {
+        return quoted().putQuotedUTF8(buffer);
+    }
+
+    private SerializedString quoted() {
+        return new SerializedString(getValue());
+    }
+
+    @Override
+    public String toString() {
+        return getValue();
+    }
+}
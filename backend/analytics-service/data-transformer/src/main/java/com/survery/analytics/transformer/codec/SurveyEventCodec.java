@@ -0,0 +1,344 @@
+package com.survery.analytics.transformer.codec;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.core.util.ByteArrayBuilder;
+import com.survery.analytics.domain.wire.BinaryReader;
+import com.survery.analytics.domain.wire.BinaryWriter;
+import com.survery.analytics.domain.wire.MalformedMessageException;
+import com.survery.analytics.domain.wire.SurveyWireSchema;
+import com.survery.analytics.domain.wire.WireFormat;
+import com.survery.analytics.transformer.LocationCacheService.LocationData;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * Streaming codec for the survey-responses → transformed-surveys hop, in either {@link WireFormat}.
+ * <p>
+ * Incoming messages are read token by token with a {@link JsonParser}; only the fields needed for
+ * enrichment are decoded, and the free-form {@code response} subtree is skipped over and later
+ * copied byte for byte into the output. The enriched message is written with a
+ * {@link JsonGenerator} into a per-thread buffer that is reused across events, so the only
+ * per-event allocations are the few decoded field values and the final output array.
+ * <p>
+ * The output has the same shape as {@link com.survery.analytics.transformer.dto.TransformedSurveyDto},
+ * except that the timestamp is passed through in its original representation.
+ * <p>
+ * The binary format is described in {@link SurveyWireSchema}. It is read in place as well: the
+ * response object stays a slice of the message and is only checked to be well-formed JSON.
+ */
+@Component
+public class SurveyEventCodec {
+
+    private static final SerializableString SURVEY_ID = new SerializedString("surveyId");
+    private static final SerializableString QUESTION_ID = new SerializedString("questionId");
+    private static final SerializableString RESPONSE = new SerializedString("response");
+    private static final SerializableString USER_ID = new SerializedString("userId");
+    private static final SerializableString TIMESTAMP = new SerializedString("timestamp");
+    private static final SerializableString LAT = new SerializedString("lat");
+    private static final SerializableString LON = new SerializedString("lon");
+    private static final SerializableString VILLAGE_ID = new SerializedString("villageId");
+    private static final SerializableString PANCHAYAT_ID = new SerializedString("panchayatId");
+    private static final SerializableString CONSTITUENCY_ID = new SerializedString("constituencyId");
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private final ThreadLocal<ByteArrayBuilder> outputBuffers = ThreadLocal.withInitial(() -> new ByteArrayBuilder(1024));
+    private final ThreadLocal<BinaryWriter> binaryBuffers = ThreadLocal.withInitial(() -> new BinaryWriter(512));
+
+    /**
+     * Parses a raw survey event in the given format. The returned event references {@code message},
+     * which must not be modified until the event has been written.
+     */
+    public ParsedSurveyEvent parse(byte[] message, WireFormat format) throws IOException {
+        return format == WireFormat.BINARY ? parseBinary(message) : parse(message);
+    }
+
+    /**
+     * Parses a raw JSON survey event.
+     */
+    public ParsedSurveyEvent parse(byte[] message) throws IOException {
+        ParsedSurveyEvent event = new ParsedSurveyEvent();
+        try (JsonParser parser = jsonFactory.createParser(message)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser, "Expected a JSON object");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken token = parser.nextToken();
+                switch (field) {
+                    case "survey_id":
+                        event.surveyId = uuidText(parser, token);
+                        break;
+                    case "question_id":
+                        event.questionId = scalarText(parser, token);
+                        break;
+                    case "response":
+                        if (token != JsonToken.START_OBJECT && token != JsonToken.VALUE_NULL) {
+                            throw new JsonParseException(parser, "response must be an object");
+                        }
+                        event.response = rawValue(parser, token, message);
+                        break;
+                    case "location_data":
+                        parseLocation(parser, token, event);
+                        break;
+                    case "user_id":
+                        event.userId = uuidText(parser, token);
+                        break;
+                    case "timestamp":
+                        event.timestamp = timestamp(parser, token, message);
+                        event.timestampNumeric = token.isNumeric();
+                        break;
+                    default:
+                        parser.skipChildren();
+                }
+            }
+        }
+        return event;
+    }
+
+    /**
+     * Parses a raw survey event in the binary format.
+     */
+    public ParsedSurveyEvent parseBinary(byte[] message) throws IOException {
+        BinaryReader reader = new BinaryReader(message);
+        ParsedSurveyEvent event = new ParsedSurveyEvent();
+        int flags = reader.readVarInt();
+        if ((flags & SurveyWireSchema.SURVEY_ID) != 0) {
+            event.surveyId = reader.readUuid().toString();
+        }
+        if ((flags & SurveyWireSchema.QUESTION_ID) != 0) {
+            event.questionId = reader.readString();
+        }
+        if ((flags & SurveyWireSchema.RESPONSE) != 0) {
+            int length = reader.skipBytes();
+            event.response = jsonObject(message, reader.position() - length, length);
+        }
+        if ((flags & SurveyWireSchema.USER_ID) != 0) {
+            event.userId = reader.readUuid().toString();
+        }
+        if ((flags & SurveyWireSchema.TIMESTAMP) != 0) {
+            int length = reader.skipBytes();
+            int offset = reader.position() - length;
+            event.timestampNumeric = (flags & SurveyWireSchema.TIMESTAMP_NUMERIC) != 0;
+            String text = new String(message, offset, length, StandardCharsets.ISO_8859_1);
+            if (event.timestampNumeric ? !isNumber(text) : !IsoTimestamps.isOffsetDateTime(text)) {
+                throw new MalformedMessageException("Invalid timestamp: " + text);
+            }
+            event.timestamp = new RawJsonValue(message, offset, length);
+        }
+        if ((flags & SurveyWireSchema.LOCATION) != 0) {
+            event.lat = reader.readDouble();
+            event.lon = reader.readDouble();
+            event.hasLocation = true;
+        }
+        if (reader.remaining() != 0) {
+            throw new MalformedMessageException(reader.remaining() + " unexpected trailing bytes");
+        }
+        return event;
+    }
+
+    /**
+     * Writes the enriched event in the given format.
+     */
+    public byte[] writeTransformed(ParsedSurveyEvent event, LocationData location, WireFormat format) throws IOException {
+        return format == WireFormat.BINARY ? writeTransformedBinary(event, location) : writeTransformed(event, location);
+    }
+
+    /**
+     * Writes the enriched event as JSON.
+     */
+    public byte[] writeTransformed(ParsedSurveyEvent event, LocationData location) throws IOException {
+        ByteArrayBuilder buffer = outputBuffers.get();
+        buffer.reset();
+        try (JsonGenerator generator = jsonFactory.createGenerator(buffer)) {
+            generator.writeStartObject();
+            writeString(generator, SURVEY_ID, event.surveyId);
+            writeString(generator, QUESTION_ID, event.questionId);
+            writeRaw(generator, RESPONSE, event.response);
+            writeString(generator, USER_ID, event.userId);
+            generator.writeFieldName(TIMESTAMP);
+            if (event.timestamp == null) {
+                generator.writeNull();
+            } else if (event.timestampNumeric) {
+                generator.writeRawValue(event.timestamp);
+            } else {
+                event.timestamp.writeAsString(generator);
+            }
+            generator.writeFieldName(LAT);
+            generator.writeNumber(event.lat);
+            generator.writeFieldName(LON);
+            generator.writeNumber(event.lon);
+            writeString(generator, VILLAGE_ID, location.getVillageId().toString());
+            writeString(generator, PANCHAYAT_ID, location.getPanchayatId().toString());
+            writeString(generator, CONSTITUENCY_ID, location.getConstituencyId().toString());
+            generator.writeEndObject();
+        }
+        return buffer.toByteArray();
+    }
+
+    /**
+     * Writes the enriched event in the binary format.
+     */
+    public byte[] writeTransformedBinary(ParsedSurveyEvent event, LocationData location) {
+        int flags = (event.surveyId != null ? SurveyWireSchema.SURVEY_ID : 0)
+                | (event.questionId != null ? SurveyWireSchema.QUESTION_ID : 0)
+                | (event.response != null ? SurveyWireSchema.RESPONSE : 0)
+                | (event.userId != null ? SurveyWireSchema.USER_ID : 0)
+                | (event.timestamp != null ? SurveyWireSchema.TIMESTAMP : 0)
+                | (event.timestamp != null && event.timestampNumeric ? SurveyWireSchema.TIMESTAMP_NUMERIC : 0);
+        BinaryWriter writer = binaryBuffers.get().reset();
+        writer.writeVarInt(flags);
+        if (event.surveyId != null) {
+            writer.writeUuid(UUID.fromString(event.surveyId));
+        }
+        if (event.questionId != null) {
+            writer.writeString(event.questionId);
+        }
+        if (event.response != null) {
+            event.response.writeTo(writer);
+        }
+        if (event.userId != null) {
+            writer.writeUuid(UUID.fromString(event.userId));
+        }
+        if (event.timestamp != null) {
+            event.timestamp.writeTo(writer);
+        }
+        writer.writeDouble(event.lat)
+                .writeDouble(event.lon)
+                .writeUuid(location.getVillageId())
+                .writeUuid(location.getPanchayatId())
+                .writeUuid(location.getConstituencyId());
+        return writer.toByteArray();
+    }
+
+    private RawJsonValue jsonObject(byte[] message, int offset, int length) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(message, offset, length)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser, "response must be an object");
+            }
+            parser.skipChildren();
+            if (parser.nextToken() != null) {
+                throw new JsonParseException(parser, "Unexpected content after the response object");
+            }
+        }
+        return new RawJsonValue(message, offset, length);
+    }
+
+    private static void parseLocation(JsonParser parser, JsonToken token, ParsedSurveyEvent event) throws IOException {
+        if (token == JsonToken.VALUE_NULL) {
+            return;
+        }
+        if (token != JsonToken.START_OBJECT) {
+            throw new JsonParseException(parser, "location_data must be an object");
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ("lat".equals(field)) {
+                event.lat = number(parser, value);
+            } else if ("lon".equals(field)) {
+                event.lon = number(parser, value);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        event.hasLocation = true;
+    }
+
+    private static double number(JsonParser parser, JsonToken token) throws IOException {
+        if (!token.isNumeric()) {
+            throw new JsonParseException(parser, "Expected a number");
+        }
+        return parser.getDoubleValue();
+    }
+
+    private static String scalarText(JsonParser parser, JsonToken token) throws IOException {
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (!token.isScalarValue()) {
+            throw new JsonParseException(parser, "Expected a scalar value");
+        }
+        return parser.getText();
+    }
+
+    private static String uuidText(JsonParser parser, JsonToken token) throws IOException {
+        String text = scalarText(parser, token);
+        if (text != null) {
+            try {
+                UUID.fromString(text);
+            } catch (IllegalArgumentException e) {
+                throw new JsonParseException(parser, "Invalid UUID: " + text, e);
+            }
+        }
+        return text;
+    }
+
+    private static RawJsonValue timestamp(JsonParser parser, JsonToken token, byte[] message) throws IOException {
+        if (token == JsonToken.VALUE_STRING) {
+            CharBuffer text = CharBuffer.wrap(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+            if (!IsoTimestamps.isOffsetDateTime(text)) {
+                throw new JsonParseException(parser, "Invalid timestamp: " + parser.getText());
+            }
+            // A valid ISO timestamp contains nothing that needs escaping, so the text sits between the quotes.
+            RawJsonValue quoted = rawValue(parser, token, message);
+            return quoted.slice(1, quoted.length() - 2);
+        } else if (token == JsonToken.VALUE_NULL) {
+            return null;
+        } else if (!token.isNumeric()) {
+            throw new JsonParseException(parser, "timestamp must be a string or a number");
+        }
+        return rawValue(parser, token, message);
+    }
+
+    private static boolean isNumber(String text) {
+        try {
+            Double.parseDouble(text);
+            return !text.isEmpty() && Character.isDigit(text.charAt(text.length() - 1));
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Consumes the current value and returns the bytes it spans in {@code message}.
+     */
+    private static RawJsonValue rawValue(JsonParser parser, JsonToken token, byte[] message) throws IOException {
+        long start = parser.currentTokenLocation().getByteOffset();
+        if (token.isStructStart()) {
+            parser.skipChildren();
+        } else {
+            // String tokens are decoded lazily; finishing the token moves the parser past its closing quote.
+            parser.finishToken();
+        }
+        long end = parser.currentLocation().getByteOffset();
+        return new RawJsonValue(message, (int) start, (int) (end - start));
+    }
+
+    private static void writeString(JsonGenerator generator, SerializableString field, String value) throws IOException {
+        generator.writeFieldName(field);
+        if (value == null) {
+            generator.writeNull();
+        } else {
+            generator.writeString(value);
+        }
+    }
+
+    private static void writeRaw(JsonGenerator generator, SerializableString field, RawJsonValue value) throws IOException {
+        generator.writeFieldName(field);
+        if (value == null) {
+            generator.writeNull();
+        } else {
+            generator.writeRawValue(value);
+        }
+    }
+}
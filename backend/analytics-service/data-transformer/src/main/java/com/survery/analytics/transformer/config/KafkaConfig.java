@@ -0,0 +1,134 @@
+package com.survery.analytics.transformer.config;
+
+import com.survery.analytics.domain.retry.FailureClassifier;
+import com.survery.analytics.domain.retry.FailureRouter;
+import com.survery.analytics.domain.retry.RetryPolicy;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.kafka.ConcurrentKafkaListenerContainerFactoryConfigurer;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.boot.ssl.SslBundles;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.util.backoff.ExponentialBackOff;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+@Configuration
+public class KafkaConfig {
+
+    /**
+     * Container factory for listeners that take a whole poll as a {@code List<ConsumerRecord>}.
+     * Record values are delivered as raw bytes so they can be parsed without an intermediate
+     * {@code String}. Offsets are committed once per batch, after the listener returns. When the
+     * listener reports a failed record, everything before it is committed and the remainder is
+     * redelivered after a back-off, indefinitely, so no record is ever skipped.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<Object, Object> batchKafkaListenerContainerFactory(
+            ConcurrentKafkaListenerContainerFactoryConfigurer configurer,
+            KafkaProperties kafkaProperties, SslBundles sslBundles) {
+        Map<String, Object> consumerProperties = kafkaProperties.buildConsumerProperties(sslBundles);
+        consumerProperties.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        consumerProperties.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+
+        ConcurrentKafkaListenerContainerFactory<Object, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        configurer.configure(factory, new DefaultKafkaConsumerFactory<>(consumerProperties));
+        factory.setBatchListener(true);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.BATCH);
+
+        ExponentialBackOff backOff = new ExponentialBackOff(500L, 2.0);
+        backOff.setMaxInterval(30_000L);
+        factory.setCommonErrorHandler(new DefaultErrorHandler(backOff));
+        return factory;
+    }
+
+    /**
+     * Container factory for the retry tier listeners: one record at a time with manual
+     * acknowledgement, so a record that is not due yet can be handed back with a pause.
+     * A failed send of the enriched record is retried in place with a back-off.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<Object, Object> retryKafkaListenerContainerFactory(
+            ConcurrentKafkaListenerContainerFactoryConfigurer configurer,
+            KafkaProperties kafkaProperties, SslBundles sslBundles) {
+        Map<String, Object> consumerProperties = kafkaProperties.buildConsumerProperties(sslBundles);
+        consumerProperties.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        consumerProperties.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+
+        ConcurrentKafkaListenerContainerFactory<Object, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        configurer.configure(factory, new DefaultKafkaConsumerFactory<>(consumerProperties));
+        factory.setBatchListener(false);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+
+        ExponentialBackOff backOff = new ExponentialBackOff(500L, 2.0);
+        backOff.setMaxInterval(30_000L);
+        factory.setCommonErrorHandler(new DefaultErrorHandler(backOff));
+        return factory;
+    }
+
+    /**
+     * Consumer for re-driving dead-letter topics. Auto-commit is off: the replay commits an
+     * offset only after the record has been re-published, and it uses its own consumer group so
+     * that repeated replays continue where the previous one stopped.
+     */
+    @Bean
+    public ConsumerFactory<String, byte[]> replayConsumerFactory(KafkaProperties kafkaProperties, SslBundles sslBundles,
+                                                                 @Value("${transformer.replay.group-id:dlq-replay}") String groupId) {
+        Map<String, Object> consumerProperties = kafkaProperties.buildConsumerProperties(sslBundles);
+        consumerProperties.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
+        consumerProperties.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        consumerProperties.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, 500);
+        return new DefaultKafkaConsumerFactory<>(consumerProperties, new StringDeserializer(), new ByteArrayDeserializer());
+    }
+
+    /**
+     * Declared explicitly because defining any {@link KafkaTemplate} bean switches off Spring Boot's default one.
+     */
+    @Bean
+    public KafkaTemplate<String, String> kafkaTemplate(ProducerFactory<Object, Object> kafkaProducerFactory) {
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        ProducerFactory<String, String> producerFactory = (ProducerFactory) kafkaProducerFactory;
+        return new KafkaTemplate<>(producerFactory);
+    }
+
+    /**
+     * Template for publishing pre-encoded message bytes.
+     */
+    @Bean
+    public KafkaTemplate<String, byte[]> byteArrayKafkaTemplate(KafkaProperties kafkaProperties, SslBundles sslBundles) {
+        Map<String, Object> producerProperties = kafkaProperties.buildProducerProperties(sslBundles);
+        producerProperties.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        producerProperties.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+        return new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(producerProperties));
+    }
+
+    /**
+     * Transient failures move through one retry topic per {@code transformer.retry.delays} entry.
+     */
+    @Bean
+    public RetryPolicy retryPolicy(@Value("${transformer.retry.delays:30s,5m,30m}") List<Duration> delays) {
+        return new RetryPolicy(delays);
+    }
+
+    @Bean
+    public FailureRouter failureRouter(RetryPolicy retryPolicy, Clock clock) {
+        return new FailureRouter(new FailureClassifier(), retryPolicy, clock);
+    }
+}
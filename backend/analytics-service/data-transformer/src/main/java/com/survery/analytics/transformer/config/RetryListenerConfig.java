@@ -0,0 +1,54 @@
+package com.survery.analytics.transformer.config;
+
+import com.survery.analytics.transformer.SurveyEventProcessor;
+import com.survery.analytics.domain.retry.RetryPolicy;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.annotation.KafkaListenerConfigurer;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistrar;
+import org.springframework.kafka.config.MethodKafkaListenerEndpoint;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.messaging.handler.annotation.support.DefaultMessageHandlerMethodFactory;
+
+/**
+ * Registers one listener container per retry tier. Separate containers matter: a tier waiting
+ * for its next record to become due pauses only its own consumer.
+ */
+@Configuration
+public class RetryListenerConfig implements KafkaListenerConfigurer {
+
+    private static final String SOURCE_TOPIC = "survey-responses";
+
+    private final SurveyEventProcessor surveyEventProcessor;
+    private final RetryPolicy retryPolicy;
+    private final ConcurrentKafkaListenerContainerFactory<Object, Object> retryKafkaListenerContainerFactory;
+
+    public RetryListenerConfig(SurveyEventProcessor surveyEventProcessor, RetryPolicy retryPolicy,
+                               @Qualifier("retryKafkaListenerContainerFactory")
+                               ConcurrentKafkaListenerContainerFactory<Object, Object> retryKafkaListenerContainerFactory) {
+        this.surveyEventProcessor = surveyEventProcessor;
+        this.retryPolicy = retryPolicy;
+        this.retryKafkaListenerContainerFactory = retryKafkaListenerContainerFactory;
+    }
+
+    @Override
+    public void configureKafkaListeners(KafkaListenerEndpointRegistrar registrar) {
+        DefaultMessageHandlerMethodFactory handlerMethodFactory = new DefaultMessageHandlerMethodFactory();
+        handlerMethodFactory.afterPropertiesSet();
+        for (int tier = 1; tier <= retryPolicy.getTierCount(); tier++) {
+            MethodKafkaListenerEndpoint<String, byte[]> endpoint = new MethodKafkaListenerEndpoint<>();
+            endpoint.setId("survey-event-retry-" + tier);
+            endpoint.setTopics(retryPolicy.retryTopic(SOURCE_TOPIC, tier));
+            endpoint.setBean(surveyEventProcessor);
+            try {
+                endpoint.setMethod(SurveyEventProcessor.class.getMethod("processRetry", ConsumerRecord.class, Acknowledgment.class));
+            } catch (NoSuchMethodException e) {
+                throw new IllegalStateException(e);
+            }
+            endpoint.setMessageHandlerMethodFactory(handlerMethodFactory);
+            registrar.registerEndpoint(endpoint, retryKafkaListenerContainerFactory);
+        }
+    }
+}
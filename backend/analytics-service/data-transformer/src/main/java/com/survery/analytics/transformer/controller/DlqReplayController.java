@@ -0,0 +1,51 @@
+package com.survery.analytics.transformer.controller;
+
+import com.survery.analytics.transformer.retry.DlqReplayService;
+import com.survery.analytics.transformer.retry.ReplayJob;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/admin/dlq/replay")
+@RequiredArgsConstructor
+public class DlqReplayController {
+
+    private final DlqReplayService dlqReplayService;
+
+    @GetMapping
+    public ResponseEntity<ReplayJob> getCurrentJob() {
+        ReplayJob job = dlqReplayService.getCurrentJob();
+        return job == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(job);
+    }
+
+    /**
+     * Starts re-publishing a dead-letter topic into the topic its messages came from.
+     */
+    @PostMapping
+    public ResponseEntity<?> start(@RequestParam(defaultValue = "dlq-survey-responses") String topic,
+                                   @RequestParam(defaultValue = "100") double ratePerSecond,
+                                   @RequestParam(defaultValue = "" + Long.MAX_VALUE) long limit) {
+        try {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(dlqReplayService.start(topic, ratePerSecond, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @DeleteMapping
+    public ResponseEntity<ReplayJob> cancel() {
+        ReplayJob job = dlqReplayService.cancel();
+        return job == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(job);
+    }
+}
@@ -0,0 +1,50 @@
+package com.survery.analytics.transformer.controller;
+
+import com.survery.analytics.transformer.LocationCacheService;
+import com.survery.analytics.transformer.location.LocationSnapshot;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/admin/location-index")
+@RequiredArgsConstructor
+public class LocationIndexAdminController {
+
+    private final LocationCacheService locationCacheService;
+
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> getSnapshot() {
+        LocationSnapshot snapshot = locationCacheService.getSnapshot();
+        return ResponseEntity.ok(Map.of(
+                "version", snapshot.getVersion(),
+                "source", snapshot.getSource(),
+                "builtAt", snapshot.getBuiltAt().toString(),
+                "buildMillis", snapshot.getBuildMillis(),
+                "polygons", snapshot.getResolver().getPolygonCount(),
+                "villages", snapshot.getResolver().getVillageCount()));
+    }
+
+    /**
+     * Starts a background rebuild; the new snapshot replaces the current one once it is complete.
+     */
+    @PostMapping("/reload")
+    public ResponseEntity<Map<String, Object>> reload(@RequestParam(defaultValue = LocationCacheService.SOURCE_DATABASE) String source) {
+        try {
+            locationCacheService.reload(source);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(Map.of(
+                "status", "reloading",
+                "source", source,
+                "currentVersion", locationCacheService.getSnapshot().getVersion()));
+    }
+}
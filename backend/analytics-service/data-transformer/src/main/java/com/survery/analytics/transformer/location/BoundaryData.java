@@ -0,0 +1,15 @@
+package com.survery.analytics.transformer.location;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * A consistent set of administrative boundaries that a location index is built from.
+ */
+@Value
+public class BoundaryData {
+    List<ConstituencyBoundary> constituencies;
+    List<PanchayatBoundary> panchayats;
+    List<VillagePoint> villages;
+}
@@ -0,0 +1,87 @@
+package com.survery.analytics.transformer.location;
+
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.Point;
+import org.locationtech.jts.geom.Polygon;
+import org.locationtech.jts.io.ParseException;
+import org.locationtech.jts.io.WKTReader;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Reads boundaries from a tab-separated file, one boundary per line:
+ * <pre>
+ * constituency  &lt;constituency_id&gt;                    POLYGON((lon lat, ...))
+ * panchayat     &lt;panchayat_id&gt;  &lt;constituency_id&gt;  POLYGON((lon lat, ...))
+ * village       &lt;village_id&gt;    &lt;panchayat_id&gt;     POINT(lon lat)
+ * </pre>
+ * The parent column is left empty for constituencies. Blank lines and lines starting with
+ * {@code #} are ignored.
+ */
+@Component
+public class BoundaryFileReader {
+
+    public BoundaryData read(Path file) throws IOException {
+        WKTReader wktReader = new WKTReader(SpatialLocationIndex.GEOMETRY_FACTORY);
+        List<ConstituencyBoundary> constituencies = new ArrayList<>();
+        List<PanchayatBoundary> panchayats = new ArrayList<>();
+        List<VillagePoint> villages = new ArrayList<>();
+
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] columns = line.split("\t", 4);
+                if (columns.length != 4) {
+                    throw new IOException("Expected 4 tab-separated columns at line " + lineNumber + " of " + file);
+                }
+                UUID id = UUID.fromString(columns[1]);
+                Geometry geometry = parse(wktReader, columns[3], file, lineNumber);
+                switch (columns[0]) {
+                    case "constituency":
+                        constituencies.add(new ConstituencyBoundary(id, as(Polygon.class, geometry, file, lineNumber)));
+                        break;
+                    case "panchayat":
+                        panchayats.add(new PanchayatBoundary(id, UUID.fromString(columns[2]),
+                                as(Polygon.class, geometry, file, lineNumber)));
+                        break;
+                    case "village":
+                        villages.add(new VillagePoint(id, UUID.fromString(columns[2]),
+                                as(Point.class, geometry, file, lineNumber)));
+                        break;
+                    default:
+                        throw new IOException("Unknown boundary level '" + columns[0] + "' at line " + lineNumber + " of " + file);
+                }
+            }
+        }
+        return new BoundaryData(constituencies, panchayats, villages);
+    }
+
+    private static Geometry parse(WKTReader wktReader, String wkt, Path file, int lineNumber) throws IOException {
+        try {
+            return wktReader.read(wkt);
+        } catch (ParseException e) {
+            throw new IOException("Invalid WKT at line " + lineNumber + " of " + file, e);
+        }
+    }
+
+    private static <T extends Geometry> T as(Class<T> type, Geometry geometry, Path file, int lineNumber) throws IOException {
+        if (!type.isInstance(geometry)) {
+            throw new IOException("Expected a " + type.getSimpleName() + " at line " + lineNumber + " of " + file
+                    + " but found a " + geometry.getGeometryType());
+        }
+        return type.cast(geometry);
+    }
+}
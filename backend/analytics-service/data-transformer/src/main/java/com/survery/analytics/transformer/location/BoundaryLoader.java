@@ -0,0 +1,29 @@
+package com.survery.analytics.transformer.location;
+
+import com.survery.analytics.transformer.repository.ConstituencyRepository;
+import com.survery.analytics.transformer.repository.PanchayatRepository;
+import com.survery.analytics.transformer.repository.VillageRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Reads the full constituency/panchayat/village boundary set from the analytics database.
+ */
+@Component
+@RequiredArgsConstructor
+public class BoundaryLoader {
+
+    private final ConstituencyRepository constituencyRepository;
+    private final PanchayatRepository panchayatRepository;
+    private final VillageRepository villageRepository;
+
+    @Transactional(readOnly = true)
+    public BoundaryData load() {
+        return new BoundaryData(
+                constituencyRepository.findAllBoundaries(),
+                panchayatRepository.findAllBoundaries(),
+                villageRepository.findAllPoints()
+        );
+    }
+}
@@ -0,0 +1,120 @@
+package com.survery.analytics.transformer.location;
+
+import com.survery.analytics.transformer.LocationCacheService.LocationData;
+import io.micrometer.core.instrument.Counter;
+import org.locationtech.jts.geom.Envelope;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Caches resolutions per geohash cell in front of another resolver.
+ * <p>
+ * The cache is a fixed-size, direct-mapped table: each cell hashes to exactly one slot and a
+ * new cell simply overwrites whatever occupied it. Reads and writes are single volatile array
+ * accesses, so the cache is lock-free and its memory is bounded by {@code maxSize} regardless
+ * of how many cells are seen.
+ * <p>
+ * A cell is only cached with its location if the delegate confirms the whole cell resolves to
+ * that location. Cells that straddle a boundary are remembered as such and always fall back to
+ * the exact polygon test, so caching never changes the answer. Cells whose point resolved to no
+ * location at all are remembered as outside the boundaries; they also fall back to the exact test
+ * but count as misses, so the boundary fallback metric only counts cells that straddle a border.
+ */
+public class CachingLocationResolver implements LocationResolver {
+
+    private static final long MIX = 0x9E3779B97F4A7C15L;
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    private final LocationResolver delegate;
+    private final int precision;
+    private final int shift;
+    private final AtomicReferenceArray<CellEntry> slots;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter boundaryFallbacks;
+
+    public CachingLocationResolver(LocationResolver delegate, int precision, int maxSize,
+                                   Counter hits, Counter misses, Counter boundaryFallbacks) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Cache size must be positive.");
+        }
+        Geohash.encode(0, 0, precision); // validates the precision
+        int capacity = capacityFor(maxSize);
+        this.delegate = delegate;
+        this.precision = precision;
+        this.shift = 64 - Integer.numberOfTrailingZeros(capacity);
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.hits = hits;
+        this.misses = misses;
+        this.boundaryFallbacks = boundaryFallbacks;
+    }
+
+    /**
+     * {@code maxSize} rounded down to a power of two, so the table never exceeds it, and kept
+     * between 2 and 2<sup>30</sup>.
+     */
+    static int capacityFor(int maxSize) {
+        return Integer.highestOneBit(Math.min(Math.max(2, maxSize), MAX_CAPACITY));
+    }
+
+    @Override
+    public LocationResolution resolve(double lat, double lon) {
+        long cell = Geohash.encode(lat, lon, precision);
+        int slot = (int) ((cell * MIX) >>> shift);
+        CellEntry entry = slots.get(slot);
+        if (entry != null && entry.cell == cell) {
+            if (entry.location != null) {
+                hits.increment();
+                return new LocationResolution(entry.location, 0);
+            }
+            if (entry.outside) {
+                misses.increment();
+            } else {
+                boundaryFallbacks.increment();
+            }
+            return delegate.resolve(lat, lon);
+        }
+
+        misses.increment();
+        LocationResolution resolution = delegate.resolve(lat, lon);
+        LocationData location = resolution.getLocation();
+        boolean uniform = location != null && delegate.isUniform(Geohash.cellBounds(cell, precision), location);
+        slots.lazySet(slot, new CellEntry(cell, uniform ? location : null, location == null));
+        return resolution;
+    }
+
+    @Override
+    public boolean isUniform(Envelope cell, LocationData location) {
+        return delegate.isUniform(cell, location);
+    }
+
+    @Override
+    public int getPolygonCount() {
+        return delegate.getPolygonCount();
+    }
+
+    @Override
+    public int getVillageCount() {
+        return delegate.getVillageCount();
+    }
+
+    public int getCapacity() {
+        return slots.length();
+    }
+
+    /**
+     * A cached cell; a {@code null} location marks a cell that crosses a boundary or, if
+     * {@code outside}, one whose point lay outside every boundary.
+     */
+    private static final class CellEntry {
+        private final long cell;
+        private final LocationData location;
+        private final boolean outside;
+
+        private CellEntry(long cell, LocationData location, boolean outside) {
+            this.cell = cell;
+            this.location = location;
+            this.outside = outside;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.survery.analytics.transformer.location;
+
+import lombok.Value;
+import org.locationtech.jts.geom.Polygon;
+
+import java.util.UUID;
+
+@Value
+public class ConstituencyBoundary {
+    UUID constituencyId;
+    Polygon boundary;
+}
@@ -0,0 +1,81 @@
+package com.survery.analytics.transformer.location;
+
+import org.locationtech.jts.geom.Envelope;
+
+/**
+ * Binary geohash helpers. A geohash of {@code n} characters is the first {@code 5n} bits of
+ * the interleaved longitude/latitude bisection, kept here as a {@code long} so that cache keys
+ * never allocate a string.
+ */
+public final class Geohash {
+
+    /** A 12-character geohash uses 60 bits, the most a long can hold in whole characters. */
+    public static final int MAX_PRECISION = 12;
+
+    private Geohash() {
+    }
+
+    /**
+     * Encodes a coordinate into the geohash cell of the given precision in characters.
+     */
+    public static long encode(double lat, double lon, int precision) {
+        int bits = bitsFor(precision);
+        double minLat = -90, maxLat = 90, minLon = -180, maxLon = 180;
+        long hash = 0;
+        for (int i = 0; i < bits; i++) {
+            hash <<= 1;
+            if ((i & 1) == 0) {
+                double mid = (minLon + maxLon) / 2;
+                if (lon >= mid) {
+                    hash |= 1;
+                    minLon = mid;
+                } else {
+                    maxLon = mid;
+                }
+            } else {
+                double mid = (minLat + maxLat) / 2;
+                if (lat >= mid) {
+                    hash |= 1;
+                    minLat = mid;
+                } else {
+                    maxLat = mid;
+                }
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Returns the bounds of a geohash cell, with x as longitude and y as latitude.
+     */
+    public static Envelope cellBounds(long hash, int precision) {
+        int bits = bitsFor(precision);
+        double minLat = -90, maxLat = 90, minLon = -180, maxLon = 180;
+        for (int i = 0; i < bits; i++) {
+            boolean set = ((hash >>> (bits - 1 - i)) & 1) == 1;
+            if ((i & 1) == 0) {
+                double mid = (minLon + maxLon) / 2;
+                if (set) {
+                    minLon = mid;
+                } else {
+                    maxLon = mid;
+                }
+            } else {
+                double mid = (minLat + maxLat) / 2;
+                if (set) {
+                    minLat = mid;
+                } else {
+                    maxLat = mid;
+                }
+            }
+        }
+        return new Envelope(minLon, maxLon, minLat, maxLat);
+    }
+
+    private static int bitsFor(int precision) {
+        if (precision < 1 || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException("Geohash precision must be between 1 and " + MAX_PRECISION);
+        }
+        return precision * 5;
+    }
+}
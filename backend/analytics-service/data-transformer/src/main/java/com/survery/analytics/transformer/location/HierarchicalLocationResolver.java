@@ -0,0 +1,182 @@
+package com.survery.analytics.transformer.location;
+
+import com.survery.analytics.transformer.LocationCacheService.LocationData;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Point;
+import org.locationtech.jts.geom.prep.PreparedGeometry;
+import org.locationtech.jts.geom.prep.PreparedGeometryFactory;
+import org.locationtech.jts.index.strtree.STRtree;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Resolves a coordinate top-down through the constituency → panchayat → village hierarchy.
+ * <p>
+ * Only constituencies whose bounding box contains the point are tested against their prepared
+ * polygon. Inside the matching constituency only that constituency's panchayats are considered,
+ * again pruned by bounding box first, and the village is the nearest village of the matching
+ * panchayat. The number of exact polygon tests therefore depends on how many boundaries overlap
+ * the point, not on how many boundaries are loaded, and the three IDs are always consistent
+ * with each other.
+ */
+public class HierarchicalLocationResolver implements LocationResolver {
+
+    private static final Logger log = LoggerFactory.getLogger(HierarchicalLocationResolver.class);
+
+    private final STRtree constituencyTree = new STRtree();
+    private final Map<UUID, ConstituencyNode> constituenciesById = new HashMap<>();
+    private final Map<UUID, PanchayatNode> panchayatsById = new HashMap<>();
+    private final int polygonCount;
+    private final int villageCount;
+
+    public HierarchicalLocationResolver(BoundaryData data) {
+        PreparedGeometryFactory preparedFactory = new PreparedGeometryFactory();
+
+        Map<UUID, List<VillagePoint>> villagesByPanchayat = new HashMap<>();
+        for (VillagePoint village : data.getVillages()) {
+            villagesByPanchayat.computeIfAbsent(village.getPanchayatId(), id -> new ArrayList<>()).add(village);
+        }
+        Map<UUID, STRtree> panchayatsByConstituency = new HashMap<>();
+        int villages = 0;
+        for (PanchayatBoundary panchayat : data.getPanchayats()) {
+            List<VillagePoint> panchayatVillages = villagesByPanchayat.getOrDefault(panchayat.getPanchayatId(), List.of());
+            villages += panchayatVillages.size();
+            PanchayatNode node = new PanchayatNode(
+                    panchayat.getPanchayatId(), preparedFactory.create(panchayat.getBoundary()), panchayatVillages);
+            panchayatsById.put(node.id, node);
+            panchayatsByConstituency.computeIfAbsent(panchayat.getConstituencyId(), id -> new STRtree())
+                    .insert(panchayat.getBoundary().getEnvelopeInternal(), node);
+        }
+
+        int panchayats = 0;
+        for (ConstituencyBoundary constituency : data.getConstituencies()) {
+            STRtree panchayatTree = panchayatsByConstituency.getOrDefault(constituency.getConstituencyId(), new STRtree());
+            panchayatTree.build();
+            panchayats += panchayatTree.size();
+            ConstituencyNode node = new ConstituencyNode(
+                    constituency.getConstituencyId(), preparedFactory.create(constituency.getBoundary()), panchayatTree);
+            constituenciesById.put(node.id, node);
+            constituencyTree.insert(constituency.getBoundary().getEnvelopeInternal(), node);
+        }
+        constituencyTree.build();
+
+        if (panchayats < data.getPanchayats().size() || villages < data.getVillages().size()) {
+            log.warn("Ignoring {} panchayats and {} villages whose parent boundary is not loaded",
+                    data.getPanchayats().size() - panchayats, data.getVillages().size() - villages);
+        }
+        this.polygonCount = data.getConstituencies().size() + panchayats;
+        this.villageCount = villages;
+    }
+
+    @Override
+    public LocationResolution resolve(double lat, double lon) {
+        Point point = SpatialLocationIndex.GEOMETRY_FACTORY.createPoint(new Coordinate(lon, lat));
+        Envelope envelope = point.getEnvelopeInternal();
+        int tested = 0;
+
+        @SuppressWarnings("unchecked")
+        List<ConstituencyNode> constituencies = constituencyTree.query(envelope);
+        for (ConstituencyNode constituency : constituencies) {
+            tested++;
+            if (!constituency.prepared.covers(point)) {
+                continue;
+            }
+            @SuppressWarnings("unchecked")
+            List<PanchayatNode> panchayats = constituency.panchayats.query(envelope);
+            for (PanchayatNode panchayat : panchayats) {
+                tested++;
+                if (panchayat.prepared.covers(point)) {
+                    UUID villageId = panchayat.nearestVillage(lon, lat);
+                    LocationData location = villageId == null
+                            ? null
+                            : new LocationData(villageId, panchayat.id, constituency.id);
+                    return new LocationResolution(location, tested);
+                }
+            }
+            // Constituencies should not overlap, so a covering constituency without a covering
+            // panchayat means the panchayat data has a gap here.
+            return new LocationResolution(null, tested);
+        }
+        return new LocationResolution(null, tested);
+    }
+
+    @Override
+    public boolean isUniform(Envelope cell, LocationData location) {
+        ConstituencyNode constituency = constituenciesById.get(location.getConstituencyId());
+        PanchayatNode panchayat = panchayatsById.get(location.getPanchayatId());
+        if (constituency == null || panchayat == null) {
+            return false;
+        }
+        return UniformCells.isUniform(cell, constituency.prepared, panchayat.prepared, location.getVillageId(),
+                panchayat::nearestVillage);
+    }
+
+    @Override
+    public int getPolygonCount() {
+        return polygonCount;
+    }
+
+    @Override
+    public int getVillageCount() {
+        return villageCount;
+    }
+
+    private static final class ConstituencyNode {
+        private final UUID id;
+        private final PreparedGeometry prepared;
+        private final STRtree panchayats;
+
+        private ConstituencyNode(UUID id, PreparedGeometry prepared, STRtree panchayats) {
+            this.id = id;
+            this.prepared = prepared;
+            this.panchayats = panchayats;
+        }
+    }
+
+    private static final class PanchayatNode {
+        private final UUID id;
+        private final PreparedGeometry prepared;
+        private final UUID[] villageIds;
+        private final double[] villageX;
+        private final double[] villageY;
+
+        private PanchayatNode(UUID id, PreparedGeometry prepared, List<VillagePoint> villages) {
+            this.id = id;
+            this.prepared = prepared;
+            this.villageIds = new UUID[villages.size()];
+            this.villageX = new double[villages.size()];
+            this.villageY = new double[villages.size()];
+            for (int i = 0; i < villages.size(); i++) {
+                villageIds[i] = villages.get(i).getVillageId();
+                villageX[i] = villages.get(i).getPoint().getX();
+                villageY[i] = villages.get(i).getPoint().getY();
+            }
+        }
+
+        /**
+         * Linear scan over the village points of this panchayat; a panchayat holds a handful of
+         * villages, so this beats a tree both in memory and in time.
+         */
+        private UUID nearestVillage(double x, double y) {
+            UUID nearest = null;
+            double best = Double.MAX_VALUE;
+            for (int i = 0; i < villageIds.length; i++) {
+                double dx = villageX[i] - x;
+                double dy = villageY[i] - y;
+                double distance = dx * dx + dy * dy;
+                if (distance < best) {
+                    best = distance;
+                    nearest = villageIds[i];
+                }
+            }
+            return nearest;
+        }
+    }
+}
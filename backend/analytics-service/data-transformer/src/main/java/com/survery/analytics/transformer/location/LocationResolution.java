@@ -0,0 +1,13 @@
+package com.survery.analytics.transformer.location;
+
+import com.survery.analytics.transformer.LocationCacheService.LocationData;
+import lombok.Value;
+
+/**
+ * The result of a single lookup, together with the number of exact point-in-polygon tests it took.
+ */
+@Value
+public class LocationResolution {
+    LocationData location;
+    int polygonsTested;
+}
@@ -0,0 +1,28 @@
+package com.survery.analytics.transformer.location;
+
+import com.survery.analytics.transformer.LocationCacheService.LocationData;
+import org.locationtech.jts.geom.Envelope;
+
+/**
+ * Resolves coordinates to the administrative hierarchy from an in-memory boundary index.
+ * Implementations are immutable once built and safe for concurrent use.
+ */
+public interface LocationResolver {
+
+    /**
+     * Resolves the village, panchayat and constituency for a coordinate.
+     *
+     * @return the resolution, whose location is {@code null} if the point is outside every known boundary.
+     */
+    LocationResolution resolve(double lat, double lon);
+
+    /**
+     * Tells whether every point of {@code cell} resolves to {@code location}, in which case one
+     * lookup can stand in for the whole cell.
+     */
+    boolean isUniform(Envelope cell, LocationData location);
+
+    int getPolygonCount();
+
+    int getVillageCount();
+}
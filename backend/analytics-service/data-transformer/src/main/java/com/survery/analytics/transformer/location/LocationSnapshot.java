@@ -0,0 +1,18 @@
+package com.survery.analytics.transformer.location;
+
+import lombok.Value;
+
+import java.time.Instant;
+
+/**
+ * A fully built, immutable location resolver together with where and when it was built.
+ * A snapshot is only published once it is complete, so readers never see a partial index.
+ */
+@Value
+public class LocationSnapshot {
+    long version;
+    String source;
+    Instant builtAt;
+    long buildMillis;
+    LocationResolver resolver;
+}
@@ -0,0 +1,13 @@
+package com.survery.analytics.transformer.location;
+
+import lombok.Value;
+import org.locationtech.jts.geom.Polygon;
+
+import java.util.UUID;
+
+@Value
+public class PanchayatBoundary {
+    UUID panchayatId;
+    UUID constituencyId;
+    Polygon boundary;
+}
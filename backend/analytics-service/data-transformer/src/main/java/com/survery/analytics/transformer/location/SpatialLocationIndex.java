@@ -0,0 +1,149 @@
+package com.survery.analytics.transformer.location;
+
+import com.survery.analytics.transformer.LocationCacheService.LocationData;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.Point;
+import org.locationtech.jts.geom.PrecisionModel;
+import org.locationtech.jts.geom.prep.PreparedGeometry;
+import org.locationtech.jts.geom.prep.PreparedGeometryFactory;
+import org.locationtech.jts.index.strtree.ItemDistance;
+import org.locationtech.jts.index.strtree.STRtree;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Flat in-memory index over constituency and panchayat polygons and village points.
+ * <p>
+ * Each level is resolved independently: polygons are kept in STR-trees keyed by their envelopes and tested with {@link PreparedGeometry},
+ * so a lookup only runs the exact point-in-polygon test against the few polygons whose bounding
+ * box contains the point. The village is the nearest village point overall, regardless of which
+ * panchayat it belongs to; see {@link HierarchicalLocationResolver} for the nested variant. Coordinates follow the
+ * SRID 4326 convention used by the domain entities: x is longitude, y is latitude.
+ * <p>
+ * All trees are built eagerly in the constructor, so a single instance can be queried from any
+ * number of threads without synchronization.
+ */
+public class SpatialLocationIndex implements LocationResolver {
+
+    static final GeometryFactory GEOMETRY_FACTORY = new GeometryFactory(new PrecisionModel(), 4326);
+
+    private static final ItemDistance VILLAGE_DISTANCE = (a, b) ->
+            ((VillageEntry) a.getItem()).distanceTo((VillageEntry) b.getItem());
+
+    private final STRtree constituencyTree = new STRtree();
+    private final STRtree panchayatTree = new STRtree();
+    private final STRtree villageTree = new STRtree();
+    private final Map<UUID, PolygonEntry> polygonsById = new HashMap<>();
+    private final int polygonCount;
+    private final int villageCount;
+
+    public SpatialLocationIndex(BoundaryData data) {
+        PreparedGeometryFactory preparedFactory = new PreparedGeometryFactory();
+        for (ConstituencyBoundary constituency : data.getConstituencies()) {
+            PolygonEntry entry = new PolygonEntry(
+                    constituency.getConstituencyId(), preparedFactory.create(constituency.getBoundary()));
+            polygonsById.put(entry.id, entry);
+            constituencyTree.insert(constituency.getBoundary().getEnvelopeInternal(), entry);
+        }
+        for (PanchayatBoundary panchayat : data.getPanchayats()) {
+            PolygonEntry entry = new PolygonEntry(
+                    panchayat.getPanchayatId(), preparedFactory.create(panchayat.getBoundary()));
+            polygonsById.put(entry.id, entry);
+            panchayatTree.insert(panchayat.getBoundary().getEnvelopeInternal(), entry);
+        }
+        for (VillagePoint village : data.getVillages()) {
+            VillageEntry entry = new VillageEntry(village.getVillageId(), village.getPoint().getX(), village.getPoint().getY());
+            villageTree.insert(new Envelope(entry.x, entry.x, entry.y, entry.y), entry);
+        }
+        // STRtree builds lazily on first query, which is not thread-safe; build up front instead.
+        constituencyTree.build();
+        panchayatTree.build();
+        villageTree.build();
+        this.polygonCount = data.getConstituencies().size() + data.getPanchayats().size();
+        this.villageCount = data.getVillages().size();
+    }
+
+    @Override
+    public LocationResolution resolve(double lat, double lon) {
+        Point point = GEOMETRY_FACTORY.createPoint(new Coordinate(lon, lat));
+        int[] tested = new int[1];
+        PolygonEntry constituency = findContaining(constituencyTree, point, tested);
+        PolygonEntry panchayat = findContaining(panchayatTree, point, tested);
+        if (constituency == null || panchayat == null || villageTree.isEmpty()) {
+            return new LocationResolution(null, tested[0]);
+        }
+        return new LocationResolution(new LocationData(nearestVillage(lon, lat), panchayat.id, constituency.id), tested[0]);
+    }
+
+    @Override
+    public boolean isUniform(Envelope cell, LocationData location) {
+        PolygonEntry constituency = polygonsById.get(location.getConstituencyId());
+        PolygonEntry panchayat = polygonsById.get(location.getPanchayatId());
+        if (constituency == null || panchayat == null) {
+            return false;
+        }
+        return UniformCells.isUniform(cell, constituency.prepared, panchayat.prepared, location.getVillageId(),
+                this::nearestVillage);
+    }
+
+    @Override
+    public int getPolygonCount() {
+        return polygonCount;
+    }
+
+    @Override
+    public int getVillageCount() {
+        return villageCount;
+    }
+
+    private UUID nearestVillage(double x, double y) {
+        VillageEntry village = (VillageEntry) villageTree.nearestNeighbour(
+                new Envelope(x, x, y, y), new VillageEntry(null, x, y), VILLAGE_DISTANCE);
+        return village.villageId;
+    }
+
+    private static PolygonEntry findContaining(STRtree tree, Point point, int[] tested) {
+        @SuppressWarnings("unchecked")
+        List<PolygonEntry> candidates = tree.query(point.getEnvelopeInternal());
+        for (PolygonEntry candidate : candidates) {
+            tested[0]++;
+            if (candidate.prepared.covers(point)) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    private static final class PolygonEntry {
+        private final UUID id;
+        private final PreparedGeometry prepared;
+
+        private PolygonEntry(UUID id, PreparedGeometry prepared) {
+            this.id = id;
+            this.prepared = prepared;
+        }
+    }
+
+    private static final class VillageEntry {
+        private final UUID villageId;
+        private final double x;
+        private final double y;
+
+        private VillageEntry(UUID villageId, double x, double y) {
+            this.villageId = villageId;
+            this.x = x;
+            this.y = y;
+        }
+
+        private double distanceTo(VillageEntry other) {
+            double dx = x - other.x;
+            double dy = y - other.y;
+            return Math.sqrt(dx * dx + dy * dy);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.survery.analytics.transformer.location;
+
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.prep.PreparedGeometry;
+
+import java.util.UUID;
+
+/**
+ * The uniformity test shared by the resolvers: whether a whole geohash cell resolves to one
+ * location, so that {@link CachingLocationResolver} may answer for the cell without a polygon test.
+ */
+final class UniformCells {
+
+    /**
+     * The village nearest to a point, among the villages the resolver would consider there.
+     */
+    @FunctionalInterface
+    interface NearestVillage {
+        UUID at(double lon, double lat);
+    }
+
+    private UniformCells() {
+    }
+
+    /**
+     * Whether {@code constituency} and {@code panchayat} both cover {@code cell} and every point of
+     * it is nearest to {@code villageId}.
+     */
+    static boolean isUniform(Envelope cell, PreparedGeometry constituency, PreparedGeometry panchayat,
+                             UUID villageId, NearestVillage nearest) {
+        Geometry cellGeometry = SpatialLocationIndex.GEOMETRY_FACTORY.toGeometry(cell);
+        if (!constituency.covers(cellGeometry) || !panchayat.covers(cellGeometry)) {
+            return false;
+        }
+        // The region closest to one village is convex, so the whole cell maps to the same
+        // village exactly when all four corners do.
+        return villageId.equals(nearest.at(cell.getMinX(), cell.getMinY()))
+                && villageId.equals(nearest.at(cell.getMinX(), cell.getMaxY()))
+                && villageId.equals(nearest.at(cell.getMaxX(), cell.getMinY()))
+                && villageId.equals(nearest.at(cell.getMaxX(), cell.getMaxY()));
+    }
+}
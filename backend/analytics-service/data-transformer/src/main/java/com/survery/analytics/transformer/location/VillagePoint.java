@@ -0,0 +1,13 @@
+package com.survery.analytics.transformer.location;
+
+import lombok.Value;
+import org.locationtech.jts.geom.Point;
+
+import java.util.UUID;
+
+@Value
+public class VillagePoint {
+    UUID villageId;
+    UUID panchayatId;
+    Point point;
+}
@@ -0,0 +1,16 @@
+package com.survery.analytics.transformer.repository;
+
+import com.survery.analytics.domain.Constituency;
+import com.survery.analytics.transformer.location.ConstituencyBoundary;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface ConstituencyRepository extends Repository<Constituency, UUID> {
+
+    @Query("select new com.survery.analytics.transformer.location.ConstituencyBoundary(c.constituencyId, c.geoBoundary) "
+            + "from Constituency c")
+    List<ConstituencyBoundary> findAllBoundaries();
+}
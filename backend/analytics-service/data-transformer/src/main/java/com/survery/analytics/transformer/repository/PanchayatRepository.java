@@ -0,0 +1,16 @@
+package com.survery.analytics.transformer.repository;
+
+import com.survery.analytics.domain.Panchayat;
+import com.survery.analytics.transformer.location.PanchayatBoundary;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface PanchayatRepository extends Repository<Panchayat, UUID> {
+
+    @Query("select new com.survery.analytics.transformer.location.PanchayatBoundary("
+            + "p.panchayatId, p.constituency.constituencyId, p.geoBoundary) from Panchayat p")
+    List<PanchayatBoundary> findAllBoundaries();
+}
@@ -0,0 +1,16 @@
+package com.survery.analytics.transformer.repository;
+
+import com.survery.analytics.domain.Village;
+import com.survery.analytics.transformer.location.VillagePoint;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface VillageRepository extends Repository<Village, UUID> {
+
+    @Query("select new com.survery.analytics.transformer.location.VillagePoint("
+            + "v.villageId, v.panchayat.panchayatId, v.geoPoint) from Village v")
+    List<VillagePoint> findAllPoints();
+}
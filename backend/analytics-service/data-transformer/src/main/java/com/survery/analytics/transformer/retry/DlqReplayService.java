@@ -0,0 +1,194 @@
+package com.survery.analytics.transformer.retry;
+
+import com.survery.analytics.domain.retry.FailureRouter;
+import com.survery.analytics.domain.retry.RetryPolicy;
+import com.survery.analytics.domain.wire.WireHeaders;
+import jakarta.annotation.PreDestroy;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Re-drives a dead-letter topic into the topic its messages originally came from, at a bounded rate.
+ * <p>
+ * A replay covers the records that were in the dead-letter topic when it started; records that
+ * fail again and land back in the topic are not picked up by the same run. Progress is committed
+ * under a dedicated consumer group after every re-published poll, so a cancelled or crashed replay
+ * resumes where it stopped. Replayed messages start over with a fresh attempt count.
+ */
+@Service
+public class DlqReplayService {
+
+    private static final Logger log = LoggerFactory.getLogger(DlqReplayService.class);
+
+    private final ConsumerFactory<String, byte[]> replayConsumerFactory;
+    private final KafkaTemplate<String, byte[]> byteArrayKafkaTemplate;
+    private final RetryPolicy retryPolicy;
+    private final long sendTimeoutMs;
+    private final AtomicReference<ReplayJob> currentJob = new AtomicReference<>();
+    private final ExecutorService replayExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "dlq-replay");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public DlqReplayService(@Qualifier("replayConsumerFactory") ConsumerFactory<String, byte[]> replayConsumerFactory,
+                            KafkaTemplate<String, byte[]> byteArrayKafkaTemplate,
+                            RetryPolicy retryPolicy,
+                            @Value("${transformer.send-timeout-ms:30000}") long sendTimeoutMs) {
+        this.replayConsumerFactory = replayConsumerFactory;
+        this.byteArrayKafkaTemplate = byteArrayKafkaTemplate;
+        this.retryPolicy = retryPolicy;
+        this.sendTimeoutMs = sendTimeoutMs;
+    }
+
+    /**
+     * Starts a replay in the background. Only one replay runs at a time.
+     *
+     * @throws IllegalStateException    if a replay is already running
+     * @throws IllegalArgumentException if the rate or limit is not positive
+     */
+    public ReplayJob start(String topic, double ratePerSecond, long limit) {
+        if (!(ratePerSecond > 0) || limit <= 0) {
+            throw new IllegalArgumentException("Rate and limit must be positive.");
+        }
+        ReplayJob job = new ReplayJob(topic, ratePerSecond, limit);
+        ReplayJob previous = currentJob.get();
+        if ((previous != null && previous.isRunning()) || !currentJob.compareAndSet(previous, job)) {
+            throw new IllegalStateException("A replay of " + currentJob.get().getTopic() + " is already running.");
+        }
+        replayExecutor.execute(() -> run(job));
+        return job;
+    }
+
+    public ReplayJob getCurrentJob() {
+        return currentJob.get();
+    }
+
+    /**
+     * Asks the running replay to stop after the record it is currently pacing.
+     */
+    public ReplayJob cancel() {
+        ReplayJob job = currentJob.get();
+        if (job != null) {
+            job.requestCancel();
+        }
+        return job;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        cancel();
+        replayExecutor.shutdown();
+    }
+
+    void run(ReplayJob job) {
+        log.info("Replaying {} at up to {} records/s", job.getTopic(), job.getRatePerSecond());
+        try (Consumer<String, byte[]> consumer = replayConsumerFactory.createConsumer()) {
+            List<TopicPartition> partitions = new ArrayList<>();
+            for (PartitionInfo partition : consumer.partitionsFor(job.getTopic())) {
+                partitions.add(new TopicPartition(partition.topic(), partition.partition()));
+            }
+            consumer.assign(partitions);
+            Map<TopicPartition, Long> endOffsets = consumer.endOffsets(partitions);
+            Map<TopicPartition, OffsetAndMetadata> committed = consumer.committed(new HashSet<>(partitions));
+            for (TopicPartition partition : partitions) {
+                OffsetAndMetadata offset = committed.get(partition);
+                if (offset != null) {
+                    consumer.seek(partition, offset.offset());
+                } else {
+                    consumer.seekToBeginning(List.of(partition));
+                }
+            }
+
+            long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / job.getRatePerSecond());
+            long nextSendAt = System.nanoTime();
+            while (!job.isCancelRequested() && job.getReplayed().get() < job.getLimit()
+                    && !reachedEnd(consumer, partitions, endOffsets)) {
+                ConsumerRecords<String, byte[]> records = consumer.poll(Duration.ofSeconds(1));
+                Map<TopicPartition, Long> nextOffsets = new HashMap<>();
+                Map<TopicPartition, OffsetAndMetadata> progress = new HashMap<>();
+                List<CompletableFuture<SendResult<String, byte[]>>> sends = new ArrayList<>();
+                for (ConsumerRecord<String, byte[]> record : records) {
+                    TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+                    nextOffsets.putIfAbsent(partition, record.offset());
+                    if (job.isCancelRequested() || job.getReplayed().get() + sends.size() >= job.getLimit()
+                            || record.offset() >= endOffsets.get(partition)) {
+                        continue;
+                    }
+                    long wait = nextSendAt - System.nanoTime();
+                    if (wait > 0) {
+                        LockSupport.parkNanos(wait);
+                    }
+                    nextSendAt = Math.max(nextSendAt, System.nanoTime() - intervalNanos) + intervalNanos;
+                    sends.add(byteArrayKafkaTemplate.send(redrive(job.getTopic(), record)));
+                    nextOffsets.put(partition, record.offset() + 1);
+                    progress.put(partition, new OffsetAndMetadata(record.offset() + 1));
+                }
+                byteArrayKafkaTemplate.flush();
+                for (CompletableFuture<SendResult<String, byte[]>> send : sends) {
+                    send.get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+                }
+                if (!progress.isEmpty()) {
+                    consumer.commitSync(progress);
+                }
+                job.getReplayed().addAndGet(sends.size());
+                // Fetched records that were not re-published are read again by the next poll.
+                nextOffsets.forEach(consumer::seek);
+            }
+            job.finish(job.isCancelRequested() ? ReplayJob.State.CANCELLED : ReplayJob.State.COMPLETED, null);
+            log.info("Replay of {} finished: {} records re-published", job.getTopic(), job.getReplayed().get());
+        } catch (Exception e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            job.finish(ReplayJob.State.FAILED, e.toString());
+            log.error("Replay of {} failed after {} records", job.getTopic(), job.getReplayed().get(), e);
+        }
+    }
+
+    private ProducerRecord<String, byte[]> redrive(String deadLetterTopic, ConsumerRecord<String, byte[]> record) {
+        byte[] originalTopic = FailureRouter.headerValue(record.headers(), WireHeaders.ORIGINAL_TOPIC);
+        String topic = originalTopic != null
+                ? new String(originalTopic, StandardCharsets.UTF_8)
+                : retryPolicy.originalTopic(deadLetterTopic);
+        return new ProducerRecord<>(topic, null, record.key(), record.value(),
+                FailureRouter.withoutRetryHeaders(record.headers()));
+    }
+
+    private static boolean reachedEnd(Consumer<?, ?> consumer, List<TopicPartition> partitions,
+                                      Map<TopicPartition, Long> endOffsets) {
+        for (TopicPartition partition : partitions) {
+            if (consumer.position(partition) < endOffsets.get(partition)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,45 @@
+package com.survery.analytics.transformer.retry;
+
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress of one dead-letter replay.
+ */
+@Getter
+public class ReplayJob {
+
+    public enum State { RUNNING, COMPLETED, CANCELLED, FAILED }
+
+    private final String topic;
+    private final double ratePerSecond;
+    private final long limit;
+    private final Instant startedAt = Instant.now();
+    private final AtomicLong replayed = new AtomicLong();
+    private volatile State state = State.RUNNING;
+    private volatile String error;
+    private volatile Instant finishedAt;
+    private volatile boolean cancelRequested;
+
+    ReplayJob(String topic, double ratePerSecond, long limit) {
+        this.topic = topic;
+        this.ratePerSecond = ratePerSecond;
+        this.limit = limit;
+    }
+
+    public boolean isRunning() {
+        return state == State.RUNNING;
+    }
+
+    void requestCancel() {
+        cancelRequested = true;
+    }
+
+    void finish(State finalState, String failure) {
+        this.error = failure;
+        this.finishedAt = Instant.now();
+        this.state = finalState;
+    }
+}
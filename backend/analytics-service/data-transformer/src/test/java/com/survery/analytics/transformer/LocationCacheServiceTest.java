@@ -0,0 +1,72 @@
+package com.survery.analytics.transformer;
+
+import com.survery.analytics.transformer.location.BoundaryData;
+import com.survery.analytics.transformer.location.BoundaryFileReader;
+import com.survery.analytics.transformer.location.BoundaryLoader;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class LocationCacheServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final BoundaryLoader boundaryLoader = mock(BoundaryLoader.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void reload_fromFile_shouldSwapInNewSnapshot() throws Exception {
+        UUID constituencyId = UUID.randomUUID();
+        UUID panchayatId = UUID.randomUUID();
+        UUID villageId = UUID.randomUUID();
+        Path file = tempDir.resolve("boundaries.tsv");
+        Files.writeString(file, String.join("\n",
+                "# level\tid\tparent\twkt",
+                "constituency\t" + constituencyId + "\t\tPOLYGON((77 12, 78 12, 78 13, 77 13, 77 12))",
+                "panchayat\t" + panchayatId + "\t" + constituencyId + "\tPOLYGON((77 12, 78 12, 78 13, 77 13, 77 12))",
+                "village\t" + villageId + "\t" + panchayatId + "\tPOINT(77.5 12.5)"));
+
+        LocationCacheService service = newService(file.toString());
+        assertNull(service.findLocationByCoordinates(12.9, 77.5));
+
+        service.reload(LocationCacheService.SOURCE_FILE).get();
+
+        LocationCacheService.LocationData location = service.findLocationByCoordinates(12.9, 77.5);
+        assertEquals(villageId, location.getVillageId());
+        assertEquals(panchayatId, location.getPanchayatId());
+        assertEquals(constituencyId, location.getConstituencyId());
+        assertEquals(2, service.getSnapshot().getVersion());
+        assertEquals(2.0, meterRegistry.get("location.index.snapshot.version").gauge().value());
+    }
+
+    @Test
+    void reload_whenBuildFails_shouldKeepCurrentSnapshot() {
+        LocationCacheService service = newService(tempDir.resolve("missing.tsv").toString());
+
+        assertThrows(ExecutionException.class, () -> service.reload(LocationCacheService.SOURCE_FILE).get());
+
+        assertEquals(1, service.getSnapshot().getVersion());
+        assertEquals(LocationCacheService.SOURCE_DATABASE, service.getSnapshot().getSource());
+    }
+
+    private LocationCacheService newService(String boundaryFile) {
+        when(boundaryLoader.load()).thenReturn(new BoundaryData(List.of(), List.of(), List.of()));
+        LocationCacheService service = new LocationCacheService(boundaryLoader, new BoundaryFileReader(),
+                "hierarchical", boundaryFile, true, 7, 1024, meterRegistry);
+        service.loadIndex();
+        return service;
+    }
+}
@@ -3,23 +3,50 @@ package com.survery.analytics.transformer;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.survery.analytics.domain.wire.BinaryReader;
+import com.survery.analytics.domain.wire.BinaryWriter;
+import com.survery.analytics.domain.wire.SurveyWireSchema;
+import com.survery.analytics.domain.wire.WireFormat;
+import com.survery.analytics.domain.wire.WireHeaders;
+import com.survery.analytics.transformer.codec.SurveyEventCodec;
 import com.survery.analytics.transformer.dto.TransformedSurveyDto;
+import com.survery.analytics.domain.retry.FailureClassifier;
+import com.survery.analytics.domain.retry.FailureRouter;
+import com.survery.analytics.domain.retry.RetryPolicy;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -29,21 +56,30 @@ class SurveyEventProcessorTest {
     @Mock
     private KafkaTemplate<String, String> kafkaTemplate;
 
+    @Mock
+    private KafkaTemplate<String, byte[]> byteArrayKafkaTemplate;
+
     @Mock
     private LocationCacheService locationCacheService;
 
-    @InjectMocks
     private SurveyEventProcessor surveyEventProcessor;
 
     @Captor
     private ArgumentCaptor<String> stringArgumentCaptor;
 
+    @Captor
+    private ArgumentCaptor<ProducerRecord<String, byte[]>> producerRecordCaptor;
+
     private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private final Clock clock = Clock.fixed(Instant.parse("2024-03-01T10:00:00Z"), ZoneOffset.UTC);
 
     @BeforeEach
     void setUp() {
-        // We can re-initialize the processor to inject a real ObjectMapper if needed,
-        // but for this test, direct instantiation is fine as we control the inputs.
+        // Two KafkaTemplate mocks differ only in their type arguments, so wire the processor by hand.
+        FailureRouter failureRouter = new FailureRouter(new FailureClassifier(),
+                new RetryPolicy(List.of(Duration.ofSeconds(30), Duration.ofMinutes(5))), clock);
+        surveyEventProcessor = new SurveyEventProcessor(kafkaTemplate, byteArrayKafkaTemplate, locationCacheService,
+                new SurveyEventCodec(), failureRouter, clock);
     }
 
     @Test
@@ -83,4 +119,161 @@ class SurveyEventProcessorTest {
         // Assert
         verify(kafkaTemplate).send("dlq-survey-responses", rawMessage);
     }
+
+    @Test
+    void processBatch_shouldPublishEveryRecordAndWaitForAcknowledgements() throws Exception {
+        // Arrange
+        UUID villageId = UUID.randomUUID();
+        when(locationCacheService.findLocationByCoordinates(anyDouble(), anyDouble()))
+                .thenReturn(new LocationCacheService.LocationData(villageId, UUID.randomUUID(), UUID.randomUUID()));
+        when(byteArrayKafkaTemplate.send(any(ProducerRecord.class))).thenReturn(CompletableFuture.completedFuture(null));
+        byte[] invalid = bytes("{\"invalid_json\": true}");
+
+        // Act
+        surveyEventProcessor.processBatch(List.of(
+                record(0, bytes(validMessage())),
+                record(1, invalid),
+                record(2, bytes(validMessage()))));
+
+        // Assert
+        verify(byteArrayKafkaTemplate, times(3)).send(producerRecordCaptor.capture());
+        verify(byteArrayKafkaTemplate).flush();
+        List<ProducerRecord<String, byte[]>> sent = producerRecordCaptor.getAllValues();
+        assertEquals(List.of("transformed-surveys", "dlq-survey-responses", "transformed-surveys"),
+                sent.stream().map(ProducerRecord::topic).toList());
+        assertArrayEquals(invalid, sent.get(1).value());
+        TransformedSurveyDto dto = objectMapper.readValue(sent.get(2).value(), TransformedSurveyDto.class);
+        assertEquals(villageId, dto.getVillageId());
+        assertEquals(dto.getSurveyId().toString(), sent.get(2).key());
+        assertArrayEquals(WireFormat.JSON.headerBytes(), sent.get(2).headers().lastHeader(WireHeaders.FORMAT).value());
+    }
+
+    @Test
+    void processBatch_withBinaryFormat_shouldDecodeByHeaderAndWriteConfiguredFormat() {
+        // Arrange
+        ReflectionTestUtils.setField(surveyEventProcessor, "transformedFormat", WireFormat.BINARY);
+        UUID surveyId = UUID.randomUUID();
+        LocationCacheService.LocationData location =
+                new LocationCacheService.LocationData(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+        when(locationCacheService.findLocationByCoordinates(12.9, 77.5)).thenReturn(location);
+        when(byteArrayKafkaTemplate.send(any(ProducerRecord.class))).thenReturn(CompletableFuture.completedFuture(null));
+        byte[] binary = new BinaryWriter(64)
+                .writeVarInt(SurveyWireSchema.SURVEY_ID | SurveyWireSchema.LOCATION)
+                .writeUuid(surveyId)
+                .writeDouble(12.9)
+                .writeDouble(77.5)
+                .toByteArray();
+        ConsumerRecord<String, byte[]> current = record(0, binary);
+        current.headers().add(WireHeaders.FORMAT, WireFormat.BINARY.headerBytes());
+        ConsumerRecord<String, byte[]> future = record(1, binary);
+        future.headers().add(WireHeaders.FORMAT, WireFormat.BINARY.headerBytes());
+        future.headers().add(WireHeaders.SCHEMA_VERSION, WireHeaders.intValue(SurveyWireSchema.VERSION + 1));
+
+        // Act
+        surveyEventProcessor.processBatch(List.of(current, future));
+
+        // Assert
+        verify(byteArrayKafkaTemplate, times(2)).send(producerRecordCaptor.capture());
+        ProducerRecord<String, byte[]> transformed = producerRecordCaptor.getAllValues().get(0);
+        assertEquals("transformed-surveys", transformed.topic());
+        assertArrayEquals(WireFormat.BINARY.headerBytes(), transformed.headers().lastHeader(WireHeaders.FORMAT).value());
+        BinaryReader reader = new BinaryReader(transformed.value());
+        assertEquals(SurveyWireSchema.SURVEY_ID, reader.readVarInt());
+        assertEquals(surveyId, reader.readUuid());
+        assertEquals(12.9, reader.readDouble());
+        assertEquals(77.5, reader.readDouble());
+        assertEquals(location.getVillageId(), reader.readUuid());
+        assertEquals(location.getPanchayatId(), reader.readUuid());
+        assertEquals(location.getConstituencyId(), reader.readUuid());
+        assertEquals(0, reader.remaining());
+
+        // A newer schema than this reader knows goes to the DLQ with its headers intact.
+        ProducerRecord<String, byte[]> dead = producerRecordCaptor.getAllValues().get(1);
+        assertEquals("dlq-survey-responses", dead.topic());
+        assertArrayEquals(binary, dead.value());
+        assertArrayEquals(WireFormat.BINARY.headerBytes(), dead.headers().lastHeader(WireHeaders.FORMAT).value());
+    }
+
+    @Test
+    void processBatch_whenSendFails_shouldReportFirstUnacknowledgedRecord() {
+        // Arrange
+        when(locationCacheService.findLocationByCoordinates(anyDouble(), anyDouble()))
+                .thenReturn(new LocationCacheService.LocationData(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID()));
+        CompletableFuture<SendResult<String, byte[]>> failed = CompletableFuture.failedFuture(new RuntimeException("broker down"));
+        when(byteArrayKafkaTemplate.send(any(ProducerRecord.class)))
+                .thenReturn(CompletableFuture.completedFuture(null), failed, CompletableFuture.completedFuture(null));
+
+        // Act
+        BatchListenerFailedException exception = assertThrows(BatchListenerFailedException.class, () ->
+                surveyEventProcessor.processBatch(List.of(
+                        record(0, bytes(validMessage())), record(1, bytes(validMessage())), record(2, bytes(validMessage())))));
+
+        // Assert
+        assertEquals(1, exception.getIndex());
+    }
+
+    @Test
+    void processBatch_whenLocationUnresolved_shouldRouteToFirstRetryTier() {
+        // Arrange
+        when(byteArrayKafkaTemplate.send(any(ProducerRecord.class))).thenReturn(CompletableFuture.completedFuture(null));
+
+        // Act
+        surveyEventProcessor.processBatch(List.of(record(0, bytes(validMessage()))));
+
+        // Assert
+        verify(byteArrayKafkaTemplate).send(producerRecordCaptor.capture());
+        ProducerRecord<String, byte[]> retried = producerRecordCaptor.getValue();
+        assertEquals("survey-responses-retry-1", retried.topic());
+        assertEquals(1, WireHeaders.readInt(retried.headers().lastHeader(WireHeaders.RETRY_ATTEMPT).value(), 0));
+        assertEquals(clock.millis() + 30_000,
+                WireHeaders.readLong(retried.headers().lastHeader(WireHeaders.RETRY_NOT_BEFORE).value(), 0));
+        assertEquals("TRANSIENT", new String(retried.headers().lastHeader(WireHeaders.FAILURE_TYPE).value(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void processRetry_whenNotDue_shouldPauseTierWithoutProcessing() {
+        // Arrange
+        ConsumerRecord<String, byte[]> record = new ConsumerRecord<>("survey-responses-retry-1", 0, 0, null, bytes(validMessage()));
+        record.headers().add(WireHeaders.RETRY_NOT_BEFORE, WireHeaders.longValue(clock.millis() + 5_000));
+        Acknowledgment acknowledgment = mock(Acknowledgment.class);
+
+        // Act
+        surveyEventProcessor.processRetry(record, acknowledgment);
+
+        // Assert
+        verify(acknowledgment).nack(Duration.ofSeconds(5));
+        verify(acknowledgment, never()).acknowledge();
+        verify(byteArrayKafkaTemplate, never()).send(any(ProducerRecord.class));
+    }
+
+    @Test
+    void processRetry_whenDue_shouldPublishAndAcknowledge() {
+        // Arrange
+        when(locationCacheService.findLocationByCoordinates(anyDouble(), anyDouble()))
+                .thenReturn(new LocationCacheService.LocationData(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID()));
+        when(byteArrayKafkaTemplate.send(any(ProducerRecord.class))).thenReturn(CompletableFuture.completedFuture(null));
+        ConsumerRecord<String, byte[]> record = new ConsumerRecord<>("survey-responses-retry-2", 0, 0, null, bytes(validMessage()));
+        record.headers().add(WireHeaders.RETRY_NOT_BEFORE, WireHeaders.longValue(clock.millis()));
+        Acknowledgment acknowledgment = mock(Acknowledgment.class);
+
+        // Act
+        surveyEventProcessor.processRetry(record, acknowledgment);
+
+        // Assert
+        verify(byteArrayKafkaTemplate).send(producerRecordCaptor.capture());
+        assertEquals("transformed-surveys", producerRecordCaptor.getValue().topic());
+        verify(acknowledgment).acknowledge();
+    }
+
+    private static String validMessage() {
+        return "{\"survey_id\":\"" + UUID.randomUUID() + "\",\"location_data\":{\"lat\":12.9,\"lon\":77.5}}";
+    }
+
+    private static byte[] bytes(String message) {
+        return message.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static ConsumerRecord<String, byte[]> record(long offset, byte[] value) {
+        return new ConsumerRecord<>("survey-responses", 0, offset, null, value);
+    }
 }
@@ -0,0 +1,72 @@
+package com.survery.analytics.transformer.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.survery.analytics.transformer.LocationCacheService.LocationData;
+import com.survery.analytics.transformer.dto.SurveyEvent;
+import com.survery.analytics.transformer.dto.TransformedSurveyDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the {@link SurveyEventCodec} round trip with the ObjectMapper binding it replaced.
+ * Not run by the build; allocation per event is reported by the GC profiler:
+ * <pre>
+ * mvn test-compile exec:java -Dexec.mainClass=com.survery.analytics.transformer.codec.SurveyEventCodecBenchmark -Dexec.classpathScope=test
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SurveyEventCodecBenchmark {
+
+    private static final byte[] MESSAGE = ("{\"survey_id\":\"a8c3e8f7-b0a3-4b1f-9c6e-8d7b3a2d1f0e\",\"question_id\":\"q-7\","
+            + "\"response\":{\"choice\":\"yes\",\"scores\":[1,2,3],\"note\":\"caf\\u00e9 \\\"quoted\\\"\"},"
+            + "\"location_data\":{\"lat\":12.9,\"lon\":77.5,\"accuracy\":4.2},"
+            + "\"user_id\":\"0f0e3c51-6c1a-4d1e-9a0b-2f7c4e1d9b33\",\"timestamp\":\"2024-03-01T10:15:30+05:30\",\"extra\":[{}]}")
+            .getBytes(StandardCharsets.UTF_8);
+
+    private final SurveyEventCodec codec = new SurveyEventCodec();
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private final LocationData location = new LocationData(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+
+    @Benchmark
+    public byte[] codec() throws IOException {
+        return codec.writeTransformed(codec.parse(MESSAGE), location);
+    }
+
+    @Benchmark
+    public byte[] objectMapper() throws IOException {
+        SurveyEvent event = objectMapper.readValue(MESSAGE, SurveyEvent.class);
+        TransformedSurveyDto dto = new TransformedSurveyDto(event.getSurvey_id(), event.getQuestion_id(),
+                event.getResponse(), event.getUser_id(), event.getTimestamp(), event.getLocation_data().getLat(),
+                event.getLocation_data().getLon(), location.getVillageId(), location.getPanchayatId(),
+                location.getConstituencyId());
+        return objectMapper.writeValueAsBytes(dto);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(SurveyEventCodecBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build()).run();
+    }
+}
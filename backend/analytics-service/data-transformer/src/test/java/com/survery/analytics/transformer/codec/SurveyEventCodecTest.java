@@ -0,0 +1,139 @@
+package com.survery.analytics.transformer.codec;
+
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.survery.analytics.domain.wire.BinaryWriter;
+import com.survery.analytics.domain.wire.MalformedMessageException;
+import com.survery.analytics.domain.wire.SurveyWireSchema;
+import com.survery.analytics.domain.wire.WireFormat;
+import com.survery.analytics.transformer.LocationCacheService.LocationData;
+import com.survery.analytics.transformer.dto.TransformedSurveyDto;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SurveyEventCodecTest {
+
+    private static final String SURVEY_ID = "a8c3e8f7-b0a3-4b1f-9c6e-8d7b3a2d1f0e";
+    private static final String USER_ID = "0f0e3c51-6c1a-4d1e-9a0b-2f7c4e1d9b33";
+    private static final byte[] MESSAGE = ("{\"survey_id\":\"" + SURVEY_ID + "\",\"question_id\":\"q-7\","
+            + "\"response\":{\"choice\":\"yes\",\"scores\":[1,2,3],\"note\":\"caf\\u00e9 \\\"quoted\\\"\"},"
+            + "\"location_data\":{\"lat\":12.9,\"lon\":77.5,\"accuracy\":4.2},"
+            + "\"user_id\":\"" + USER_ID + "\",\"timestamp\":\"2024-03-01T10:15:30+05:30\",\"extra\":[{}]}")
+            .getBytes(StandardCharsets.UTF_8);
+
+    private final SurveyEventCodec codec = new SurveyEventCodec();
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private final LocationData location = new LocationData(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+
+    @Test
+    void writeTransformed_shouldMatchObjectMapperOutput() throws IOException {
+        byte[] output = codec.writeTransformed(codec.parse(MESSAGE), location);
+
+        TransformedSurveyDto dto = objectMapper.readValue(output, TransformedSurveyDto.class);
+        assertEquals(UUID.fromString(SURVEY_ID), dto.getSurveyId());
+        assertEquals("q-7", dto.getQuestionId());
+        assertEquals(Map.of("choice", "yes", "scores", java.util.List.of(1, 2, 3), "note", "café \"quoted\""),
+                dto.getResponse());
+        assertEquals(UUID.fromString(USER_ID), dto.getUserId());
+        assertTrue(OffsetDateTime.parse("2024-03-01T10:15:30+05:30").isEqual(dto.getTimestamp()));
+        assertEquals(12.9, dto.getLat());
+        assertEquals(77.5, dto.getLon());
+        assertEquals(location.getVillageId(), dto.getVillageId());
+        assertEquals(location.getPanchayatId(), dto.getPanchayatId());
+        assertEquals(location.getConstituencyId(), dto.getConstituencyId());
+    }
+
+    @Test
+    void parseBinary_shouldYieldSameOutputAsJson() throws IOException {
+        byte[] response = bytes("{\"choice\":\"yes\",\"scores\":[1,2,3],\"note\":\"caf\\u00e9 \\\"quoted\\\"\"}");
+        byte[] timestamp = bytes("2024-03-01T10:15:30+05:30");
+        byte[] binary = new BinaryWriter(256)
+                .writeVarInt(SurveyWireSchema.SURVEY_ID | SurveyWireSchema.QUESTION_ID | SurveyWireSchema.RESPONSE
+                        | SurveyWireSchema.USER_ID | SurveyWireSchema.TIMESTAMP | SurveyWireSchema.LOCATION)
+                .writeUuid(UUID.fromString(SURVEY_ID))
+                .writeString("q-7")
+                .writeBytes(response, 0, response.length)
+                .writeUuid(UUID.fromString(USER_ID))
+                .writeBytes(timestamp, 0, timestamp.length)
+                .writeDouble(12.9)
+                .writeDouble(77.5)
+                .toByteArray();
+
+        ParsedSurveyEvent fromBinary = codec.parse(binary, WireFormat.BINARY);
+        ParsedSurveyEvent fromJson = codec.parse(MESSAGE, WireFormat.JSON);
+
+        assertEquals(objectMapper.readTree(codec.writeTransformed(fromJson, location)),
+                objectMapper.readTree(codec.writeTransformed(fromBinary, location)));
+        byte[] transformedBinary = codec.writeTransformed(fromJson, location, WireFormat.BINARY);
+        assertArrayEquals(transformedBinary, codec.writeTransformed(fromBinary, location, WireFormat.BINARY));
+        assertTrue(transformedBinary.length < codec.writeTransformed(fromJson, location).length * 2 / 3,
+                "binary " + transformedBinary.length + " bytes");
+        assertThrows(MalformedMessageException.class,
+                () -> codec.parseBinary(java.util.Arrays.copyOf(binary, binary.length - 3)));
+    }
+
+    @Test
+    void parse_whenLocationMissing_shouldReportNoLocation() throws IOException {
+        ParsedSurveyEvent event = codec.parse(("{\"survey_id\":\"" + SURVEY_ID + "\",\"location_data\":null}")
+                .getBytes(StandardCharsets.UTF_8));
+
+        assertEquals(SURVEY_ID, event.getSurveyId());
+        assertFalse(event.isHasLocation());
+    }
+
+    @Test
+    void parse_shouldRejectWhatObjectMapperRejects() {
+        assertThrows(IOException.class, () -> codec.parse(bytes("{\"survey_id\":\"not-a-uuid\"}")));
+        assertThrows(IOException.class, () -> codec.parse(bytes("{\"timestamp\":\"yesterday\"}")));
+        assertThrows(IOException.class, () -> codec.parse(bytes("{\"response\":\"free text\"}")));
+        assertThrows(IOException.class, () -> codec.parse(bytes("{\"location_data\":{\"lat\":\"north\"}}")));
+        assertThrows(IOException.class, () -> codec.parse(bytes("{\"survey_id\":")));
+    }
+
+    @Test
+    void isOffsetDateTime_shouldAgreeWithJavaTime() {
+        for (String text : new String[]{
+                "2024-03-01T10:15:30+05:30", "2024-03-01T10:15:30Z", "2024-03-01t10:15z", "2024-02-29T00:00:00.123456789-08:00",
+                "2024-03-01T10:15+0530", "2024-03-01T10:15:30+05", "2024-03-01T10:15:30+05:30:15", "2024-03-01T10:15:30+053015",
+                "2023-02-29T10:15:30Z", "2024-13-01T10:15:30Z", "2024-04-31T10:15:30Z", "2024-03-01T24:00:00Z",
+                "2024-03-01T10:15:30", "2024-03-01T10:15:30.Z", "2024-03-01T10:15:30.1234567890Z", "2024-03-01T10:15:30+19:00",
+                "2024-03-01T10:15:30+05:3", "2024-03-01T10:15:30+05:3015", "2024-03-01 10:15:30Z", "2024-3-01T10:15:30Z"}) {
+            boolean expected;
+            try {
+                OffsetDateTime.parse(text);
+                expected = true;
+            } catch (RuntimeException e) {
+                expected = false;
+            }
+            assertEquals(expected, IsoTimestamps.isOffsetDateTime(text), text);
+        }
+    }
+
+    @Test
+    void rawJsonValue_shouldEscapeWhenQuoted() {
+        byte[] text = bytes("say \"caf\u00e9\"\n");
+        RawJsonValue value = new RawJsonValue(text, 0, text.length);
+        SerializedString expected = new SerializedString("say \"caf\u00e9\"\n");
+
+        assertArrayEquals(expected.asQuotedUTF8(), value.asQuotedUTF8());
+        assertArrayEquals(expected.asQuotedChars(), value.asQuotedChars());
+        byte[] buffer = new byte[64];
+        assertEquals(expected.asQuotedUTF8().length, value.appendQuotedUTF8(buffer, 0));
+    }
+
+    private static byte[] bytes(String json) {
+        return json.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,112 @@
+package com.survery.analytics.transformer.location;
+
+import com.survery.analytics.transformer.LocationCacheService.LocationData;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.Point;
+import org.locationtech.jts.geom.Polygon;
+import org.locationtech.jts.geom.PrecisionModel;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class CachingLocationResolverTest {
+
+    private static final GeometryFactory FACTORY = new GeometryFactory(new PrecisionModel(), 4326);
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final Counter hits = registry.counter("hits");
+    private final Counter misses = registry.counter("misses");
+    private final Counter boundary = registry.counter("boundary");
+
+    private final UUID westPanchayatId = UUID.randomUUID();
+    private final UUID eastPanchayatId = UUID.randomUUID();
+
+    private CachingLocationResolver resolver;
+
+    @BeforeEach
+    void setUp() {
+        UUID constituencyId = UUID.randomUUID();
+        BoundaryData data = new BoundaryData(
+                List.of(new ConstituencyBoundary(constituencyId, box(77.0, 12.0, 78.0, 13.0))),
+                List.of(
+                        new PanchayatBoundary(westPanchayatId, constituencyId, box(77.0, 12.0, 77.5, 13.0)),
+                        new PanchayatBoundary(eastPanchayatId, constituencyId, box(77.5, 12.0, 78.0, 13.0))),
+                List.of(
+                        new VillagePoint(UUID.randomUUID(), westPanchayatId, point(77.25, 12.5)),
+                        new VillagePoint(UUID.randomUUID(), eastPanchayatId, point(77.75, 12.5))));
+        resolver = new CachingLocationResolver(new HierarchicalLocationResolver(data), 7, 1024, hits, misses, boundary);
+    }
+
+    @Test
+    void resolve_whenCellInsideOneVillageArea_shouldServeRepeatLookupsFromCache() {
+        LocationResolution first = resolver.resolve(12.7003, 77.8001);
+        LocationResolution second = resolver.resolve(12.7004, 77.8002);
+
+        assertEquals(first.getLocation(), second.getLocation());
+        assertEquals(0, second.getPolygonsTested());
+        assertEquals(1, misses.count());
+        assertEquals(1, hits.count());
+    }
+
+    @Test
+    void resolve_whenCellCrossesPanchayatBoundary_shouldFallBackToExactTest() {
+        // Precision 7 cells are ~0.0014 degrees wide, so these two points share a cell
+        // that straddles the panchayat border at lon 77.5.
+        long west = Geohash.encode(12.7, 77.49999, 7);
+        long east = Geohash.encode(12.7, 77.50001, 7);
+        assertEquals(west, east);
+
+        LocationData westLocation = resolver.resolve(12.7, 77.49999).getLocation();
+        LocationResolution eastResolution = resolver.resolve(12.7, 77.50001);
+
+        assertEquals(westPanchayatId, westLocation.getPanchayatId());
+        assertEquals(eastPanchayatId, eastResolution.getLocation().getPanchayatId());
+        assertEquals(1, boundary.count());
+        assertEquals(0, hits.count());
+    }
+
+    @Test
+    void resolve_whenCellOutsideEveryBoundary_shouldCountMisses() {
+        assertNull(resolver.resolve(20.0, 80.0).getLocation());
+        assertNull(resolver.resolve(20.0, 80.0).getLocation());
+
+        assertEquals(2, misses.count());
+        assertEquals(0, boundary.count());
+        assertEquals(0, hits.count());
+    }
+
+    @Test
+    void constructor_shouldRoundCapacityDownToPowerOfTwo() {
+        assertEquals(1024, resolver.getCapacity());
+        assertEquals(2, new CachingLocationResolver(resolver, 5, 3, hits, misses, boundary).getCapacity());
+        assertEquals(1024, CachingLocationResolver.capacityFor(2047));
+    }
+
+    @Test
+    void constructor_shouldClampCapacity() {
+        assertEquals(1 << 30, CachingLocationResolver.capacityFor(Integer.MAX_VALUE));
+        assertEquals(1 << 30, CachingLocationResolver.capacityFor((1 << 30) + 1));
+    }
+
+    private static Polygon box(double minLon, double minLat, double maxLon, double maxLat) {
+        return FACTORY.createPolygon(new Coordinate[]{
+                new Coordinate(minLon, minLat),
+                new Coordinate(maxLon, minLat),
+                new Coordinate(maxLon, maxLat),
+                new Coordinate(minLon, maxLat),
+                new Coordinate(minLon, minLat)
+        });
+    }
+
+    private static Point point(double lon, double lat) {
+        return FACTORY.createPoint(new Coordinate(lon, lat));
+    }
+}
@@ -0,0 +1,90 @@
+package com.survery.analytics.transformer.location;
+
+import com.survery.analytics.transformer.LocationCacheService.LocationData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.Point;
+import org.locationtech.jts.geom.Polygon;
+import org.locationtech.jts.geom.PrecisionModel;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class HierarchicalLocationResolverTest {
+
+    private static final GeometryFactory FACTORY = new GeometryFactory(new PrecisionModel(), 4326);
+    private static final int GRID = 20;
+
+    private final List<ConstituencyBoundary> constituencies = new ArrayList<>();
+    private final List<PanchayatBoundary> panchayats = new ArrayList<>();
+    private final List<VillagePoint> villages = new ArrayList<>();
+
+    private HierarchicalLocationResolver resolver;
+
+    @BeforeEach
+    void setUp() {
+        // A GRID x GRID block of one-degree constituencies, each split into four panchayats
+        // with one village at the centre of each panchayat.
+        for (int i = 0; i < GRID; i++) {
+            for (int j = 0; j < GRID; j++) {
+                UUID constituencyId = UUID.randomUUID();
+                constituencies.add(new ConstituencyBoundary(constituencyId, box(70 + i, 10 + j, 71 + i, 11 + j)));
+                for (int q = 0; q < 4; q++) {
+                    double lon = 70 + i + (q % 2) * 0.5;
+                    double lat = 10 + j + (q / 2) * 0.5;
+                    UUID panchayatId = UUID.randomUUID();
+                    panchayats.add(new PanchayatBoundary(panchayatId, constituencyId, box(lon, lat, lon + 0.5, lat + 0.5)));
+                    villages.add(new VillagePoint(UUID.randomUUID(), panchayatId, point(lon + 0.25, lat + 0.25)));
+                }
+            }
+        }
+        resolver = new HierarchicalLocationResolver(new BoundaryData(constituencies, panchayats, villages));
+    }
+
+    @Test
+    void resolve_shouldReturnConsistentHierarchy() {
+        // Second constituency (i = 0, j = 1), upper-right panchayat.
+        LocationResolution resolution = resolver.resolve(11.8, 70.8);
+        LocationData location = resolution.getLocation();
+
+        assertEquals(constituencies.get(1).getConstituencyId(), location.getConstituencyId());
+        assertEquals(panchayats.get(7).getPanchayatId(), location.getPanchayatId());
+        assertEquals(villages.get(7).getVillageId(), location.getVillageId());
+    }
+
+    @Test
+    void resolve_shouldOnlyTestPolygonsWhoseBoundingBoxContainsThePoint() {
+        LocationResolution resolution = resolver.resolve(15.3, 75.3);
+
+        assertEquals(5 * GRID * GRID, resolver.getPolygonCount());
+        assertEquals(2, resolution.getPolygonsTested());
+    }
+
+    @Test
+    void resolve_whenPointOutsideAllConstituencies_shouldReturnNoLocation() {
+        LocationResolution resolution = resolver.resolve(50.0, 50.0);
+
+        assertNull(resolution.getLocation());
+        assertEquals(0, resolution.getPolygonsTested());
+    }
+
+    private static Polygon box(double minLon, double minLat, double maxLon, double maxLat) {
+        return FACTORY.createPolygon(new Coordinate[]{
+                new Coordinate(minLon, minLat),
+                new Coordinate(maxLon, minLat),
+                new Coordinate(maxLon, maxLat),
+                new Coordinate(minLon, maxLat),
+                new Coordinate(minLon, minLat)
+        });
+    }
+
+    private static Point point(double lon, double lat) {
+        return FACTORY.createPoint(new Coordinate(lon, lat));
+    }
+}
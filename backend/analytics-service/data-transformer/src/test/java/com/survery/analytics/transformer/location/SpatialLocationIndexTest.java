@@ -0,0 +1,71 @@
+package com.survery.analytics.transformer.location;
+
+import com.survery.analytics.transformer.LocationCacheService.LocationData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.Point;
+import org.locationtech.jts.geom.Polygon;
+import org.locationtech.jts.geom.PrecisionModel;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class SpatialLocationIndexTest {
+
+    private static final GeometryFactory FACTORY = new GeometryFactory(new PrecisionModel(), 4326);
+
+    private final UUID constituencyId = UUID.randomUUID();
+    private final UUID westPanchayatId = UUID.randomUUID();
+    private final UUID eastPanchayatId = UUID.randomUUID();
+    private final UUID westVillageId = UUID.randomUUID();
+    private final UUID eastVillageId = UUID.randomUUID();
+
+    private SpatialLocationIndex index;
+
+    @BeforeEach
+    void setUp() {
+        // One constituency spanning lon 77.0-78.0, split into two panchayats at lon 77.5.
+        BoundaryData data = new BoundaryData(
+                List.of(new ConstituencyBoundary(constituencyId, box(77.0, 12.0, 78.0, 13.0))),
+                List.of(
+                        new PanchayatBoundary(westPanchayatId, constituencyId, box(77.0, 12.0, 77.5, 13.0)),
+                        new PanchayatBoundary(eastPanchayatId, constituencyId, box(77.5, 12.0, 78.0, 13.0))),
+                List.of(
+                        new VillagePoint(westVillageId, westPanchayatId, point(77.25, 12.5)),
+                        new VillagePoint(eastVillageId, eastPanchayatId, point(77.75, 12.5))));
+        index = new SpatialLocationIndex(data);
+    }
+
+    @Test
+    void resolve_whenPointInsideBoundaries_shouldReturnContainingPolygonsAndNearestVillage() {
+        LocationData location = index.resolve(12.9, 77.7).getLocation();
+
+        assertEquals(eastVillageId, location.getVillageId());
+        assertEquals(eastPanchayatId, location.getPanchayatId());
+        assertEquals(constituencyId, location.getConstituencyId());
+    }
+
+    @Test
+    void resolve_whenPointOutsideAllBoundaries_shouldReturnNull() {
+        assertNull(index.resolve(20.0, 77.7).getLocation());
+    }
+
+    private static Polygon box(double minLon, double minLat, double maxLon, double maxLat) {
+        return FACTORY.createPolygon(new Coordinate[]{
+                new Coordinate(minLon, minLat),
+                new Coordinate(maxLon, minLat),
+                new Coordinate(maxLon, maxLat),
+                new Coordinate(minLon, maxLat),
+                new Coordinate(minLon, minLat)
+        });
+    }
+
+    private static Point point(double lon, double lat) {
+        return FACTORY.createPoint(new Coordinate(lon, lat));
+    }
+}
@@ -0,0 +1,119 @@
+package com.survery.analytics.transformer.retry;
+
+import com.survery.analytics.domain.retry.RetryPolicy;
+import com.survery.analytics.domain.wire.WireFormat;
+import com.survery.analytics.domain.wire.WireHeaders;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DlqReplayServiceTest {
+
+    private static final String DLQ = "dlq-survey-responses";
+    private static final TopicPartition PARTITION = new TopicPartition(DLQ, 0);
+
+    @SuppressWarnings("unchecked")
+    private final ConsumerFactory<String, byte[]> consumerFactory = mock(ConsumerFactory.class);
+    @SuppressWarnings("unchecked")
+    private final KafkaTemplate<String, byte[]> kafkaTemplate = mock(KafkaTemplate.class);
+    private final Map<TopicPartition, OffsetAndMetadata> commits = new HashMap<>();
+    private final MockConsumer<String, byte[]> consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST) {
+        @Override
+        public synchronized void commitSync(Map<TopicPartition, OffsetAndMetadata> offsets) {
+            super.commitSync(offsets);
+            commits.putAll(offsets);
+        }
+    };
+
+    private DlqReplayService service;
+
+    @BeforeEach
+    void setUp() {
+        consumer.updatePartitions(DLQ, List.of(new PartitionInfo(DLQ, 0, null, null, null)));
+        consumer.updateBeginningOffsets(Map.of(PARTITION, 0L));
+        consumer.updateEndOffsets(Map.of(PARTITION, 3L));
+        consumer.schedulePollTask(() -> {
+            for (int offset = 0; offset < 3; offset++) {
+                ConsumerRecord<String, byte[]> record = new ConsumerRecord<>(DLQ, 0, offset, "key-" + offset,
+                        ("message-" + offset).getBytes(StandardCharsets.UTF_8));
+                record.headers().add(WireHeaders.FORMAT, WireFormat.BINARY.headerBytes());
+                record.headers().add(WireHeaders.RETRY_ATTEMPT, WireHeaders.intValue(4));
+                record.headers().add(WireHeaders.FAILURE_TYPE, "TRANSIENT".getBytes(StandardCharsets.UTF_8));
+                consumer.addRecord(record);
+            }
+        });
+        when(consumerFactory.createConsumer()).thenReturn(consumer);
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(CompletableFuture.completedFuture(null));
+        service = new DlqReplayService(consumerFactory, kafkaTemplate, new RetryPolicy(List.of(Duration.ofSeconds(1))), 1_000);
+    }
+
+    @Test
+    void run_shouldRepublishToOriginalTopicWithFreshRetryState() {
+        ReplayJob job = new ReplayJob(DLQ, 1_000, Long.MAX_VALUE);
+
+        service.run(job);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<ProducerRecord<String, byte[]>> captor = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(kafkaTemplate, times(3)).send(captor.capture());
+        ProducerRecord<String, byte[]> first = captor.getAllValues().get(0);
+        assertEquals("survey-responses", first.topic());
+        assertEquals("key-0", first.key());
+        assertArrayEquals(WireFormat.BINARY.headerBytes(), first.headers().lastHeader(WireHeaders.FORMAT).value());
+        assertNull(first.headers().lastHeader(WireHeaders.RETRY_ATTEMPT));
+        assertNull(first.headers().lastHeader(WireHeaders.FAILURE_TYPE));
+        assertEquals(ReplayJob.State.COMPLETED, job.getState());
+        assertEquals(3, job.getReplayed().get());
+        assertEquals(3L, commits.get(PARTITION).offset());
+    }
+
+    @Test
+    void run_withLimit_shouldCommitOnlyWhatWasRepublished() {
+        ReplayJob job = new ReplayJob(DLQ, 1_000, 2);
+
+        service.run(job);
+
+        verify(kafkaTemplate, times(2)).send(any(ProducerRecord.class));
+        assertEquals(ReplayJob.State.COMPLETED, job.getState());
+        assertEquals(2L, commits.get(PARTITION).offset());
+    }
+
+    @Test
+    void run_shouldPaceSendsToTheRequestedRate() {
+        ReplayJob job = new ReplayJob(DLQ, 20, Long.MAX_VALUE);
+
+        long start = System.nanoTime();
+        service.run(job);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        // Three sends at 20/s are spaced 50 ms apart.
+        assertEquals(3, job.getReplayed().get());
+        assertTrue(elapsedMillis >= 100, "took " + elapsedMillis + " ms");
+    }
+}
@@ -0,0 +1,27 @@
+package com.survery.analytics.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+
+/**
+ * Single-row running totals across all surveys, maintained alongside {@link SurveySummary}.
+ */
+@Data
+@Entity
+@Table(name = "analytics_totals")
+public class AnalyticsTotals {
+
+    public static final short ID = 1;
+
+    @Id
+    private short id;
+
+    @Column(nullable = false)
+    private long surveys;
+
+    @Column(nullable = false)
+    private long responses;
+}
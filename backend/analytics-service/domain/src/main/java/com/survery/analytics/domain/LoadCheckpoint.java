@@ -0,0 +1,28 @@
+package com.survery.analytics.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+
+import java.time.OffsetDateTime;
+
+/**
+ * How far a resumable bulk load has got in its input, committed together with the rows it loaded.
+ */
+@Data
+@Entity
+@Table(name = "load_checkpoints")
+public class LoadCheckpoint {
+
+    @Id
+    @Column(name = "job_name")
+    private String jobName;
+
+    @Column(nullable = false)
+    private long position;
+
+    @Column(name = "updated_at", nullable = false)
+    private OffsetDateTime updatedAt;
+}
@@ -0,0 +1,10 @@
+package com.survery.analytics.domain;
+
+/**
+ * Levels of the {@link Constituency} → {@link Panchayat} → {@link Village} hierarchy.
+ */
+public enum LocationLevel {
+    CONSTITUENCY,
+    PANCHAYAT,
+    VILLAGE
+}
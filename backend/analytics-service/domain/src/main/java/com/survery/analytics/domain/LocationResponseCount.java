@@ -0,0 +1,34 @@
+package com.survery.analytics.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Data;
+
+import java.util.UUID;
+
+/**
+ * Surveys and responses recorded at one location, maintained by the data-loader for every level
+ * of the hierarchy in the transaction that inserts them. {@code parentId} is the enclosing
+ * panchayat or constituency, so drilling down one level is an index lookup on it.
+ */
+@Data
+@Entity
+@Table(name = "location_response_counts",
+        indexes = @Index(name = "idx_location_response_counts_parent", columnList = "parent_id"))
+public class LocationResponseCount {
+
+    @EmbeddedId
+    private LocationResponseCountId id;
+
+    @Column(name = "parent_id")
+    private UUID parentId;
+
+    @Column(nullable = false)
+    private long surveys;
+
+    @Column(nullable = false)
+    private long responses;
+}
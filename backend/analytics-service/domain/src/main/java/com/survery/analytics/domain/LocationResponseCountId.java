@@ -0,0 +1,26 @@
+package com.survery.analytics.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.UUID;
+
+@Data
+@Embeddable
+@NoArgsConstructor
+@AllArgsConstructor
+public class LocationResponseCountId implements Serializable {
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 12)
+    private LocationLevel level;
+
+    @Column(name = "location_id")
+    private UUID locationId;
+}
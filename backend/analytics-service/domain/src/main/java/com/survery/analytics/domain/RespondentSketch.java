@@ -0,0 +1,26 @@
+package com.survery.analytics.domain;
+
+import com.survery.analytics.domain.sketch.HyperLogLog;
+import jakarta.persistence.Column;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import lombok.Data;
+
+/**
+ * {@link HyperLogLog} of the {@link Survey#getUserId() respondents} of one scope on one day,
+ * maintained by the data-loader. Sketches of several days are merged at query time, so unique
+ * respondents over any range of days are read from one row per day instead of
+ * {@code COUNT(DISTINCT user_id)} over the surveys.
+ */
+@Data
+@Entity
+@Table(name = "respondent_sketches")
+public class RespondentSketch {
+
+    @EmbeddedId
+    private RespondentSketchId id;
+
+    @Column(nullable = false, columnDefinition = "bytea")
+    private byte[] registers;
+}
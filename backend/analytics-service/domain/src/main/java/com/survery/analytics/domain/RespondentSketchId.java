@@ -0,0 +1,32 @@
+package com.survery.analytics.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.UUID;
+
+@Data
+@Embeddable
+@NoArgsConstructor
+@AllArgsConstructor
+public class RespondentSketchId implements Serializable {
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 12)
+    private SketchScope scope;
+
+    @Column(name = "scope_id")
+    private UUID scopeId;
+
+    /**
+     * UTC day of the surveys' timestamps.
+     */
+    private LocalDate day;
+}
@@ -9,7 +9,12 @@ import java.util.UUID;
 
 @Data
 @Entity
-@Table(name = "responses")
+@Table(name = "responses",
+        indexes = {
+                @Index(name = "idx_responses_survey_response", columnList = "survey_id, response_id"),
+                @Index(name = "idx_responses_survey_question_response", columnList = "survey_id, question_id, response_id"),
+                @Index(name = "idx_responses_question_survey", columnList = "question_id, survey_id")
+        })
 public class Response {
 
     @Id
@@ -0,0 +1,29 @@
+package com.survery.analytics.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Data;
+
+/**
+ * Number of responses the surveys of one constituency received within one time bucket. A survey
+ * is a single submission with a single timestamp, so buckets are kept per constituency, the
+ * coarsest location, and summed across constituencies for the series of every survey. The
+ * data-loader counts new responses into {@link TimeResolution#MINUTE} buckets and later compacts old minute buckets into
+ * hour buckets and old hour buckets into day buckets, so every response is counted in exactly one
+ * bucket and long ranges are read from a few coarse rows.
+ */
+@Data
+@Entity
+@Table(name = "constituency_response_buckets",
+        indexes = @Index(name = "idx_constituency_response_buckets_start", columnList = "bucket_start"))
+public class ResponseTimeBucket {
+
+    @EmbeddedId
+    private ResponseTimeBucketId id;
+
+    @Column(nullable = false)
+    private long responses;
+}
@@ -0,0 +1,30 @@
+package com.survery.analytics.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+@Data
+@Embeddable
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResponseTimeBucketId implements Serializable {
+
+    @Column(name = "constituency_id")
+    private UUID constituencyId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 8)
+    private TimeResolution resolution;
+
+    @Column(name = "bucket_start")
+    private OffsetDateTime bucketStart;
+}
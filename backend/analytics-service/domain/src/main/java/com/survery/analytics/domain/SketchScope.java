@@ -0,0 +1,13 @@
+package com.survery.analytics.domain;
+
+/**
+ * What a {@link RespondentSketch} counts the respondents of.
+ */
+public enum SketchScope {
+    CONSTITUENCY,
+    /**
+     * Every survey. Not stored: the sketches of every constituency are merged at query time, so
+     * that writers do not all lock and rewrite one row per day.
+     */
+    ALL
+}
@@ -0,0 +1,43 @@
+package com.survery.analytics.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import lombok.Data;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Per-survey rollup of its responses, maintained by the data-loader in the same transaction that
+ * inserts the responses, so reading a survey's totals is a primary-key lookup. A response counts
+ * as answered when its value is neither JSON {@code null} nor an empty object.
+ */
+@Data
+@Entity
+@Table(name = "survey_summary")
+public class SurveySummary {
+
+    @Id
+    @Column(name = "survey_id")
+    private UUID surveyId;
+
+    @Column(name = "total_responses", nullable = false)
+    private long totalResponses;
+
+    @Column(name = "answered_responses", nullable = false)
+    private long answeredResponses;
+
+    @Column(name = "last_response_at")
+    private OffsetDateTime lastResponseAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private OffsetDateTime updatedAt;
+
+    @Transient
+    public double getCompletionRate() {
+        return totalResponses == 0 ? 0 : (double) answeredResponses / totalResponses;
+    }
+}
@@ -0,0 +1,37 @@
+package com.survery.analytics.domain;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Width of a {@link ResponseTimeBucket}. Buckets are aligned in UTC.
+ */
+public enum TimeResolution {
+    MINUTE(ChronoUnit.MINUTES, "minute"),
+    HOUR(ChronoUnit.HOURS, "hour"),
+    DAY(ChronoUnit.DAYS, "day");
+
+    private final ChronoUnit unit;
+    private final String sqlUnit;
+
+    TimeResolution(ChronoUnit unit, String sqlUnit) {
+        this.unit = unit;
+        this.sqlUnit = sqlUnit;
+    }
+
+    public ChronoUnit getUnit() {
+        return unit;
+    }
+
+    /**
+     * The field name PostgreSQL's {@code date_trunc} takes for this resolution.
+     */
+    public String getSqlUnit() {
+        return sqlUnit;
+    }
+
+    public OffsetDateTime truncate(OffsetDateTime time) {
+        return time.withOffsetSameInstant(ZoneOffset.UTC).truncatedTo(unit);
+    }
+}
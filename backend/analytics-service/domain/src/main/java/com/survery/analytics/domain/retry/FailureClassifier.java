@@ -0,0 +1,32 @@
+package com.survery.analytics.domain.retry;
+
+import com.fasterxml.jackson.core.exc.StreamReadException;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+import com.survery.analytics.domain.wire.MalformedMessageException;
+
+import java.io.CharConversionException;
+
+/**
+ * Tells poison messages from transient failures.
+ * <p>
+ * Only the exceptions that reject the message itself are poison: malformed JSON, bytes that are
+ * not valid text, and {@link MalformedMessageException} from our own decoders and validation.
+ * The same bytes fail the same way on every attempt. Everything else, including coordinates
+ * that no loaded boundary covers yet and bugs in our own code, is treated as transient, because
+ * it may succeed once the environment (the boundary index, a downstream dependency, a fix) has
+ * changed.
+ */
+public class FailureClassifier {
+
+    public FailureType classify(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof MalformedMessageException
+                    || cause instanceof StreamReadException
+                    || cause instanceof MismatchedInputException
+                    || cause instanceof CharConversionException) {
+                return FailureType.POISON;
+            }
+        }
+        return FailureType.TRANSIENT;
+    }
+}
@@ -0,0 +1,82 @@
+package com.survery.analytics.domain.retry;
+
+import com.survery.analytics.domain.wire.WireHeaders;
+import lombok.RequiredArgsConstructor;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.util.Set;
+
+/**
+ * Decides where a message that failed processing goes next and stamps the retry headers on it.
+ * The message key, value and all other headers are passed through unchanged.
+ * <p>
+ * Shared by every stage that parks messages in a DLQ, so they all write the same headers and the
+ * transformer's replay endpoint can re-drive any of them. A stage without retry consumers uses a
+ * {@link RetryPolicy} with no tiers, which sends every failure to the DLQ.
+ */
+@RequiredArgsConstructor
+public class FailureRouter {
+
+    static final Set<String> RETRY_HEADERS = Set.of(WireHeaders.ORIGINAL_TOPIC, WireHeaders.RETRY_ATTEMPT,
+            WireHeaders.RETRY_NOT_BEFORE, WireHeaders.FAILURE_TYPE, WireHeaders.FAILURE_CAUSE);
+
+    private static final int MAX_CAUSE_LENGTH = 512;
+
+    private final FailureClassifier failureClassifier;
+    private final RetryPolicy retryPolicy;
+    private final Clock clock;
+
+    public ProducerRecord<String, byte[]> route(ConsumerRecord<String, byte[]> failed, Throwable failure) {
+        FailureType type = failureClassifier.classify(failure);
+        int attempt = WireHeaders.readInt(headerValue(failed.headers(), WireHeaders.RETRY_ATTEMPT), 0) + 1;
+        byte[] originalTopicHeader = headerValue(failed.headers(), WireHeaders.ORIGINAL_TOPIC);
+        String originalTopic = originalTopicHeader != null
+                ? new String(originalTopicHeader, StandardCharsets.UTF_8)
+                : retryPolicy.originalTopic(failed.topic());
+
+        Headers headers = withoutRetryHeaders(failed.headers());
+        headers.add(WireHeaders.ORIGINAL_TOPIC, originalTopic.getBytes(StandardCharsets.UTF_8));
+        headers.add(WireHeaders.RETRY_ATTEMPT, WireHeaders.intValue(attempt));
+        headers.add(WireHeaders.FAILURE_TYPE, type.name().getBytes(StandardCharsets.UTF_8));
+        headers.add(WireHeaders.FAILURE_CAUSE, describe(failure).getBytes(StandardCharsets.UTF_8));
+
+        String topic;
+        if (type == FailureType.TRANSIENT && attempt <= retryPolicy.getTierCount()) {
+            topic = retryPolicy.retryTopic(originalTopic, attempt);
+            long notBefore = clock.millis() + retryPolicy.delay(attempt).toMillis();
+            headers.add(WireHeaders.RETRY_NOT_BEFORE, WireHeaders.longValue(notBefore));
+        } else {
+            topic = retryPolicy.deadLetterTopic(originalTopic);
+        }
+        return new ProducerRecord<>(topic, null, failed.key(), failed.value(), headers);
+    }
+
+    /**
+     * Copies every header except the retry bookkeeping, e.g. to re-drive a message from scratch.
+     */
+    public static Headers withoutRetryHeaders(Headers source) {
+        RecordHeaders headers = new RecordHeaders();
+        for (Header header : source) {
+            if (!RETRY_HEADERS.contains(header.key())) {
+                headers.add(header);
+            }
+        }
+        return headers;
+    }
+
+    public static byte[] headerValue(Headers headers, String key) {
+        Header header = headers.lastHeader(key);
+        return header == null ? null : header.value();
+    }
+
+    private static String describe(Throwable failure) {
+        String description = failure.getClass().getName() + ": " + failure.getMessage();
+        return description.length() <= MAX_CAUSE_LENGTH ? description : description.substring(0, MAX_CAUSE_LENGTH);
+    }
+}
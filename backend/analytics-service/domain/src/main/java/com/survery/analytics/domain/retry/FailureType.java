@@ -0,0 +1,17 @@
+package com.survery.analytics.domain.retry;
+
+/**
+ * Whether processing a message again can succeed.
+ */
+public enum FailureType {
+
+    /**
+     * The message itself is broken; retrying is pointless, so it goes straight to the DLQ.
+     */
+    POISON,
+
+    /**
+     * The message is fine but could not be processed right now; it is retried after a delay.
+     */
+    TRANSIENT
+}
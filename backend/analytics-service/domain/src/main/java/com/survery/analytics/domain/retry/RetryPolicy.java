@@ -0,0 +1,46 @@
+package com.survery.analytics.domain.retry;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Retry tiers: a transient failure of a message from topic {@code t} moves it to
+ * {@code t-retry-1}, {@code t-retry-2}, ... with the configured delay of that tier, and to
+ * {@code dlq-t} once every tier has failed.
+ */
+public class RetryPolicy {
+
+    private final List<Duration> delays;
+
+    public RetryPolicy(List<Duration> delays) {
+        this.delays = List.copyOf(delays);
+    }
+
+    public int getTierCount() {
+        return delays.size();
+    }
+
+    /**
+     * Delay of a tier, counted from 1.
+     */
+    public Duration delay(int tier) {
+        return delays.get(tier - 1);
+    }
+
+    public String retryTopic(String originalTopic, int tier) {
+        return originalTopic + "-retry-" + tier;
+    }
+
+    public String deadLetterTopic(String originalTopic) {
+        return "dlq-" + originalTopic;
+    }
+
+    /**
+     * Recovers the original topic from a retry or dead-letter topic name.
+     */
+    public String originalTopic(String topic) {
+        String original = topic.startsWith("dlq-") ? topic.substring(4) : topic;
+        int retry = original.lastIndexOf("-retry-");
+        return retry < 0 ? original : original.substring(0, retry);
+    }
+}
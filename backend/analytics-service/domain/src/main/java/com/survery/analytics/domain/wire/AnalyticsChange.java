@@ -0,0 +1,53 @@
+package com.survery.analytics.domain.wire;
+
+import lombok.Value;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Rows one data-loader transaction added, published on {@value AnalyticsChangeCodec#TOPIC} after
+ * it has committed. Only rows that were actually inserted are listed, so a redelivered event that
+ * was already stored produces no change.
+ */
+@Value
+public class AnalyticsChange {
+    /**
+     * PostgreSQL transaction id ({@code pg_current_xact_id()}) of the writing transaction, so a
+     * reader can tell whether a snapshot it took already contains these rows.
+     */
+    long transactionId;
+    /**
+     * Set when rows were loaded in bulk without being listed; readers should discard whatever
+     * they derived from earlier changes.
+     */
+    boolean reset;
+    List<SurveyChange> surveys;
+
+    public static AnalyticsChange reset(long transactionId) {
+        return new AnalyticsChange(transactionId, true, List.of());
+    }
+
+    @Value
+    public static class SurveyChange {
+        UUID surveyId;
+        /**
+         * Whether the survey row itself is new, as opposed to only some of its responses.
+         */
+        boolean surveyInserted;
+        UUID villageId;
+        UUID panchayatId;
+        UUID constituencyId;
+        List<ResponseChange> responses;
+    }
+
+    @Value
+    public static class ResponseChange {
+        UUID responseId;
+        String questionId;
+        /**
+         * The {@code response_value} as JSON text.
+         */
+        String responseValue;
+    }
+}
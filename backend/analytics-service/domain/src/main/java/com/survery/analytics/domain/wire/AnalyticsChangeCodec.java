@@ -0,0 +1,85 @@
+package com.survery.analytics.domain.wire;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Binary encoding of an {@link AnalyticsChange}, using the primitives of {@link SurveyWireSchema}.
+ * <p>
+ * {@value #TOPIC}, version 1:
+ * <pre>
+ * flags | transaction_id | survey count
+ *       | per survey:   survey_id | survey flags | village_id | panchayat_id | constituency_id | response count
+ *       | per response: response_id | question_id | response_value
+ * </pre>
+ * Counts are varints and {@code response_value} is UTF-8 JSON. Versions are handled as for
+ * {@link SurveyWireSchema}: new fields go behind a new flag and bump {@link #VERSION}.
+ */
+public final class AnalyticsChangeCodec {
+
+    public static final String TOPIC = "analytics-changes";
+    public static final int VERSION = 1;
+
+    public static final int RESET = 1;
+    public static final int SURVEY_INSERTED = 1;
+
+    private AnalyticsChangeCodec() {
+    }
+
+    public static byte[] encode(AnalyticsChange change) {
+        BinaryWriter writer = new BinaryWriter(256);
+        writer.writeVarInt(change.isReset() ? RESET : 0)
+                .writeLong(change.getTransactionId())
+                .writeVarInt(change.getSurveys().size());
+        for (AnalyticsChange.SurveyChange survey : change.getSurveys()) {
+            writer.writeUuid(survey.getSurveyId())
+                    .writeVarInt(survey.isSurveyInserted() ? SURVEY_INSERTED : 0)
+                    .writeUuid(survey.getVillageId())
+                    .writeUuid(survey.getPanchayatId())
+                    .writeUuid(survey.getConstituencyId())
+                    .writeVarInt(survey.getResponses().size());
+            for (AnalyticsChange.ResponseChange response : survey.getResponses()) {
+                writer.writeUuid(response.getResponseId())
+                        .writeString(response.getQuestionId())
+                        .writeString(response.getResponseValue());
+            }
+        }
+        return writer.toByteArray();
+    }
+
+    public static AnalyticsChange decode(byte[] message) {
+        BinaryReader reader = new BinaryReader(message);
+        int flags = reader.readVarInt();
+        long transactionId = reader.readLong();
+        int surveyCount = reader.readVarInt();
+        List<AnalyticsChange.SurveyChange> surveys = new ArrayList<>(Math.min(surveyCount, reader.remaining()));
+        for (int i = 0; i < surveyCount; i++) {
+            UUID surveyId = reader.readUuid();
+            boolean surveyInserted = (reader.readVarInt() & SURVEY_INSERTED) != 0;
+            UUID villageId = reader.readUuid();
+            UUID panchayatId = reader.readUuid();
+            UUID constituencyId = reader.readUuid();
+            int responseCount = reader.readVarInt();
+            List<AnalyticsChange.ResponseChange> responses = new ArrayList<>(Math.min(responseCount, reader.remaining()));
+            for (int j = 0; j < responseCount; j++) {
+                responses.add(new AnalyticsChange.ResponseChange(reader.readUuid(), reader.readString(), reader.readString()));
+            }
+            surveys.add(new AnalyticsChange.SurveyChange(surveyId, surveyInserted, villageId, panchayatId, constituencyId, responses));
+        }
+        if (reader.remaining() != 0) {
+            throw new MalformedMessageException(reader.remaining() + " unexpected trailing bytes");
+        }
+        return new AnalyticsChange(transactionId, (flags & RESET) != 0, surveys);
+    }
+
+    /**
+     * Validates the schema version header of a change message; a missing header means version 1.
+     */
+    public static void checkVersion(byte[] header) {
+        int version = WireHeaders.readInt(header, 1);
+        if (version < 1 || version > VERSION) {
+            throw new MalformedMessageException("Unsupported change schema version " + version + ", this reader knows up to " + VERSION);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.survery.analytics.domain.wire;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * Reads values written by {@link BinaryWriter} from a byte array, without copying it.
+ */
+public final class BinaryReader {
+
+    private final byte[] buffer;
+    private final int limit;
+    private int position;
+
+    public BinaryReader(byte[] buffer) {
+        this.buffer = buffer;
+        this.limit = buffer.length;
+    }
+
+    public int position() {
+        return position;
+    }
+
+    public int remaining() {
+        return limit - position;
+    }
+
+    public int readByte() {
+        require(1);
+        return buffer[position++] & 0xFF;
+    }
+
+    public int readVarInt() {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = readByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new MalformedMessageException("Malformed varint at offset " + position);
+    }
+
+    public long readLong() {
+        require(Long.BYTES);
+        long value = 0;
+        for (int i = 0; i < Long.BYTES; i++) {
+            value = (value << 8) | (buffer[position++] & 0xFF);
+        }
+        return value;
+    }
+
+    public double readDouble() {
+        return Double.longBitsToDouble(readLong());
+    }
+
+    public UUID readUuid() {
+        return new UUID(readLong(), readLong());
+    }
+
+    /**
+     * Reads the length prefix of a byte field and skips its content. The content starts at
+     * {@code position() - length} afterwards.
+     */
+    public int skipBytes() {
+        int length = readVarInt();
+        if (length < 0) {
+            throw new MalformedMessageException("Negative length at offset " + position);
+        }
+        require(length);
+        position += length;
+        return length;
+    }
+
+    public String readString() {
+        int length = skipBytes();
+        return new String(buffer, position - length, length, StandardCharsets.UTF_8);
+    }
+
+    private void require(int bytes) {
+        if (limit - position < bytes) {
+            throw new MalformedMessageException("Truncated message: needed " + bytes + " bytes at offset " + position);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.survery.analytics.domain.wire;
+
+/**
+ * Thrown when a message cannot be decoded or fails validation. The same bytes fail the same way
+ * on every attempt, so such messages skip the retry tiers and go straight to the DLQ.
+ */
+public class MalformedMessageException extends IllegalArgumentException {
+
+    public MalformedMessageException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,53 @@
+package com.survery.analytics.domain.wire;
+
+/**
+ * Layout of the binary messages on the analytics topics.
+ * <p>
+ * Every message starts with a varint of presence flags; absent fields are simply omitted.
+ * Fields follow in a fixed order, so there are no field tags on the wire. UUIDs are 16 bytes,
+ * doubles 8 bytes big-endian, strings and byte fields a varint length followed by the content.
+ * <p>
+ * {@code survey-responses}, version 1:
+ * <pre>
+ * flags | survey_id? | question_id? | response? | user_id? | timestamp? | lat, lon (if LOCATION)
+ * </pre>
+ * {@code transformed-surveys}, version 1:
+ * <pre>
+ * flags | surveyId? | questionId? | response? | userId? | timestamp? | lat | lon
+ *       | villageId | panchayatId | constituencyId
+ * </pre>
+ * The free-form {@code response} object carries no schema, so it is embedded as UTF-8 JSON bytes.
+ * The timestamp is its textual form, so the original offset survives: ISO-8601, or epoch seconds
+ * when {@link #TIMESTAMP_NUMERIC} is set.
+ * <p>
+ * Adding a field means appending it behind a new flag and bumping {@link #VERSION}; readers reject
+ * versions newer than the one they know.
+ */
+public final class SurveyWireSchema {
+
+    public static final int VERSION = 1;
+
+    public static final int SURVEY_ID = 1;
+    public static final int QUESTION_ID = 1 << 1;
+    public static final int RESPONSE = 1 << 2;
+    public static final int USER_ID = 1 << 3;
+    public static final int TIMESTAMP = 1 << 4;
+    public static final int TIMESTAMP_NUMERIC = 1 << 5;
+    /**
+     * Only used on {@code survey-responses}; enriched events always carry coordinates.
+     */
+    public static final int LOCATION = 1 << 6;
+
+    private SurveyWireSchema() {
+    }
+
+    /**
+     * Validates the schema version header of a binary message; a missing header means version 1.
+     */
+    public static void checkVersion(byte[] header) {
+        int version = WireHeaders.readInt(header, 1);
+        if (version < 1 || version > VERSION) {
+            throw new MalformedMessageException("Unsupported wire schema version " + version + ", this reader knows up to " + VERSION);
+        }
+    }
+}
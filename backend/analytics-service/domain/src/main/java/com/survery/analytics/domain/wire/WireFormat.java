@@ -0,0 +1,51 @@
+package com.survery.analytics.domain.wire;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Encoding of a Kafka message value, announced by the {@link WireHeaders#FORMAT} header.
+ * Messages without the header are JSON, which keeps producers that predate the header readable.
+ */
+public enum WireFormat {
+
+    JSON("json"),
+    BINARY("binary");
+
+    private final String headerValue;
+    private final byte[] headerBytes;
+
+    WireFormat(String headerValue) {
+        this.headerValue = headerValue;
+        this.headerBytes = headerValue.getBytes(StandardCharsets.UTF_8);
+    }
+
+    public String getHeaderValue() {
+        return headerValue;
+    }
+
+    public byte[] headerBytes() {
+        return headerBytes.clone();
+    }
+
+    /**
+     * Resolves the format of a message from its raw header value; {@code null} means JSON.
+     */
+    public static WireFormat fromHeader(byte[] value) {
+        if (value == null) {
+            return JSON;
+        }
+        return fromName(new String(value, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Resolves a configured or announced format name, case-insensitively.
+     */
+    public static WireFormat fromName(String name) {
+        for (WireFormat format : values()) {
+            if (format.headerValue.equalsIgnoreCase(name.trim())) {
+                return format;
+            }
+        }
+        throw new MalformedMessageException("Unknown wire format: " + name);
+    }
+}
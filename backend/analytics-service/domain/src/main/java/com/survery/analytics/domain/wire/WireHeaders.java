@@ -0,0 +1,81 @@
+package com.survery.analytics.domain.wire;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Kafka header names shared by the producers and consumers of the analytics topics.
+ */
+public final class WireHeaders {
+
+    /**
+     * Encoding of the message value, see {@link WireFormat}.
+     */
+    public static final String FORMAT = "survey-wire-format";
+
+    /**
+     * Version of the binary schema the value was written with, as a 4-byte big-endian int.
+     */
+    public static final String SCHEMA_VERSION = "survey-schema-version";
+
+    /**
+     * Topic the message was first consumed from, before any retry or dead-letter hop.
+     */
+    public static final String ORIGINAL_TOPIC = "survey-original-topic";
+
+    /**
+     * Number of failed processing attempts so far, as an int.
+     */
+    public static final String RETRY_ATTEMPT = "survey-retry-attempt";
+
+    /**
+     * Earliest time to process a retried message, as epoch milliseconds in a long.
+     */
+    public static final String RETRY_NOT_BEFORE = "survey-retry-not-before";
+
+    /**
+     * {@code POISON} or {@code TRANSIENT}, as decided for the last failure.
+     */
+    public static final String FAILURE_TYPE = "survey-failure-type";
+
+    /**
+     * Exception class and message of the last failure, UTF-8.
+     */
+    public static final String FAILURE_CAUSE = "survey-failure-cause";
+
+    private WireHeaders() {
+    }
+
+    public static byte[] longValue(long value) {
+        return ByteBuffer.allocate(Long.BYTES).putLong(value).array();
+    }
+
+    /**
+     * Reads a header written with {@link #longValue(long)}, or returns {@code defaultValue} if absent.
+     */
+    public static long readLong(byte[] value, long defaultValue) {
+        if (value == null) {
+            return defaultValue;
+        }
+        if (value.length != Long.BYTES) {
+            throw new MalformedMessageException("Malformed long header of " + value.length + " bytes");
+        }
+        return ByteBuffer.wrap(value).getLong();
+    }
+
+    public static byte[] intValue(int value) {
+        return ByteBuffer.allocate(Integer.BYTES).putInt(value).array();
+    }
+
+    /**
+     * Reads a header written with {@link #intValue(int)}, or returns {@code defaultValue} if absent.
+     */
+    public static int readInt(byte[] value, int defaultValue) {
+        if (value == null) {
+            return defaultValue;
+        }
+        if (value.length != Integer.BYTES) {
+            throw new MalformedMessageException("Malformed int header of " + value.length + " bytes");
+        }
+        return ByteBuffer.wrap(value).getInt();
+    }
+}
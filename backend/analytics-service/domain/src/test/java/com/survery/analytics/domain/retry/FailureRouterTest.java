@@ -0,0 +1,107 @@
+package com.survery.analytics.domain.retry;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.survery.analytics.domain.wire.MalformedMessageException;
+import com.survery.analytics.domain.wire.WireFormat;
+import com.survery.analytics.domain.wire.WireHeaders;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Header;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.stream.StreamSupport;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class FailureRouterTest {
+
+    private final Clock clock = Clock.fixed(Instant.parse("2024-03-01T10:00:00Z"), ZoneOffset.UTC);
+    private final FailureRouter router = new FailureRouter(new FailureClassifier(),
+            new RetryPolicy(List.of(Duration.ofSeconds(30), Duration.ofMinutes(5))), clock);
+
+    @Test
+    void route_transientFailure_shouldMoveThroughTiersThenToDlq() {
+        ConsumerRecord<String, byte[]> record = record("survey-responses");
+        record.headers().add(WireHeaders.FORMAT, WireFormat.BINARY.headerBytes());
+
+        ProducerRecord<String, byte[]> first = router.route(record, new IllegalStateException("index not loaded"));
+        ProducerRecord<String, byte[]> second = router.route(consumed(first), new IllegalStateException("index not loaded"));
+        ProducerRecord<String, byte[]> third = router.route(consumed(second), new IllegalStateException("index not loaded"));
+
+        assertEquals("survey-responses-retry-1", first.topic());
+        assertEquals(clock.millis() + 30_000, WireHeaders.readLong(header(first, WireHeaders.RETRY_NOT_BEFORE), 0));
+        assertEquals("survey-responses-retry-2", second.topic());
+        assertEquals(clock.millis() + 300_000, WireHeaders.readLong(header(second, WireHeaders.RETRY_NOT_BEFORE), 0));
+        assertEquals("dlq-survey-responses", third.topic());
+        assertEquals(3, WireHeaders.readInt(header(third, WireHeaders.RETRY_ATTEMPT), 0));
+        assertNull(header(third, WireHeaders.RETRY_NOT_BEFORE));
+        assertEquals("survey-responses", new String(header(third, WireHeaders.ORIGINAL_TOPIC), StandardCharsets.UTF_8));
+        // Bookkeeping headers are replaced rather than accumulated; everything else is kept.
+        assertEquals(1, StreamSupport.stream(third.headers().headers(WireHeaders.RETRY_ATTEMPT).spliterator(), false).count());
+        assertArrayEquals(WireFormat.BINARY.headerBytes(), header(third, WireHeaders.FORMAT));
+        assertArrayEquals(record.value(), third.value());
+        assertEquals(record.key(), third.key());
+    }
+
+    @Test
+    void route_poisonMessage_shouldGoStraightToDlq() {
+        ProducerRecord<String, byte[]> routed = router.route(record("survey-responses"),
+                new JsonParseException(null, "Unexpected character"));
+
+        assertEquals("dlq-survey-responses", routed.topic());
+        assertEquals("POISON", new String(header(routed, WireHeaders.FAILURE_TYPE), StandardCharsets.UTF_8));
+        assertEquals(1, WireHeaders.readInt(header(routed, WireHeaders.RETRY_ATTEMPT), 0));
+    }
+
+    @Test
+    void route_withoutRetryTiers_shouldSendEveryFailureToDlq() {
+        FailureRouter deadLetterOnly = new FailureRouter(new FailureClassifier(), new RetryPolicy(List.of()), clock);
+
+        ProducerRecord<String, byte[]> routed = deadLetterOnly.route(record("transformed-surveys"),
+                new IllegalStateException("database unavailable"));
+
+        assertEquals("dlq-transformed-surveys", routed.topic());
+        assertEquals("TRANSIENT", new String(header(routed, WireHeaders.FAILURE_TYPE), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void classify_shouldLookThroughWrappingExceptions() {
+        FailureClassifier classifier = new FailureClassifier();
+
+        assertEquals(FailureType.POISON, classifier.classify(new RuntimeException(new MalformedMessageException("bad UUID"))));
+        assertEquals(FailureType.TRANSIENT, classifier.classify(new IllegalStateException("index not loaded")));
+    }
+
+    @Test
+    void classify_shouldRetryBugsInOurOwnCode() {
+        FailureClassifier classifier = new FailureClassifier();
+
+        assertEquals(FailureType.TRANSIENT, classifier.classify(new NullPointerException()));
+        assertEquals(FailureType.TRANSIENT, classifier.classify(new IllegalArgumentException("bad argument")));
+    }
+
+    private static ConsumerRecord<String, byte[]> record(String topic) {
+        return new ConsumerRecord<>(topic, 0, 42, "key", "{}".getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static ConsumerRecord<String, byte[]> consumed(ProducerRecord<String, byte[]> produced) {
+        ConsumerRecord<String, byte[]> record = new ConsumerRecord<>(produced.topic(), 0, 0, produced.key(), produced.value());
+        for (Header header : produced.headers()) {
+            record.headers().add(header);
+        }
+        return record;
+    }
+
+    private static byte[] header(ProducerRecord<String, byte[]> record, String key) {
+        Header header = record.headers().lastHeader(key);
+        return header == null ? null : header.value();
+    }
+}
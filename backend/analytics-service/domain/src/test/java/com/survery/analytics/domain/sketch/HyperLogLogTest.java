@@ -0,0 +1,76 @@
+package com.survery.analytics.domain.sketch;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HyperLogLogTest {
+
+    private final Random random = new Random(42);
+
+    @Test
+    void estimate_shouldStayWithinThreeStandardErrors() {
+        for (int count : new int[]{20_000, 200_000}) {
+            HyperLogLog sketch = new HyperLogLog();
+            for (int i = 0; i < count; i++) {
+                sketch.add(new UUID(random.nextLong(), random.nextLong()));
+            }
+
+            double error = Math.abs(sketch.estimate() - count) / (double) count;
+            assertTrue(error < 3 * HyperLogLog.RELATIVE_STANDARD_ERROR, "error " + error + " for " + count);
+        }
+    }
+
+    @Test
+    void estimate_ofSmallSets_shouldBeNearlyExact() {
+        HyperLogLog sketch = new HyperLogLog();
+        for (int i = 0; i < 50; i++) {
+            sketch.add(UUID.nameUUIDFromBytes(("user-" + i).getBytes()));
+        }
+
+        assertEquals(50, sketch.estimate(), 1);
+        assertEquals(0, new HyperLogLog().estimate());
+    }
+
+    @Test
+    void merge_shouldEstimateTheUnion() {
+        HyperLogLog monday = new HyperLogLog();
+        HyperLogLog tuesday = new HyperLogLog();
+        UUID[] users = new UUID[30_000];
+        for (int i = 0; i < users.length; i++) {
+            users[i] = new UUID(random.nextLong(), random.nextLong());
+        }
+        // Two overlapping days: 20,000 users each, 30,000 in total.
+        for (int i = 0; i < 20_000; i++) {
+            monday.add(users[i]);
+            tuesday.add(users[users.length - 1 - i]);
+        }
+
+        long union = HyperLogLog.fromBytes(monday.toBytes()).merge(tuesday).estimate();
+
+        assertTrue(Math.abs(union - 30_000) < 3 * HyperLogLog.RELATIVE_STANDARD_ERROR * 30_000, "union " + union);
+    }
+
+    @Test
+    void add_shouldBeIdempotent() {
+        HyperLogLog sketch = new HyperLogLog();
+        UUID user = UUID.randomUUID();
+        assertTrue(sketch.add(user));
+        byte[] before = sketch.toBytes();
+
+        assertFalse(sketch.add(user));
+        assertArrayEquals(before, sketch.toBytes());
+    }
+
+    @Test
+    void fromBytes_shouldRejectOtherPrecisions() {
+        assertThrows(IllegalArgumentException.class, () -> HyperLogLog.fromBytes(new byte[16]));
+    }
+}
@@ -0,0 +1,86 @@
+package com.survery.links;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.survery.links.dto.LinkResponse;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map;
+
+/**
+ * How {@code POST /api/links/survey/{surveyId}/bulk-links} writes the links it created.
+ */
+public enum BulkLinkFormat {
+    /**
+     * One {@link LinkResponse} JSON object per line; an error is an object with only {@code error}.
+     */
+    NDJSON("application/x-ndjson") {
+        @Override
+        void write(Writer out, LinkResponse link, ObjectMapper objectMapper) throws IOException {
+            out.write(objectMapper.writeValueAsString(link));
+            out.write('\n');
+        }
+
+        @Override
+        void writeError(Writer out, String message, ObjectMapper objectMapper) throws IOException {
+            out.write(objectMapper.writeValueAsString(Map.of("error", message)));
+            out.write('\n');
+        }
+    },
+    /**
+     * The fields needed to distribute the links, with a header row. An error is a row with only
+     * the message.
+     */
+    CSV("text/csv") {
+        @Override
+        void writeHeader(Writer out) throws IOException {
+            out.write("linkId,shortUrl,targetUrl,expiresAt\r\n");
+        }
+
+        @Override
+        void write(Writer out, LinkResponse link, ObjectMapper objectMapper) throws IOException {
+            out.write(link.getLinkId());
+            out.write(',');
+            out.write(link.getShortUrl());
+            out.write(',');
+            out.write(escape(link.getTargetUrl()));
+            out.write(',');
+            out.write(link.getExpiresAt() != null ? link.getExpiresAt().toString() : "");
+            out.write("\r\n");
+        }
+
+        @Override
+        void writeError(Writer out, String message, ObjectMapper objectMapper) throws IOException {
+            out.write(escape("error: " + message));
+            out.write("\r\n");
+        }
+    };
+
+    private final MediaType mediaType;
+
+    BulkLinkFormat(String mediaType) {
+        this.mediaType = MediaType.parseMediaType(mediaType);
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    void writeHeader(Writer out) throws IOException {
+    }
+
+    abstract void write(Writer out, LinkResponse link, ObjectMapper objectMapper) throws IOException;
+
+    /**
+     * Ends the output of a request that failed after its response was committed.
+     */
+    abstract void writeError(Writer out, String message, ObjectMapper objectMapper) throws IOException;
+
+    private static String escape(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,169 @@
+package com.survery.links;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.survery.links.dto.BulkLinkRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Creates many links to one target at once for distribution campaigns.
+ * <p>
+ * Links are inserted {@code links.bulk.batch-size} at a time, each chunk as one JDBC batch in a
+ * transaction of its own, and written to the response once committed. IDs come from the
+ * {@link LinkIdAllocator}, so no row needs a collision check, and the rows bypass JPA, whose
+ * generated IDs would make Hibernate insert them one statement at a time.
+ * <p>
+ * The response is committed before the first chunk is inserted, so a failure cannot change its
+ * status: the output instead ends with an error record after exactly the links that were created.
+ * With a {@code batchKey}, each link also records its position in the request, unique per survey
+ * and key. Repeating the request returns the links already created and inserts only the
+ * remaining positions, and two concurrent copies of it cannot both insert the same position.
+ */
+@Service
+public class BulkLinkService {
+
+    static final String INSERT_SQL = "INSERT INTO survey_links "
+            + "(id, link_id, survey_id, target_url, clicks, active, expires_at, created_at, updated_at, "
+            + "batch_key, batch_index) VALUES (?, ?, ?, ?, 0, TRUE, ?, ?, ?, ?, ?)";
+    static final String BATCH_SQL = "SELECT id, link_id, target_url, clicks, active, expires_at, created_at, "
+            + "updated_at, batch_index FROM survey_links "
+            + "WHERE survey_id = ? AND batch_key = ? AND batch_index < ? ORDER BY batch_index";
+    static final int MAX_BATCH_KEY_LENGTH = 64;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final LinkIdAllocator linkIdAllocator;
+    private final LinkMapper linkMapper;
+    private final LinkCache linkCache;
+    private final ObjectMapper objectMapper;
+    private final int maxCount;
+    private final int batchSize;
+
+    public BulkLinkService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                           LinkIdAllocator linkIdAllocator, LinkMapper linkMapper, LinkCache linkCache,
+                           ObjectMapper objectMapper,
+                           @Value("${links.bulk.max-count:100000}") int maxCount,
+                           @Value("${links.bulk.batch-size:1000}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.linkIdAllocator = linkIdAllocator;
+        this.linkMapper = linkMapper;
+        this.linkCache = linkCache;
+        this.objectMapper = objectMapper;
+        this.maxCount = maxCount;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Rejects requests that cannot be served, before the response is committed.
+     */
+    public void validate(BulkLinkRequest request) {
+        if (request.getCount() < 1 || request.getCount() > maxCount) {
+            throw new InvalidLinkRequestException("count must be between 1 and " + maxCount);
+        }
+        if (request.getTargetUrl() == null || request.getTargetUrl().isBlank()) {
+            throw new InvalidLinkRequestException("targetUrl is required");
+        }
+        if (request.getBatchKey() != null
+                && (request.getBatchKey().isBlank() || request.getBatchKey().length() > MAX_BATCH_KEY_LENGTH)) {
+            throw new InvalidLinkRequestException("batchKey must be 1 to " + MAX_BATCH_KEY_LENGTH + " characters");
+        }
+    }
+
+    public void createLinks(UUID surveyId, BulkLinkRequest request, BulkLinkFormat format, OutputStream out)
+            throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        format.writeHeader(writer);
+        int created = 0;
+        try {
+            if (request.getBatchKey() != null) {
+                List<SurveyLink> existing = findBatch(surveyId, request);
+                for (SurveyLink link : existing) {
+                    format.write(writer, linkMapper.toResponse(link), objectMapper);
+                }
+                writer.flush();
+                created = existing.size();
+            }
+            while (created < request.getCount()) {
+                int size = Math.min(batchSize, request.getCount() - created);
+                List<SurveyLink> chunk = insert(surveyId, request, created, size);
+                for (SurveyLink link : chunk) {
+                    format.write(writer, linkMapper.toResponse(link), objectMapper);
+                }
+                writer.flush();
+                created += size;
+            }
+        } catch (RuntimeException e) {
+            String message = "Created " + created + " of " + request.getCount() + " links, then failed"
+                    + (request.getBatchKey() != null ? "; repeat the request with the same batchKey to create the rest"
+                    : "");
+            try {
+                format.writeError(writer, message, objectMapper);
+                writer.flush();
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * The links already created under the request's key, which fill positions from 0 as chunks
+     * commit in order.
+     */
+    private List<SurveyLink> findBatch(UUID surveyId, BulkLinkRequest request) {
+        return jdbcTemplate.query(BATCH_SQL, (rs, rowNum) -> SurveyLink.builder()
+                .id(rs.getObject(1, UUID.class))
+                .linkId(rs.getString(2))
+                .surveyId(surveyId)
+                .targetUrl(rs.getString(3))
+                .clicks(rs.getLong(4))
+                .active(rs.getBoolean(5))
+                .expiresAt(rs.getObject(6, OffsetDateTime.class))
+                .createdAt(rs.getObject(7, OffsetDateTime.class))
+                .updatedAt(rs.getObject(8, OffsetDateTime.class))
+                .batchKey(request.getBatchKey())
+                .batchIndex(rs.getInt(9))
+                .build(), surveyId, request.getBatchKey(), request.getCount());
+    }
+
+    private List<SurveyLink> insert(UUID surveyId, BulkLinkRequest request, int first, int size) {
+        OffsetDateTime now = OffsetDateTime.now();
+        List<SurveyLink> chunk = new ArrayList<>(size);
+        List<Object[]> args = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            SurveyLink link = SurveyLink.builder()
+                    .id(UUID.randomUUID())
+                    .linkId(linkIdAllocator.allocate())
+                    .surveyId(surveyId)
+                    .targetUrl(request.getTargetUrl())
+                    .expiresAt(request.getExpiresAt())
+                    .createdAt(now)
+                    .updatedAt(now)
+                    .batchKey(request.getBatchKey())
+                    .batchIndex(request.getBatchKey() != null ? first + i : null)
+                    .build();
+            chunk.add(link);
+            args.add(new Object[]{link.getId(), link.getLinkId(), surveyId, link.getTargetUrl(),
+                    link.getExpiresAt(), now, now, link.getBatchKey(), link.getBatchIndex()});
+        }
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT_SQL, args));
+        // An ID may have been requested, and cached as unknown, before it existed.
+        chunk.forEach(link -> linkCache.invalidate(link.getLinkId()));
+        return chunk;
+    }
+}
@@ -0,0 +1,124 @@
+package com.survery.links;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts redirects in memory and adds them to {@code survey_links.clicks} every
+ * {@code links.clicks.flush-interval-ms}, so a link clicked by a whole campaign at once costs one
+ * row update per flush instead of one per click, and redirects never wait on its row lock.
+ * <p>
+ * Clicks of a link go to a {@link LongAdder}, which spreads concurrent increments over cells
+ * instead of contending on one value. A flush drains every adder and sends the non-zero counts as
+ * one JDBC batch in link ID order, so instances flushing the same links cannot deadlock. Counts
+ * that fail to flush are put back and retried; clicks are lost only if the process dies, at most
+ * one interval's worth, and a shutdown flushes what is left.
+ * <p>
+ * A link idle for a whole interval has its adder removed. A redirect that fetched the adder just
+ * before may still increment it, so removed adders are drained once more on the next flush.
+ */
+@Component
+public class ClickCounter implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(ClickCounter.class);
+
+    static final String UPDATE_SQL = "UPDATE survey_links SET clicks = clicks + ? WHERE link_id = ?";
+
+    private final ConcurrentMap<String, LongAdder> pending = new ConcurrentHashMap<>();
+    private final JdbcTemplate jdbcTemplate;
+    private final Counter flushed;
+    private final Counter failures;
+    private List<Map.Entry<String, LongAdder>> retired = new ArrayList<>();
+
+    public ClickCounter(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.flushed = Counter.builder("links.clicks.flushed")
+                .description("Clicks added to survey_links")
+                .register(meterRegistry);
+        this.failures = Counter.builder("links.clicks.flush.failures")
+                .description("Flushes that failed and were left for the next one")
+                .register(meterRegistry);
+        Gauge.builder("links.clicks.pending", this, ClickCounter::pendingClicks)
+                .description("Clicks counted in memory and not yet added to survey_links")
+                .register(meterRegistry);
+    }
+
+    public void increment(String linkId) {
+        LongAdder adder = pending.get(linkId);
+        if (adder == null) {
+            adder = pending.computeIfAbsent(linkId, id -> new LongAdder());
+        }
+        adder.increment();
+    }
+
+    long pendingClicks() {
+        long sum = 0;
+        for (LongAdder adder : pending.values()) {
+            sum += adder.sum();
+        }
+        return sum;
+    }
+
+    /**
+     * Adds the clicks counted since the last flush to their links. Runs on one thread at a time.
+     */
+    @Scheduled(fixedDelayString = "${links.clicks.flush-interval-ms:1000}")
+    public synchronized void flush() {
+        Map<String, Long> counts = new TreeMap<>();
+        for (Map.Entry<String, LongAdder> entry : retired) {
+            long late = entry.getValue().sumThenReset();
+            if (late > 0) {
+                counts.merge(entry.getKey(), late, Long::sum);
+            }
+        }
+        List<Map.Entry<String, LongAdder>> retiring = new ArrayList<>();
+        for (Map.Entry<String, LongAdder> entry : pending.entrySet()) {
+            long clicks = entry.getValue().sumThenReset();
+            if (clicks > 0) {
+                counts.merge(entry.getKey(), clicks, Long::sum);
+            } else if (pending.remove(entry.getKey(), entry.getValue())) {
+                retiring.add(Map.entry(entry.getKey(), entry.getValue()));
+            }
+        }
+        retired = retiring;
+        if (counts.isEmpty()) {
+            return;
+        }
+        List<Object[]> args = new ArrayList<>(counts.size());
+        counts.forEach((linkId, clicks) -> args.add(new Object[]{clicks, linkId}));
+        try {
+            jdbcTemplate.batchUpdate(UPDATE_SQL, args);
+        } catch (RuntimeException e) {
+            failures.increment();
+            log.warn("Could not flush clicks of {} links, retrying with the next flush", counts.size(), e);
+            counts.forEach((linkId, clicks) ->
+                    pending.computeIfAbsent(linkId, id -> new LongAdder()).add(clicks));
+            return;
+        }
+        counts.values().forEach(flushed::increment);
+    }
+
+    @Override
+    public void destroy() {
+        flush();
+        long lost = pendingClicks();
+        if (lost > 0) {
+            log.error("Shutting down with {} clicks not added to survey_links", lost);
+        }
+    }
+}
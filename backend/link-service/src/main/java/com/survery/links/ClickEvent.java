@@ -0,0 +1,17 @@
+package com.survery.links;
+
+import lombok.Value;
+
+import java.time.OffsetDateTime;
+
+/**
+ * One redirect as recorded in {@code link_analytics}.
+ */
+@Value
+public class ClickEvent {
+    String linkId;
+    OffsetDateTime clickedAt;
+    String referrer;
+    String userAgent;
+    String ipAddress;
+}
@@ -0,0 +1,123 @@
+package com.survery.links;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Writes a {@code link_analytics} row per redirect without making the redirect wait for it:
+ * redirects put their {@link ClickEvent} in a {@link RingBuffer} of {@code links.click-events.capacity},
+ * which is written out every {@code links.click-events.flush-interval-ms} in JDBC batches of
+ * {@code links.click-events.batch-size}.
+ * <p>
+ * The detailed log is best effort. When the buffer is full the event is dropped rather than
+ * blocking the redirect, and a batch that fails to insert is dropped rather than retried; both
+ * are counted in {@code links.click-events.dropped}. Click totals do not depend on it: they are
+ * counted separately by the {@link ClickCounter}.
+ */
+@Component
+public class ClickEventLog implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(ClickEventLog.class);
+
+    static final String INSERT_SQL = "INSERT INTO link_analytics "
+            + "(id, link_id, click_timestamp, referrer, user_agent, ip_address) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private final RingBuffer<ClickEvent> buffer;
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+    private final Counter written;
+    private final Counter droppedFull;
+    private final Counter droppedFailed;
+
+    public ClickEventLog(JdbcTemplate jdbcTemplate,
+                         @Value("${links.click-events.capacity:65536}") int capacity,
+                         @Value("${links.click-events.batch-size:500}") int batchSize,
+                         MeterRegistry meterRegistry) {
+        this.buffer = new RingBuffer<>(capacity);
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+        this.written = Counter.builder("links.click-events.written")
+                .description("Click events inserted into link_analytics")
+                .register(meterRegistry);
+        this.droppedFull = droppedCounter(meterRegistry, "buffer-full");
+        this.droppedFailed = droppedCounter(meterRegistry, "insert-failed");
+        Gauge.builder("links.click-events.queued", buffer, RingBuffer::size)
+                .description("Click events waiting to be inserted")
+                .register(meterRegistry);
+    }
+
+    private static Counter droppedCounter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("links.click-events.dropped")
+                .description("Click events not written to link_analytics")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queues {@code event} for insertion, or drops it if the buffer is full. Never blocks.
+     */
+    public void record(ClickEvent event) {
+        if (!buffer.offer(event)) {
+            droppedFull.increment();
+        }
+    }
+
+    /**
+     * Inserts the queued events, at most one buffer's worth so a steady stream of clicks cannot
+     * keep it running. Runs on one thread at a time, the ring buffer's single consumer.
+     */
+    @Scheduled(fixedDelayString = "${links.click-events.flush-interval-ms:200}")
+    public synchronized void flush() {
+        int remaining = buffer.capacity();
+        List<Object[]> batch = new ArrayList<>(Math.min(batchSize, remaining));
+        while (remaining > 0) {
+            ClickEvent event = buffer.poll();
+            if (event != null) {
+                batch.add(new Object[]{UUID.randomUUID(), event.getLinkId(), event.getClickedAt(),
+                        event.getReferrer(), event.getUserAgent(), event.getIpAddress()});
+                remaining--;
+            }
+            if (batch.size() == batchSize || (event == null && !batch.isEmpty())) {
+                insert(batch);
+                batch.clear();
+            }
+            if (event == null) {
+                return;
+            }
+        }
+        if (!batch.isEmpty()) {
+            insert(batch);
+        }
+    }
+
+    private void insert(List<Object[]> batch) {
+        try {
+            jdbcTemplate.batchUpdate(INSERT_SQL, batch);
+            written.increment(batch.size());
+        } catch (RuntimeException e) {
+            droppedFailed.increment(batch.size());
+            log.warn("Could not insert {} click events, dropping them", batch.size(), e);
+        }
+    }
+
+    int queued() {
+        return buffer.size();
+    }
+
+    @Override
+    public void destroy() {
+        flush();
+    }
+}
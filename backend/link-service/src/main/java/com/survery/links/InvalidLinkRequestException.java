@@ -0,0 +1,11 @@
+package com.survery.links;
+
+/**
+ * A link request that cannot be served as sent; answered with a 400 and the message.
+ */
+public class InvalidLinkRequestException extends RuntimeException {
+
+    public InvalidLinkRequestException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,47 @@
+package com.survery.links;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * A click on a short link. Rows are written in batches by the {@link ClickEventLog}, not through JPA.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "link_analytics", indexes = {
+        @Index(name = "idx_link_analytics_link_click", columnList = "link_id, click_timestamp")
+})
+public class LinkAnalytics {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    @Column(updatable = false, nullable = false)
+    private UUID id;
+
+    @Column(name = "link_id", nullable = false, length = 12)
+    private String linkId;
+
+    @Column(name = "click_timestamp", nullable = false)
+    private OffsetDateTime clickTimestamp;
+
+    @Column(columnDefinition = "TEXT")
+    private String referrer;
+
+    @Column(name = "user_agent", columnDefinition = "TEXT")
+    private String userAgent;
+
+    @Column(name = "ip_address", length = 45)
+    private String ipAddress;
+
+    @Column(name = "location_data", columnDefinition = "TEXT")
+    private String locationData;
+}
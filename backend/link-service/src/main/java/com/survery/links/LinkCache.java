@@ -0,0 +1,171 @@
+package com.survery.links;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * Redirect targets by link ID, so that a campaign sending one link to many phones reads it from
+ * the database once. IDs with no link are cached too, for a shorter {@code links.cache.missing-max-age},
+ * so mistyped or guessed IDs do not reach the database on every request.
+ * <p>
+ * This instance drops an entry when it changes the link; {@code links.cache.max-age} bounds how
+ * long a change made through another instance can go unseen. Concurrent misses for the same ID
+ * are coalesced into one lookup. Once {@code links.cache.max-entries} are held, a miss makes room
+ * by looking at a few entries only: it drops the expired ones among them or, if there are none,
+ * the least recently read. Unknown IDs are read once, so guessing traffic evicts its own entries
+ * before the links being redirected to, and a miss costs the same however full the cache is.
+ */
+@Component
+public class LinkCache {
+
+    static final int EVICTION_SAMPLE = 8;
+
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final long maxAgeNanos;
+    private final long missingMaxAgeNanos;
+    private final int maxEntries;
+    private final Counter hits;
+    private final Counter misses;
+
+    public LinkCache(@Value("${links.cache.max-age:10m}") Duration maxAge,
+                     @Value("${links.cache.missing-max-age:30s}") Duration missingMaxAge,
+                     @Value("${links.cache.max-entries:100000}") int maxEntries,
+                     MeterRegistry meterRegistry) {
+        this.maxAgeNanos = maxAge.toNanos();
+        this.missingMaxAgeNanos = missingMaxAge.toNanos();
+        this.maxEntries = maxEntries;
+        this.hits = requestCounter(meterRegistry, "hit");
+        this.misses = requestCounter(meterRegistry, "miss");
+        Gauge.builder("links.cache.size", entries, ConcurrentMap::size)
+                .description("Cached link IDs, unknown ones included")
+                .register(meterRegistry);
+    }
+
+    private static Counter requestCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("links.cache.requests")
+                .description("Link lookups; a hit includes waiting for the same lookup in flight")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * The cached target of {@code linkId}, or the one {@code loader} finds; null if there is no
+     * such link.
+     */
+    public LinkTarget get(String linkId, Function<String, LinkTarget> loader) {
+        long now = System.nanoTime();
+        Entry entry = entries.get(linkId);
+        if (entry != null && isExpired(entry, now)) {
+            entries.remove(linkId, entry);
+            entry = null;
+        }
+        if (entry == null) {
+            if (entries.size() >= maxEntries) {
+                makeRoom(now);
+            }
+            Entry created = new Entry(now);
+            entry = entries.putIfAbsent(linkId, created);
+            if (entry == null) {
+                misses.increment();
+                return load(linkId, created, loader);
+            }
+        }
+        hits.increment();
+        entry.lastReadNanos = now;
+        try {
+            return entry.target.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private LinkTarget load(String linkId, Entry entry, Function<String, LinkTarget> loader) {
+        LinkTarget target;
+        try {
+            target = loader.apply(linkId);
+        } catch (RuntimeException e) {
+            entries.remove(linkId, entry);
+            entry.target.completeExceptionally(e);
+            throw e;
+        }
+        entry.loadedNanos = System.nanoTime();
+        entry.target.complete(target);
+        return target;
+    }
+
+    /**
+     * Drops {@code linkId}, so the next request reads the link as it is now.
+     */
+    public void invalidate(String linkId) {
+        entries.remove(linkId);
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    /**
+     * Drops the expired entries among the first {@link #EVICTION_SAMPLE}, or the least recently read
+     * of them if none has expired. Entries still loading are left alone.
+     */
+    private void makeRoom(long now) {
+        String oldestId = null;
+        Entry oldest = null;
+        int sampled = 0;
+        boolean expired = false;
+        for (Map.Entry<String, Entry> candidate : entries.entrySet()) {
+            if (sampled++ == EVICTION_SAMPLE) {
+                break;
+            }
+            Entry entry = candidate.getValue();
+            if (isExpired(entry, now)) {
+                expired |= entries.remove(candidate.getKey(), entry);
+            } else if (entry.target.isDone() && (oldest == null || entry.lastReadNanos - oldest.lastReadNanos < 0)) {
+                oldestId = candidate.getKey();
+                oldest = entry;
+            }
+        }
+        if (!expired && oldest != null) {
+            entries.remove(oldestId, oldest);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${links.cache.eviction-interval-ms:60000}")
+    public void evict() {
+        long now = System.nanoTime();
+        entries.values().removeIf(entry -> isExpired(entry, now));
+    }
+
+    private boolean isExpired(Entry entry, long now) {
+        if (!entry.target.isDone()) {
+            return false;
+        }
+        long maxAge = entry.target.join() == null ? missingMaxAgeNanos : maxAgeNanos;
+        return now - entry.loadedNanos > maxAge;
+    }
+
+    private static final class Entry {
+        final CompletableFuture<LinkTarget> target = new CompletableFuture<>();
+        volatile long loadedNanos;
+        volatile long lastReadNanos;
+
+        Entry(long now) {
+            this.lastReadNanos = now;
+        }
+    }
+}
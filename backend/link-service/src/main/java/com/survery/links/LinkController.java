@@ -1,11 +1,17 @@
 package com.survery.links;
 
+import com.survery.links.dto.BulkLinkRequest;
 import com.survery.links.dto.CreateLinkRequest;
 import com.survery.links.dto.LinkResponse;
+import com.survery.links.dto.UpdateLinkRequest;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.Map;
+import java.util.UUID;
 
 @RestController
 @RequestMapping("/api/links")
@@ -13,6 +19,7 @@ import org.springframework.web.bind.annotation.*;
 public class LinkController {
 
     private final LinkService linkService;
+    private final BulkLinkService bulkLinkService;
 
     @PostMapping
     public ResponseEntity<LinkResponse> createLink(@RequestBody CreateLinkRequest request) {
@@ -25,4 +32,30 @@ public class LinkController {
         LinkResponse response = linkService.getLinkByLinkId(linkId);
         return ResponseEntity.ok(response);
     }
+
+    @PatchMapping("/{linkId}")
+    public ResponseEntity<LinkResponse> updateLink(@PathVariable String linkId, @RequestBody UpdateLinkRequest request) {
+        LinkResponse response = linkService.updateLink(linkId, request);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Creates {@code count} links to the survey and streams them back as they are committed.
+     * Repeating a request with the same {@code batchKey} returns the links already created under
+     * it and creates only the rest.
+     */
+    @PostMapping("/survey/{surveyId}/bulk-links")
+    public ResponseEntity<StreamingResponseBody> createLinks(@PathVariable UUID surveyId,
+                                                             @RequestParam(defaultValue = "NDJSON") BulkLinkFormat format,
+                                                             @RequestBody BulkLinkRequest request) {
+        bulkLinkService.validate(request);
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .contentType(format.getMediaType())
+                .body(out -> bulkLinkService.createLinks(surveyId, request, format, out));
+    }
+
+    @ExceptionHandler(InvalidLinkRequestException.class)
+    public ResponseEntity<Map<String, String>> handleInvalidRequest(InvalidLinkRequestException e) {
+        return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    }
 }
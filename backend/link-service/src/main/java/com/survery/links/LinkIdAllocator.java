@@ -0,0 +1,172 @@
+package com.survery.links;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Allocates link IDs that are unique without checking the database. Each instance leases blocks
+ * of {@code links.ids.block-size} consecutive counters from the {@code link_id_blocks} row and
+ * hands them out with one atomic increment, so threads and instances never contend except when
+ * a block runs out.
+ * <p>
+ * A counter is turned into an ID by a keyed permutation of the 62<sup>8</sup> eight-character
+ * Base62 IDs: a Feistel network over 48 bits, applied again while the result is out of range.
+ * Being a bijection, distinct counters give distinct IDs, while consecutive counters give IDs
+ * that look unrelated. {@code links.ids.key} selects the permutation and must never change once
+ * IDs have been allocated, or new IDs may repeat old ones.
+ */
+@Component
+public class LinkIdAllocator {
+
+    static final int LENGTH = 8;
+    static final long SPACE = 218_340_105_584_896L; // 62^8
+    private static final char[] CHARS =
+            "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789".toCharArray();
+    private static final int HALF_BITS = 24;
+    private static final long HALF_MASK = (1L << HALF_BITS) - 1;
+    private static final int ROUNDS = 4;
+
+    static final String BLOCK_NAME = "link_id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate leaseTransaction;
+    private final long blockSize;
+    private final long[] roundKeys = new long[ROUNDS];
+    private volatile Block block = new Block(0, 0);
+
+    public LinkIdAllocator(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                           @Value("${links.ids.key}") long key,
+                           @Value("${links.ids.block-size:1000}") long blockSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        // A lease must commit even if the transaction creating the link rolls back, or another
+        // instance could lease the same block.
+        this.leaseTransaction = new TransactionTemplate(transactionManager);
+        this.leaseTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.blockSize = blockSize;
+        long seed = key;
+        for (int i = 0; i < ROUNDS; i++) {
+            seed += 0x9E3779B97F4A7C15L;
+            roundKeys[i] = mix(seed);
+        }
+    }
+
+    /**
+     * A link ID no other call, on this or any instance, has returned. Call it before starting the
+     * transaction that inserts the link: leasing a block takes a connection of its own.
+     */
+    public String allocate() {
+        while (true) {
+            Block current = block;
+            long counter = current.next.getAndIncrement();
+            if (counter < current.end) {
+                return encode(counter);
+            }
+            synchronized (this) {
+                if (block == current) {
+                    block = lease();
+                }
+            }
+        }
+    }
+
+    private Block lease() {
+        Long leased = null;
+        while (leased == null) {
+            try {
+                leased = leaseTransaction.execute(status -> {
+                    if (jdbcTemplate.update("UPDATE link_id_blocks SET next_block = next_block + 1 WHERE name = ?",
+                            BLOCK_NAME) == 1) {
+                        return jdbcTemplate.queryForObject(
+                                "SELECT next_block - 1 FROM link_id_blocks WHERE name = ?", Long.class, BLOCK_NAME);
+                    }
+                    jdbcTemplate.update("INSERT INTO link_id_blocks (name, next_block) VALUES (?, 1)", BLOCK_NAME);
+                    return 0L;
+                });
+            } catch (DuplicateKeyException e) {
+                // Another instance created the row first; lease from it in a new transaction.
+            }
+        }
+        long start = leased * blockSize;
+        if (start >= SPACE) {
+            throw new IllegalStateException("All " + SPACE + " link IDs have been allocated");
+        }
+        return new Block(start, Math.min(start + blockSize, SPACE));
+    }
+
+    /**
+     * The ID of {@code counter}, which must be in {@code [0, SPACE)}.
+     */
+    String encode(long counter) {
+        long value = counter;
+        do {
+            value = permute(value);
+        } while (value >= SPACE);
+        char[] id = new char[LENGTH];
+        for (int i = LENGTH - 1; i >= 0; i--) {
+            id[i] = CHARS[(int) (value % 62)];
+            value /= 62;
+        }
+        return new String(id);
+    }
+
+    /**
+     * The counter {@link #encode} turned into {@code id}.
+     */
+    long decode(String id) {
+        long value = 0;
+        for (int i = 0; i < LENGTH; i++) {
+            char c = id.charAt(i);
+            int digit = c >= 'a' ? c - 'a' + 26 : c >= 'A' ? c - 'A' : c - '0' + 52;
+            value = value * 62 + digit;
+        }
+        do {
+            value = unpermute(value);
+        } while (value >= SPACE);
+        return value;
+    }
+
+    private long permute(long value) {
+        long left = value >>> HALF_BITS;
+        long right = value & HALF_MASK;
+        for (int i = 0; i < ROUNDS; i++) {
+            long next = left ^ (mix(right ^ roundKeys[i]) & HALF_MASK);
+            left = right;
+            right = next;
+        }
+        return left << HALF_BITS | right;
+    }
+
+    private long unpermute(long value) {
+        long left = value >>> HALF_BITS;
+        long right = value & HALF_MASK;
+        for (int i = ROUNDS - 1; i >= 0; i--) {
+            long previous = right ^ (mix(left ^ roundKeys[i]) & HALF_MASK);
+            right = left;
+            left = previous;
+        }
+        return left << HALF_BITS | right;
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static final class Block {
+        final AtomicLong next;
+        final long end;
+
+        Block(long start, long end) {
+            this.next = new AtomicLong(start);
+            this.end = end;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.survery.links;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The next block of link ID counters to lease, shared by all instances. Updated by the
+ * {@link LinkIdAllocator} with plain SQL.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "link_id_blocks")
+public class LinkIdBlock {
+
+    @Id
+    @Column(length = 32)
+    private String name;
+
+    @Column(name = "next_block", nullable = false)
+    private long nextBlock;
+}
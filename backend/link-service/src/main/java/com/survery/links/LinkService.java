@@ -2,10 +2,14 @@ package com.survery.links;
 
 import com.survery.links.dto.CreateLinkRequest;
 import com.survery.links.dto.LinkResponse;
+import com.survery.links.dto.UpdateLinkRequest;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @Service
 @RequiredArgsConstructor
@@ -13,12 +17,18 @@ public class LinkService {
 
     private final SurveyLinkRepository surveyLinkRepository;
     private final LinkMapper linkMapper;
+    private final LinkIdAllocator linkIdAllocator;
+    private final LinkCache linkCache;
+    private final ClickCounter clickCounter;
+    private final ClickEventLog clickEventLog;
+    private final TransactionTemplate transactionTemplate;
 
-    @Transactional
+    /**
+     * Allocates the ID before the insert's transaction starts: leasing a new block of IDs takes a
+     * connection of its own, which must not be awaited while holding one.
+     */
     public LinkResponse createLink(CreateLinkRequest request) {
-        // HLD requires collision handling, but for now we'll do a single generation.
-        // A more robust implementation would loop or use a different strategy.
-        String linkId = IdGenerator.generate(8);
+        String linkId = linkIdAllocator.allocate();
 
         SurveyLink surveyLink = SurveyLink.builder()
                 .linkId(linkId)
@@ -29,9 +39,13 @@ public class LinkService {
                 .clicks(0L)
                 .build();
 
-        SurveyLink savedEntity = surveyLinkRepository.save(surveyLink);
+        return transactionTemplate.execute(status -> {
+            SurveyLink savedEntity = surveyLinkRepository.save(surveyLink);
+            // The ID may be cached as unknown if someone requested it before it existed.
+            invalidateAfterCommit(linkId);
 
-        return linkMapper.toResponse(savedEntity);
+            return linkMapper.toResponse(savedEntity);
+        });
     }
 
     @Transactional(readOnly = true)
@@ -40,4 +54,57 @@ public class LinkService {
                 .map(linkMapper::toResponse)
                 .orElseThrow(() -> new EntityNotFoundException("Link not found with ID: " + linkId));
     }
+
+    @Transactional
+    public LinkResponse updateLink(String linkId, UpdateLinkRequest request) {
+        SurveyLink surveyLink = surveyLinkRepository.findByLinkId(linkId)
+                .orElseThrow(() -> new EntityNotFoundException("Link not found with ID: " + linkId));
+        if (request.getTargetUrl() != null) {
+            surveyLink.setTargetUrl(request.getTargetUrl());
+        }
+        if (request.getActive() != null) {
+            surveyLink.setActive(request.getActive());
+        }
+        if (request.getExpiresAt() != null) {
+            surveyLink.setExpiresAt(request.getExpiresAt());
+        }
+        SurveyLink savedEntity = surveyLinkRepository.save(surveyLink);
+        invalidateAfterCommit(linkId);
+        return linkMapper.toResponse(savedEntity);
+    }
+
+    /**
+     * Where {@code GET /s/{linkId}} redirects, or null if there is no such link. Served from the
+     * {@link LinkCache}; a miss reads the link in a transaction of its own.
+     */
+    public LinkTarget resolveLink(String linkId) {
+        return linkCache.get(linkId, id -> surveyLinkRepository.findByLinkId(id).map(LinkTarget::of).orElse(null));
+    }
+
+    /**
+     * Records a redirect: counts it towards {@code clicks}, which the {@link ClickCounter} updates
+     * with its next flush, so {@link #getLinkByLinkId} may not include it yet, and queues it for
+     * {@code link_analytics}.
+     */
+    public void recordClick(ClickEvent event) {
+        clickCounter.increment(event.getLinkId());
+        clickEventLog.record(event);
+    }
+
+    /**
+     * Drops the cached link once the change is committed; dropped earlier, a concurrent redirect
+     * could cache the link as it was before the change.
+     */
+    private void invalidateAfterCommit(String linkId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            linkCache.invalidate(linkId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                linkCache.invalidate(linkId);
+            }
+        });
+    }
 }
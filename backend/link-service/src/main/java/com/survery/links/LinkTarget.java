@@ -0,0 +1,26 @@
+package com.survery.links;
+
+import lombok.Value;
+
+import java.time.OffsetDateTime;
+
+/**
+ * The part of a {@link SurveyLink} needed to answer a redirect, kept in the {@link LinkCache}.
+ */
+@Value
+public class LinkTarget {
+    String targetUrl;
+    boolean active;
+    OffsetDateTime expiresAt;
+
+    public static LinkTarget of(SurveyLink link) {
+        return new LinkTarget(link.getTargetUrl(), link.isActive(), link.getExpiresAt());
+    }
+
+    /**
+     * Whether the link still redirects at {@code now}: it is active and has not expired.
+     */
+    public boolean isAvailableAt(OffsetDateTime now) {
+        return active && (expiresAt == null || now.isBefore(expiresAt));
+    }
+}
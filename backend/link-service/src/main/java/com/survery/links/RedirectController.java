@@ -0,0 +1,45 @@
+package com.survery.links;
+
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.OffsetDateTime;
+
+/**
+ * The public short URLs handed out in SMS and QR codes; not under {@code /api}.
+ */
+@RestController
+@RequiredArgsConstructor
+public class RedirectController {
+
+    private final LinkService linkService;
+
+    /**
+     * Redirects to the link's target: 404 if there is no such link, 410 if it was deactivated or
+     * has expired. The redirect is not cacheable, so every click reaches the service and is counted.
+     */
+    @GetMapping("/s/{linkId}")
+    public ResponseEntity<Void> redirect(@PathVariable String linkId, HttpServletRequest request) {
+        LinkTarget target = linkService.resolveLink(linkId);
+        if (target == null) {
+            return ResponseEntity.notFound().build();
+        }
+        OffsetDateTime now = OffsetDateTime.now();
+        if (!target.isAvailableAt(now)) {
+            return ResponseEntity.status(HttpStatus.GONE).build();
+        }
+        linkService.recordClick(new ClickEvent(linkId, now, request.getHeader(HttpHeaders.REFERER),
+                request.getHeader(HttpHeaders.USER_AGENT), request.getRemoteAddr()));
+        return ResponseEntity.status(HttpStatus.FOUND)
+                .header(HttpHeaders.LOCATION, target.getTargetUrl())
+                .cacheControl(CacheControl.noStore())
+                .build();
+    }
+}
@@ -0,0 +1,88 @@
+package com.survery.links;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A bounded queue for many producers and one consumer that never blocks: {@link #offer} returns
+ * false when the buffer is full instead of waiting for room.
+ * <p>
+ * Each slot carries a sequence number telling whose turn it is. A producer claims the next
+ * position with one compare-and-set and publishes its element by advancing the slot's sequence;
+ * the consumer takes the element once that sequence shows it is published, and advances it again
+ * to hand the slot back to producers a lap later.
+ */
+final class RingBuffer<E> {
+
+    private final Object[] elements;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head;
+
+    RingBuffer(int capacity) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two, was " + capacity);
+        }
+        this.elements = new Object[capacity];
+        this.sequences = new AtomicLongArray(capacity);
+        this.mask = capacity - 1;
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Adds {@code element}, or returns false if the buffer is full. Safe from any thread.
+     */
+    boolean offer(E element) {
+        long position;
+        int slot;
+        while (true) {
+            position = tail.get();
+            slot = (int) position & mask;
+            long lap = sequences.get(slot) - position;
+            if (lap == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    break;
+                }
+            } else if (lap < 0) {
+                // The consumer has not taken the element a lap behind.
+                return false;
+            }
+            // Otherwise another producer claimed this position first.
+        }
+        elements[slot] = element;
+        sequences.set(slot, position + 1);
+        return true;
+    }
+
+    /**
+     * Removes the oldest published element, or returns null if there is none. Only one thread
+     * may poll at a time.
+     */
+    @SuppressWarnings("unchecked")
+    E poll() {
+        long position = head;
+        int slot = (int) position & mask;
+        if (sequences.get(slot) != position + 1) {
+            return null;
+        }
+        E element = (E) elements[slot];
+        elements[slot] = null;
+        sequences.set(slot, position + elements.length);
+        head = position + 1;
+        return element;
+    }
+
+    /**
+     * Elements claimed and not yet polled; may count ones still being published.
+     */
+    int size() {
+        return (int) Math.max(0, tail.get() - head);
+    }
+
+    int capacity() {
+        return elements.length;
+    }
+}
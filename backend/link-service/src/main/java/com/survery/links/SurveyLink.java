@@ -14,7 +14,9 @@ import java.util.UUID;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "survey_links")
+@Table(name = "survey_links",
+        uniqueConstraints = @UniqueConstraint(name = "uk_survey_links_batch",
+                columnNames = {"survey_id", "batch_key", "batch_index"}))
 public class SurveyLink {
 
     @Id
@@ -31,8 +33,12 @@ public class SurveyLink {
     @Column(name = "target_url", nullable = false, columnDefinition = "TEXT")
     private String targetUrl;
 
+    /**
+     * Only ever changed by the {@link ClickCounter}'s increments; left out of entity updates, which
+     * would write back the count read when the entity was loaded.
+     */
     @Builder.Default
-    @Column(nullable = false)
+    @Column(nullable = false, updatable = false)
     private Long clicks = 0L;
 
     @Builder.Default
@@ -42,6 +48,16 @@ public class SurveyLink {
     @Column(name = "expires_at")
     private OffsetDateTime expiresAt;
 
+    /**
+     * Key of the bulk request that created the link, and the link's position in it; null for
+     * links created one at a time.
+     */
+    @Column(name = "batch_key", length = 64)
+    private String batchKey;
+
+    @Column(name = "batch_index")
+    private Integer batchIndex;
+
     @Column(name = "created_by")
     private UUID createdBy;
 
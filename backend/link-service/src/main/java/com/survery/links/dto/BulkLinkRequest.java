@@ -0,0 +1,17 @@
+package com.survery.links.dto;
+
+import lombok.Data;
+import java.time.OffsetDateTime;
+
+/**
+ * {@code count} links to the same target, e.g. one per recipient of a campaign. {@code batchKey},
+ * chosen by the client, makes the request safe to repeat after a failure: the links created under
+ * the key are returned again and only the missing ones are created.
+ */
+@Data
+public class BulkLinkRequest {
+    private int count;
+    private String targetUrl;
+    private OffsetDateTime expiresAt;
+    private String batchKey;
+}
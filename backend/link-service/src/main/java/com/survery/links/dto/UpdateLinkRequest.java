@@ -0,0 +1,14 @@
+package com.survery.links.dto;
+
+import lombok.Data;
+import java.time.OffsetDateTime;
+
+/**
+ * Changes to a link; fields left null are kept.
+ */
+@Data
+public class UpdateLinkRequest {
+    private String targetUrl;
+    private Boolean active;
+    private OffsetDateTime expiresAt;
+}
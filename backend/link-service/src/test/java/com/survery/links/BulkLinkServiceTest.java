@@ -0,0 +1,51 @@
+package com.survery.links;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.survery.links.dto.BulkLinkRequest;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BulkLinkServiceTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final LinkIdAllocator linkIdAllocator = mock(LinkIdAllocator.class);
+    private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+    private final BulkLinkService service = new BulkLinkService(jdbcTemplate, mock(PlatformTransactionManager.class),
+            linkIdAllocator, new LinkMapper(), mock(LinkCache.class), objectMapper, 100, 2);
+
+    @Test
+    void createLinks_whenAChunkFails_shouldEndTheOutputWithAnErrorRecord() throws Exception {
+        AtomicInteger ids = new AtomicInteger();
+        when(linkIdAllocator.allocate()).thenAnswer(invocation -> "id" + ids.incrementAndGet());
+        when(jdbcTemplate.batchUpdate(eq(BulkLinkService.INSERT_SQL), anyList()))
+                .thenReturn(new int[]{1, 1})
+                .thenThrow(new DataAccessResourceFailureException("database down"));
+        BulkLinkRequest request = new BulkLinkRequest();
+        request.setCount(4);
+        request.setTargetUrl("https://example.com/survey/bulk");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertThrows(DataAccessResourceFailureException.class,
+                () -> service.createLinks(UUID.randomUUID(), request, BulkLinkFormat.NDJSON, out));
+
+        List<String> lines = List.of(out.toString().split("\n"));
+        assertEquals(3, lines.size());
+        assertEquals("id2", objectMapper.readTree(lines.get(1)).get("linkId").asText());
+        assertEquals("Created 2 of 4 links, then failed", objectMapper.readTree(lines.get(2)).get("error").asText());
+    }
+}
@@ -0,0 +1,92 @@
+package com.survery.links;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Flushes into an in-memory H2 table holding the columns the update touches.
+ */
+class ClickCounterTest {
+
+    private final JdbcTemplate jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(
+            "jdbc:h2:mem:clicks-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", ""));
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ClickCounter clickCounter = new ClickCounter(jdbcTemplate, meterRegistry);
+
+    ClickCounterTest() {
+        jdbcTemplate.execute("CREATE TABLE survey_links (link_id VARCHAR(12) PRIMARY KEY, clicks BIGINT NOT NULL)");
+        jdbcTemplate.update("INSERT INTO survey_links VALUES ('hot', 5), ('cold', 0)");
+    }
+
+    @Test
+    void flush_shouldAddConcurrentClicksToTheirLinks() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (int i = 0; i < 1000; i++) {
+            executor.execute(() -> clickCounter.increment("hot"));
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        clickCounter.increment("cold");
+
+        assertEquals(1001.0, meterRegistry.get("links.clicks.pending").gauge().value());
+
+        clickCounter.flush();
+
+        assertEquals(1005L, clicks("hot"));
+        assertEquals(1L, clicks("cold"));
+        assertEquals(0.0, meterRegistry.get("links.clicks.pending").gauge().value());
+        assertEquals(1001.0, meterRegistry.get("links.clicks.flushed").counter().count());
+    }
+
+    @Test
+    void flush_shouldKeepClicksWhenTheUpdateFails() {
+        clickCounter.increment("hot");
+        clickCounter.increment("hot");
+        jdbcTemplate.execute("ALTER TABLE survey_links RENAME TO moved_links");
+
+        clickCounter.flush();
+
+        assertEquals(2.0, meterRegistry.get("links.clicks.pending").gauge().value());
+        assertEquals(1.0, meterRegistry.get("links.clicks.flush.failures").counter().count());
+
+        jdbcTemplate.execute("ALTER TABLE moved_links RENAME TO survey_links");
+        clickCounter.flush();
+
+        assertEquals(7L, clicks("hot"));
+    }
+
+    @Test
+    void flush_shouldCountClicksOfLinksIdleForAnInterval() {
+        clickCounter.increment("cold");
+        clickCounter.flush();
+        clickCounter.flush();
+
+        clickCounter.increment("cold");
+        clickCounter.flush();
+
+        assertEquals(2L, clicks("cold"));
+    }
+
+    @Test
+    void destroy_shouldFlushRemainingClicks() {
+        clickCounter.increment("cold");
+
+        clickCounter.destroy();
+
+        assertEquals(1L, clicks("cold"));
+    }
+
+    private long clicks(String linkId) {
+        return jdbcTemplate.queryForObject("SELECT clicks FROM survey_links WHERE link_id = ?", Long.class, linkId);
+    }
+}
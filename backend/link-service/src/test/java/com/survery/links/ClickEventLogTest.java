@@ -0,0 +1,76 @@
+package com.survery.links;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.time.OffsetDateTime;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Inserts into an in-memory H2 table holding the columns the insert writes.
+ */
+class ClickEventLogTest {
+
+    private static final OffsetDateTime AT = OffsetDateTime.parse("2024-10-26T10:00:00Z");
+
+    private final JdbcTemplate jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(
+            "jdbc:h2:mem:click-events-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", ""));
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ClickEventLog clickEventLog = new ClickEventLog(jdbcTemplate, 8, 3, meterRegistry);
+
+    ClickEventLogTest() {
+        jdbcTemplate.execute("CREATE TABLE link_analytics (id UUID PRIMARY KEY, link_id VARCHAR(12), "
+                + "click_timestamp TIMESTAMP WITH TIME ZONE, referrer VARCHAR(255), user_agent VARCHAR(255), "
+                + "ip_address VARCHAR(45), location_data VARCHAR(255))");
+    }
+
+    @Test
+    void flush_shouldInsertQueuedEventsInBatches() {
+        for (int i = 0; i < 7; i++) {
+            clickEventLog.record(new ClickEvent("aB3xZ9", AT, "https://t.co/x", "Mozilla/5.0", "10.0.0." + i));
+        }
+
+        assertEquals(7.0, meterRegistry.get("links.click-events.queued").gauge().value());
+
+        clickEventLog.flush();
+
+        assertEquals(7, rows());
+        assertEquals(0, clickEventLog.queued());
+        assertEquals(7.0, meterRegistry.get("links.click-events.written").counter().count());
+        Map<String, Object> row = jdbcTemplate.queryForMap(
+                "SELECT link_id, referrer, user_agent FROM link_analytics WHERE ip_address = '10.0.0.3'");
+        assertEquals(Map.of("LINK_ID", "aB3xZ9", "REFERRER", "https://t.co/x", "USER_AGENT", "Mozilla/5.0"), row);
+    }
+
+    @Test
+    void record_shouldDropEventsOnceTheBufferIsFull() {
+        for (int i = 0; i < 10; i++) {
+            clickEventLog.record(new ClickEvent("aB3xZ9", AT, null, null, null));
+        }
+
+        clickEventLog.flush();
+
+        assertEquals(8, rows());
+        assertEquals(2.0, meterRegistry.get("links.click-events.dropped").tag("reason", "buffer-full").counter().count());
+    }
+
+    @Test
+    void flush_shouldDropBatchesThatFailToInsert() {
+        clickEventLog.record(new ClickEvent("aB3xZ9", AT, null, null, null));
+        jdbcTemplate.execute("ALTER TABLE link_analytics RENAME TO moved_analytics");
+
+        clickEventLog.flush();
+
+        assertEquals(0, clickEventLog.queued());
+        assertEquals(1.0, meterRegistry.get("links.click-events.dropped").tag("reason", "insert-failed").counter().count());
+    }
+
+    private int rows() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM link_analytics", Integer.class);
+    }
+}
@@ -0,0 +1,145 @@
+package com.survery.links;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LinkCacheTest {
+
+    private static final LinkTarget TARGET = new LinkTarget("https://example.com/survey/1", true, null);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void get_shouldLoadEachLinkOnce() {
+        LinkCache cache = cache(Duration.ofMinutes(10), Duration.ofMinutes(10), 10);
+
+        assertSame(TARGET, cache.get("aB3xZ9", this::load));
+        assertSame(TARGET, cache.get("aB3xZ9", this::load));
+
+        assertEquals(1, loads.get());
+        assertEquals(1.0, meterRegistry.get("links.cache.requests").tag("result", "hit").counter().count());
+        assertEquals(1.0, meterRegistry.get("links.cache.requests").tag("result", "miss").counter().count());
+    }
+
+    @Test
+    void get_shouldCacheUnknownLinksForTheirOwnMaxAge() {
+        LinkCache cache = cache(Duration.ofMinutes(10), Duration.ZERO, 10);
+
+        assertNull(cache.get("unknown", id -> countedLoad(null)));
+        assertNull(cache.get("unknown", id -> countedLoad(null)));
+        cache.get("aB3xZ9", this::load);
+        cache.get("aB3xZ9", this::load);
+
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    void invalidate_shouldMakeTheNextRequestReload() {
+        LinkCache cache = cache(Duration.ofMinutes(10), Duration.ofMinutes(10), 10);
+        cache.get("aB3xZ9", this::load);
+
+        cache.invalidate("aB3xZ9");
+        cache.get("aB3xZ9", this::load);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void get_whenFull_shouldEvictTheLeastRecentlyReadEntry() {
+        LinkCache cache = cache(Duration.ofMinutes(10), Duration.ofMinutes(10), 2);
+        cache.get("hot", this::load);
+        cache.get("guessed", id -> countedLoad(null));
+        cache.get("hot", this::load);
+
+        cache.get("new", this::load);
+
+        assertEquals(2, cache.size());
+        assertEquals(3, loads.get());
+        cache.get("hot", this::load);
+        cache.get("new", this::load);
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    void get_whenFull_shouldPreferDroppingExpiredEntries() {
+        LinkCache cache = cache(Duration.ofMinutes(10), Duration.ZERO, 2);
+        cache.get("hot", this::load);
+        cache.get("guessed", id -> countedLoad(null));
+
+        cache.get("new", this::load);
+
+        assertEquals(2, cache.size());
+        cache.get("hot", this::load);
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    void get_shouldNotCacheFailures() {
+        LinkCache cache = cache(Duration.ofMinutes(10), Duration.ofMinutes(10), 10);
+
+        assertThrows(IllegalStateException.class, () -> cache.get("aB3xZ9", id -> {
+            throw new IllegalStateException("database down");
+        }));
+
+        assertSame(TARGET, cache.get("aB3xZ9", this::load));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void get_shouldCoalesceConcurrentMisses() throws Exception {
+        LinkCache cache = cache(Duration.ofMinutes(10), Duration.ofMinutes(10), 10);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<LinkTarget> first = executor.submit(() -> cache.get("aB3xZ9", id -> {
+                loading.countDown();
+                await(release);
+                return load(id);
+            }));
+            loading.await();
+            Future<LinkTarget> second = executor.submit(() -> cache.get("aB3xZ9", this::load));
+            release.countDown();
+
+            assertSame(TARGET, first.get());
+            assertSame(TARGET, second.get());
+            assertEquals(1, loads.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private LinkCache cache(Duration maxAge, Duration missingMaxAge, int maxEntries) {
+        return new LinkCache(maxAge, missingMaxAge, maxEntries, meterRegistry);
+    }
+
+    private LinkTarget load(String linkId) {
+        return countedLoad(TARGET);
+    }
+
+    private LinkTarget countedLoad(LinkTarget target) {
+        loads.incrementAndGet();
+        return target;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,17 +1,26 @@
 package com.survery.links;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.survery.links.dto.BulkLinkRequest;
 import com.survery.links.dto.CreateLinkRequest;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.UUID;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -26,6 +35,9 @@ class LinkControllerTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     @Test
     void createLink_whenValidRequest_shouldReturn201AndLinkResponse() throws Exception {
         // Arrange
@@ -45,4 +57,116 @@ class LinkControllerTest {
                 .andExpect(jsonPath("$.targetUrl").value(request.getTargetUrl()))
                 .andExpect(jsonPath("$.active").value(true));
     }
+
+    @Test
+    void createLinks_shouldInsertInBatchesAndStreamNdjson() throws Exception {
+        // Arrange
+        UUID surveyId = UUID.randomUUID();
+        BulkLinkRequest request = new BulkLinkRequest();
+        request.setCount(2500);
+        request.setTargetUrl("https://example.com/survey/bulk");
+
+        // Act
+        MvcResult started = mockMvc.perform(post("/api/links/survey/" + surveyId + "/bulk-links")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isCreated())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString();
+
+        // Assert
+        String[] lines = body.split("\n");
+        assertEquals(2500, lines.length);
+        assertEquals(2500, Arrays.stream(lines).distinct().count());
+        assertEquals(surveyId.toString(), objectMapper.readTree(lines[0]).get("surveyId").asText());
+        assertEquals(2500, jdbcTemplate.queryForObject(
+                "SELECT COUNT(DISTINCT link_id) FROM survey_links WHERE survey_id = ?", Integer.class, surveyId));
+    }
+
+    @Test
+    void createLinks_asCsv_shouldQuoteTargetsWithCommas() throws Exception {
+        BulkLinkRequest request = new BulkLinkRequest();
+        request.setCount(2);
+        request.setTargetUrl("https://example.com/survey?ids=1,2");
+
+        MvcResult started = mockMvc.perform(post("/api/links/survey/" + UUID.randomUUID() + "/bulk-links")
+                        .param("format", "CSV")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\r\n");
+        assertEquals(3, lines.length);
+        assertEquals("linkId,shortUrl,targetUrl,expiresAt", lines[0]);
+        assertTrue(lines[1].endsWith(",\"https://example.com/survey?ids=1,2\","), lines[1]);
+    }
+
+    @Test
+    void createLinks_whenRepeatedWithTheSameBatchKey_shouldReturnTheCreatedLinksAndAddOnlyTheRest() throws Exception {
+        UUID surveyId = UUID.randomUUID();
+        BulkLinkRequest request = new BulkLinkRequest();
+        request.setCount(2);
+        request.setTargetUrl("https://example.com/survey/bulk");
+        request.setBatchKey("campaign-1");
+        String first = createLinks(surveyId, request);
+
+        request.setCount(3);
+        String repeated = createLinks(surveyId, request);
+
+        assertEquals(linkIds(first), linkIds(repeated).subList(0, 2));
+        assertEquals(3, linkIds(repeated).size());
+        assertEquals(3, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM survey_links WHERE survey_id = ?", Integer.class, surveyId));
+    }
+
+    @Test
+    void createLinks_whenBatchKeyIsTooLong_shouldReturn400() throws Exception {
+        BulkLinkRequest request = new BulkLinkRequest();
+        request.setCount(1);
+        request.setTargetUrl("https://example.com/survey/bulk");
+        request.setBatchKey("k".repeat(65));
+
+        mockMvc.perform(post("/api/links/survey/" + UUID.randomUUID() + "/bulk-links")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("batchKey must be 1 to 64 characters"));
+    }
+
+    @Test
+    void createLinks_whenCountIsTooLarge_shouldReturn400() throws Exception {
+        BulkLinkRequest request = new BulkLinkRequest();
+        request.setCount(100_001);
+        request.setTargetUrl("https://example.com/survey/bulk");
+
+        mockMvc.perform(post("/api/links/survey/" + UUID.randomUUID() + "/bulk-links")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("count must be between 1 and 100000"));
+    }
+
+    private String createLinks(UUID surveyId, BulkLinkRequest request) throws Exception {
+        MvcResult started = mockMvc.perform(post("/api/links/survey/" + surveyId + "/bulk-links")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+    }
+
+    private List<String> linkIds(String ndjson) throws Exception {
+        List<String> ids = new ArrayList<>();
+        for (String line : ndjson.split("\n")) {
+            ids.add(objectMapper.readTree(line).get("linkId").asText());
+        }
+        return ids;
+    }
 }
@@ -0,0 +1,83 @@
+package com.survery.links;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Leases blocks from an in-memory H2 table shared by allocators standing in for separate instances.
+ */
+class LinkIdAllocatorTest {
+
+    private static final long KEY = 42L;
+
+    private final DriverManagerDataSource dataSource = new DriverManagerDataSource(
+            "jdbc:h2:mem:link-ids-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+    private final JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+
+    LinkIdAllocatorTest() {
+        jdbcTemplate.execute("CREATE TABLE link_id_blocks (name VARCHAR(32) PRIMARY KEY, next_block BIGINT NOT NULL)");
+    }
+
+    @Test
+    void encode_shouldBeReversibleAndStayInTheIdSpace() {
+        LinkIdAllocator allocator = allocator(10);
+
+        for (long counter : new long[]{0, 1, 2, 999_999, LinkIdAllocator.SPACE - 1}) {
+            String id = allocator.encode(counter);
+            assertEquals(LinkIdAllocator.LENGTH, id.length());
+            assertTrue(id.matches("[A-Za-z0-9]+"), id);
+            assertEquals(counter, allocator.decode(id));
+        }
+        assertNotEquals(allocator.encode(1).substring(0, 4), allocator.encode(2).substring(0, 4));
+    }
+
+    @Test
+    void allocate_shouldNeverRepeatAcrossThreadsAndInstances() throws Exception {
+        LinkIdAllocator first = allocator(7);
+        LinkIdAllocator second = allocator(7);
+        Set<String> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (int i = 0; i < 4; i++) {
+            LinkIdAllocator allocator = i % 2 == 0 ? first : second;
+            executor.execute(() -> {
+                for (int n = 0; n < 500; n++) {
+                    ids.add(allocator.allocate());
+                }
+            });
+        }
+        executor.shutdown();
+
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(2000, ids.size());
+    }
+
+    @Test
+    void allocate_shouldLeaseTheNextBlockWhenOneRunsOut() {
+        LinkIdAllocator allocator = allocator(3);
+        Set<Long> counters = new HashSet<>();
+        for (int i = 0; i < 7; i++) {
+            counters.add(allocator.decode(allocator.allocate()));
+        }
+
+        assertEquals(Set.of(0L, 1L, 2L, 3L, 4L, 5L, 6L), counters);
+        assertEquals(3L, jdbcTemplate.queryForObject("SELECT next_block FROM link_id_blocks", Long.class));
+    }
+
+    private LinkIdAllocator allocator(long blockSize) {
+        return new LinkIdAllocator(jdbcTemplate, new DataSourceTransactionManager(dataSource), KEY, blockSize);
+    }
+}
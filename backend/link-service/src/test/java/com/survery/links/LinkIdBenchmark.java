@@ -0,0 +1,66 @@
+package com.survery.links;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link LinkIdAllocator} with the random {@link IdGenerator} it replaced in
+ * {@code LinkService.createLink}, on four threads. Not run by the build; run it with
+ * <pre>
+ * mvn test-compile exec:java -Dexec.mainClass=com.survery.links.LinkIdBenchmark -Dexec.classpathScope=test
+ * </pre>
+ * Blocks of 10000 IDs are leased from an in-memory H2 database.
+ * Add {@code -prof gc} to the options to compare allocation per ID.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class LinkIdBenchmark {
+
+    private LinkIdAllocator allocator;
+
+    @Setup
+    public void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:link-id-benchmark-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE link_id_blocks (name VARCHAR(32) PRIMARY KEY, next_block BIGINT NOT NULL)");
+        allocator = new LinkIdAllocator(jdbcTemplate, new DataSourceTransactionManager(dataSource), 42L, 10_000);
+    }
+
+    @Benchmark
+    public String idGenerator() {
+        return IdGenerator.generate(8);
+    }
+
+    @Benchmark
+    public String linkIdAllocator() {
+        return allocator.allocate();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(LinkIdBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,58 @@
+package com.survery.links;
+
+import com.survery.links.dto.CreateLinkRequest;
+import com.survery.links.dto.UpdateLinkRequest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Runs the service against the JPA mapping and the click counter's SQL, committing for real.
+ */
+@SpringBootTest
+class LinkServiceIntegrationTest {
+
+    @Autowired
+    private LinkService linkService;
+
+    @Autowired
+    private ClickCounter clickCounter;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void updateLink_whenClicksAreFlushedBeforeItCommits_shouldKeepThem() throws Exception {
+        CreateLinkRequest create = new CreateLinkRequest();
+        create.setSurveyId(UUID.randomUUID());
+        create.setTargetUrl("https://example.com/survey/clicks");
+        String linkId = linkService.createLink(create).getLinkId();
+        UpdateLinkRequest update = new UpdateLinkRequest();
+        update.setActive(false);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            // Loads the link, with no clicks yet; the row is written when this transaction commits.
+            linkService.updateLink(linkId, update);
+            clickCounter.increment(linkId);
+            clickCounter.increment(linkId);
+            CompletableFuture.runAsync(clickCounter::flush).orTimeout(10, TimeUnit.SECONDS).join();
+        });
+
+        assertEquals(2L, jdbcTemplate.queryForObject(
+                "SELECT clicks FROM survey_links WHERE link_id = ?", Long.class, linkId));
+        assertFalse(jdbcTemplate.queryForObject(
+                "SELECT active FROM survey_links WHERE link_id = ?", Boolean.class, linkId));
+    }
+}
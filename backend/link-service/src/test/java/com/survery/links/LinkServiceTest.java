@@ -2,18 +2,25 @@ package com.survery.links;
 
 import com.survery.links.dto.CreateLinkRequest;
 import com.survery.links.dto.LinkResponse;
+import com.survery.links.dto.UpdateLinkRequest;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.Optional;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -26,6 +33,15 @@ class LinkServiceTest {
     @Mock
     private LinkMapper linkMapper;
 
+    @Mock
+    private LinkCache linkCache;
+
+    @Mock
+    private LinkIdAllocator linkIdAllocator;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
     @InjectMocks
     private LinkService linkService;
 
@@ -43,6 +59,10 @@ class LinkServiceTest {
         // Arrange
         ArgumentCaptor<SurveyLink> surveyLinkCaptor = ArgumentCaptor.forClass(SurveyLink.class);
 
+        when(linkIdAllocator.allocate()).thenReturn("aB3xZ9");
+        when(transactionTemplate.execute(any())).thenAnswer(
+                invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+
         // Mock the repository save operation
         when(surveyLinkRepository.save(any(SurveyLink.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
@@ -65,6 +85,34 @@ class LinkServiceTest {
 
         assertEquals(createLinkRequest.getSurveyId(), savedSurveyLink.getSurveyId());
         assertEquals(createLinkRequest.getTargetUrl(), savedSurveyLink.getTargetUrl());
+        assertEquals("aB3xZ9", savedSurveyLink.getLinkId());
         assertEquals(savedSurveyLink.getLinkId(), result.getLinkId());
+        // The ID is allocated before the insert's transaction takes a connection.
+        InOrder order = inOrder(linkIdAllocator, transactionTemplate);
+        order.verify(linkIdAllocator).allocate();
+        order.verify(transactionTemplate).execute(any());
+    }
+
+    @Test
+    void updateLink_shouldSaveChangesAndInvalidateCachedLink() {
+        // Arrange
+        SurveyLink link = SurveyLink.builder()
+                .linkId("aB3xZ9")
+                .surveyId(UUID.randomUUID())
+                .targetUrl("https://example.com/survey/123")
+                .build();
+        UpdateLinkRequest request = new UpdateLinkRequest();
+        request.setActive(false);
+
+        when(surveyLinkRepository.findByLinkId("aB3xZ9")).thenReturn(Optional.of(link));
+        when(surveyLinkRepository.save(link)).thenReturn(link);
+
+        // Act
+        linkService.updateLink("aB3xZ9", request);
+
+        // Assert
+        assertFalse(link.isActive());
+        assertEquals("https://example.com/survey/123", link.getTargetUrl());
+        verify(linkCache).invalidate("aB3xZ9");
     }
 }
@@ -0,0 +1,113 @@
+package com.survery.links;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.OffsetDateTime;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class RedirectControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private SurveyLinkRepository surveyLinkRepository;
+
+    @Autowired
+    private ClickCounter clickCounter;
+
+    @Autowired
+    private ClickEventLog clickEventLog;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void redirect_whenLinkIsActive_shouldReturn302ToTarget() throws Exception {
+        SurveyLink link = save(true, null);
+
+        mockMvc.perform(get("/s/" + link.getLinkId()))
+                .andExpect(status().isFound())
+                .andExpect(header().string("Location", link.getTargetUrl()))
+                .andExpect(header().string("Cache-Control", "no-store"));
+    }
+
+    @Test
+    void redirect_shouldCountClicksOnceFlushed() throws Exception {
+        SurveyLink link = save(true, null);
+
+        mockMvc.perform(get("/s/" + link.getLinkId()));
+        mockMvc.perform(get("/s/" + link.getLinkId()));
+        clickCounter.flush();
+
+        assertEquals(2L, surveyLinkRepository.findByLinkId(link.getLinkId()).orElseThrow().getClicks());
+    }
+
+    @Test
+    void redirect_shouldLogClickEvents() throws Exception {
+        SurveyLink link = save(true, null);
+
+        mockMvc.perform(get("/s/" + link.getLinkId())
+                .header("Referer", "https://t.co/x")
+                .header("User-Agent", "Mozilla/5.0"));
+        clickEventLog.flush();
+
+        assertEquals(Map.of("REFERRER", "https://t.co/x", "USER_AGENT", "Mozilla/5.0", "IP_ADDRESS", "127.0.0.1"),
+                jdbcTemplate.queryForMap("SELECT referrer, user_agent, ip_address FROM link_analytics WHERE link_id = ?",
+                        link.getLinkId()));
+    }
+
+    @Test
+    void redirect_whenLinkIsUnknown_shouldReturn404() throws Exception {
+        mockMvc.perform(get("/s/unknown"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void redirect_whenLinkHasExpired_shouldReturn410() throws Exception {
+        SurveyLink link = save(true, OffsetDateTime.now().minusDays(1));
+
+        mockMvc.perform(get("/s/" + link.getLinkId()))
+                .andExpect(status().isGone());
+    }
+
+    @Test
+    void redirect_afterLinkIsDeactivated_shouldReturn410() throws Exception {
+        SurveyLink link = save(true, null);
+        mockMvc.perform(get("/s/" + link.getLinkId()))
+                .andExpect(status().isFound());
+
+        mockMvc.perform(patch("/api/links/" + link.getLinkId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"active\":false}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.active").value(false));
+
+        mockMvc.perform(get("/s/" + link.getLinkId()))
+                .andExpect(status().isGone());
+    }
+
+    private SurveyLink save(boolean active, OffsetDateTime expiresAt) {
+        return surveyLinkRepository.save(SurveyLink.builder()
+                .linkId(IdGenerator.generate())
+                .surveyId(UUID.randomUUID())
+                .targetUrl("https://example.com/survey/" + UUID.randomUUID())
+                .active(active)
+                .expiresAt(expiresAt)
+                .build());
+    }
+}